@@ -0,0 +1,174 @@
+package com.example.bank.admission;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient based concurrency limit.
+ * <p>
+ * The limit is derived from the ratio between a long term RTT average and the RTT
+ * measured in the current sample window: while the two agree the limit grows by a
+ * small queue allowance, and as soon as latency rises above the baseline the limit
+ * shrinks proportionally. Failed requests (5xx) apply a multiplicative decrease.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_WINDOW = 600;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long sampleWindowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile double limit;
+
+    // guarded by updateLock
+    private double longRttNanos;
+    private long longRttSamples;
+    private long windowStartNanos;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      long sampleWindowNanos) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit bounds for " + name + ": " + minLimit + ".." + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.sampleWindowNanos = sampleWindowNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.windowStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Tries to reserve a slot. Callers that get {@code true} must later call exactly one of
+     * {@link #onSuccess(long)}, {@link #onDropped()} or {@link #onIgnore()}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int observedInFlight = inFlight.getAndDecrement();
+        sample(rttNanos, observedInFlight, false);
+    }
+
+    public void onDropped() {
+        int observedInFlight = inFlight.getAndDecrement();
+        sample(-1, observedInFlight, true);
+    }
+
+    /**
+     * Releases a slot without feeding the latency model, e.g. for requests that ended
+     * before doing any real work.
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    private void sample(long rttNanos, int observedInFlight, boolean dropped) {
+        // Samples are best effort: if another thread is already updating we skip this one
+        // instead of making request threads queue up behind the limiter itself.
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            if (dropped) {
+                windowDropped = true;
+            } else if (rttNanos > 0) {
+                windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+            }
+            windowMaxInFlight = Math.max(windowMaxInFlight, observedInFlight);
+
+            long now = System.nanoTime();
+            if (now - windowStartNanos >= sampleWindowNanos) {
+                updateLimit();
+                windowStartNanos = now;
+                windowMinRttNanos = Long.MAX_VALUE;
+                windowMaxInFlight = 0;
+                windowDropped = false;
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void updateLimit() {
+        double current = limit;
+        double next;
+        if (windowDropped) {
+            next = current * BACKOFF_RATIO;
+        } else if (windowMinRttNanos == Long.MAX_VALUE) {
+            return;
+        } else {
+            double shortRtt = windowMinRttNanos;
+            if (longRttSamples < LONG_WINDOW) {
+                longRttSamples++;
+            }
+            longRttNanos += (shortRtt - longRttNanos) / longRttSamples;
+
+            // After a sustained latency shift the baseline would never recover, so let it
+            // drift down towards the new regime when it is more than twice the short term value.
+            if (longRttNanos / shortRtt > 2.0) {
+                longRttNanos *= 0.95;
+            }
+
+            // Don't grow the limit while the application isn't using it.
+            if (windowMaxInFlight < current / 2) {
+                return;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRttNanos / shortRtt));
+            double queueSize = Math.sqrt(current);
+            double target = current * gradient + queueSize;
+            next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        }
+
+        next = Math.max(minLimit, Math.min(maxLimit, next));
+        if ((int) next != (int) current) {
+            logger.debug("Concurrency limit for {} changed from {} to {}", name, (int) current, (int) next);
+        }
+        limit = next;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bank.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+/**
+ * Sheds load in front of the transaction API once the adaptive concurrency limit is reached.
+ * <p>
+ * Single row operations (lookups by id and writes) and list/scan endpoints are limited
+ * separately so that a burst of expensive list calls can't starve cheap point lookups.
+ * Rejected requests get an immediate 503 with {@code Retry-After} instead of waiting in
+ * the Tomcat accept queue. Streaming responses hold their slot until the async request
+ * completes rather than until the dispatching thread returns.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    private static final Pattern POINT_LOOKUP = Pattern.compile(
+            "^/api/transactions/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}/?$");
+
+    private final AdaptiveConcurrencyLimiter listLimiter;
+    private final AdaptiveConcurrencyLimiter pointLimiter;
+    private final String retryAfterSeconds;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter listLimiter,
+                                  AdaptiveConcurrencyLimiter pointLimiter,
+                                  int retryAfterSeconds) {
+        this.listLimiter = listLimiter;
+        this.pointLimiter = pointLimiter;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request);
+        if (!limiter.tryAcquire()) {
+            logger.debug("Shedding {} {}: {} limit {} reached", request.getMethod(), request.getRequestURI(),
+                    limiter.getName(), limiter.getLimit());
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limiter, response, start));
+            } else {
+                release(limiter, start, completed && response.getStatus() < 500);
+            }
+        }
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter limiter, long start, boolean succeeded) {
+        if (succeeded) {
+            limiter.onSuccess(System.nanoTime() - start);
+        } else {
+            limiter.onDropped();
+        }
+    }
+
+    AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        if (!"GET".equalsIgnoreCase(request.getMethod())) {
+            return pointLimiter;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return POINT_LOOKUP.matcher(path).matches() ? pointLimiter : listLimiter;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now()
+                + "\",\"message\":\"Service is overloaded, please retry later\"}");
+    }
+
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final HttpServletResponse response;
+        private final long start;
+        private volatile boolean failed;
+
+        private ReleaseOnComplete(AdaptiveConcurrencyLimiter limiter, HttpServletResponse response, long start) {
+            this.limiter = limiter;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(limiter, start, !failed && response.getStatus() < 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A re-started async cycle has to register listeners again.
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
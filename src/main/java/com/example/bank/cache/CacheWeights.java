@@ -0,0 +1,95 @@
+package com.example.bank.cache;
+
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Estimates the heap retained by cache entries, in bytes, so that caches can be bounded by
+ * memory instead of by entry count: one cached list of every transaction weighs as much as
+ * all of its elements, not as much as one transaction.
+ * <p>
+ * Sizes assume a 64-bit JVM with compressed references and compact strings. They are meant to
+ * be within a small factor of the real footprint, not exact; only objects owned by the entry
+ * are counted.
+ */
+public final class CacheWeights {
+
+    // Cache node, hash table slot and the key's wrapper, per entry.
+    static final long ENTRY_OVERHEAD = 64;
+    static final long UNKNOWN = 64;
+    private static final long RESPONSE = 48;
+    private static final long UUID_SIZE = 32;
+    private static final long BIG_DECIMAL = 40;
+    private static final long LOCAL_DATE_TIME = 72;
+    private static final long STRING = 24;
+    private static final long ARRAY = 16;
+    private static final long LIST = 24;
+
+    private CacheWeights() {
+    }
+
+    /**
+     * Weight of an entry for a Caffeine weigher: its estimated bytes, capped at
+     * {@link Integer#MAX_VALUE}.
+     */
+    public static int weigh(Object key, Object value) {
+        return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD + estimate(key) + estimate(value));
+    }
+
+    /**
+     * Estimated bytes of {@code value} and the objects it owns.
+     */
+    public static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof TransactionResponse response) {
+            return RESPONSE + estimate(response.getId()) + estimate(response.getDescription())
+                    + estimate(response.getAmount()) + estimate(response.getType())
+                    + estimate(response.getTimestamp()) + estimate(response.getCategory())
+                    + estimate(response.getAccountId());
+        }
+        if (value instanceof Transaction transaction) {
+            return RESPONSE + estimate(transaction.getId()) + estimate(transaction.getDescription())
+                    + estimate(transaction.getAmount()) + estimate(transaction.getType())
+                    + estimate(transaction.getTimestamp()) + estimate(transaction.getCategory())
+                    + estimate(transaction.getAccountId());
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = LIST + ARRAY + 4L * collection.size();
+            for (Object element : collection) {
+                size += estimate(element);
+            }
+            return size;
+        }
+        if (value instanceof String string) {
+            return STRING + ARRAY + (long) string.length() * (isLatin1(string) ? 1 : 2);
+        }
+        if (value instanceof UUID) {
+            return UUID_SIZE;
+        }
+        if (value instanceof BigDecimal decimal) {
+            // Small unscaled values are held inline; larger ones in a BigInteger.
+            int bits = decimal.unscaledValue().bitLength();
+            return bits < 64 ? BIG_DECIMAL : BIG_DECIMAL + 40 + ARRAY + 4L * ((bits + 31) / 32);
+        }
+        if (value instanceof LocalDateTime) {
+            return LOCAL_DATE_TIME;
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean isLatin1(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bank.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
+import org.springframework.boot.actuate.cache.CachesEndpointWebExtension;
+import org.springframework.boot.actuate.endpoint.OperationResponseBody;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.EndpointWebExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Adds entry counts and, for caches bounded by weight, their weighted size and maximum weight
+ * in estimated bytes to the {@code caches} actuator endpoint. Replaces Spring Boot's own web
+ * extension of the endpoint, whose single-cache operations it inherits.
+ */
+@Component
+@ConditionalOnAvailableEndpoint(endpoint = CachesEndpoint.class)
+@EndpointWebExtension(endpoint = CachesEndpoint.class)
+public class WeightedCachesEndpointExtension extends CachesEndpointWebExtension {
+
+    private final Map<String, CacheManager> cacheManagers;
+
+    @Autowired
+    public WeightedCachesEndpointExtension(Map<String, CacheManager> cacheManagers) {
+        super(new CachesEndpoint(cacheManagers));
+        this.cacheManagers = cacheManagers;
+    }
+
+    @ReadOperation
+    public CachesDescriptor caches() {
+        Map<String, CacheManagerDescriptor> managers = new TreeMap<>();
+        cacheManagers.forEach((managerName, cacheManager) -> {
+            Map<String, CacheDescriptor> caches = new TreeMap<>();
+            for (String cacheName : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    caches.put(cacheName, describe(cache.getNativeCache()));
+                }
+            }
+            managers.put(managerName, new CacheManagerDescriptor(caches));
+        });
+        return new CachesDescriptor(managers);
+    }
+
+    private static CacheDescriptor describe(Object nativeCache) {
+        if (!(nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine)) {
+            return new CacheDescriptor(nativeCache.getClass().getName(), null, null, null);
+        }
+        var eviction = caffeine.policy().eviction();
+        if (eviction.isEmpty() || !eviction.get().isWeighted()) {
+            return new CacheDescriptor(nativeCache.getClass().getName(), caffeine.estimatedSize(), null, null);
+        }
+        return new CacheDescriptor(nativeCache.getClass().getName(), caffeine.estimatedSize(),
+                eviction.get().weightedSize().orElse(0), eviction.get().getMaximum());
+    }
+
+    public record CachesDescriptor(Map<String, CacheManagerDescriptor> cacheManagers)
+            implements OperationResponseBody {
+    }
+
+    public record CacheManagerDescriptor(Map<String, CacheDescriptor> caches) {
+    }
+
+    /**
+     * One cache; sizes are only present where the cache implementation reports them.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record CacheDescriptor(String target, Long entries, Long weightedSize, Long maximumWeight) {
+    }
+}
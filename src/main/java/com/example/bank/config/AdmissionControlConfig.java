@@ -0,0 +1,71 @@
+package com.example.bank.config;
+
+import com.example.bank.admission.AdaptiveConcurrencyLimiter;
+import com.example.bank.admission.AdmissionControlFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+public class AdmissionControlConfig {
+
+    @Value("${bank.admission.sample-window:100ms}")
+    private Duration sampleWindow;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter listConcurrencyLimiter(
+            @Value("${bank.admission.list.initial-limit:20}") int initialLimit,
+            @Value("${bank.admission.list.min-limit:4}") int minLimit,
+            @Value("${bank.admission.list.max-limit:200}") int maxLimit,
+            MeterRegistry meterRegistry) {
+        return register(new AdaptiveConcurrencyLimiter("list", initialLimit, minLimit, maxLimit,
+                sampleWindow.toNanos()), meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter pointConcurrencyLimiter(
+            @Value("${bank.admission.point.initial-limit:100}") int initialLimit,
+            @Value("${bank.admission.point.min-limit:10}") int minLimit,
+            @Value("${bank.admission.point.max-limit:400}") int maxLimit,
+            MeterRegistry meterRegistry) {
+        return register(new AdaptiveConcurrencyLimiter("point", initialLimit, minLimit, maxLimit,
+                sampleWindow.toNanos()), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdaptiveConcurrencyLimiter listConcurrencyLimiter,
+            AdaptiveConcurrencyLimiter pointConcurrencyLimiter,
+            @Value("${bank.admission.enabled:true}") boolean enabled,
+            @Value("${bank.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(listConcurrencyLimiter, pointConcurrencyLimiter, retryAfterSeconds));
+        registration.addUrlPatterns("/api/transactions/*", "/api/accounts/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    private AdaptiveConcurrencyLimiter register(AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        Gauge.builder("bank.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("class", limiter.getName())
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("bank.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("class", limiter.getName())
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+        FunctionCounter.builder("bank.admission.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .tag("class", limiter.getName())
+                .description("Requests shed with 503")
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bank.config;
+
+import com.example.bank.cache.CacheWeights;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caffeine caches bounded by estimated bytes rather than entries. Each of the two service
+ * caches gets a fixed fraction of the maximum heap and evicts by the {@link CacheWeights}
+ * estimate, so a few lists covering the whole store can't grow past their budget.
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+    public static final String TRANSACTION = "transaction";
+    public static final String TRANSACTIONS = "transactions";
+    // Caches that only a future @Cacheable would create; bounded, but not by weight.
+    private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    @Bean
+    public CaffeineCacheManager cacheManager(
+            @Value("${bank.cache.transaction.heap-fraction:0.05}") double transactionFraction,
+            @Value("${bank.cache.transactions.heap-fraction:0.15}") double transactionsFraction,
+            @Value("${bank.cache.expire-after-write:120m}") Duration expireAfterWrite) {
+        return cacheManager(Runtime.getRuntime().maxMemory(), transactionFraction, transactionsFraction,
+                expireAfterWrite);
+    }
+
+    static CaffeineCacheManager cacheManager(long maxHeap, double transactionFraction, double transactionsFraction,
+                                             Duration expireAfterWrite) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(DEFAULT_MAXIMUM_SIZE)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        cacheManager.registerCustomCache(TRANSACTION,
+                weighted(budget(maxHeap, transactionFraction), expireAfterWrite));
+        cacheManager.registerCustomCache(TRANSACTIONS,
+                weighted(budget(maxHeap, transactionsFraction), expireAfterWrite));
+        logger.info("Cache budgets: {} {} bytes, {} {} bytes of a {} byte heap", TRANSACTION,
+                budget(maxHeap, transactionFraction), TRANSACTIONS, budget(maxHeap, transactionsFraction), maxHeap);
+        return cacheManager;
+    }
+
+    @Bean
+    public MeterBinder cacheWeightMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String name : new String[]{TRANSACTION, TRANSACTIONS}) {
+                com.github.benmanes.caffeine.cache.Cache<?, ?> cache = nativeCache(cacheManager, name);
+                if (cache == null) {
+                    continue;
+                }
+                Gauge.builder("bank.cache.weight", cache,
+                                c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                        .tag("cache", name)
+                        .description("Estimated bytes held by the cache")
+                        .baseUnit("bytes")
+                        .register(registry);
+                Gauge.builder("bank.cache.weight.max", cache,
+                                c -> c.policy().eviction().map(e -> e.getMaximum()).orElse(0L))
+                        .tag("cache", name)
+                        .description("Byte budget of the cache")
+                        .baseUnit("bytes")
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * The Caffeine cache behind {@code name}, null if it isn't one.
+     */
+    public static com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache(CacheManager cacheManager,
+                                                                            String name) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(name);
+        return cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> c
+                ? c : null;
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> weighted(long maximumWeight,
+                                                                                    Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher(CacheWeights::weigh)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    private static long budget(long maxHeap, double fraction) {
+        if (fraction <= 0 || fraction >= 1) {
+            throw new IllegalArgumentException("Cache heap fraction must be between 0 and 1: " + fraction);
+        }
+        return (long) (maxHeap * fraction);
+    }
+}
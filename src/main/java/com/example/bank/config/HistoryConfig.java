@@ -0,0 +1,44 @@
+package com.example.bank.config;
+
+import com.example.bank.repository.history.TransactionHistory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Configuration
+public class HistoryConfig {
+
+    @Bean
+    public TransactionHistory transactionHistory(@Value("${bank.history.retention:30d}") Duration retention,
+                                                 @Value("${bank.history.max-size:64MB}") DataSize maxSize) {
+        return new TransactionHistory(retention, maxSize.toBytes(), Clock.systemDefaultZone());
+    }
+
+    @Bean
+    public MeterBinder historyMetrics(TransactionHistory history) {
+        return registry -> {
+            Gauge.builder("bank.history.changes", history, TransactionHistory::changeCount)
+                    .description("Changes kept for reads as of a point in time")
+                    .register(registry);
+            Gauge.builder("bank.history.rows", history, TransactionHistory::rowCount)
+                    .description("Transactions with kept changes")
+                    .register(registry);
+            Gauge.builder("bank.history.bytes", history, TransactionHistory::sizeInBytes)
+                    .description("Estimated heap footprint of the kept changes")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("bank.history.horizon.age", history,
+                            h -> Duration.between(h.horizon(), LocalDateTime.now()).toSeconds())
+                    .description("How far back reads as of a point in time can go")
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+}
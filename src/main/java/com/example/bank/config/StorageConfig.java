@@ -0,0 +1,98 @@
+package com.example.bank.config;
+
+import com.example.bank.repository.index.BloomFilter;
+import com.example.bank.repository.log.LogStructuredStore;
+import com.example.bank.repository.store.BloomFilteredTransactionStore;
+import com.example.bank.repository.store.InMemoryTransactionStore;
+import com.example.bank.repository.store.JdbcTransactionStore;
+import com.example.bank.repository.store.TransactionStore;
+import com.example.bank.repository.tier.ColdTier;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class StorageConfig {
+
+    /**
+     * The backend selected by {@code bank.storage.type}: {@code memory}, {@code log} or {@code jdbc}.
+     * Only the database is put behind a Bloom filter: the other backends find out that an id is
+     * unknown from an in-memory index already.
+     */
+    @Bean(destroyMethod = "close")
+    public TransactionStore transactionStore(
+            @Value("${bank.storage.type:memory}") String type,
+            ColdTier coldTier,
+            @Value("${bank.storage.log.directory:data/transactions}") String logDirectory,
+            @Value("${bank.storage.log.segment-size:64MB}") DataSize segmentSize,
+            @Value("${bank.storage.log.sync-writes:false}") boolean syncWrites,
+            @Value("${bank.storage.log.compaction-threshold:0.5}") double compactionThreshold,
+            @Value("${bank.storage.log.compaction-interval:PT30S}") Duration compactionInterval,
+            @Value("${bank.storage.jdbc.url:jdbc:h2:file:./data/transactions-db}") String jdbcUrl,
+            @Value("${bank.storage.jdbc.username:sa}") String jdbcUsername,
+            @Value("${bank.storage.jdbc.password:}") String jdbcPassword,
+            @Value("${bank.storage.jdbc.pool-size:8}") int poolSize,
+            @Value("${bank.storage.jdbc.batch-size:500}") int batchSize,
+            @Value("${bank.storage.jdbc.page-size:1000}") int pageSize,
+            @Value("${bank.storage.bloom-filter.enabled:true}") boolean bloomFilterEnabled,
+            @Value("${bank.storage.bloom-filter.expected-rows:1000000}") long bloomFilterExpectedRows,
+            @Value("${bank.storage.bloom-filter.false-positive-rate:0.01}") double bloomFilterFalsePositiveRate) {
+        return switch (type) {
+            case "memory" -> new InMemoryTransactionStore(coldTier);
+            case "log" -> new LogStructuredStore(Path.of(logDirectory), segmentSize.toBytes(), syncWrites,
+                    compactionThreshold, compactionInterval);
+            case "jdbc" -> {
+                TransactionStore jdbc = new JdbcTransactionStore(jdbcUrl, jdbcUsername, jdbcPassword,
+                        poolSize, batchSize, pageSize);
+                yield bloomFilterEnabled
+                        ? new BloomFilteredTransactionStore(jdbc, bloomFilterExpectedRows, bloomFilterFalsePositiveRate)
+                        : jdbc;
+            }
+            default -> throw new IllegalArgumentException("Unknown bank.storage.type: " + type);
+        };
+    }
+
+    @Bean
+    public MeterBinder storageMetrics(TransactionStore store) {
+        return registry -> {
+            Gauge.builder("bank.storage.rows", store, TransactionStore::size)
+                    .tag("backend", store.name())
+                    .description("Transactions in the storage backend")
+                    .register(registry);
+            if (store instanceof BloomFilteredTransactionStore filtered) {
+                FunctionCounter.builder("bank.storage.bloom.negatives", filtered,
+                                BloomFilteredTransactionStore::getNegativeCount)
+                        .description("Lookups of unknown ids answered by the Bloom filter without the backend")
+                        .register(registry);
+                FunctionCounter.builder("bank.storage.bloom.false.positives", filtered,
+                                BloomFilteredTransactionStore::getFalsePositiveCount)
+                        .description("Lookups of unknown ids the Bloom filter let through to the backend")
+                        .register(registry);
+                Gauge.builder("bank.storage.bloom.expected.fpp", filtered.getFilter(),
+                                BloomFilter::expectedFalsePositiveRate)
+                        .description("Expected false positive rate of the Bloom filter at its current fill")
+                        .register(registry);
+            }
+            if (!(store instanceof LogStructuredStore log)) {
+                return;
+            }
+            Gauge.builder("bank.log.segments", log, LogStructuredStore::segmentCount)
+                    .description("Transaction log segment files")
+                    .register(registry);
+            Gauge.builder("bank.log.bytes", log, LogStructuredStore::sizeInBytes)
+                    .description("Size of the transaction log segment files")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("bank.log.garbage.ratio", log, LogStructuredStore::garbageRatio)
+                    .description("Share of overwritten or deleted records awaiting compaction")
+                    .register(registry);
+        };
+    }
+}
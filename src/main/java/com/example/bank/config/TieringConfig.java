@@ -0,0 +1,52 @@
+package com.example.bank.config;
+
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.tier.ColdTier;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Configuration
+@EnableScheduling
+public class TieringConfig {
+
+    @Bean(destroyMethod = "close")
+    public ColdTier coldTier(@Value("${bank.tiering.directory:}") String directory,
+                             @Value("${bank.tiering.block-size:16384}") int blockSize) {
+        try {
+            Path path = directory.isBlank() ? Files.createTempDirectory("bank-tier") : Path.of(directory);
+            return new ColdTier(path, blockSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create cold tier directory", e);
+        }
+    }
+
+    @Bean
+    public MeterBinder tieringMetrics(ColdTier coldTier, TransactionRepository transactionRepository) {
+        return registry -> {
+            Gauge.builder("bank.tier.rows", transactionRepository, TransactionRepository::hotCount)
+                    .tag("tier", "hot")
+                    .description("Transactions per storage tier")
+                    .register(registry);
+            Gauge.builder("bank.tier.rows", coldTier, ColdTier::size)
+                    .tag("tier", "cold")
+                    .description("Transactions per storage tier")
+                    .register(registry);
+            Gauge.builder("bank.tier.cold.segments", coldTier, ColdTier::segmentCount)
+                    .description("Cold segment files")
+                    .register(registry);
+            Gauge.builder("bank.tier.cold.bytes", coldTier, ColdTier::sizeInBytes)
+                    .description("Size of the cold segment files")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
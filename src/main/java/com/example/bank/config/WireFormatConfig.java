@@ -0,0 +1,19 @@
+package com.example.bank.config;
+
+import com.example.bank.wire.TransactionWireMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Last, so that JSON stays the answer to Accept: */* and the binary format is only
+        // chosen when asked for by name.
+        converters.add(new TransactionWireMessageConverter());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bank.controller;
+
+import com.example.bank.dto.AccountBalanceResponse;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransferRequest;
+import com.example.bank.dto.TransferResponse;
+import com.example.bank.service.AccountService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/accounts")
+@Tag(name = "Account API", description = "History and balance of the transactions booked on an account, and transfers between accounts")
+public class AccountController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
+    private final AccountService accountService;
+
+    @Autowired
+    public AccountController(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    @Operation(summary = "Get the transactions of an account",
+            description = "Returns the account's transactions newest first, optionally only those before a "
+                    + "timestamp; pass the timestamp of the last one to get the next page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the history",
+                    content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid account id or limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{accountId}/transactions")
+    public ResponseEntity<List<TransactionResponse>> getAccountHistory(
+            @Parameter(description = "Account id", required = true) @PathVariable String accountId,
+            @Parameter(description = "Only transactions before this timestamp (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @Parameter(description = "Number of transactions (1-500)") @RequestParam(defaultValue = "50") int limit) {
+        logger.debug("Received request to get {} transactions of account {} before {}", limit, accountId, before);
+        List<TransactionResponse> responses = accountService.getAccountHistory(accountId, before, limit);
+        logger.info("Returning {} transactions of account {}", responses.size(), accountId);
+        return ResponseEntity.ok(responses);
+    }
+
+    @Operation(summary = "Get the balance of an account",
+            description = "Returns the sums of the account's credits and debits and their difference")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed the balance",
+                    content = @Content(schema = @Schema(implementation = AccountBalanceResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid account id"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<AccountBalanceResponse> getAccountBalance(
+            @Parameter(description = "Account id", required = true) @PathVariable String accountId) {
+        logger.debug("Received request to get the balance of account {}", accountId);
+        AccountBalanceResponse response = accountService.getAccountBalance(accountId);
+        logger.debug("Returning the balance of account {}", accountId);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Transfer an amount between accounts",
+            description = "Books a DEBIT on the source and a CREDIT on the destination account, both or neither; "
+                    + "refused if the source account's balance doesn't cover the amount")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Transfer booked",
+                    content = @Content(schema = @Schema(implementation = TransferResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid account ids or amount"),
+            @ApiResponse(responseCode = "409", description = "Insufficient funds in the source account"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/transfers")
+    public ResponseEntity<TransferResponse> transfer(
+            @Parameter(description = "Transfer to book", required = true) @RequestBody TransferRequest transferRequest) {
+        logger.debug("Received request to transfer {} from account {} to {}", transferRequest.getAmount(),
+                transferRequest.getFromAccountId(), transferRequest.getToAccountId());
+        TransferResponse response = accountService.transfer(transferRequest);
+        logger.info("Transfer booked with debit ID: {}", response.getDebit().getId());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.bank.controller;
+
+import com.example.bank.dto.ChangeBatchResponse;
+import com.example.bank.exception.ValidationException;
+import com.example.bank.service.ChangeFeed;
+import com.example.bank.service.ChangeSubscriptions;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+/**
+ * Change feed endpoints. They live outside {@code /api/transactions} so that long-lived polls
+ * and streams don't hold admission control slots meant for short requests.
+ */
+@RestController
+@RequestMapping("/api/changes")
+@Tag(name = "Change feed API", description = "Follow creates, updates and deletes of transactions in order")
+public class ChangeFeedController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedController.class);
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_WAIT_SECONDS = 60;
+
+    private final ChangeFeed changeFeed;
+    private final ChangeSubscriptions changeSubscriptions;
+
+    @Autowired
+    public ChangeFeedController(ChangeFeed changeFeed, ChangeSubscriptions changeSubscriptions) {
+        this.changeFeed = changeFeed;
+        this.changeSubscriptions = changeSubscriptions;
+    }
+
+    @Operation(summary = "Long-poll for changes",
+            description = "Returns the changes after the given sequence as soon as there are any, or an empty "
+                    + "batch when none arrive in time. Without after, starts from the latest change. When the "
+                    + "changes are no longer retained the batch asks for a resync")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes, possibly none",
+                    content = @Content(schema = @Schema(implementation = ChangeBatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit or wait"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping
+    public DeferredResult<ChangeBatchResponse> pollChanges(
+            @Parameter(description = "Sequence of the last change already processed")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of changes, at most 1000")
+            @RequestParam(defaultValue = "500") int limit,
+            @Parameter(description = "Seconds to wait for a change, at most 60")
+            @RequestParam(defaultValue = "30") int wait) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            logger.error("Validation failed: Invalid change limit: {}", limit);
+            throw new ValidationException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (wait < 0 || wait > MAX_WAIT_SECONDS) {
+            logger.error("Validation failed: Invalid change wait: {}", wait);
+            throw new ValidationException("Wait must be between 0 and " + MAX_WAIT_SECONDS + " seconds");
+        }
+        long from = after != null ? after : changeFeed.getLatestSequence();
+        logger.debug("Received request to poll changes after sequence {}", from);
+        return changeSubscriptions.poll(from, limit, Duration.ofSeconds(wait));
+    }
+
+    @Operation(summary = "Stream changes",
+            description = "Server-Sent Events stream with one change event per change, its sequence as event id. "
+                    + "Reconnecting clients resume after Last-Event-ID. A client that falls too far behind "
+                    + "receives a resync event and is disconnected")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "503", description = "Too many open streams"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @Parameter(description = "Sequence of the last change already processed")
+            @RequestParam(required = false) Long after,
+            @Parameter(hidden = true) @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        long from;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                from = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                logger.error("Validation failed: Invalid Last-Event-ID: {}", lastEventId);
+                throw new ValidationException("Last-Event-ID must be a change sequence");
+            }
+        } else {
+            from = after != null ? after : changeFeed.getLatestSequence();
+        }
+        logger.debug("Received request to stream changes after sequence {}", from);
+        return changeSubscriptions.stream(from);
+    }
+}
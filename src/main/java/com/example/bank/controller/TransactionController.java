@@ -1,8 +1,21 @@
 package com.example.bank.controller;
 
+import com.example.bank.dto.AmountSummaryResponse;
+import com.example.bank.dto.CategoryStatsResponse;
+import com.example.bank.dto.SnapshotResponse;
 import com.example.bank.dto.TransactionDto;
 import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransactionStatsResponse;
+import com.example.bank.exception.ValidationException;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.service.SnapshotService;
 import com.example.bank.service.TransactionService;
+import com.example.bank.wire.TransactionWireFormat;
+import com.example.bank.wire.TransactionWireWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,12 +28,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -29,10 +53,15 @@ public class TransactionController {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
     private final TransactionService transactionService;
+    private final SnapshotService snapshotService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, SnapshotService snapshotService,
+                                 ObjectMapper objectMapper) {
         this.transactionService = transactionService;
+        this.snapshotService = snapshotService;
+        this.objectMapper = objectMapper;
         logger.info("TransactionController initialized with TransactionService: {}",
                 transactionService.getClass().getSimpleName());
     }
@@ -90,66 +119,140 @@ public class TransactionController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Get a transaction by ID", description = "Returns a single transaction")
+    @Operation(summary = "Get a transaction by ID", description = "Returns a single transaction, as it is or as it was")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transaction found",
                     content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "asOf before the history kept"),
             @ApiResponse(responseCode = "404", description = "Transaction not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/{id}")
     public ResponseEntity<TransactionResponse> getTransactionById(
             @Parameter(description = "ID of the transaction to be retrieved", required = true)
-            @PathVariable UUID id) {
-        logger.debug("Received request to get transaction with ID: {}", id);
-        TransactionResponse response = transactionService.getTransactionById(id);
+            @PathVariable UUID id,
+            @Parameter(description = "Point in time to read as of, by when the changes were made rather than the "
+                    + "transactions' own timestamps; at most bank.history.retention back")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Received request to get transaction with ID: {} as of {}", id, asOf);
+        TransactionResponse response = asOf == null
+                ? transactionService.getTransactionById(id)
+                : transactionService.getTransactionById(id, asOf);
         logger.debug("Returning transaction with ID: {}", id);
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Get all transactions", description = "Returns a list of all transactions")
+    @Operation(summary = "Get all transactions", description = "Returns a list of all transactions, as they are or as they were")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved list",
-                    content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list", content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = TransactionResponse.class)),
+                    @Content(mediaType = TransactionWireFormat.MEDIA_TYPE_VALUE)}),
+            @ApiResponse(responseCode = "400", description = "asOf before the history kept"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping
-    public ResponseEntity<List<TransactionResponse>> getAllTransactions() {
-        logger.debug("Received request to get all transactions");
-        List<TransactionResponse> responses = transactionService.getAllTransactions();
+    public ResponseEntity<List<TransactionResponse>> getAllTransactions(
+            @Parameter(description = "Point in time to read as of, by when the changes were made rather than the "
+                    + "transactions' own timestamps; at most bank.history.retention back")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Received request to get all transactions as of {}", asOf);
+        List<TransactionResponse> responses = asOf == null
+                ? transactionService.getAllTransactions()
+                : transactionService.getAllTransactions(asOf);
         logger.info("Returning {} transactions", responses.size());
         return ResponseEntity.ok(responses);
     }
 
-    @Operation(summary = "Get paginated transactions", description = "Returns a paginated list of transactions")
+    @Operation(summary = "Get paginated transactions",
+            description = "Returns a paginated list of transactions. Pages of the same snapshot all come from "
+                    + "the view it froze, so rows don't move between pages while others write")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved page",
                     content = @Content(schema = @Schema(implementation = Page.class))),
+            @ApiResponse(responseCode = "410", description = "Snapshot expired or closed"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/paged")
-    public ResponseEntity<Page<TransactionResponse>> getAllTransactionsPaged(Pageable pageable) {
-        logger.debug("Received request to get paginated transactions. Page: {}, Size: {}",
-                pageable.getPageNumber(), pageable.getPageSize());
-        Page<TransactionResponse> responses = transactionService.getAllTransactions(pageable);
+    public ResponseEntity<Page<TransactionResponse>> getAllTransactionsPaged(
+            Pageable pageable,
+            @Parameter(description = "Token of a read snapshot to page through")
+            @RequestParam(required = false) String snapshot) {
+        logger.debug("Received request to get paginated transactions. Page: {}, Size: {}, Snapshot: {}",
+                pageable.getPageNumber(), pageable.getPageSize(), snapshot);
+        Page<TransactionResponse> responses = snapshot == null
+                ? transactionService.getAllTransactions(pageable)
+                : snapshotService.getTransactions(snapshot, pageable);
         logger.debug("Returning page {} of {} with {} items",
                 pageable.getPageNumber(), responses.getTotalPages(), responses.getNumberOfElements());
         return ResponseEntity.ok(responses);
     }
 
+    @Operation(summary = "Open a read snapshot",
+            description = "Freezes the current transactions for paging and export without blocking writers. "
+                    + "Close it when done; it is closed anyway once idle for the returned timeout")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Snapshot opened",
+                    content = @Content(schema = @Schema(implementation = SnapshotResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/snapshots")
+    public ResponseEntity<SnapshotResponse> openSnapshot() {
+        logger.debug("Received request to open a read snapshot");
+        SnapshotResponse response = snapshotService.openSnapshot();
+        logger.info("Opened read snapshot {}", response.getToken());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Close a read snapshot", description = "Releases the rows the snapshot kept")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Snapshot closed, or not open"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @DeleteMapping("/snapshots/{token}")
+    public ResponseEntity<Void> closeSnapshot(
+            @Parameter(description = "Snapshot token", required = true) @PathVariable String token) {
+        logger.debug("Received request to close read snapshot {}", token);
+        snapshotService.closeSnapshot(token);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Export a read snapshot",
+            description = "Streams every transaction of the snapshot's view")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed the snapshot", content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = TransactionResponse.class)),
+                    @Content(mediaType = TransactionWireFormat.MEDIA_TYPE_VALUE)}),
+            @ApiResponse(responseCode = "410", description = "Snapshot expired or closed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/snapshots/{token}/export")
+    public ResponseEntity<StreamingResponseBody> exportSnapshot(
+            @Parameter(description = "Snapshot token", required = true) @PathVariable String token,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        logger.debug("Received request to export read snapshot {}", token);
+        return stream(snapshotService.exportTransactions(token), accept, "export of snapshot " + token);
+    }
+
     @Operation(summary = "Get transactions by type", description = "Returns transactions filtered by type (CREDIT/DEBIT)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved filtered list",
                     content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid type parameter"),
+            @ApiResponse(responseCode = "400", description = "Invalid type parameter or asOf before the history kept"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/type/{type}")
     public ResponseEntity<List<TransactionResponse>> getTransactionsByType(
             @Parameter(description = "Type of transactions to filter by (CREDIT/DEBIT)", required = true)
-            @PathVariable String type) {
-        logger.debug("Received request to get transactions by type: {}", type);
-        List<TransactionResponse> responses = transactionService.getTransactionsByType(type);
+            @PathVariable String type,
+            @Parameter(description = "Point in time to read as of, by when the changes were made rather than the "
+                    + "transactions' own timestamps; at most bank.history.retention back")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Received request to get transactions by type: {} as of {}", type, asOf);
+        List<TransactionResponse> responses = asOf == null
+                ? transactionService.getTransactionsByType(type)
+                : transactionService.getTransactionsByType(type, asOf);
         logger.info("Returning {} transactions of type: {}", responses.size(), type);
         return ResponseEntity.ok(responses);
     }
@@ -158,15 +261,312 @@ public class TransactionController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved filtered list",
                     content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "asOf before the history kept"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/category/{category}")
     public ResponseEntity<List<TransactionResponse>> getTransactionsByCategory(
             @Parameter(description = "Category of transactions to filter by", required = true)
-            @PathVariable String category) {
-        logger.debug("Received request to get transactions by category: {}", category);
-        List<TransactionResponse> responses = transactionService.getTransactionsByCategory(category);
+            @PathVariable String category,
+            @Parameter(description = "Point in time to read as of, by when the changes were made rather than the "
+                    + "transactions' own timestamps; at most bank.history.retention back")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Received request to get transactions by category: {} as of {}", category, asOf);
+        List<TransactionResponse> responses = asOf == null
+                ? transactionService.getTransactionsByCategory(category)
+                : transactionService.getTransactionsByCategory(category, asOf);
         logger.info("Returning {} transactions in category: {}", responses.size(), category);
         return ResponseEntity.ok(responses);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Search transactions by description",
+            description = "Full-text search over descriptions. Words ending in '*' match as prefixes; "
+                    + "Chinese text is matched by character bigrams. Results are ranked by relevance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved matching transactions",
+                    content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Empty query or invalid limit, or asOf before the history kept"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<TransactionResponse>> searchTransactions(
+            @Parameter(description = "Search text, e.g. 'hema' or 'frui*'", required = true)
+            @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of results (1-500)")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Point in time to read as of, by when the changes were made rather than the "
+                    + "transactions' own timestamps; at most bank.history.retention back; matches then come newest first instead of by relevance")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Received request to search transactions: {} as of {}", query, asOf);
+        List<TransactionResponse> responses = asOf == null
+                ? transactionService.searchTransactions(query, limit)
+                : transactionService.searchTransactions(query, limit, asOf);
+        logger.info("Returning {} transactions matching: {}", responses.size(), query);
+        return ResponseEntity.ok(responses);
+    }
+
+    @Operation(summary = "Get transactions by amount range",
+            description = "Returns transactions with min <= amount <= max in ascending amount order, "
+                    + "optionally filtered by type and category. Either bound may be omitted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved filtered list",
+                    content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or inverted bounds, or asOf before the history kept"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/range/amount")
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByAmountRange(
+            @Parameter(description = "Minimum amount (inclusive)") @RequestParam(required = false) BigDecimal min,
+            @Parameter(description = "Maximum amount (inclusive)") @RequestParam(required = false) BigDecimal max,
+            @Parameter(description = "Type to filter by (CREDIT/DEBIT)") @RequestParam(required = false) String type,
+            @Parameter(description = "Category to filter by") @RequestParam(required = false) String category,
+            @Parameter(description = "Point in time to read as of, by when the changes were made rather than the "
+                    + "transactions' own timestamps; at most bank.history.retention back")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Received request to get transactions with amount in [{}, {}] as of {}", min, max, asOf);
+        List<TransactionResponse> responses = asOf == null
+                ? transactionService.getTransactionsByAmountRange(min, max, type, category)
+                : transactionService.getTransactionsByAmountRange(min, max, type, category, asOf);
+        logger.info("Returning {} transactions with amount in [{}, {}]", responses.size(), min, max);
+        return ResponseEntity.ok(responses);
+    }
+
+    @Operation(summary = "Get transactions by time range",
+            description = "Returns transactions with from <= timestamp < to in ascending time order, "
+                    + "optionally filtered by type and category. Either bound may be omitted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved filtered list",
+                    content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or inverted bounds, or asOf before the history kept"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/range/timestamp")
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByTimeRange(
+            @Parameter(description = "Start time (inclusive), e.g. 2023-10-15T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End time (exclusive), e.g. 2023-10-16T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Type to filter by (CREDIT/DEBIT)") @RequestParam(required = false) String type,
+            @Parameter(description = "Category to filter by") @RequestParam(required = false) String category,
+            @Parameter(description = "Point in time to read as of, by when the changes were made rather than the "
+                    + "transactions' own timestamps; at most bank.history.retention back")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Received request to get transactions with timestamp in [{}, {}) as of {}", from, to, asOf);
+        List<TransactionResponse> responses = asOf == null
+                ? transactionService.getTransactionsByTimeRange(from, to, type, category)
+                : transactionService.getTransactionsByTimeRange(from, to, type, category, asOf);
+        logger.info("Returning {} transactions with timestamp in [{}, {})", responses.size(), from, to);
+        return ResponseEntity.ok(responses);
+    }
+
+    @Operation(summary = "Get largest transactions",
+            description = "Returns the largest transactions by amount, largest first, optionally of one type")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved top transactions",
+                    content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/top/amount")
+    public ResponseEntity<List<TransactionResponse>> getTopTransactionsByAmount(
+            @Parameter(description = "Type to filter by (CREDIT/DEBIT)") @RequestParam(required = false) String type,
+            @Parameter(description = "Number of transactions (1-500)") @RequestParam(defaultValue = "50") int limit) {
+        logger.debug("Received request to get top {} transactions by amount for type: {}", limit, type);
+        List<TransactionResponse> responses = transactionService.getTopTransactionsByAmount(type, limit);
+        logger.info("Returning {} top transactions by amount", responses.size());
+        return ResponseEntity.ok(responses);
+    }
+
+    @Operation(summary = "Get latest transactions in a category",
+            description = "Returns the most recent transactions of a category, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved latest transactions",
+                    content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/category/{category}/latest")
+    public ResponseEntity<List<TransactionResponse>> getLatestTransactionsByCategory(
+            @Parameter(description = "Category name", required = true) @PathVariable String category,
+            @Parameter(description = "Number of transactions (1-500)") @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("Received request to get latest {} transactions in category: {}", limit, category);
+        List<TransactionResponse> responses = transactionService.getLatestTransactionsByCategory(category, limit);
+        logger.info("Returning {} latest transactions in category: {}", responses.size(), category);
+        return ResponseEntity.ok(responses);
+    }
+
+    @Operation(summary = "Summarize transaction amounts",
+            description = "Returns count, sum, min, max and average of the amounts, optionally of one type and/or category. "
+                    + "Computed over a copy of the amounts that is rebuilt from all transactions, at most once per "
+                    + "bank.summary.max-staleness, so a summary may not yet include the writes of that long")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully summarized amounts",
+                    content = @Content(schema = @Schema(implementation = AmountSummaryResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/summary")
+    public ResponseEntity<AmountSummaryResponse> summarizeAmounts(
+            @Parameter(description = "Type to filter by (CREDIT/DEBIT)") @RequestParam(required = false) String type,
+            @Parameter(description = "Category to filter by") @RequestParam(required = false) String category) {
+        logger.debug("Received request to summarize amounts for type: {}, category: {}", type, category);
+        AmountSummaryResponse response = transactionService.summarizeAmounts(type, category);
+        logger.info("Returning amount summary over {} transactions", response.getCount());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get amount quantiles",
+            description = "Returns estimated amount quantiles over all transactions and per category for the "
+                    + "categories with the most transactions, and the estimated number of distinct categories. "
+                    + "Answered from sketches in constant time, each quantile within 1% of the exact amount")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully estimated the quantiles",
+                    content = @Content(schema = @Schema(implementation = TransactionStatsResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid quantiles or category limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<TransactionStatsResponse> getTransactionStats(
+            @Parameter(description = "Quantiles between 0 and 1, comma separated")
+            @RequestParam(defaultValue = "0.5,0.9,0.99") List<Double> quantiles,
+            @Parameter(description = "Number of categories to include")
+            @RequestParam(defaultValue = "20") int categories) {
+        logger.debug("Received request for amount quantiles {} of the top {} categories", quantiles, categories);
+        TransactionStatsResponse response = transactionService.getTransactionStats(quantiles, categories);
+        logger.info("Returning amount quantiles over {} transactions", response.getCount());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get amount quantiles of a category",
+            description = "Returns estimated amount quantiles of the transactions in a category, each within 1% "
+                    + "of the exact amount; none for a category without transactions")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully estimated the quantiles",
+                    content = @Content(schema = @Schema(implementation = CategoryStatsResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid quantiles"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/stats/categories/{category}")
+    public ResponseEntity<CategoryStatsResponse> getCategoryStats(
+            @Parameter(description = "Category") @PathVariable String category,
+            @Parameter(description = "Quantiles between 0 and 1, comma separated")
+            @RequestParam(defaultValue = "0.5,0.9,0.99") List<Double> quantiles) {
+        logger.debug("Received request for amount quantiles {} of category: {}", quantiles, category);
+        CategoryStatsResponse response = transactionService.getCategoryStats(category, quantiles);
+        logger.info("Returning amount quantiles over {} transactions in category: {}", response.getCount(), category);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Query transactions",
+            description = "Returns transactions matching every given filter. The most selective index drives "
+                    + "the query, the other filters are checked against their indexes, and results are "
+                    + "streamed as they are found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed matching transactions", content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = TransactionResponse.class)),
+                    @Content(mediaType = TransactionWireFormat.MEDIA_TYPE_VALUE)}),
+            @ApiResponse(responseCode = "400", description = "Invalid ranges, sort or limit, or asOf before the history kept"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/query")
+    public ResponseEntity<StreamingResponseBody> queryTransactions(
+            @Parameter(description = "Type to filter by (CREDIT/DEBIT)") @RequestParam(required = false) String type,
+            @Parameter(description = "Category to filter by") @RequestParam(required = false) String category,
+            @Parameter(description = "Minimum amount (inclusive)") @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Maximum amount (inclusive)") @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "Start time (inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End time (exclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Text that must appear in the description") @RequestParam(required = false) String q,
+            @Parameter(description = "Sort as field[,asc|desc], field is amount or timestamp")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "Maximum number of results") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Point in time to read as of, by when the changes were made rather than the "
+                    + "transactions' own timestamps; at most bank.history.retention back")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        TransactionQuery.Builder builder = TransactionQuery.builder()
+                .type(type)
+                .category(category)
+                .amountBetween(minAmount, maxAmount)
+                .timeBetween(from, to)
+                .text(q)
+                .limit(limit)
+                .asOf(asOf);
+        applySort(builder, sort);
+        TransactionQuery query = builder.build();
+        logger.debug("Received request to query transactions: {}", query);
+
+        return stream(transactionService.queryTransactions(query), accept, "query");
+    }
+
+    /**
+     * Writes {@code results} as they come, in the binary format if the client asked for it by
+     * name and as a JSON array otherwise.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(Stream<TransactionResponse> results, String accept,
+                                                         String what) {
+        if (acceptsBinary(accept)) {
+            StreamingResponseBody body = outputStream -> {
+                int count = 0;
+                try (results) {
+                    TransactionWireWriter writer = new TransactionWireWriter(outputStream);
+                    for (Iterator<TransactionResponse> it = results.iterator(); it.hasNext(); count++) {
+                        writer.write(it.next());
+                    }
+                    writer.finish();
+                }
+                logger.info("Streamed {} transactions for {} in binary", count, what);
+            };
+            return ResponseEntity.ok().contentType(TransactionWireFormat.MEDIA_TYPE).body(body);
+        }
+        StreamingResponseBody body = outputStream -> {
+            int count = 0;
+            // Writing a value flushes the response by default; without that, the generator's buffer
+            // goes out as it fills and once more on close.
+            ObjectWriter rowWriter = objectMapper.writerFor(TransactionResponse.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (results; JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (Iterator<TransactionResponse> it = results.iterator(); it.hasNext(); count++) {
+                    rowWriter.writeValue(generator, it.next());
+                }
+                generator.writeEndArray();
+            }
+            logger.info("Streamed {} transactions for {}", count, what);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Whether the client asked for the binary format by name; wildcards keep getting JSON.
+     */
+    private static boolean acceptsBinary(String accept) {
+        if (accept == null || !accept.contains(TransactionWireFormat.MEDIA_TYPE_VALUE)) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(TransactionWireFormat.MEDIA_TYPE)
+                            && mediaType.getQualityValue() > 0);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private void applySort(TransactionQuery.Builder builder, String sort) {
+        if (sort == null || sort.isBlank()) {
+            return;
+        }
+        String[] parts = sort.split(",");
+        try {
+            TransactionQuery.SortField field = TransactionQuery.SortField.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.ASC;
+            builder.sort(field, direction);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation failed: Invalid sort: {}", sort);
+            throw new ValidationException("Sort must be amount or timestamp, optionally followed by ,asc or ,desc");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+
+@Schema(description = "Balance of an account over all its transactions")
+public class AccountBalanceResponse {
+
+    @Schema(description = "Identifier of the account", example = "acc-1001")
+    private String accountId;
+
+    @Schema(description = "Number of transactions of the account", example = "42")
+    private long count;
+
+    @Schema(description = "Sum of the account's CREDIT amounts", example = "5200.00")
+    private BigDecimal credits;
+
+    @Schema(description = "Sum of the account's DEBIT amounts", example = "1830.45")
+    private BigDecimal debits;
+
+    @Schema(description = "Credits minus debits", example = "3369.55")
+    private BigDecimal balance;
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getCredits() {
+        return credits;
+    }
+
+    public void setCredits(BigDecimal credits) {
+        this.credits = credits;
+    }
+
+    public BigDecimal getDebits() {
+        return debits;
+    }
+
+    public void setDebits(BigDecimal debits) {
+        this.debits = debits;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
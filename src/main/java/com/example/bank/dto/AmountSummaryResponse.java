@@ -0,0 +1,63 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+
+@Schema(description = "Aggregate of the amounts of a set of transactions")
+public class AmountSummaryResponse {
+
+    @Schema(description = "Number of transactions", example = "42")
+    private long count;
+
+    @Schema(description = "Sum of the amounts", example = "12500.50")
+    private BigDecimal sum;
+
+    @Schema(description = "Smallest amount, absent when there are no transactions", example = "3.20")
+    private BigDecimal min;
+
+    @Schema(description = "Largest amount, absent when there are no transactions", example = "4800.00")
+    private BigDecimal max;
+
+    @Schema(description = "Mean amount, absent when there are no transactions", example = "297.63")
+    private BigDecimal average;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getSum() {
+        return sum;
+    }
+
+    public void setSum(BigDecimal sum) {
+        this.sum = sum;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public void setMin(BigDecimal min) {
+        this.min = min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+
+    public BigDecimal getAverage() {
+        return average;
+    }
+
+    public void setAverage(BigDecimal average) {
+        this.average = average;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Schema(description = "Estimated amount quantiles of the transactions in a category")
+public class CategoryStatsResponse {
+
+    @Schema(description = "Category, as first spelled", example = "Groceries")
+    private String category;
+
+    @Schema(description = "Number of transactions", example = "1834")
+    private long count;
+
+    @Schema(description = "Estimated amount per requested quantile, keyed by the quantile; empty when there are "
+            + "no transactions", example = "{\"0.5\": 42.10, \"0.99\": 310.50}")
+    private Map<String, BigDecimal> quantiles;
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Map<String, BigDecimal> getQuantiles() {
+        return quantiles;
+    }
+
+    public void setQuantiles(Map<String, BigDecimal> quantiles) {
+        this.quantiles = quantiles;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Changes after a sequence number, and where to continue from")
+public class ChangeBatchResponse {
+
+    @Schema(description = "Changes in sequence order, empty when none arrived before the timeout")
+    private List<TransactionChange> changes;
+
+    @Schema(description = "Sequence to pass as after on the next request", example = "1042")
+    private long nextAfter;
+
+    @Schema(description = "Sequence of the most recent change in the feed", example = "1042")
+    private long latestSequence;
+
+    @Schema(description = "True when the requested changes are no longer retained; the consumer must reload "
+            + "all transactions and continue after the latestSequence it read before reloading")
+    private boolean resyncRequired;
+
+    public ChangeBatchResponse() {
+    }
+
+    public ChangeBatchResponse(List<TransactionChange> changes, long nextAfter, long latestSequence,
+                               boolean resyncRequired) {
+        this.changes = changes;
+        this.nextAfter = nextAfter;
+        this.latestSequence = latestSequence;
+        this.resyncRequired = resyncRequired;
+    }
+
+    public List<TransactionChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<TransactionChange> changes) {
+        this.changes = changes;
+    }
+
+    public long getNextAfter() {
+        return nextAfter;
+    }
+
+    public void setNextAfter(long nextAfter) {
+        this.nextAfter = nextAfter;
+    }
+
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    public void setLatestSequence(long latestSequence) {
+        this.latestSequence = latestSequence;
+    }
+
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    public void setResyncRequired(boolean resyncRequired) {
+        this.resyncRequired = resyncRequired;
+    }
+}
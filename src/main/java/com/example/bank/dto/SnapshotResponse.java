@@ -0,0 +1,52 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+
+@Schema(description = "Handle of a read snapshot: a frozen view of the transactions that pages and exports can use")
+public class SnapshotResponse {
+
+    @Schema(description = "Token to pass as the snapshot parameter", example = "3f1c2a9e-6a7b-4d0e-9b1f-8c2d5e7a4b60")
+    private String token;
+
+    @Schema(description = "Version of the last write the snapshot sees", example = "1042")
+    private long version;
+
+    @Schema(description = "When the snapshot was opened")
+    private LocalDateTime openedAt;
+
+    @Schema(description = "Seconds without use after which the snapshot is closed", example = "300")
+    private long idleTimeoutSeconds;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getOpenedAt() {
+        return openedAt;
+    }
+
+    public void setOpenedAt(LocalDateTime openedAt) {
+        this.openedAt = openedAt;
+    }
+
+    public long getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+
+    public void setIdleTimeoutSeconds(long idleTimeoutSeconds) {
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.UUID;
+
+@Schema(description = "A create, update or delete of a transaction, in the order the changes were applied")
+public class TransactionChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Schema(description = "Position of the change in the feed, increasing by one per change", example = "1042")
+    private long sequence;
+
+    @Schema(description = "Kind of change", example = "UPDATED")
+    private Type type;
+
+    @Schema(description = "Identifier of the changed transaction", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+    private UUID id;
+
+    @Schema(description = "The transaction after the change, absent for deletes")
+    private TransactionResponse transaction;
+
+    public TransactionChange() {
+    }
+
+    public TransactionChange(long sequence, Type type, UUID id, TransactionResponse transaction) {
+        this.sequence = sequence;
+        this.type = type;
+        this.id = id;
+        this.transaction = transaction;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public TransactionResponse getTransaction() {
+        return transaction;
+    }
+
+    public void setTransaction(TransactionResponse transaction) {
+        this.transaction = transaction;
+    }
+}
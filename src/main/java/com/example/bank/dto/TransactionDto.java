@@ -18,6 +18,9 @@ public class TransactionDto {
     @Schema(description = "Category of the transaction", example = "Food", required = false)
     private String category;
 
+    @Schema(description = "Account the transaction is booked on", example = "acc-1001", required = false)
+    private String accountId;
+
     // Getters and Setters remain the same
     public String getDescription() {
         return description;
@@ -50,4 +53,12 @@ public class TransactionDto {
     public void setCategory(String category) {
         this.category = category;
     }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
 }
\ No newline at end of file
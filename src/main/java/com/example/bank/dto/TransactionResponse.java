@@ -26,6 +26,9 @@ public class TransactionResponse {
     @Schema(description = "Category of the transaction", example = "Salary")
     private String category;
 
+    @Schema(description = "Account the transaction is booked on", example = "acc-1001")
+    private String accountId;
+
     // Getters and Setters remain the same
     public UUID getId() {
         return id;
@@ -74,4 +77,12 @@ public class TransactionResponse {
     public void setCategory(String category) {
         this.category = category;
     }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Estimated amount quantiles overall and of the largest categories, and the number of "
+        + "distinct categories, from sketches kept up to date on every write")
+public class TransactionStatsResponse {
+
+    @Schema(description = "Number of transactions", example = "250000")
+    private long count;
+
+    @Schema(description = "Estimated number of distinct categories ever written, within about 1%", example = "57")
+    private long distinctCategories;
+
+    @Schema(description = "Bound of the relative error of every amount quantile", example = "0.01")
+    private double relativeAccuracy;
+
+    @Schema(description = "Estimated amount per requested quantile over all transactions, keyed by the quantile",
+            example = "{\"0.5\": 42.10, \"0.99\": 310.50}")
+    private Map<String, BigDecimal> quantiles;
+
+    @Schema(description = "The same quantiles of the categories with the most transactions, largest first")
+    private List<CategoryStatsResponse> categories;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getDistinctCategories() {
+        return distinctCategories;
+    }
+
+    public void setDistinctCategories(long distinctCategories) {
+        this.distinctCategories = distinctCategories;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public void setRelativeAccuracy(double relativeAccuracy) {
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    public Map<String, BigDecimal> getQuantiles() {
+        return quantiles;
+    }
+
+    public void setQuantiles(Map<String, BigDecimal> quantiles) {
+        this.quantiles = quantiles;
+    }
+
+    public List<CategoryStatsResponse> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<CategoryStatsResponse> categories) {
+        this.categories = categories;
+    }
+}
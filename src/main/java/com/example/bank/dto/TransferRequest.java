@@ -0,0 +1,72 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+
+@Schema(description = "Transfer of an amount from one account to another")
+public class TransferRequest {
+
+    @Schema(description = "Account to debit", example = "acc-1001", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String fromAccountId;
+
+    @Schema(description = "Account to credit", example = "acc-2002", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String toAccountId;
+
+    @Schema(description = "Amount to transfer", example = "250.00", requiredMode = Schema.RequiredMode.REQUIRED)
+    private BigDecimal amount;
+
+    @Schema(description = "Description of both legs; defaults to one naming the accounts", example = "Rent June")
+    private String description;
+
+    @Schema(description = "Category of both legs", example = "Transfer", defaultValue = "Transfer")
+    private String category;
+
+    public TransferRequest() {
+    }
+
+    public TransferRequest(String fromAccountId, String toAccountId, BigDecimal amount) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+    }
+
+    public String getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public void setFromAccountId(String fromAccountId) {
+        this.fromAccountId = fromAccountId;
+    }
+
+    public String getToAccountId() {
+        return toAccountId;
+    }
+
+    public void setToAccountId(String toAccountId) {
+        this.toAccountId = toAccountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "The two transactions a transfer booked")
+public class TransferResponse {
+
+    @Schema(description = "DEBIT transaction on the source account")
+    private TransactionResponse debit;
+
+    @Schema(description = "CREDIT transaction on the destination account")
+    private TransactionResponse credit;
+
+    public TransferResponse() {
+    }
+
+    public TransferResponse(TransactionResponse debit, TransactionResponse credit) {
+        this.debit = debit;
+        this.credit = credit;
+    }
+
+    public TransactionResponse getDebit() {
+        return debit;
+    }
+
+    public void setDebit(TransactionResponse debit) {
+        this.debit = debit;
+    }
+
+    public TransactionResponse getCredit() {
+        return credit;
+    }
+
+    public void setCredit(TransactionResponse credit) {
+        this.credit = credit;
+    }
+}
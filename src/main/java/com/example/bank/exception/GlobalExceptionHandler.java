@@ -1,28 +1,52 @@
 package com.example.bank.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    // The not-found body, the most frequent one, is assembled from pre-encoded parts around the
+    // timestamp and message instead of going through a map and the object mapper.
+    private static final byte[] TIMESTAMP_FIELD = "{\"timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MESSAGE_FIELD = "\",\"message\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final HttpHeaders JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(jsonHeaders());
+
     @ExceptionHandler(TransactionNotFoundException.class)
     public ResponseEntity<Object> handleTransactionNotFoundException(
             TransactionNotFoundException ex, WebRequest request) {
 
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("message", ex.getMessage());
-
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+        String message = ex.getMessage();
+        if (!isPlainJsonString(message)) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("message", message);
+            return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+        }
+        byte[] timestamp = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.now())
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[TIMESTAMP_FIELD.length + timestamp.length + MESSAGE_FIELD.length + text.length
+                + END.length];
+        int position = append(body, 0, TIMESTAMP_FIELD);
+        position = append(body, position, timestamp);
+        position = append(body, position, MESSAGE_FIELD);
+        position = append(body, position, text);
+        append(body, position, END);
+        return new ResponseEntity<>(body, JSON_HEADERS, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(ValidationException.class)
@@ -36,6 +60,17 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<Object> handleInsufficientFundsException(
+            InsufficientFundsException ex, WebRequest request) {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", ex.getMessage());
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGlobalException(
             Exception ex, WebRequest request) {
@@ -46,4 +81,31 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
         return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    /**
+     * Whether {@code text} can go between JSON quotes as is.
+     */
+    private static boolean isPlainJsonString(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int append(byte[] target, int position, byte[] part) {
+        System.arraycopy(part, 0, target, position, part.length);
+        return position + part.length;
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
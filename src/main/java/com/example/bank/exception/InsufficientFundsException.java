@@ -0,0 +1,11 @@
+package com.example.bank.exception;
+
+/**
+ * A transfer the source account's balance doesn't cover. Like a lookup of an unknown id it is
+ * a client error, so it carries no stack trace.
+ */
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException(String message) {
+        super(message, null, false, false);
+    }
+}
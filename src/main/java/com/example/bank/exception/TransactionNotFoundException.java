@@ -1,7 +1,12 @@
 package com.example.bank.exception;
 
+/**
+ * A lookup of an id that doesn't exist. Thrown for every such request, so it is a client
+ * error rather than a failure: it carries no stack trace, which would cost more to fill in
+ * than the lookup itself and is never logged.
+ */
 public class TransactionNotFoundException extends RuntimeException {
     public TransactionNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package com.example.bank.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encoding and decoding of the value types in transaction JSON straight between chars and
+ * values, without the intermediate strings of {@code UUID.toString()} or a
+ * {@link DateTimeFormatter}. Output is identical to Jackson's defaults: lower-case UUIDs and
+ * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} timestamps.
+ */
+final class JsonText {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int MAX_CACHED_STRINGS = 1024;
+    // Scratch space for one value at a time; the generator copies it before we return.
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[36]);
+    // Pre-escaped, pre-encoded forms of low-cardinality values such as types and categories.
+    private static final Map<String, SerializableString> STRINGS = new ConcurrentHashMap<>();
+
+    private JsonText() {
+    }
+
+    static void writeUuid(JsonGenerator generator, UUID id) throws IOException {
+        char[] buffer = BUFFER.get();
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        hex(buffer, 0, msb >>> 32, 8);
+        buffer[8] = '-';
+        hex(buffer, 9, msb >>> 16, 4);
+        buffer[13] = '-';
+        hex(buffer, 14, msb, 4);
+        buffer[18] = '-';
+        hex(buffer, 19, lsb >>> 48, 4);
+        buffer[23] = '-';
+        hex(buffer, 24, lsb, 12);
+        generator.writeString(buffer, 0, 36);
+    }
+
+    static void writeTimestamp(JsonGenerator generator, LocalDateTime timestamp) throws IOException {
+        int year = timestamp.getYear();
+        if (year < 0 || year > 9999) {
+            // Signed or expanded years, rare enough for the formatter.
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp));
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        digits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        digits(buffer, 5, timestamp.getMonthValue(), 2);
+        buffer[7] = '-';
+        digits(buffer, 8, timestamp.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        digits(buffer, 11, timestamp.getHour(), 2);
+        buffer[13] = ':';
+        digits(buffer, 14, timestamp.getMinute(), 2);
+        buffer[16] = ':';
+        digits(buffer, 17, timestamp.getSecond(), 2);
+        int length = 19;
+        int nano = timestamp.getNano();
+        if (nano > 0) {
+            buffer[19] = '.';
+            digits(buffer, 20, nano, 9);
+            length = 29;
+            while (buffer[length - 1] == '0') {
+                length--;
+            }
+        }
+        generator.writeString(buffer, 0, length);
+    }
+
+    /**
+     * Writes {@code value} from a cache of encoded strings while the cache has room.
+     */
+    static void writeCachedString(JsonGenerator generator, String value) throws IOException {
+        SerializableString encoded = STRINGS.get(value);
+        if (encoded == null) {
+            if (STRINGS.size() >= MAX_CACHED_STRINGS) {
+                generator.writeString(value);
+                return;
+            }
+            encoded = STRINGS.computeIfAbsent(value, SerializedString::new);
+        }
+        generator.writeString(encoded);
+    }
+
+    /**
+     * The UUID in canonical 36-character form at {@code chars[offset..offset+length)}, or
+     * {@code null} if it isn't one, leaving other spellings to the default deserializer.
+     */
+    static UUID parseUuid(char[] chars, int offset, int length) {
+        if (length != 36 || chars[offset + 8] != '-' || chars[offset + 13] != '-'
+                || chars[offset + 18] != '-' || chars[offset + 23] != '-') {
+            return null;
+        }
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            int digit = Character.digit(chars[offset + i], 16);
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 19) {
+                msb = msb << 4 | digit;
+            } else {
+                lsb = lsb << 4 | digit;
+            }
+        }
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * The timestamp in {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]} form, or {@code null} if the
+     * text has another shape, leaving it to the default deserializer.
+     */
+    static LocalDateTime parseTimestamp(char[] chars, int offset, int length) {
+        if (length < 16 || chars[offset + 4] != '-' || chars[offset + 7] != '-' || chars[offset + 10] != 'T'
+                || chars[offset + 13] != ':') {
+            return null;
+        }
+        int year = number(chars, offset, 4);
+        int month = number(chars, offset + 5, 2);
+        int day = number(chars, offset + 8, 2);
+        int hour = number(chars, offset + 11, 2);
+        int minute = number(chars, offset + 14, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (length < 19 || chars[offset + 16] != ':') {
+                return null;
+            }
+            second = number(chars, offset + 17, 2);
+            if (length > 19) {
+                if (length == 20 || length > 29 || chars[offset + 19] != '.') {
+                    return null;
+                }
+                nano = number(chars, offset + 20, length - 20);
+                for (int i = length - 20; i < 9 && nano >= 0; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static void hex(char[] buffer, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static void digits(char[] buffer, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * The decimal number of {@code digits} ASCII digits, or -1 if there is another character.
+     */
+    private static int number(char[] chars, int offset, int digits) {
+        int value = 0;
+        for (int i = offset; i < offset + digits; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bank.json;
+
+import com.example.bank.dto.TransactionDto;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Hand-written reading of {@link TransactionDto} request bodies: a single pass over the
+ * tokens without the reflective bean deserializer. Unknown fields follow the mapper's
+ * {@code FAIL_ON_UNKNOWN_PROPERTIES} setting like the default.
+ */
+@JsonComponent
+public class TransactionDtoJson {
+
+    public static class Deserializer extends JsonDeserializer<TransactionDto> {
+
+        @Override
+        public TransactionDto deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            TransactionDto dto = new TransactionDto();
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                parser.nextToken();
+            } else if (parser.currentToken() != JsonToken.FIELD_NAME) {
+                return (TransactionDto) context.handleUnexpectedToken(TransactionDto.class, parser);
+            }
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "description" -> dto.setDescription(TransactionResponseJson.readString(parser, context));
+                    case "amount" -> dto.setAmount(TransactionResponseJson.readAmount(parser, context));
+                    case "type" -> dto.setType(TransactionResponseJson.readString(parser, context));
+                    case "category" -> dto.setCategory(TransactionResponseJson.readString(parser, context));
+                    case "accountId" -> dto.setAccountId(TransactionResponseJson.readString(parser, context));
+                    default -> context.handleUnknownProperty(parser, this, TransactionDto.class, name);
+                }
+            }
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.bank.json;
+
+import com.example.bank.dto.TransactionResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Hand-written JSON mapping of {@link TransactionResponse}, the element of every list response.
+ * <p>
+ * Writes the same document as the reflective default, field for field, but encodes ids and
+ * timestamps straight into the generator's buffer and writes types and categories from
+ * pre-encoded strings. Amounts go through {@link BigDecimal#toString()}, which caches its
+ * result in the instance. Reading accepts everything the default does, taking a fast path for
+ * the canonical id and timestamp forms.
+ */
+@JsonComponent
+public class TransactionResponseJson {
+
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString DESCRIPTION = new SerializedString("description");
+    static final SerializedString AMOUNT = new SerializedString("amount");
+    static final SerializedString TYPE = new SerializedString("type");
+    static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    static final SerializedString CATEGORY = new SerializedString("category");
+    static final SerializedString ACCOUNT_ID = new SerializedString("accountId");
+
+    public static class Serializer extends JsonSerializer<TransactionResponse> {
+
+        @Override
+        public void serialize(TransactionResponse value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(value);
+            generator.writeFieldName(ID);
+            if (value.getId() == null) {
+                generator.writeNull();
+            } else {
+                JsonText.writeUuid(generator, value.getId());
+            }
+            generator.writeFieldName(DESCRIPTION);
+            generator.writeString(value.getDescription());
+            generator.writeFieldName(AMOUNT);
+            generator.writeNumber(value.getAmount());
+            generator.writeFieldName(TYPE);
+            writeCached(generator, value.getType());
+            generator.writeFieldName(TIMESTAMP);
+            if (value.getTimestamp() == null) {
+                generator.writeNull();
+            } else {
+                JsonText.writeTimestamp(generator, value.getTimestamp());
+            }
+            generator.writeFieldName(CATEGORY);
+            writeCached(generator, value.getCategory());
+            generator.writeFieldName(ACCOUNT_ID);
+            generator.writeString(value.getAccountId());
+            generator.writeEndObject();
+        }
+
+        private static void writeCached(JsonGenerator generator, String value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                JsonText.writeCachedString(generator, value);
+            }
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<TransactionResponse> {
+
+        @Override
+        public TransactionResponse deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            TransactionResponse response = new TransactionResponse();
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                parser.nextToken();
+            } else if (parser.currentToken() != JsonToken.FIELD_NAME) {
+                return (TransactionResponse) context.handleUnexpectedToken(TransactionResponse.class, parser);
+            }
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "id" -> response.setId(readUuid(parser, context));
+                    case "description" -> response.setDescription(readString(parser, context));
+                    case "amount" -> response.setAmount(readAmount(parser, context));
+                    case "type" -> response.setType(readString(parser, context));
+                    case "timestamp" -> response.setTimestamp(readTimestamp(parser, context));
+                    case "category" -> response.setCategory(readString(parser, context));
+                    case "accountId" -> response.setAccountId(readString(parser, context));
+                    default -> context.handleUnknownProperty(parser, this, TransactionResponse.class, name);
+                }
+            }
+            return response;
+        }
+    }
+
+    static String readString(JsonParser parser, DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, String.class);
+        };
+    }
+
+    static BigDecimal readAmount(JsonParser parser, DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, BigDecimal.class);
+        };
+    }
+
+    private static UUID readUuid(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            UUID id = JsonText.parseUuid(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            if (id != null) {
+                return id;
+            }
+        }
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : context.readValue(parser, UUID.class);
+    }
+
+    private static LocalDateTime readTimestamp(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            LocalDateTime timestamp = JsonText.parseTimestamp(parser.getTextCharacters(), parser.getTextOffset(),
+                    parser.getTextLength());
+            if (timestamp != null) {
+                return timestamp;
+            }
+        }
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : context.readValue(parser, LocalDateTime.class);
+    }
+}
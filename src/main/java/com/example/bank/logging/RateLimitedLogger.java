@@ -0,0 +1,61 @@
+package com.example.bank.logging;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs at most {@code permits} warnings per {@code interval}, for events that clients can
+ * trigger at any rate, such as lookups of ids that don't exist. Warnings beyond that are
+ * counted, and the count is reported with the first warning of a later interval.
+ */
+public class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int permits;
+    private final long intervalNanos;
+    private final AtomicLong windowStart;
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLogger(Logger logger, int permits, Duration interval) {
+        this.logger = logger;
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+        this.windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Logs {@code message} with the single placeholder filled in by {@code argument}, unless
+     * this interval's permits are used up.
+     */
+    public void warn(String message, Object argument) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            logged.set(0);
+        }
+        if (logged.incrementAndGet() > permits) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            logger.warn(message + " ({} similar messages suppressed)", argument, dropped);
+        } else {
+            logger.warn(message, argument);
+        }
+    }
+
+    /**
+     * Messages suppressed since the last one that was logged.
+     */
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+}
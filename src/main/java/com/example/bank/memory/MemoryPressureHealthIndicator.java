@@ -0,0 +1,36 @@
+package com.example.bank.memory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the {@link MemoryPressureMonitor} level. Out of service at {@code CRITICAL}, when the
+ * caches are off and requests may run into long collections; {@code memoryPressure} is part of
+ * the readiness group, so such an instance leaves rotation until it recovers while liveness
+ * stays up.
+ */
+@Component
+public class MemoryPressureHealthIndicator implements HealthIndicator {
+
+    private final MemoryPressureMonitor memoryPressureMonitor;
+
+    @Autowired
+    public MemoryPressureHealthIndicator(MemoryPressureMonitor memoryPressureMonitor) {
+        this.memoryPressureMonitor = memoryPressureMonitor;
+    }
+
+    @Override
+    public Health health() {
+        MemoryPressureMonitor.Level level = memoryPressureMonitor.getLevel();
+        Health.Builder builder = level == MemoryPressureMonitor.Level.CRITICAL ? Health.outOfService() : Health.up();
+        builder.withDetail("level", level.name().toLowerCase());
+        if (memoryPressureMonitor.getPoolName() != null) {
+            builder.withDetail("pool", memoryPressureMonitor.getPoolName())
+                    .withDetail("usedAfterGc", Math.round(memoryPressureMonitor.getUsedRatio() * 1000) / 1000.0)
+                    .withDetail("demoted", memoryPressureMonitor.getDemotedCount());
+        }
+        return builder.build();
+    }
+}
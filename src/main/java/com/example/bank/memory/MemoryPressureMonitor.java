@@ -0,0 +1,318 @@
+package com.example.bank.memory;
+
+import com.example.bank.config.CacheConfig;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.tier.TierMover;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds heap before the JVM runs out of it. Watches how full the old generation is after each
+ * garbage collection, which is what the live data needs, and maps that to a {@link Level}:
+ * <ul>
+ *   <li>{@code ELEVATED} halves the maximum of every Caffeine cache,</li>
+ *   <li>{@code HIGH} quarters them, drops the columnar amount copy and moves hot transactions
+ *       older than {@code high-hot-age} to the cold tier, taking them out of the heap indexes,</li>
+ *   <li>{@code CRITICAL} empties the caches and moves everything older than
+ *       {@code critical-hot-age}.</li>
+ * </ul>
+ * The level drops again once usage after a collection is {@code hysteresis} below the
+ * threshold that raised it, and the caches get their maximums back; demoted transactions stay
+ * in the cold tier.
+ * <p>
+ * Collections are noticed through GC notifications and the pool's collection usage threshold,
+ * set at the {@code elevated} fraction; the work is done on a thread of its own.
+ */
+@Component
+public class MemoryPressureMonitor implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryPressureMonitor.class);
+
+    public enum Level {
+        NORMAL(1.0), ELEVATED(0.5), HIGH(0.25), CRITICAL(0.0);
+
+        private final double cacheFactor;
+
+        Level(double cacheFactor) {
+            this.cacheFactor = cacheFactor;
+        }
+
+        /**
+         * Fraction of its configured maximum each cache keeps at this level.
+         */
+        public double cacheFactor() {
+            return cacheFactor;
+        }
+    }
+
+    private final CacheManager cacheManager;
+    private final TransactionRepository transactionRepository;
+    private final TierMover tierMover;
+    private final double[] thresholds;
+    private final double hysteresis;
+    private final Duration highHotAge;
+    private final Duration criticalHotAge;
+    private final ExecutorService executor;
+    private final MemoryPoolMXBean pool;
+    // Configured maximum of every cache, recorded before it is first shrunk.
+    private final Map<String, Long> cacheMaximums = new ConcurrentHashMap<>();
+    private final List<Runnable> unregister = new ArrayList<>();
+    private final AtomicLong demoted = new AtomicLong();
+    private final AtomicLong transitions = new AtomicLong();
+    private volatile Level level = Level.NORMAL;
+    private volatile double usedRatio;
+    // Only touched on the executor thread.
+    private Level applied = Level.NORMAL;
+
+    @Autowired
+    public MemoryPressureMonitor(CacheManager cacheManager, TransactionRepository transactionRepository,
+                                 TierMover tierMover,
+                                 @Value("${bank.memory.enabled:true}") boolean enabled,
+                                 @Value("${bank.memory.elevated:0.70}") double elevated,
+                                 @Value("${bank.memory.high:0.80}") double high,
+                                 @Value("${bank.memory.critical:0.90}") double critical,
+                                 @Value("${bank.memory.hysteresis:0.05}") double hysteresis,
+                                 @Value("${bank.memory.high-hot-age:1d}") Duration highHotAge,
+                                 @Value("${bank.memory.critical-hot-age:1h}") Duration criticalHotAge) {
+        this(cacheManager, transactionRepository, tierMover, elevated, high, critical, hysteresis, highHotAge,
+                criticalHotAge, Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "memory-pressure");
+                    thread.setDaemon(true);
+                    return thread;
+                }), enabled ? tenuredPool() : null);
+    }
+
+    MemoryPressureMonitor(CacheManager cacheManager, TransactionRepository transactionRepository,
+                          TierMover tierMover, double elevated, double high, double critical, double hysteresis,
+                          Duration highHotAge, Duration criticalHotAge, ExecutorService executor,
+                          MemoryPoolMXBean pool) {
+        if (!(0 < elevated && elevated < high && high < critical && critical < 1)) {
+            throw new IllegalArgumentException("Memory pressure thresholds must rise between 0 and 1: "
+                    + elevated + ", " + high + ", " + critical);
+        }
+        this.cacheManager = cacheManager;
+        this.transactionRepository = transactionRepository;
+        this.tierMover = tierMover;
+        this.thresholds = new double[]{0, elevated, high, critical};
+        this.hysteresis = hysteresis;
+        this.highHotAge = highHotAge;
+        this.criticalHotAge = criticalHotAge;
+        this.executor = executor;
+        this.pool = pool;
+        if (pool != null) {
+            listen(pool);
+            logger.info("Watching {} for memory pressure at {}, {} and {} of its maximum", pool.getName(),
+                    elevated, high, critical);
+        } else {
+            logger.info("Memory pressure monitoring is off");
+        }
+    }
+
+    /**
+     * Records the usage of the old generation right after a collection and moves to the level
+     * it calls for; shedding happens asynchronously.
+     */
+    synchronized void onCollection(MemoryUsage afterGc) {
+        long max = afterGc.getMax() > 0 ? afterGc.getMax() : Runtime.getRuntime().maxMemory();
+        double ratio = (double) afterGc.getUsed() / max;
+        usedRatio = ratio;
+        Level current = level;
+        Level next = levelFor(current, ratio);
+        if (next != current) {
+            level = next;
+            transitions.incrementAndGet();
+            if (next.compareTo(current) > 0) {
+                logger.warn("Memory pressure {} at {} of the old generation in use after GC", next,
+                        String.format("%.2f", ratio));
+            } else {
+                logger.info("Memory pressure down to {} at {} of the old generation in use after GC", next,
+                        String.format("%.2f", ratio));
+            }
+            executor.execute(this::applyLevel);
+        }
+    }
+
+    private Level levelFor(Level current, double ratio) {
+        Level[] levels = Level.values();
+        int next = 0;
+        for (int i = levels.length - 1; i > 0; i--) {
+            if (ratio >= thresholds[i]) {
+                next = i;
+                break;
+            }
+        }
+        // Stay up until usage has come down clearly, so that one collection doesn't flap the caches.
+        if (next < current.ordinal() && ratio >= thresholds[current.ordinal()] - hysteresis) {
+            next = current.ordinal();
+        }
+        return levels[next];
+    }
+
+    private void applyLevel() {
+        Level target = level;
+        if (target == applied) {
+            return;
+        }
+        try {
+            resizeCaches(target);
+            if (target.compareTo(Level.HIGH) >= 0) {
+                transactionRepository.releaseAmountColumns();
+                Duration age = target == Level.CRITICAL ? criticalHotAge : highHotAge;
+                demoted.addAndGet(tierMover.moveOlderThan(age));
+            }
+            applied = target;
+        } catch (RuntimeException e) {
+            logger.error("Failed to shed memory at pressure level {}", target, e);
+        }
+    }
+
+    private void resizeCaches(Level target) {
+        for (String name : cacheManager.getCacheNames()) {
+            com.github.benmanes.caffeine.cache.Cache<?, ?> cache = CacheConfig.nativeCache(cacheManager, name);
+            if (cache == null) {
+                continue;
+            }
+            cache.policy().eviction().ifPresent(eviction -> {
+                long maximum = cacheMaximums.computeIfAbsent(name, key -> eviction.getMaximum());
+                eviction.setMaximum((long) (maximum * target.cacheFactor()));
+            });
+            if (target == Level.CRITICAL) {
+                cache.invalidateAll();
+            }
+        }
+        logger.debug("Caches resized to {} of their maximum", target.cacheFactor());
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Fraction of the old generation in use after the last collection.
+     */
+    public double getUsedRatio() {
+        return usedRatio;
+    }
+
+    /**
+     * Name of the watched memory pool, null if monitoring is off.
+     */
+    public String getPoolName() {
+        return pool != null ? pool.getName() : null;
+    }
+
+    public long getDemotedCount() {
+        return demoted.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.memory.pressure.level", this, monitor -> monitor.getLevel().ordinal())
+                .description("Memory pressure level: 0 normal, 1 elevated, 2 high, 3 critical")
+                .register(registry);
+        Gauge.builder("bank.memory.old.used.ratio", this, MemoryPressureMonitor::getUsedRatio)
+                .description("Fraction of the old generation in use after the last collection")
+                .register(registry);
+        FunctionCounter.builder("bank.memory.pressure.transitions", transitions, AtomicLong::get)
+                .description("Changes of the memory pressure level")
+                .register(registry);
+        FunctionCounter.builder("bank.memory.pressure.demoted", demoted, AtomicLong::get)
+                .description("Transactions moved to the cold tier under memory pressure")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        unregister.forEach(Runnable::run);
+        executor.shutdownNow();
+    }
+
+    /**
+     * The heap pool that holds long-lived objects: the one that supports both usage
+     * thresholds, which the young generation pools don't.
+     */
+    static MemoryPoolMXBean tenuredPool() {
+        for (MemoryPoolMXBean candidate : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (candidate.getType() == MemoryType.HEAP && candidate.isUsageThresholdSupported()
+                    && candidate.isCollectionUsageThresholdSupported()) {
+                return candidate;
+            }
+        }
+        logger.warn("No old generation pool found, memory pressure monitoring is off");
+        return null;
+    }
+
+    private void listen(MemoryPoolMXBean tenured) {
+        long max = tenured.getUsage().getMax() > 0 ? tenured.getUsage().getMax() : Runtime.getRuntime().maxMemory();
+        tenured.setCollectionUsageThreshold((long) (max * thresholds[Level.ELEVATED.ordinal()]));
+        NotificationListener thresholdListener = (notification, handback) -> {
+            if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+                MemoryNotificationInfo info = MemoryNotificationInfo.from((CompositeData) notification.getUserData());
+                if (tenured.getName().equals(info.getPoolName())) {
+                    onCollection(info.getUsage());
+                }
+            }
+        };
+        register((NotificationEmitter) ManagementFactory.getMemoryMXBean(), thresholdListener);
+
+        // The threshold only fires on the way up; collections bring the level down again.
+        NotificationListener gcListener = (notification, handback) -> onGc(tenured, notification);
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                register(emitter, gcListener);
+            }
+        }
+    }
+
+    private void onGc(MemoryPoolMXBean tenured, Notification notification) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        MemoryUsage afterGc = info.getGcInfo().getMemoryUsageAfterGc().get(tenured.getName());
+        if (afterGc != null) {
+            onCollection(afterGc);
+        }
+    }
+
+    private void register(NotificationEmitter emitter, NotificationListener listener) {
+        emitter.addNotificationListener(listener, null, null);
+        unregister.add(() -> {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // Already gone.
+            }
+        });
+    }
+}
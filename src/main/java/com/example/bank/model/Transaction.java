@@ -12,6 +12,7 @@ public class Transaction {
     private String type; // "CREDIT" or "DEBIT"
     private LocalDateTime timestamp;
     private String category;
+    private String accountId; // null for transactions that belong to no account
 
     public Transaction() {
         this.id = UUID.randomUUID();
@@ -75,6 +76,14 @@ public class Transaction {
         this.category = category;
     }
 
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,28 +1,256 @@
 package com.example.bank.repository;
 
 import com.example.bank.model.Transaction;
+import com.example.bank.repository.account.AccountLedgers;
+import com.example.bank.repository.column.AmountColumns;
+import com.example.bank.repository.column.AmountKernel;
+import com.example.bank.repository.column.AmountSummary;
+import com.example.bank.repository.history.TransactionHistory;
+import com.example.bank.repository.index.DescriptionIndex;
+import com.example.bank.repository.index.HashIndex;
+import com.example.bank.repository.index.PartitionedSortedIndex;
+import com.example.bank.repository.index.SortedIndex;
+import com.example.bank.repository.mvcc.ReadSnapshot;
+import com.example.bank.repository.mvcc.VersionStore;
+import com.example.bank.repository.query.MergeSorted;
+import com.example.bank.repository.query.QueryPlan;
+import com.example.bank.repository.query.QueryPlanner;
+import com.example.bank.repository.query.TopN;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.sketch.CategorySketches;
+import com.example.bank.repository.store.InMemoryTransactionStore;
+import com.example.bank.repository.store.TransactionStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Repository
 public class TransactionRepository {
     private static final Logger logger = LoggerFactory.getLogger(TransactionRepository.class);
-    private final Map<UUID, Transaction> transactions = new ConcurrentHashMap<>();
+    private static final int LOCK_STRIPES = 64;
+
+    // The working set; the store's own map when it keeps its rows on the heap, then written through the store only.
+    private final Map<UUID, Transaction> transactions;
+    private final boolean sharesRows;
+    private final DescriptionIndex descriptionIndex = new DescriptionIndex();
+    private final SortedIndex<BigDecimal> amountIndex = new SortedIndex<>();
+    private final SortedIndex<LocalDateTime> timestampIndex = new SortedIndex<>();
+    private final HashIndex typeIndex = new HashIndex();
+    private final HashIndex categoryIndex = new HashIndex();
+    private final PartitionedSortedIndex<LocalDateTime> categoryTimestampIndex = new PartitionedSortedIndex<>();
+    private final QueryPlanner queryPlanner;
+    // Writes to the same id are serialized so that the map and the secondary indexes agree.
+    private final Lock[] writeLocks = new Lock[LOCK_STRIPES];
+    // Bumped on every write of a stripe, lets the tier mover detect rows written while it copied them.
+    private final AtomicLongArray writeVersions = new AtomicLongArray(LOCK_STRIPES);
+    // Bumped on every write, the amount columns are rebuilt once it has moved on and they are older
+    // than the max staleness; one rebuild runs at a time while the others serve the last columns.
+    private final AtomicLong modifications = new AtomicLong();
+    private final Duration summaryMaxStaleness;
+    private final Lock amountColumnsLock = new ReentrantLock();
+    private volatile ColumnSnapshot amountColumns;
+    // Amount quantiles and category counts of every stored row, hot or not; written rows must not be
+    // changed afterwards, since an update subtracts the row it replaces.
+    private final CategorySketches sketches = new CategorySketches();
+    // Time-ordered ids and balance of each account, over every stored row like the sketches.
+    private final AccountLedgers accounts = new AccountLedgers();
+    // Replaced rows that open read snapshots still see.
+    private final VersionStore versions = new VersionStore();
+    // Reverse deltas of every write since startup, for reads as of a point in time.
+    private final TransactionHistory history;
+    // System of record for every transaction, written ahead of the map above. The map and the indexes
+    // hold the working set of recent rows; older ones are only read back from here.
+    private final TransactionStore store;
+    // Upper bound of the timestamps of rows that are only in the store, null when there are none.
+    private volatile LocalDateTime storeOnlyNewest;
+
+    public TransactionRepository() {
+        this(new InMemoryTransactionStore());
+    }
+
+    public TransactionRepository(TransactionStore store) {
+        this(store, new TransactionHistory());
+    }
+
+    public TransactionRepository(TransactionStore store, TransactionHistory history) {
+        this(store, history, Duration.ZERO);
+    }
+
+    @Autowired
+    public TransactionRepository(TransactionStore store, TransactionHistory history,
+                                 @Value("${bank.summary.max-staleness:1s}") Duration summaryMaxStaleness) {
+        this.store = store;
+        this.history = history;
+        this.summaryMaxStaleness = summaryMaxStaleness;
+        Map<UUID, Transaction> heapRows = store.shareHeapRows();
+        this.sharesRows = heapRows != null;
+        this.transactions = sharesRows ? heapRows : new ConcurrentHashMap<>();
+        this.queryPlanner = new QueryPlanner(typeIndex, categoryIndex, amountIndex, timestampIndex, descriptionIndex,
+                () -> transactions.keySet().stream(), transactions::size);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            writeLocks[i] = new ReentrantLock();
+        }
+        // Rows already in a shared map are on the heap from the start.
+        transactions.values().forEach(this::index);
+        if (store.size() > 0) {
+            // Nothing is on the heap until promoteNewerThan has run.
+            storeOnlyNewest = LocalDateTime.MAX;
+            try (Stream<Transaction> rows = store.stream()) {
+                rows.forEach(transaction -> replaceInAggregates(null, transaction));
+            }
+            logger.info("Built amount sketches over {} stored transactions and ledgers of {} accounts",
+                    sketches.all().count(), accounts.accountCount());
+        }
+    }
 
     public Transaction save(Transaction transaction) {
         logger.debug("Attempting to save transaction with ID: {}", transaction.getId());
-        transactions.put(transaction.getId(), transaction);
+        int stripe = stripe(transaction.getId());
+        Lock lock = writeLocks[stripe];
+        lock.lock();
+        try {
+            Transaction previous = previous(transaction.getId());
+            long version = versions.beginWrite();
+            try {
+                versions.retain(version, transaction.getId(), previous);
+                history.record(transaction.getId(), previous, transaction);
+                // Written first, so a failed write leaves the heap untouched.
+                store.put(transaction);
+                if (!sharesRows) {
+                    transactions.put(transaction.getId(), transaction);
+                }
+            } finally {
+                versions.endWrite();
+            }
+            index(transaction);
+            replaceInAggregates(previous, transaction);
+            writeVersions.incrementAndGet(stripe);
+            modifications.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
         logger.info("Transaction saved successfully with ID: {}", transaction.getId());
         return transaction;
     }
 
+    /**
+     * Saves all of {@code batch}, which must have distinct ids, with one batched write
+     * to the store. The lock stripes of all rows are held together, taken in stripe order.
+     */
+    public void saveAll(List<Transaction> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        withWriteLocks(batch, () -> {
+            apply(batch);
+            return null;
+        });
+        logger.debug("Saved batch of {} transactions", batch.size());
+    }
+
+    /**
+     * Saves {@code debit} and {@code credit}, the two legs of a transfer between accounts, if the
+     * debited account's balance covers the debit's amount; otherwise saves neither and returns
+     * false. The locks of both ids and then of both accounts are held, each set taken in stripe
+     * order, from the balance check until both legs are applied, so no reader sees one leg
+     * without the other and no concurrent transfer spends the same balance. Both legs go to the
+     * store in one batched write; if it fails, neither is applied.
+     */
+    public boolean transfer(Transaction debit, Transaction credit) {
+        logger.debug("Attempting transfer of {} from account {} to {}", debit.getAmount(),
+                debit.getAccountId(), credit.getAccountId());
+        List<Transaction> legs = List.of(debit, credit);
+        boolean applied = withWriteLocks(legs, () ->
+                accounts.locked(List.of(debit.getAccountId(), credit.getAccountId()), () -> {
+                    AccountLedgers.Balance balance = accounts.balance(debit.getAccountId());
+                    if (balance == null || balance.balance().compareTo(debit.getAmount()) < 0) {
+                        return false;
+                    }
+                    apply(legs);
+                    return true;
+                }));
+        if (applied) {
+            logger.info("Transfer saved with debit ID: {} and credit ID: {}", debit.getId(), credit.getId());
+        } else {
+            logger.debug("Balance of account {} does not cover {}", debit.getAccountId(), debit.getAmount());
+        }
+        return applied;
+    }
+
+    /**
+     * Runs {@code action} holding the write locks of the ids of {@code rows}, taken in stripe order.
+     */
+    private <T> T withWriteLocks(List<Transaction> rows, Supplier<T> action) {
+        BitSet stripes = new BitSet(LOCK_STRIPES);
+        for (Transaction transaction : rows) {
+            stripes.set(stripe(transaction.getId()));
+        }
+        int locked = -1;
+        try {
+            for (int stripe = stripes.nextSetBit(0); stripe >= 0; stripe = stripes.nextSetBit(stripe + 1)) {
+                writeLocks[stripe].lock();
+                locked = stripe;
+            }
+            return action.get();
+        } finally {
+            for (int stripe = stripes.nextSetBit(0); stripe >= 0 && stripe <= locked;
+                 stripe = stripes.nextSetBit(stripe + 1)) {
+                writeLocks[stripe].unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes {@code batch} to the store and then to the heap; the caller holds the locks of its ids.
+     */
+    private void apply(List<Transaction> batch) {
+        List<Transaction> previous = new ArrayList<>(batch.size());
+        for (Transaction transaction : batch) {
+            previous.add(previous(transaction.getId()));
+        }
+        // One version for the whole batch, so that snapshots see all of it or none.
+        long version = versions.beginWrite();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                versions.retain(version, batch.get(i).getId(), previous.get(i));
+                history.record(batch.get(i).getId(), previous.get(i), batch.get(i));
+            }
+            store.putAll(batch);
+            if (!sharesRows) {
+                for (Transaction transaction : batch) {
+                    transactions.put(transaction.getId(), transaction);
+                }
+            }
+        } finally {
+            versions.endWrite();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Transaction transaction = batch.get(i);
+            index(transaction);
+            replaceInAggregates(previous.get(i), transaction);
+            writeVersions.incrementAndGet(stripe(transaction.getId()));
+        }
+        modifications.incrementAndGet();
+    }
+
     public Optional<Transaction> findById(UUID id) {
         logger.debug("Looking up transaction by ID: {}", id);
-        Optional<Transaction> result = Optional.ofNullable(transactions.get(id));
+        Optional<Transaction> result = Optional.ofNullable(load(id));
         if (result.isPresent()) {
             logger.debug("Found transaction with ID: {}", id);
         } else {
@@ -34,14 +262,44 @@ public class TransactionRepository {
     public List<Transaction> findAll() {
         logger.debug("Retrieving all transactions");
         List<Transaction> result = new ArrayList<>(transactions.values());
+        if (hasColdRows()) {
+            // A row moving between tiers meanwhile may be seen in both.
+            Set<UUID> seen = new HashSet<>(transactions.keySet());
+            try (Stream<Transaction> cold = scanCold(TransactionQuery.builder().build())) {
+                cold.filter(t -> seen.add(t.getId())).forEach(result::add);
+            }
+        }
         logger.info("Returning {} transactions", result.size());
         return result;
     }
 
     public void deleteById(UUID id) {
         logger.debug("Attempting to delete transaction with ID: {}", id);
-        if (transactions.containsKey(id)) {
-            transactions.remove(id);
+        int stripe = stripe(id);
+        Lock lock = writeLocks[stripe];
+        lock.lock();
+        boolean removed;
+        try {
+            Transaction previous = previous(id);
+            long version = versions.beginWrite();
+            try {
+                versions.retain(version, id, previous);
+                history.record(id, previous, null);
+                removed = store.delete(id);
+                removed |= transactions.remove(id) != null;
+            } finally {
+                versions.endWrite();
+            }
+            if (removed) {
+                unindex(id);
+                replaceInAggregates(previous, null);
+                writeVersions.incrementAndGet(stripe);
+                modifications.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
             logger.info("Transaction deleted successfully with ID: {}", id);
         } else {
             logger.warn("Attempted to delete non-existent transaction with ID: {}", id);
@@ -50,8 +308,657 @@ public class TransactionRepository {
 
     public boolean existsById(UUID id) {
         logger.debug("Checking existence of transaction with ID: {}", id);
-        boolean exists = transactions.containsKey(id);
+        boolean exists = transactions.containsKey(id) || store.contains(id);
         logger.debug("Transaction with ID {} {} exists", id, exists ? "does" : "does not");
         return exists;
     }
-}
\ No newline at end of file
+
+    /**
+     * Full-text search over descriptions, best match first. Matches in the cold tier are not
+     * ranked and follow the hot ones, newest first.
+     */
+    public List<Transaction> search(String query, int limit) {
+        logger.debug("Searching transactions for query: {}", query);
+        List<Transaction> result = new ArrayList<>();
+        for (DescriptionIndex.ScoredId hit : descriptionIndex.search(query, limit)) {
+            Transaction transaction = transactions.get(hit.id());
+            if (transaction != null) {
+                result.add(transaction);
+            }
+        }
+        if (result.size() < limit && hasColdRows()) {
+            TransactionQuery newestFirst = TransactionQuery.builder()
+                    .text(query)
+                    .sort(TransactionQuery.SortField.TIMESTAMP, Sort.Direction.DESC)
+                    .build();
+            result.addAll(TopN.select(scanCold(newestFirst), QueryPlanner.comparator(newestFirst),
+                    limit - result.size()));
+        }
+        logger.debug("Search for '{}' matched {} transactions", query, result.size());
+        return result;
+    }
+
+    /**
+     * Transactions with {@code min <= amount <= max} in ascending amount order.
+     * A {@code null} bound is open.
+     */
+    public List<Transaction> findByAmountBetween(BigDecimal min, BigDecimal max) {
+        logger.debug("Range lookup by amount: [{}, {}]", min, max);
+        List<Transaction> result = query(TransactionQuery.builder()
+                .amountBetween(min, max)
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.ASC)
+                .build()).toList();
+        logger.debug("Amount range [{}, {}] matched {} transactions", min, max, result.size());
+        return result;
+    }
+
+    /**
+     * Transactions with {@code from <= timestamp < to} in ascending time order.
+     * A {@code null} bound is open.
+     */
+    public List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        logger.debug("Range lookup by timestamp: [{}, {})", from, to);
+        List<Transaction> result = query(TransactionQuery.builder()
+                .timeBetween(from, to)
+                .sort(TransactionQuery.SortField.TIMESTAMP, Sort.Direction.ASC)
+                .build()).toList();
+        logger.debug("Timestamp range [{}, {}) matched {} transactions", from, to, result.size());
+        return result;
+    }
+
+    /**
+     * Evaluates a multi-filter query through the access path chosen by {@link QueryPlanner}.
+     * The result is lazy: rows are loaded while the stream is consumed, and only a bounded
+     * heap of {@code limit} rows is held when the driver doesn't already produce the
+     * requested order. Cold rows come from a scan of the segments that can match and are
+     * merged into the requested order. A query with a point in time is answered from the
+     * history, see {@link #queryAsOf}.
+     */
+    public Stream<Transaction> query(TransactionQuery query) {
+        if (query.getAsOf() != null) {
+            return queryAsOf(query);
+        }
+        Stream<Transaction> hot = queryHot(query);
+        if (!hasColdRows()) {
+            return hot;
+        }
+        Integer limit = query.getLimit();
+        if (query.getSortField() == null) {
+            Stream<Transaction> rows = Stream.concat(hot, scanCold(query));
+            return limit != null ? rows.limit(limit) : rows;
+        }
+        Comparator<Transaction> order = QueryPlanner.comparator(query);
+        if (limit != null && query.getSortField() == TransactionQuery.SortField.TIMESTAMP
+                && query.getSortDirection() == Sort.Direction.DESC) {
+            List<Transaction> newest = hot.toList();
+            if (newerThanColdTier(newest, limit)) {
+                return newest.stream();
+            }
+            hot = newest.stream();
+        }
+        Stream<Transaction> cold = scanCold(query);
+        cold = limit != null ? TopN.select(cold, order, limit).stream() : cold.sorted(order);
+        Stream<Transaction> rows = MergeSorted.merge(hot, cold, order);
+        return limit != null ? rows.limit(limit) : rows;
+    }
+
+    /**
+     * The {@code limit} largest transactions, optionally of one type, largest first. The
+     * planner either walks the amount index from the top or keeps a bounded heap over the
+     * type's rows, whichever is expected to touch fewer entries.
+     */
+    public List<Transaction> findTopByAmount(String type, int limit) {
+        logger.debug("Top {} lookup by amount for type: {}", limit, type);
+        List<Transaction> result = query(TransactionQuery.builder()
+                .type(type)
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.DESC)
+                .limit(limit)
+                .build()).toList();
+        logger.debug("Top by amount for type {} returned {} transactions", type, result.size());
+        return result;
+    }
+
+    /**
+     * The {@code limit} most recent transactions of a category, newest first, read from the
+     * per-category timestamp index in O(limit). The cold tier is only scanned when the hot
+     * rows alone can't fill the result with rows newer than any cold one.
+     */
+    public List<Transaction> findLatestByCategory(String category, int limit) {
+        logger.debug("Latest {} lookup for category: {}", limit, category);
+        List<Transaction> result = resolve(categoryTimestampIndex.descending(category).limit(limit).iterator());
+        if (hasColdRows() && !newerThanColdTier(result, limit)) {
+            TransactionQuery newestFirst = TransactionQuery.builder()
+                    .category(category)
+                    .sort(TransactionQuery.SortField.TIMESTAMP, Sort.Direction.DESC)
+                    .limit(limit)
+                    .build();
+            Comparator<Transaction> order = QueryPlanner.comparator(newestFirst);
+            result = MergeSorted.merge(result.stream(),
+                    TopN.select(scanCold(newestFirst), order, limit).stream(), order).limit(limit).toList();
+        }
+        logger.debug("Latest for category {} returned {} transactions", category, result.size());
+        return result;
+    }
+
+    /**
+     * Count, sum, min and max of the amounts of the transactions with {@code type} and
+     * {@code category} ({@code null} matches any). Computed by an {@link AmountKernel} over
+     * columnar amounts; when the amounts can't be represented exactly in the columns, falls back
+     * to summing {@link BigDecimal}s.
+     * <p>
+     * The columns are a copy of every row, rebuilt from all of them after writes, not updated in
+     * place. So that a steady stream of writes doesn't turn every summary into a full rebuild,
+     * columns built less than the max staleness ago keep being served: a summary may miss the
+     * writes of that long.
+     */
+    public AmountSummary summarizeAmounts(String type, String category) {
+        AmountColumns columns = amountColumns();
+        if (columns != null) {
+            return columns.summarize(type, category);
+        }
+        logger.debug("Amounts not representable as columns, summing exactly");
+        AmountSummary summary = AmountSummary.EMPTY;
+        for (Transaction transaction : findAll()) {
+            if (transaction.getAmount() != null
+                    && (type == null || type.equalsIgnoreCase(transaction.getType()))
+                    && (category == null || category.equalsIgnoreCase(transaction.getCategory()))) {
+                summary = summary.plus(transaction.getAmount());
+            }
+        }
+        return summary;
+    }
+
+    private AmountColumns amountColumns() {
+        ColumnSnapshot snapshot = amountColumns;
+        if (snapshot != null && (snapshot.modification() == modifications.get() || fresh(snapshot))) {
+            return snapshot.columns();
+        }
+        if (snapshot != null && !summaryMaxStaleness.isZero()) {
+            if (!amountColumnsLock.tryLock()) {
+                return snapshot.columns();
+            }
+        } else {
+            amountColumnsLock.lock();
+        }
+        try {
+            snapshot = amountColumns;
+            long modification = modifications.get();
+            if (snapshot == null || (snapshot.modification() != modification && !fresh(snapshot))) {
+                long builtAt = System.nanoTime();
+                snapshot = new ColumnSnapshot(modification, builtAt, AmountColumns.of(findAll()));
+                amountColumns = snapshot;
+                logger.debug("Rebuilt amount columns at modification {}", modification);
+            }
+            return snapshot.columns();
+        } finally {
+            amountColumnsLock.unlock();
+        }
+    }
+
+    private boolean fresh(ColumnSnapshot snapshot) {
+        return System.nanoTime() - snapshot.builtAt() < summaryMaxStaleness.toNanos();
+    }
+
+    /**
+     * Drops the columnar copy of the amounts; the next summary rebuilds it.
+     */
+    public void releaseAmountColumns() {
+        amountColumns = null;
+    }
+
+    private Stream<Transaction> queryHot(TransactionQuery query) {
+        QueryPlan plan = queryPlanner.plan(query);
+        logger.debug("Executing {} using {}", query, plan);
+        Stream<Transaction> rows = plan.ids()
+                .map(transactions::get)
+                .filter(Objects::nonNull);
+        Integer limit = query.getLimit();
+        if (query.getSortField() != null && !plan.isOrdered()) {
+            Comparator<Transaction> order = QueryPlanner.comparator(query);
+            return limit != null ? TopN.select(rows, order, limit).stream() : rows.sorted(order);
+        }
+        return limit != null ? rows.limit(limit) : rows;
+    }
+
+    /**
+     * Whether {@code newest}, sorted newest first, already holds {@code limit} rows that are
+     * all newer than every cold row.
+     */
+    private boolean newerThanColdTier(List<Transaction> newest, int limit) {
+        if (newest.size() < limit) {
+            return false;
+        }
+        LocalDateTime oldest = newest.get(newest.size() - 1).getTimestamp();
+        LocalDateTime coldNewest = storeOnlyNewest;
+        return coldNewest == null || (oldest != null && oldest.isAfter(coldNewest));
+    }
+
+    private List<Transaction> resolve(Iterator<UUID> ids) {
+        List<Transaction> result = new ArrayList<>();
+        while (ids.hasNext()) {
+            Transaction transaction = transactions.get(ids.next());
+            if (transaction != null) {
+                result.add(transaction);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops up to {@code maxRows} hot transactions with a timestamp before {@code cutoff}
+     * from the heap and its indexes, leaving them to the store, which may move them to
+     * cheaper storage first. Rows written or deleted meanwhile keep their current state and
+     * are written to the store again. Returns the number of rows moved.
+     */
+    public int demoteOlderThan(LocalDateTime cutoff, int maxRows) {
+        List<Transaction> batch = new ArrayList<>();
+        for (Transaction transaction : transactions.values()) {
+            if (batch.size() >= maxRows) {
+                break;
+            }
+            LocalDateTime timestamp = transaction.getTimestamp();
+            if (timestamp != null && timestamp.isBefore(cutoff)) {
+                batch.add(transaction);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // Cold segments cover narrow time ranges, so time filters can skip most of them.
+        batch.sort(Comparator.comparing(Transaction::getTimestamp));
+        // Versions are read before the store copies the rows, so any later write shows up as a mismatch.
+        long[] versions = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            versions[i] = writeVersions.get(stripe(batch.get(i).getId()));
+        }
+        store.evicted(batch);
+
+        int moved = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Transaction transaction = batch.get(i);
+            int stripe = stripe(transaction.getId());
+            Lock lock = writeLocks[stripe];
+            lock.lock();
+            try {
+                Transaction current = transactions.get(transaction.getId());
+                if (writeVersions.get(stripe) == versions[i] && current == transaction) {
+                    LocalDateTime newest = storeOnlyNewest;
+                    if (newest == null || transaction.getTimestamp().isAfter(newest)) {
+                        storeOnlyNewest = transaction.getTimestamp();
+                    }
+                    transactions.remove(transaction.getId());
+                    unindex(transaction.getId());
+                    moved++;
+                } else if (current != null) {
+                    // Updated meanwhile and still hot; the store may have copied the old state.
+                    store.put(current);
+                } else {
+                    // Deleted meanwhile, make sure no copy survives.
+                    store.delete(transaction.getId());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        logger.info("Moved {} of {} transactions older than {} off the heap", moved, batch.size(), cutoff);
+        return moved;
+    }
+
+    /**
+     * Loads the stored transactions with a timestamp from {@code cutoff} on, or without one,
+     * onto the heap, typically once at startup. Until then every row is read from the store.
+     * Must not run concurrently with {@link #demoteOlderThan}. Returns the number of rows loaded.
+     */
+    public int promoteNewerThan(LocalDateTime cutoff) {
+        int promoted = 0;
+        LocalDateTime newestLeft = null;
+        try (Stream<Transaction> rows = store.stream()) {
+            for (Iterator<Transaction> iterator = rows.iterator(); iterator.hasNext(); ) {
+                Transaction transaction = iterator.next();
+                LocalDateTime timestamp = transaction.getTimestamp();
+                if (timestamp != null && timestamp.isBefore(cutoff)) {
+                    newestLeft = newestLeft == null || timestamp.isAfter(newestLeft) ? timestamp : newestLeft;
+                    continue;
+                }
+                Lock lock = writeLocks[stripe(transaction.getId())];
+                lock.lock();
+                try {
+                    // Rows written or deleted since they were read keep their current state.
+                    if (!transactions.containsKey(transaction.getId()) && store.contains(transaction.getId())) {
+                        if (sharesRows) {
+                            // Into the shared map, and out of wherever else the store kept it.
+                            store.put(transaction);
+                        } else {
+                            transactions.put(transaction.getId(), transaction);
+                        }
+                        index(transaction);
+                        promoted++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        storeOnlyNewest = newestLeft;
+        if (promoted > 0) {
+            logger.info("Loaded {} transactions from {} on from the {} store onto the heap", promoted, cutoff, store.name());
+        }
+        return promoted;
+    }
+
+    /**
+     * Opens a read snapshot of every write so far; it must be released with
+     * {@link #releaseSnapshot}, since the rows replaced meanwhile are kept until then.
+     */
+    public ReadSnapshot openSnapshot() {
+        ReadSnapshot snapshot = versions.open();
+        logger.debug("Opened read snapshot at version {}", snapshot.version());
+        return snapshot;
+    }
+
+    public void releaseSnapshot(ReadSnapshot snapshot) {
+        versions.release(snapshot);
+        logger.debug("Released read snapshot at version {}, {} versions still retained",
+                snapshot.version(), versions.retainedCount());
+    }
+
+    /**
+     * Every transaction as it was when {@code snapshot} was opened, in no particular but a
+     * fixed order: the view is listed once, on the first call, and that list is returned from
+     * then on. Listing costs a pass over the current rows, like {@link #findAll()}.
+     */
+    public List<Transaction> findAll(ReadSnapshot snapshot) {
+        return snapshot.rows(() -> {
+            List<Transaction> current = findAll();
+            Set<UUID> seen = new HashSet<>();
+            List<Transaction> rows = new ArrayList<>(current.size());
+            for (Transaction transaction : current) {
+                seen.add(transaction.getId());
+                Transaction row = versions.asOf(snapshot, transaction.getId(), transaction);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+            // Rows deleted since the snapshot was opened are only among the retained versions.
+            for (UUID id : versions.changedIds()) {
+                if (seen.add(id)) {
+                    Transaction row = versions.asOf(snapshot, id, load(id));
+                    if (row != null) {
+                        rows.add(row);
+                    }
+                }
+            }
+            checkNotReleased(snapshot);
+            logger.info("Listed {} transactions of read snapshot at version {}", rows.size(), snapshot.version());
+            return rows;
+        });
+    }
+
+    /**
+     * Transaction {@code id} as it was when {@code snapshot} was opened.
+     */
+    public Optional<Transaction> findById(ReadSnapshot snapshot, UUID id) {
+        Transaction row = versions.asOf(snapshot, id, load(id));
+        checkNotReleased(snapshot);
+        return Optional.ofNullable(row);
+    }
+
+    /**
+     * Number of open read snapshots.
+     */
+    public int openSnapshotCount() {
+        return versions.openCount();
+    }
+
+    /**
+     * Number of replaced rows kept for open read snapshots.
+     */
+    public long retainedVersionCount() {
+        return versions.retainedCount();
+    }
+
+    /**
+     * Transaction {@code id} as it was at {@code asOf}.
+     *
+     * @throws IllegalArgumentException if {@code asOf} is before the {@link #historyHorizon}
+     */
+    public Optional<Transaction> findById(UUID id, LocalDateTime asOf) {
+        TransactionHistory.PointInTime at = history.at(asOf);
+        Transaction row = at.row(id, load(id));
+        at.checkRetained();
+        return Optional.ofNullable(row);
+    }
+
+    /**
+     * Every transaction as it was at {@code asOf}, in no particular order. Costs a pass over the
+     * current rows, like {@link #findAll()}, plus undoing the changes made since.
+     *
+     * @throws IllegalArgumentException if {@code asOf} is before the {@link #historyHorizon}
+     */
+    public List<Transaction> findAll(LocalDateTime asOf) {
+        TransactionHistory.PointInTime at = history.at(asOf);
+        List<Transaction> current = findAll();
+        Set<UUID> seen = new HashSet<>();
+        List<Transaction> rows = new ArrayList<>(current.size());
+        for (Transaction transaction : current) {
+            seen.add(transaction.getId());
+            Transaction row = at.row(transaction.getId(), transaction);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        // Rows deleted since are only in the history.
+        for (UUID id : at.changedIds()) {
+            if (seen.add(id)) {
+                Transaction row = at.row(id, load(id));
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+        }
+        at.checkRetained();
+        logger.info("Listed {} transactions as of {}", rows.size(), asOf);
+        return rows;
+    }
+
+    /**
+     * Earliest point in time that reads can be made as of.
+     */
+    public LocalDateTime historyHorizon() {
+        return history.horizon();
+    }
+
+    /**
+     * Evaluates {@code query} over the rows as they were at its point in time. Rows unchanged
+     * since then come from the current result, through the indexes; only the rows changed since,
+     * which the history lists, are reconstructed and filtered one by one, and merged in. The
+     * current result is fetched with as many extra rows as there are changed ones, since those
+     * may all drop out of it.
+     */
+    private Stream<Transaction> queryAsOf(TransactionQuery query) {
+        TransactionHistory.PointInTime at = history.at(query.getAsOf());
+        Integer limit = query.getLimit();
+        int changed = at.changedIds().size();
+        Integer fetched = limit == null ? null : (int) Math.min(Integer.MAX_VALUE, (long) limit + changed);
+        List<Transaction> unchanged = new ArrayList<>();
+        int dropped = unchangedRows(query.toBuilder().asOf(null).limit(fetched).build(), at, unchanged);
+        if (fetched != null && unchanged.size() + dropped == fetched && unchanged.size() < limit) {
+            // Rows written meanwhile dropped out too, so the cut may have missed some; fetch everything.
+            unchanged.clear();
+            unchangedRows(query.toBuilder().asOf(null).limit(null).build(), at, unchanged);
+        }
+        Set<UUID> seen = new HashSet<>();
+        for (Transaction transaction : unchanged) {
+            seen.add(transaction.getId());
+        }
+        List<Transaction> past = new ArrayList<>();
+        for (UUID id : at.changedIds()) {
+            if (!seen.contains(id)) {
+                Transaction row = at.row(id, load(id));
+                if (row != null && query.matches(row)) {
+                    past.add(row);
+                }
+            }
+        }
+        at.checkRetained();
+        logger.debug("Query {} found {} unchanged and {} reconstructed rows", query, unchanged.size(), past.size());
+        Stream<Transaction> rows;
+        if (query.getSortField() == null) {
+            rows = Stream.concat(unchanged.stream(), past.stream());
+        } else {
+            Comparator<Transaction> order = QueryPlanner.comparator(query);
+            past.sort(order);
+            rows = MergeSorted.merge(unchanged.stream(), past.stream(), order);
+        }
+        return limit != null ? rows.limit(limit) : rows;
+    }
+
+    /**
+     * Adds the rows of {@code current} that {@code at} has no later changes of to {@code unchanged},
+     * in order, and returns how many others there were.
+     */
+    private int unchangedRows(TransactionQuery current, TransactionHistory.PointInTime at, List<Transaction> unchanged) {
+        int dropped = 0;
+        try (Stream<Transaction> rows = query(current)) {
+            for (Iterator<Transaction> it = rows.iterator(); it.hasNext(); ) {
+                Transaction transaction = it.next();
+                if (at.changed(transaction.getId())) {
+                    dropped++;
+                } else {
+                    unchanged.add(transaction);
+                }
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Up to {@code limit} transactions of {@code accountId} with a timestamp before
+     * {@code before}, or its latest ones if that is null, newest first. Only the account's own
+     * rows are touched: their ids come from its ledger and each is loaded from the heap or,
+     * if it was moved off, from the store.
+     */
+    public List<Transaction> findByAccount(String accountId, LocalDateTime before, int limit) {
+        logger.debug("History lookup of account {} before {}, limit {}", accountId, before, limit);
+        List<Transaction> result = new ArrayList<>();
+        for (UUID id : accounts.history(accountId, before, limit)) {
+            // Deleted since the ledger was read.
+            Transaction transaction = load(id);
+            if (transaction != null) {
+                result.add(transaction);
+            }
+        }
+        logger.debug("History of account {} returned {} transactions", accountId, result.size());
+        return result;
+    }
+
+    /**
+     * Balance of {@code accountId} over all its stored transactions, empty if it has none.
+     */
+    public Optional<AccountLedgers.Balance> findAccountBalance(String accountId) {
+        return Optional.ofNullable(accounts.balance(accountId));
+    }
+
+    /**
+     * Amount quantiles per category and distinct category count of all stored transactions.
+     */
+    public CategorySketches sketches() {
+        return sketches;
+    }
+
+    /**
+     * Number of transactions held on the heap.
+     */
+    public int hotCount() {
+        return transactions.size();
+    }
+
+    /**
+     * Up to {@code limit} categories of the transactions on the heap, most frequent first, each
+     * spelled as in one of its transactions.
+     */
+    public List<String> findTopCategories(int limit) {
+        return categoryIndex.keys().stream()
+                .map(key -> Map.entry(key, categoryIndex.get(key)))
+                .filter(entry -> !entry.getValue().isEmpty())
+                .sorted(Comparator.comparingInt((Map.Entry<String, Set<UUID>> entry) -> entry.getValue().size())
+                        .reversed())
+                .limit(limit)
+                .map(entry -> entry.getValue().stream()
+                        .map(transactions::get)
+                        .filter(Objects::nonNull)
+                        .map(Transaction::getCategory)
+                        .findFirst()
+                        .orElse(entry.getKey()))
+                .toList();
+    }
+
+    private void index(Transaction transaction) {
+        descriptionIndex.index(transaction.getId(), transaction.getDescription());
+        amountIndex.index(transaction.getId(), transaction.getAmount());
+        timestampIndex.index(transaction.getId(), transaction.getTimestamp());
+        typeIndex.index(transaction.getId(), transaction.getType());
+        categoryIndex.index(transaction.getId(), transaction.getCategory());
+        categoryTimestampIndex.index(transaction.getId(), transaction.getCategory(), transaction.getTimestamp());
+    }
+
+    private void unindex(UUID id) {
+        descriptionIndex.remove(id);
+        amountIndex.remove(id);
+        timestampIndex.remove(id);
+        typeIndex.remove(id);
+        categoryIndex.remove(id);
+        categoryTimestampIndex.remove(id);
+    }
+
+    /**
+     * The stored row {@code id} is about to replace, null if there is none. Only rows that are
+     * not on the heap cost a store lookup.
+     */
+    private Transaction previous(UUID id) {
+        Transaction transaction = transactions.get(id);
+        return transaction != null || !hasColdRows() ? transaction : store.get(id);
+    }
+
+    private void replaceInAggregates(Transaction previous, Transaction current) {
+        if (previous != null) {
+            sketches.remove(previous);
+        }
+        if (current != null) {
+            sketches.add(current);
+        }
+        accounts.replace(previous, current);
+    }
+
+    /**
+     * The versions a read may have used are gone once its snapshot is released.
+     */
+    private static void checkNotReleased(ReadSnapshot snapshot) {
+        if (snapshot.isReleased()) {
+            throw new IllegalStateException("Read snapshot at version " + snapshot.version() + " was released");
+        }
+    }
+
+    private boolean hasColdRows() {
+        return storeOnlyNewest != null;
+    }
+
+    private Transaction load(UUID id) {
+        Transaction transaction = transactions.get(id);
+        return transaction != null ? transaction : store.get(id);
+    }
+
+    /**
+     * Rows matching the filters of {@code query} that are not on the heap, unordered.
+     */
+    private Stream<Transaction> scanCold(TransactionQuery query) {
+        return store.scanEvicted(query).filter(t -> !transactions.containsKey(t.getId()));
+    }
+
+    private int stripe(UUID id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES;
+    }
+
+    private record ColumnSnapshot(long modification, long builtAt, AmountColumns columns) {
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.bank.repository.account;
+
+import com.example.bank.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * The transactions of each account in time order, with the account's running balance, kept
+ * up to date on every write of a stored transaction, hot or not. Transactions without an
+ * account are not tracked.
+ * <p>
+ * Accounts are spread over stripes by the hash of their id. Each stripe has its own lock and
+ * map, so reads and writes of accounts in different stripes never wait for each other, and a
+ * read of one account never looks at another's entries. A ledger only holds the id, timestamp
+ * and signed amount of each transaction; the rows themselves are loaded by id.
+ */
+public class AccountLedgers {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing(Entry::timestamp, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Entry::id);
+
+    private final Stripe[] stripes;
+
+    /**
+     * Number of transactions, credited and debited totals of an account. Amounts of
+     * transactions of other types count towards neither.
+     */
+    public record Balance(String accountId, long count, BigDecimal credits, BigDecimal debits) {
+
+        public BigDecimal balance() {
+            return credits.subtract(debits);
+        }
+    }
+
+    public AccountLedgers() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public AccountLedgers(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("At least one stripe is needed: " + stripes);
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Replaces {@code previous}, as it was added, by {@code current}; either may be null. Both
+     * stripes are locked, in stripe order, when the account changes, so that no reader sees
+     * the transaction in both accounts or in neither.
+     */
+    public void replace(Transaction previous, Transaction current) {
+        String from = previous == null ? null : previous.getAccountId();
+        String to = current == null ? null : current.getAccountId();
+        if (from == null && to == null) {
+            return;
+        }
+        int first = from == null ? stripe(to) : stripe(from);
+        int second = to == null ? first : stripe(to);
+        Stripe low = stripes[Math.min(first, second)];
+        Stripe high = stripes[Math.max(first, second)];
+        low.lock.writeLock().lock();
+        high.lock.writeLock().lock();
+        try {
+            if (from != null) {
+                stripes[first].remove(previous);
+            }
+            if (to != null) {
+                stripes[second].add(current);
+            }
+        } finally {
+            high.lock.writeLock().unlock();
+            low.lock.writeLock().unlock();
+        }
+    }
+
+    public void add(Transaction transaction) {
+        replace(null, transaction);
+    }
+
+    /**
+     * Ids of up to {@code limit} transactions of {@code accountId} with a timestamp before
+     * {@code before}, or of its latest ones if that is null, newest first.
+     */
+    public List<UUID> history(String accountId, LocalDateTime before, int limit) {
+        Stripe stripe = stripes[stripe(accountId)];
+        stripe.lock.readLock().lock();
+        try {
+            Ledger ledger = stripe.ledgers.get(accountId);
+            if (ledger == null) {
+                return List.of();
+            }
+            int end = before == null ? ledger.entries.size() : ledger.firstAtOrAfter(before);
+            List<UUID> ids = new ArrayList<>(Math.min(limit, end));
+            for (int i = end - 1; i >= 0 && ids.size() < limit; i--) {
+                ids.add(ledger.entries.get(i).id());
+            }
+            return ids;
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Balance of {@code accountId}, null if it has no transactions.
+     */
+    public Balance balance(String accountId) {
+        Stripe stripe = stripes[stripe(accountId)];
+        stripe.lock.readLock().lock();
+        try {
+            Ledger ledger = stripe.ledgers.get(accountId);
+            return ledger == null ? null
+                    : new Balance(accountId, ledger.entries.size(), ledger.credits, ledger.debits);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code action} holding the write locks of the stripes of {@code accountIds}, taken in
+     * stripe order so that callers with overlapping accounts can't deadlock. The locks are
+     * reentrant: the action may read and write these accounts, and nobody else can meanwhile.
+     */
+    public <T> T locked(Collection<String> accountIds, Supplier<T> action) {
+        int[] order = accountIds.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : order) {
+                stripes[stripe].lock.writeLock().lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[order[i]].lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Number of accounts that have transactions.
+     */
+    public int accountCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                count += stripe.ledgers.size();
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return count;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripe(String accountId) {
+        int hash = accountId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    private static boolean isCredit(Transaction transaction) {
+        return "CREDIT".equalsIgnoreCase(transaction.getType());
+    }
+
+    private static boolean isDebit(Transaction transaction) {
+        return "DEBIT".equalsIgnoreCase(transaction.getType());
+    }
+
+    private record Entry(LocalDateTime timestamp, UUID id) {
+    }
+
+    private static final class Stripe {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Ledger> ledgers = new HashMap<>();
+
+        private void add(Transaction transaction) {
+            ledgers.computeIfAbsent(transaction.getAccountId(), id -> new Ledger()).add(transaction);
+        }
+
+        private void remove(Transaction transaction) {
+            Ledger ledger = ledgers.get(transaction.getAccountId());
+            if (ledger != null && ledger.remove(transaction) && ledger.entries.isEmpty()) {
+                ledgers.remove(transaction.getAccountId());
+            }
+        }
+    }
+
+    private static final class Ledger {
+
+        // Ascending by timestamp, then id; transactions mostly arrive in time order and are appended.
+        private final List<Entry> entries = new ArrayList<>();
+        private BigDecimal credits = BigDecimal.ZERO;
+        private BigDecimal debits = BigDecimal.ZERO;
+
+        private void add(Transaction transaction) {
+            Entry entry = new Entry(transaction.getTimestamp(), transaction.getId());
+            if (entries.isEmpty() || ORDER.compare(entries.get(entries.size() - 1), entry) < 0) {
+                entries.add(entry);
+            } else {
+                int index = Collections.binarySearch(entries, entry, ORDER);
+                if (index >= 0) {
+                    return;
+                }
+                entries.add(-index - 1, entry);
+            }
+            BigDecimal amount = transaction.getAmount();
+            if (amount != null && isCredit(transaction)) {
+                credits = credits.add(amount);
+            } else if (amount != null && isDebit(transaction)) {
+                debits = debits.add(amount);
+            }
+        }
+
+        private boolean remove(Transaction transaction) {
+            int index = Collections.binarySearch(entries, new Entry(transaction.getTimestamp(), transaction.getId()), ORDER);
+            if (index < 0) {
+                return false;
+            }
+            entries.remove(index);
+            BigDecimal amount = transaction.getAmount();
+            if (amount != null && isCredit(transaction)) {
+                credits = credits.subtract(amount);
+            } else if (amount != null && isDebit(transaction)) {
+                debits = debits.subtract(amount);
+            }
+            return true;
+        }
+
+        private int firstAtOrAfter(LocalDateTime timestamp) {
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                LocalDateTime value = entries.get(middle).timestamp();
+                if (value == null || value.isBefore(timestamp)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.bank.repository.column;
+
+import com.example.bank.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable columnar snapshot of the amounts of a set of transactions, for aggregations that
+ * would otherwise stream {@link BigDecimal}s.
+ * <p>
+ * Every amount is stored as a {@code long} unscaled at one common scale, next to a tag that
+ * packs the dictionary codes of the row's type (low 32 bits) and category (high 32 bits), so a
+ * filter by type and/or category is a single mask-and-compare per row. Rows without an amount
+ * are left out. A snapshot is only built when every amount fits exactly and no sum can
+ * overflow; {@link #of} returns {@code null} otherwise.
+ */
+public final class AmountColumns {
+
+    /**
+     * Amounts with more fractional digits than this are not represented.
+     */
+    static final int MAX_SCALE = 6;
+    private static final long TYPE_MASK = 0xFFFF_FFFFL;
+    private static final long CATEGORY_MASK = ~TYPE_MASK;
+    private static final AmountKernel KERNEL = AmountKernel.detect();
+
+    private final long[] amounts;
+    private final long[] tags;
+    private final int length;
+    private final int scale;
+    private final Map<String, Integer> typeCodes;
+    private final Map<String, Integer> categoryCodes;
+
+    private AmountColumns(long[] amounts, long[] tags, int length, int scale,
+                          Map<String, Integer> typeCodes, Map<String, Integer> categoryCodes) {
+        this.amounts = amounts;
+        this.tags = tags;
+        this.length = length;
+        this.scale = scale;
+        this.typeCodes = typeCodes;
+        this.categoryCodes = categoryCodes;
+    }
+
+    /**
+     * Builds the columns of {@code transactions}, or returns {@code null} when an amount has more
+     * than {@link #MAX_SCALE} fractional digits or the amounts are too large to sum in a {@code long}.
+     */
+    public static AmountColumns of(Collection<Transaction> transactions) {
+        int scale = 0;
+        for (Transaction transaction : transactions) {
+            BigDecimal amount = transaction.getAmount();
+            if (amount != null && amount.scale() > scale) {
+                scale = Math.max(scale, amount.stripTrailingZeros().scale());
+                if (scale > MAX_SCALE) {
+                    return null;
+                }
+            }
+        }
+        long[] amounts = new long[transactions.size()];
+        long[] tags = new long[transactions.size()];
+        Map<String, Integer> typeCodes = new HashMap<>();
+        Map<String, Integer> categoryCodes = new HashMap<>();
+        // By the value as stored, so that each distinct spelling is only lower-cased once.
+        Map<String, Long> typeTags = new HashMap<>();
+        Map<String, Long> categoryTags = new HashMap<>();
+        int length = 0;
+        long maxMagnitude = 0;
+        try {
+            for (Transaction transaction : transactions) {
+                BigDecimal amount = transaction.getAmount();
+                if (amount == null) {
+                    continue;
+                }
+                // Shifting the point keeps small values in BigDecimal's compact long form, unlike unscaledValue().
+                long unscaled = amount.movePointRight(scale).longValueExact();
+                maxMagnitude = Math.max(maxMagnitude, Math.abs(unscaled));
+                long type = code(typeTags, typeCodes, transaction.getType());
+                long category = code(categoryTags, categoryCodes, transaction.getCategory());
+                amounts[length] = unscaled;
+                tags[length] = category << 32 | type;
+                length++;
+            }
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        // Math.abs(Long.MIN_VALUE) stays negative; either way the sum could overflow.
+        if (maxMagnitude < 0 || (length > 0 && maxMagnitude > Long.MAX_VALUE / length)) {
+            return null;
+        }
+        return new AmountColumns(amounts, tags, length, scale, typeCodes, categoryCodes);
+    }
+
+    /**
+     * Count, sum, min and max of the amounts of the rows with {@code type} and {@code category},
+     * both case-insensitive; {@code null} matches any value.
+     */
+    public AmountSummary summarize(String type, String category) {
+        return summarize(type, category, KERNEL);
+    }
+
+    public AmountSummary summarize(String type, String category, AmountKernel kernel) {
+        long mask = 0;
+        long expected = 0;
+        if (type != null) {
+            Integer code = typeCodes.get(key(type));
+            if (code == null) {
+                return AmountSummary.EMPTY;
+            }
+            mask |= TYPE_MASK;
+            expected |= code;
+        }
+        if (category != null) {
+            Integer code = categoryCodes.get(key(category));
+            if (code == null) {
+                return AmountSummary.EMPTY;
+            }
+            mask |= CATEGORY_MASK;
+            expected |= (long) code << 32;
+        }
+        AmountKernel.Totals totals = kernel.aggregate(amounts, tags, length, mask, expected);
+        if (totals.count() == 0) {
+            return AmountSummary.EMPTY;
+        }
+        return new AmountSummary(totals.count(), BigDecimal.valueOf(totals.sum(), scale),
+                BigDecimal.valueOf(totals.min(), scale), BigDecimal.valueOf(totals.max(), scale));
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public static String kernelName() {
+        return KERNEL.name();
+    }
+
+    private static long code(Map<String, Long> spellings, Map<String, Integer> codes, String value) {
+        // Code 0 is reserved for rows without a value, which no filter matches.
+        if (value == null) {
+            return 0;
+        }
+        Long code = spellings.get(value);
+        if (code == null) {
+            code = (long) codes.computeIfAbsent(key(value), k -> codes.size() + 1);
+            spellings.put(value, code);
+        }
+        return code;
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
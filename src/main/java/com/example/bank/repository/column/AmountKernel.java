@@ -0,0 +1,44 @@
+package com.example.bank.repository.column;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Masked aggregation over a column of unscaled amounts: count, sum, min and max of the rows
+ * whose tag satisfies {@code (tag & mask) == expected}.
+ */
+public interface AmountKernel {
+
+    Totals aggregate(long[] amounts, long[] tags, int length, long mask, long expected);
+
+    String name();
+
+    /**
+     * The vectorized kernel when the {@code jdk.incubator.vector} module is enabled
+     * ({@code --add-modules jdk.incubator.vector}), the scalar one otherwise.
+     */
+    static AmountKernel detect() {
+        Logger logger = LoggerFactory.getLogger(AmountKernel.class);
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded by name so that nothing links against the module when it is missing.
+                AmountKernel kernel = (AmountKernel) Class.forName(AmountKernel.class.getPackageName() + ".VectorAmountKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+                logger.info("Using {} amount kernel", kernel.name());
+                return kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("Vector amount kernel unavailable, using scalar code", e);
+            }
+        } else {
+            logger.info("jdk.incubator.vector not enabled, using scalar amount kernel");
+        }
+        return new ScalarAmountKernel();
+    }
+
+    /**
+     * Aggregate of the matching rows; {@code min} and {@code max} are meaningless when {@code count} is 0.
+     */
+    record Totals(long count, long sum, long min, long max) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bank.repository.column;
+
+import java.math.BigDecimal;
+
+/**
+ * Count, sum, min and max of a set of amounts; {@code min} and {@code max} are {@code null}
+ * when there are none.
+ */
+public record AmountSummary(long count, BigDecimal sum, BigDecimal min, BigDecimal max) {
+
+    public static final AmountSummary EMPTY = new AmountSummary(0, BigDecimal.ZERO, null, null);
+
+    /**
+     * Adds {@code amount} to this summary, for callers that fold amounts one by one.
+     */
+    public AmountSummary plus(BigDecimal amount) {
+        if (count == 0) {
+            return new AmountSummary(1, amount, amount, amount);
+        }
+        return new AmountSummary(count + 1, sum.add(amount),
+                amount.compareTo(min) < 0 ? amount : min,
+                amount.compareTo(max) > 0 ? amount : max);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bank.repository.column;
+
+/**
+ * Plain loop, used when the vector module is not enabled and for the tails of vector loops.
+ */
+public final class ScalarAmountKernel implements AmountKernel {
+
+    @Override
+    public Totals aggregate(long[] amounts, long[] tags, int length, long mask, long expected) {
+        return aggregate(amounts, tags, 0, length, mask, expected);
+    }
+
+    static Totals aggregate(long[] amounts, long[] tags, int from, int to, long mask, long expected) {
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            if ((tags[i] & mask) == expected) {
+                long amount = amounts[i];
+                count++;
+                sum += amount;
+                min = Math.min(min, amount);
+                max = Math.max(max, amount);
+            }
+        }
+        return new Totals(count, sum, min, max);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bank.repository.column;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link AmountKernel} on the Vector API: compares the tags of a full vector of rows at once
+ * and folds the amounts into per-lane accumulators under the resulting mask. Only loaded
+ * through {@link AmountKernel#detect()} when {@code jdk.incubator.vector} is enabled.
+ */
+final class VectorAmountKernel implements AmountKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public Totals aggregate(long[] amounts, long[] tags, int length, long mask, long expected) {
+        LongVector sums = LongVector.zero(SPECIES);
+        LongVector mins = LongVector.broadcast(SPECIES, Long.MAX_VALUE);
+        LongVector maxs = LongVector.broadcast(SPECIES, Long.MIN_VALUE);
+        long count = 0;
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            VectorMask<Long> matches = LongVector.fromArray(SPECIES, tags, i)
+                    .and(mask)
+                    .compare(VectorOperators.EQ, expected);
+            LongVector values = LongVector.fromArray(SPECIES, amounts, i);
+            sums = sums.add(values, matches);
+            mins = mins.lanewise(VectorOperators.MIN, values, matches);
+            maxs = maxs.lanewise(VectorOperators.MAX, values, matches);
+            count += matches.trueCount();
+        }
+        Totals tail = ScalarAmountKernel.aggregate(amounts, tags, bound, length, mask, expected);
+        return new Totals(count + tail.count(),
+                sums.reduceLanes(VectorOperators.ADD) + tail.sum(),
+                Math.min(mins.reduceLanes(VectorOperators.MIN), tail.min()),
+                Math.max(maxs.reduceLanes(VectorOperators.MAX), tail.max()));
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.bank.repository.history;
+
+import com.example.bank.cache.CacheWeights;
+import com.example.bank.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Past states of the transactions written since startup, for reads as of a point in time.
+ * <p>
+ * Every write appends one change to the chain of its row: when it was made and a reverse delta,
+ * the fields it changed with their old values, the whole row for a delete or a marker for a
+ * create. The state of a row at a time is its current state with the changes made after that
+ * time undone, newest first; a binary search over the chain finds them, so older changes are
+ * never touched. An index of all changes by time lists the rows changed after a time without
+ * looking at the others. Deltas hold old values, not differences, so undoing a change gives the
+ * same state whether the current row was read before or after a later write.
+ * <p>
+ * Changes are dropped oldest first once they are older than the retention or the estimated
+ * footprint is over its budget. The horizon is the earliest time that can still be read: the
+ * later of startup and the last change dropped.
+ */
+public class TransactionHistory {
+
+    public static final Duration DEFAULT_RETENTION = Duration.ofDays(30);
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    // Fields a delta may hold; their old values are stored in this order.
+    private static final int DESCRIPTION = 1;
+    private static final int AMOUNT = 1 << 1;
+    private static final int TYPE = 1 << 2;
+    private static final int TIMESTAMP = 1 << 3;
+    private static final int CATEGORY = 1 << 4;
+    private static final int ACCOUNT = 1 << 5;
+    // The row didn't exist before, or was deleted and its last state is the only value.
+    private static final int CREATED = 1 << 6;
+    private static final int DELETED = 1 << 7;
+
+    // Change and its values array, its slot in the chain, and a node, index level and key of the time index.
+    private static final long CHANGE_OVERHEAD = 112;
+    // Map node and array header of a chain.
+    private static final long CHAIN_OVERHEAD = 64;
+
+    private final Duration retention;
+    private final long maxBytes;
+    private final Clock clock;
+    // Oldest first. Arrays are replaced, never changed, so readers need no lock.
+    private final Map<UUID, Change[]> chains = new ConcurrentHashMap<>();
+    // Row of every change by its time; times are unique.
+    private final ConcurrentSkipListMap<Long, UUID> byTime = new ConcurrentSkipListMap<>();
+    private final AtomicLong lastTime = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Lock trimLock = new ReentrantLock();
+    private volatile long horizon;
+
+    private record Change(long time, int fields, Object[] before) {
+    }
+
+    public TransactionHistory() {
+        this(DEFAULT_RETENTION, DEFAULT_MAX_BYTES, Clock.systemDefaultZone());
+    }
+
+    public TransactionHistory(Duration retention, long maxBytes, Clock clock) {
+        if (retention.isNegative() || maxBytes < 0) {
+            throw new IllegalArgumentException("Retention and budget must not be negative: " + retention + ", " + maxBytes);
+        }
+        this.retention = retention;
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+        this.horizon = nextTime();
+    }
+
+    /**
+     * Records a write of row {@code id} that replaces {@code previous} by {@code current}, either
+     * null for a create or a delete. Must be called before the write is visible, by the holder of
+     * the row's write lock, so that the changes of a row are recorded in order.
+     */
+    public void record(UUID id, Transaction previous, Transaction current) {
+        Change change = change(previous, current);
+        if (change == null) {
+            return;
+        }
+        long weight = weight(change);
+        Change[] chain = chains.merge(id, new Change[]{change}, TransactionHistory::append);
+        byTime.put(change.time(), id);
+        changes.incrementAndGet();
+        bytes.addAndGet(chain.length == 1 ? weight + CHAIN_OVERHEAD : weight);
+        Map.Entry<Long, UUID> oldest = byTime.firstEntry();
+        if (bytes.get() > maxBytes || (oldest != null && oldest.getKey() < micros(clock.instant().minus(retention)))) {
+            trim();
+        }
+    }
+
+    /**
+     * A view of the rows as they were at {@code time}, which must not be before the
+     * {@link #horizon}. Times after the last change see the current rows.
+     */
+    public PointInTime at(LocalDateTime time) {
+        PointInTime at = new PointInTime(time, micros(time.atZone(clock.getZone()).toInstant()));
+        at.checkRetained();
+        return at;
+    }
+
+    /**
+     * Earliest time whose rows can still be reconstructed.
+     */
+    public LocalDateTime horizon() {
+        return LocalDateTime.ofInstant(Instant.EPOCH.plus(horizon, ChronoUnit.MICROS), clock.getZone());
+    }
+
+    /**
+     * Drops the changes older than the retention, then the oldest ones until the estimated
+     * footprint is within its budget. Writes call it when either is exceeded; a call while
+     * another is running returns at once.
+     */
+    public void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            long cutoff = micros(clock.instant().minus(retention));
+            Map.Entry<Long, UUID> oldest;
+            while ((oldest = byTime.firstEntry()) != null && (oldest.getKey() < cutoff || bytes.get() > maxBytes)) {
+                long time = oldest.getKey();
+                // Raised before the change goes, so that a read that finds it gone also finds its time unreadable.
+                horizon = Math.max(horizon, time);
+                byTime.remove(time);
+                chains.computeIfPresent(oldest.getValue(), (id, chain) -> dropUpTo(chain, time));
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    /**
+     * Number of changes kept.
+     */
+    public long changeCount() {
+        return changes.get();
+    }
+
+    /**
+     * Estimated heap footprint of the changes kept, in bytes.
+     */
+    public long sizeInBytes() {
+        return bytes.get();
+    }
+
+    public int rowCount() {
+        return chains.size();
+    }
+
+    public Duration retention() {
+        return retention;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * The rows at one point in time.
+     */
+    public final class PointInTime {
+
+        private final LocalDateTime time;
+        private final long micros;
+
+        private PointInTime(LocalDateTime time, long micros) {
+            this.time = time;
+            this.micros = micros;
+        }
+
+        public LocalDateTime time() {
+            return time;
+        }
+
+        /**
+         * State of row {@code id} at this time, null if it didn't exist, given {@code current},
+         * its state read before this call.
+         */
+        public Transaction row(UUID id, Transaction current) {
+            Change[] chain = chains.get(id);
+            if (chain == null || chain[chain.length - 1].time() <= micros) {
+                return current;
+            }
+            Transaction row = current;
+            for (int i = chain.length - 1; i >= firstAfter(chain, micros); i--) {
+                row = undo(chain[i], row);
+            }
+            return row;
+        }
+
+        /**
+         * Whether row {@code id} was written after this time.
+         */
+        public boolean changed(UUID id) {
+            Change[] chain = chains.get(id);
+            return chain != null && chain[chain.length - 1].time() > micros;
+        }
+
+        /**
+         * Ids of the rows written after this time, deleted ones included.
+         */
+        public Set<UUID> changedIds() {
+            return new HashSet<>(byTime.tailMap(micros, false).values());
+        }
+
+        /**
+         * Throws if changes after this time have been dropped, so that rows reconstructed before
+         * this call may be wrong; reads call it once done.
+         */
+        public void checkRetained() {
+            if (micros < horizon) {
+                throw new IllegalArgumentException("History before " + horizon() + " is not retained: " + time);
+            }
+        }
+    }
+
+    /**
+     * Reverse delta of replacing {@code previous} by {@code current}, null if nothing changed.
+     */
+    private Change change(Transaction previous, Transaction current) {
+        if (previous == null && current == null) {
+            return null;
+        }
+        if (previous == null) {
+            return new Change(nextTime(), CREATED, new Object[0]);
+        }
+        if (current == null) {
+            return new Change(nextTime(), DELETED, new Object[]{previous});
+        }
+        Object[] old = {previous.getDescription(), previous.getAmount(), previous.getType(),
+                previous.getTimestamp(), previous.getCategory(), previous.getAccountId()};
+        Object[] now = {current.getDescription(), current.getAmount(), current.getType(),
+                current.getTimestamp(), current.getCategory(), current.getAccountId()};
+        int fields = 0;
+        int count = 0;
+        for (int i = 0; i < old.length; i++) {
+            if (!Objects.equals(old[i], now[i])) {
+                fields |= 1 << i;
+                old[count++] = old[i];
+            }
+        }
+        if (fields == 0) {
+            return null;
+        }
+        Object[] before = new Object[count];
+        System.arraycopy(old, 0, before, 0, count);
+        return new Change(nextTime(), fields, before);
+    }
+
+    /**
+     * The state before {@code change}, given {@code after}, the state it led to.
+     */
+    private static Transaction undo(Change change, Transaction after) {
+        if (change.fields() == CREATED) {
+            return null;
+        }
+        if (change.fields() == DELETED) {
+            return (Transaction) change.before()[0];
+        }
+        if (after == null) {
+            // Read before the row was created; undoing its create comes next.
+            return null;
+        }
+        Transaction row = new Transaction();
+        row.setId(after.getId());
+        row.setDescription(after.getDescription());
+        row.setAmount(after.getAmount());
+        row.setType(after.getType());
+        row.setTimestamp(after.getTimestamp());
+        row.setCategory(after.getCategory());
+        row.setAccountId(after.getAccountId());
+        Object[] before = change.before();
+        int next = 0;
+        if ((change.fields() & DESCRIPTION) != 0) {
+            row.setDescription((String) before[next++]);
+        }
+        if ((change.fields() & AMOUNT) != 0) {
+            row.setAmount((BigDecimal) before[next++]);
+        }
+        if ((change.fields() & TYPE) != 0) {
+            row.setType((String) before[next++]);
+        }
+        if ((change.fields() & TIMESTAMP) != 0) {
+            row.setTimestamp((LocalDateTime) before[next++]);
+        }
+        if ((change.fields() & CATEGORY) != 0) {
+            row.setCategory((String) before[next++]);
+        }
+        if ((change.fields() & ACCOUNT) != 0) {
+            row.setAccountId((String) before[next]);
+        }
+        return row;
+    }
+
+    private static Change[] append(Change[] chain, Change[] one) {
+        Change[] appended = new Change[chain.length + 1];
+        System.arraycopy(chain, 0, appended, 0, chain.length);
+        appended[chain.length] = one[0];
+        return appended;
+    }
+
+    /**
+     * {@code chain} without its changes up to {@code time}, null if none is left.
+     */
+    private Change[] dropUpTo(Change[] chain, long time) {
+        int dropped = firstAfter(chain, time);
+        long freed = dropped == chain.length ? CHAIN_OVERHEAD : 0;
+        for (int i = 0; i < dropped; i++) {
+            freed += weight(chain[i]);
+        }
+        changes.addAndGet(-dropped);
+        bytes.addAndGet(-freed);
+        if (dropped == chain.length) {
+            return null;
+        }
+        Change[] kept = new Change[chain.length - dropped];
+        System.arraycopy(chain, dropped, kept, 0, kept.length);
+        return kept;
+    }
+
+    /**
+     * Index of the first change of {@code chain} made after {@code time}.
+     */
+    private static int firstAfter(Change[] chain, long time) {
+        int low = 0;
+        int high = chain.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (chain[middle].time() <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long weight(Change change) {
+        long weight = CHANGE_OVERHEAD + 4L * change.before().length;
+        for (Object value : change.before()) {
+            weight += CacheWeights.estimate(value);
+        }
+        return weight;
+    }
+
+    /**
+     * A time in microseconds since the epoch after every one handed out before, so that changes
+     * are ordered and keyed uniquely even when the clock doesn't move between them.
+     */
+    private long nextTime() {
+        long now = micros(clock.instant());
+        return lastTime.accumulateAndGet(now, (last, candidate) -> Math.max(last + 1, candidate));
+    }
+
+    private static long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+}
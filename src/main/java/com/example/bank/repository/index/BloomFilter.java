@@ -0,0 +1,119 @@
+package com.example.bank.repository.index;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of transaction ids: {@link #mightContain} is never false for an id that was
+ * added, and true for one that wasn't only with about the false positive rate it was sized
+ * for, as long as no more than the expected number of ids are added.
+ * <p>
+ * Ids can't be removed; a removed id just stays a false positive. The {@code k} bit positions
+ * are derived from the two halves of the id by double hashing, so nothing is allocated per
+ * lookup. Thread-safe and lock-free.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicLong setBits = new AtomicLong();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bits = (long) wordCount * 64;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * ln2));
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public void add(UUID id) {
+        long h2 = mix(id.getLeastSignificantBits());
+        long h1 = mix(id.getMostSignificantBits() ^ h2);
+        h2 |= 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    setBits.incrementAndGet();
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    public boolean mightContain(UUID id) {
+        long h2 = mix(id.getLeastSignificantBits());
+        long h1 = mix(id.getMostSignificantBits() ^ h2);
+        h2 |= 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ids added so far, counting repeats.
+     */
+    public long insertions() {
+        return insertions.get();
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * False positive rate the filter was sized for.
+     */
+    public double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    /**
+     * False positive rate at the current fill: the chance that all {@code k} bits of an unknown id
+     * are set. Ids added again set no bits, so repeats don't raise it.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.get() / bits, hashes);
+    }
+
+    // MurmurHash3 finalizer; random UUIDs are uniform already, but other versions are not.
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
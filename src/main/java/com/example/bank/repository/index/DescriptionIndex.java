@@ -0,0 +1,360 @@
+package com.example.bank.repository.index;
+
+import com.example.bank.repository.index.DescriptionTokenizer.QueryTerm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent inverted index over transaction descriptions.
+ * <p>
+ * Postings live in a {@link ConcurrentHashMap} so that adding and removing an id is atomic
+ * per term; a sorted term dictionary next to it serves prefix expansion. The index keeps a
+ * reference to the description it indexed for every id, which is what gets tokenized again
+ * to remove stale postings on update and delete. Callers must not index the same id
+ * concurrently.
+ * <p>
+ * A prefix that expands to more than {@value #MAX_PREFIX_EXPANSIONS} dictionary terms is not
+ * resolved through the postings: it is checked against the indexed descriptions of the
+ * candidates that the other terms produce, or of every document if there are none. A broad
+ * prefix thus costs a scan and ranks by an estimated frequency, but never loses a match.
+ */
+public class DescriptionIndex {
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> dictionary = new ConcurrentSkipListSet<>();
+    private final Map<UUID, String> indexedDescriptions = new ConcurrentHashMap<>();
+    private final AtomicLong totalLength = new AtomicLong();
+
+    public void index(UUID id, String description) {
+        String[] terms = DescriptionTokenizer.tokenize(description);
+        String previous = terms.length == 0 ? indexedDescriptions.remove(id) : indexedDescriptions.put(id, description);
+        if (previous != null) {
+            totalLength.addAndGet(-previous.length());
+            String[] previousTerms = DescriptionTokenizer.tokenize(previous);
+            for (String term : previousTerms) {
+                if (!contains(terms, term)) {
+                    removePosting(term, id);
+                }
+            }
+        }
+        if (terms.length > 0) {
+            totalLength.addAndGet(description.length());
+        }
+        for (String term : terms) {
+            addPosting(term, id);
+        }
+    }
+
+    public void remove(UUID id) {
+        String previous = indexedDescriptions.remove(id);
+        if (previous == null) {
+            return;
+        }
+        totalLength.addAndGet(-previous.length());
+        for (String term : DescriptionTokenizer.tokenize(previous)) {
+            removePosting(term, id);
+        }
+    }
+
+    /**
+     * Returns ids whose description matches every query term, best match first.
+     * Scores are BM25 with term frequency taken as one, which is what short descriptions
+     * almost always have, and description length as the document length.
+     */
+    public List<ScoredId> search(String query, int limit) {
+        List<QueryTerm> queryTerms = DescriptionTokenizer.parseQuery(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Term> terms = new ArrayList<>(queryTerms.size());
+        int driver = -1;
+        long driverSize = Long.MAX_VALUE;
+        boolean scans = false;
+        for (QueryTerm queryTerm : queryTerms) {
+            Term term = expand(queryTerm);
+            if (term.scanned()) {
+                scans = true;
+            } else if (term.expansions().isEmpty()) {
+                return Collections.emptyList();
+            } else if (term.size() < driverSize) {
+                driverSize = term.size();
+                driver = terms.size();
+            }
+            terms.add(term);
+        }
+
+        double documentCount = Math.max(1, indexedDescriptions.size());
+        double averageLength = Math.max(1.0, totalLength.get() / documentCount);
+        double[][] weights = new double[terms.size()][];
+        for (int i = 0; i < terms.size(); i++) {
+            Term term = terms.get(i);
+            if (term.scanned()) {
+                // The document frequency of the expansions seen before giving up is a lower bound.
+                weights[i] = new double[]{idf((int) Math.min(term.size(), Integer.MAX_VALUE), documentCount)};
+                continue;
+            }
+            weights[i] = new double[term.expansions().size()];
+            for (int j = 0; j < term.expansions().size(); j++) {
+                Expansion expansion = term.expansions().get(j);
+                weights[i][j] = expansion.weight() * idf(expansion.ids().size(), documentCount);
+            }
+        }
+
+        // Only broad prefixes: every indexed description is a candidate.
+        List<Set<UUID>> driverIds = driver < 0 ? List.of(indexedDescriptions.keySet())
+                : terms.get(driver).expansions().stream().map(Expansion::ids).toList();
+        // A document can sit under several expansions of a prefix term; score it only once.
+        Set<UUID> seen = driverIds.size() > 1 ? new HashSet<>() : null;
+        PriorityQueue<ScoredId> top = new PriorityQueue<>(Math.min(limit, 1024) + 1, RANKING.reversed());
+
+        for (Set<UUID> candidates : driverIds) {
+            for (UUID id : candidates) {
+                if (seen != null && !seen.add(id)) {
+                    continue;
+                }
+                String description = indexedDescriptions.get(id);
+                if (description == null) {
+                    continue;
+                }
+                String[] tokens = scans ? DescriptionTokenizer.tokenize(description) : null;
+                double termScale = (K1 + 1) / (1 + K1 * (1 - B + B * description.length() / averageLength));
+                double score = 0;
+                boolean matchesAll = true;
+                for (int i = 0; i < terms.size() && matchesAll; i++) {
+                    Term term = terms.get(i);
+                    double best = 0;
+                    if (term.scanned()) {
+                        best = prefixWeight(tokens, term.query().text()) * weights[i][0];
+                    } else {
+                        for (int j = 0; j < term.expansions().size(); j++) {
+                            if (weights[i][j] > best && term.expansions().get(j).ids().contains(id)) {
+                                best = weights[i][j];
+                            }
+                        }
+                    }
+                    matchesAll = best > 0;
+                    score += best * termScale;
+                }
+                if (!matchesAll) {
+                    continue;
+                }
+                top.offer(new ScoredId(id, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<ScoredId> result = new ArrayList<>(top);
+        result.sort(RANKING);
+        return result;
+    }
+
+    /**
+     * Resolves a query for use as one predicate among several: unranked, with a size
+     * estimate for planning, a candidate stream and a membership test.
+     */
+    public TextMatch match(String query) {
+        List<QueryTerm> queryTerms = DescriptionTokenizer.parseQuery(query);
+        List<List<Expansion>> expansions = new ArrayList<>(queryTerms.size());
+        List<QueryTerm> scanned = new ArrayList<>();
+        List<Expansion> driver = queryTerms.isEmpty() ? Collections.emptyList() : null;
+        long driverSize = queryTerms.isEmpty() ? 0 : Long.MAX_VALUE;
+        for (QueryTerm queryTerm : queryTerms) {
+            Term term = expand(queryTerm);
+            if (term.scanned()) {
+                scanned.add(queryTerm);
+                continue;
+            }
+            if (term.size() < driverSize) {
+                driverSize = term.size();
+                driver = term.expansions();
+            }
+            expansions.add(term.expansions());
+        }
+        if (driver == null) {
+            driverSize = indexedDescriptions.size();
+        }
+        return new TextMatch(expansions, scanned, driver, driverSize, indexedDescriptions);
+    }
+
+    public int documentCount() {
+        return indexedDescriptions.size();
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * The postings of {@code queryTerm}, or, for a prefix of more than
+     * {@value #MAX_PREFIX_EXPANSIONS} terms, a term to scan for.
+     */
+    private Term expand(QueryTerm queryTerm) {
+        if (!queryTerm.prefix()) {
+            Set<UUID> ids = postings.get(queryTerm.text());
+            return ids == null ? new Term(queryTerm, List.of(), false, 0)
+                    : new Term(queryTerm, List.of(new Expansion(ids, 1.0)), false, ids.size());
+        }
+        List<Expansion> result = new ArrayList<>();
+        long size = 0;
+        String prefix = queryTerm.text();
+        for (String term : dictionary.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            Set<UUID> ids = postings.get(term);
+            if (ids != null) {
+                if (result.size() == MAX_PREFIX_EXPANSIONS) {
+                    return new Term(queryTerm, List.of(), true, size);
+                }
+                result.add(new Expansion(ids, term.equals(prefix) ? 1.0 : PREFIX_WEIGHT));
+                size += ids.size();
+            }
+        }
+        return new Term(queryTerm, result, false, size);
+    }
+
+    /**
+     * Weight of the best token of {@code tokens} for {@code prefix}: full for the term itself,
+     * reduced for a longer term, zero if none starts with it.
+     */
+    private static double prefixWeight(String[] tokens, String prefix) {
+        double best = 0;
+        for (String token : tokens) {
+            if (token.equals(prefix)) {
+                return 1.0;
+            }
+            if (token.startsWith(prefix)) {
+                best = PREFIX_WEIGHT;
+            }
+        }
+        return best;
+    }
+
+    private void addPosting(String term, UUID id) {
+        postings.compute(term, (key, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                dictionary.add(key);
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private void removePosting(String term, UUID id) {
+        postings.computeIfPresent(term, (key, ids) -> {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                dictionary.remove(key);
+                return null;
+            }
+            return ids;
+        });
+    }
+
+    private static double idf(int documentFrequency, double documentCount) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static boolean contains(String[] terms, String term) {
+        for (String candidate : terms) {
+            if (candidate.equals(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final Comparator<ScoredId> RANKING = Comparator.comparingDouble(ScoredId::score).reversed()
+            .thenComparing(ScoredId::id);
+
+    private record Expansion(Set<UUID> ids, double weight) {
+    }
+
+    /**
+     * A query term resolved against the dictionary. A scanned term has no expansions and is
+     * tested on the descriptions; its size is then the document frequency of the expansions
+     * seen before giving up, a lower bound.
+     */
+    private record Term(QueryTerm query, List<Expansion> expansions, boolean scanned, long size) {
+    }
+
+    public static final class TextMatch {
+
+        private final List<List<Expansion>> expansions;
+        // Terms too broad to expand, tested on the indexed description.
+        private final List<QueryTerm> scanned;
+        // Null when every term is scanned: all documents are candidates.
+        private final List<Expansion> driver;
+        private final long estimatedSize;
+        private final Map<UUID, String> descriptions;
+
+        private TextMatch(List<List<Expansion>> expansions, List<QueryTerm> scanned, List<Expansion> driver,
+                          long estimatedSize, Map<UUID, String> descriptions) {
+            this.expansions = expansions;
+            this.scanned = scanned;
+            this.driver = driver;
+            this.estimatedSize = estimatedSize;
+            this.descriptions = descriptions;
+        }
+
+        /**
+         * Upper bound of matching documents: the size of the most selective term, or the number
+         * of documents if every term is scanned.
+         */
+        public long estimatedSize() {
+            return estimatedSize;
+        }
+
+        public boolean test(UUID id) {
+            if (expansions.isEmpty() && scanned.isEmpty()) {
+                return false;
+            }
+            for (List<Expansion> termExpansions : expansions) {
+                boolean matched = false;
+                for (Expansion expansion : termExpansions) {
+                    if (expansion.ids().contains(id)) {
+                        matched = true;
+                        break;
+                    }
+                }
+                if (!matched) {
+                    return false;
+                }
+            }
+            return scanned.isEmpty() || DescriptionTokenizer.matches(scanned, descriptions.get(id));
+        }
+
+        /**
+         * Ids of the most selective term, each once; callers still need {@link #test(UUID)}
+         * for the remaining terms.
+         */
+        public Stream<UUID> candidates() {
+            if (driver == null) {
+                return descriptions.keySet().stream();
+            }
+            Stream<UUID> ids = driver.stream().flatMap(expansion -> expansion.ids().stream());
+            return driver.size() > 1 ? ids.distinct() : ids;
+        }
+    }
+
+    public record ScoredId(UUID id, double score) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.bank.repository.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizer for mixed Chinese/English transaction descriptions.
+ * <p>
+ * Latin letters and digits are split on everything else and lower-cased. CJK text has no
+ * word boundaries, so each CJK run is indexed as overlapping bigrams plus the trailing
+ * character as a unigram; a single CJK character query can then be answered as a prefix
+ * lookup over the bigrams.
+ */
+public final class DescriptionTokenizer {
+
+    private static final char PREFIX_MARKER = '*';
+
+    private DescriptionTokenizer() {
+    }
+
+    /**
+     * Returns the distinct index terms of a description, in order of first appearance.
+     */
+    public static String[] tokenize(String text) {
+        return tokenize(text, false);
+    }
+
+    private static String[] tokenize(String text, boolean query) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int end = i;
+                while (end < length && isCjk(text.codePointAt(end))) {
+                    end += Character.charCount(text.codePointAt(end));
+                }
+                addCjkTerms(text.substring(i, end), terms, query);
+                i = end;
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int end = i;
+                while (end < length) {
+                    int cp = text.codePointAt(end);
+                    if (!Character.isLetterOrDigit(cp) || isCjk(cp)) {
+                        break;
+                    }
+                    end += Character.charCount(cp);
+                }
+                terms.add(text.substring(i, end).toLowerCase(Locale.ROOT));
+                i = end;
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    /**
+     * Parses a search query. Latin words ending in {@code *} and single CJK characters
+     * become prefix terms, everything else must match exactly.
+     */
+    public static List<QueryTerm> parseQuery(String query) {
+        List<QueryTerm> result = new ArrayList<>();
+        if (query == null) {
+            return result;
+        }
+        for (String word : query.trim().split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            boolean prefix = word.length() > 1 && word.charAt(word.length() - 1) == PREFIX_MARKER;
+            String body = prefix ? word.substring(0, word.length() - 1) : word;
+            String[] terms = tokenize(body, true);
+            for (int i = 0; i < terms.length; i++) {
+                String term = terms[i];
+                boolean termPrefix = isCjk(term.codePointAt(0))
+                        ? term.codePointCount(0, term.length()) == 1
+                        : prefix && i == terms.length - 1;
+                result.add(new QueryTerm(term, termPrefix));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether {@code text} contains every term, with the same semantics as an index lookup.
+     * Used to evaluate text filters on rows that are not indexed.
+     */
+    public static boolean matches(List<QueryTerm> terms, String text) {
+        if (terms.isEmpty() || text == null) {
+            return false;
+        }
+        String[] tokens = tokenize(text);
+        for (QueryTerm term : terms) {
+            boolean found = false;
+            for (String token : tokens) {
+                if (term.prefix() ? token.startsWith(term.text()) : token.equals(term.text())) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void addCjkTerms(String run, Set<String> terms, boolean query) {
+        int[] codePoints = run.codePoints().toArray();
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            terms.add(new String(codePoints, i, 2));
+        }
+        // Queries of two or more characters are fully covered by their bigrams.
+        if (!query || codePoints.length == 1) {
+            terms.add(new String(codePoints, codePoints.length - 1, 1));
+        }
+    }
+
+    public record QueryTerm(String text, boolean prefix) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bank.repository.index;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent case-insensitive equality index from a string attribute to transaction ids.
+ * Callers must not index the same id concurrently.
+ */
+public class HashIndex {
+
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+    private final Map<UUID, String> indexedKeys = new ConcurrentHashMap<>();
+
+    public void index(UUID id, String value) {
+        if (value == null) {
+            remove(id);
+            return;
+        }
+        String key = normalize(value);
+        String previous = indexedKeys.put(id, key);
+        if (key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removePosting(previous, id);
+        }
+        postings.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    public void remove(UUID id) {
+        String previous = indexedKeys.remove(id);
+        if (previous != null) {
+            removePosting(previous, id);
+        }
+    }
+
+    /**
+     * Live view of the ids indexed under {@code value}.
+     */
+    public Set<UUID> get(String value) {
+        Set<UUID> ids = postings.get(normalize(value));
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    public boolean contains(String value, UUID id) {
+        return normalize(value).equals(indexedKeys.get(id));
+    }
+
+    /**
+     * Distinct indexed values, in their normalized (lower-case) form.
+     */
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(postings.keySet());
+    }
+
+    private void removePosting(String key, UUID id) {
+        postings.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
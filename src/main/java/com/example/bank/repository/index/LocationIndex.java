@@ -0,0 +1,188 @@
+package com.example.bank.repository.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Open-addressing map from a transaction id to the packed location of a record on disk
+ * ({@code file << 32 | position}). Ids and locations live in three parallel primitive
+ * arrays, about 40 bytes per entry at the target load factor instead of the ~150 bytes of
+ * a {@code ConcurrentHashMap<UUID, Long>} entry.
+ */
+public class LocationIndex {
+
+    public static final long ABSENT = -1L;
+
+    private static final long EMPTY = 0L;
+    private static final long DELETED = -1L;
+    private static final double MAX_LOAD = 0.6;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] msbs;
+    private long[] lsbs;
+    // Stored as location + 1 so that a zeroed slot is empty.
+    private long[] values;
+    private int size;
+    private int used;
+
+    public LocationIndex() {
+        this(1024);
+    }
+
+    public LocationIndex(int initialCapacity) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity) - 1) << 1));
+    }
+
+    public static long location(int file, int position) {
+        return ((long) file << 32) | (position & 0xFFFFFFFFL);
+    }
+
+    public static int fileOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    public static int positionOf(long location) {
+        return (int) location;
+    }
+
+    /**
+     * Maps {@code id} to {@code location} and returns the previous location, or {@link #ABSENT}.
+     */
+    public long put(UUID id, long location) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot >= 0) {
+                long previous = values[slot] - 1;
+                values[slot] = location + 1;
+                return previous;
+            }
+            if (used + 1 > values.length * MAX_LOAD) {
+                rehash(size + 1 > values.length * MAX_LOAD / 2 ? values.length * 2 : values.length);
+            }
+            insert(id.getMostSignificantBits(), id.getLeastSignificantBits(), location);
+            return ABSENT;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Location of {@code id}, or {@link #ABSENT}.
+     */
+    public long get(UUID id) {
+        lock.readLock().lock();
+        try {
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return slot < 0 ? ABSENT : values[slot] - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes {@code id} if it is still at {@code expected}, or at any location when
+     * {@code expected} is {@link #ABSENT}.
+     */
+    public boolean remove(UUID id, long expected) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot < 0 || (expected != ABSENT && values[slot] - 1 != expected)) {
+                return false;
+            }
+            values[slot] = DELETED;
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(UUID id) {
+        return remove(id, ABSENT);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Snapshot of the indexed ids.
+     */
+    public List<UUID> ids() {
+        lock.readLock().lock();
+        try {
+            List<UUID> ids = new ArrayList<>(size);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != EMPTY && values[i] != DELETED) {
+                    ids.add(new UUID(msbs[i], lsbs[i]));
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int find(long msb, long lsb) {
+        int mask = values.length - 1;
+        for (int slot = hash(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+            long value = values[slot];
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value != DELETED && msbs[slot] == msb && lsbs[slot] == lsb) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(long msb, long lsb, long location) {
+        int mask = values.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (values[slot] != EMPTY && values[slot] != DELETED) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == EMPTY) {
+            used++;
+        }
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+        values[slot] = location + 1;
+        size++;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY && oldValues[i] != DELETED) {
+                insert(oldMsbs[i], oldLsbs[i], oldValues[i] - 1);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        values = new long[capacity];
+        size = 0;
+        used = 0;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
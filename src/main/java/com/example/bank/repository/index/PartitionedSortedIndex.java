@@ -0,0 +1,70 @@
+package com.example.bank.repository.index;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * One {@link SortedIndex} per value of a case-insensitive partition attribute, e.g. the
+ * timestamps of each category. Reading the first {@code k} entries of a partition is a
+ * seek plus {@code k} steps, independent of the partition size and of the other partitions.
+ * <p>
+ * Partitions are kept once created; the partition attribute is expected to have few
+ * distinct values. Callers must not index the same id concurrently.
+ */
+public class PartitionedSortedIndex<K extends Comparable<? super K>> {
+
+    private final Map<String, SortedIndex<K>> partitions = new ConcurrentHashMap<>();
+    private final Map<UUID, String> partitionOf = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes {@code id} under {@code key} in {@code partition}, moving it out of its previous
+     * partition if that changed. A {@code null} partition or key removes the id.
+     */
+    public void index(UUID id, String partition, K key) {
+        if (partition == null || key == null) {
+            remove(id);
+            return;
+        }
+        String normalized = normalize(partition);
+        String previous = partitionOf.put(id, normalized);
+        if (previous != null && !previous.equals(normalized)) {
+            partitions.get(previous).remove(id);
+        }
+        partitions.computeIfAbsent(normalized, p -> new SortedIndex<>()).index(id, key);
+    }
+
+    public void remove(UUID id) {
+        String previous = partitionOf.remove(id);
+        if (previous != null) {
+            partitions.get(previous).remove(id);
+        }
+    }
+
+    /**
+     * Ids of {@code partition} in descending key order.
+     */
+    public Stream<UUID> descending(String partition) {
+        SortedIndex<K> index = partitions.get(normalize(partition));
+        return index == null ? Stream.empty() : index.range(null, null, true, true);
+    }
+
+    /**
+     * Ids of {@code partition} in ascending key order.
+     */
+    public Stream<UUID> ascending(String partition) {
+        SortedIndex<K> index = partitions.get(normalize(partition));
+        return index == null ? Stream.empty() : index.range(null, null, true, false);
+    }
+
+    public int size(String partition) {
+        SortedIndex<K> index = partitions.get(normalize(partition));
+        return index == null ? 0 : index.size();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.bank.repository.index;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent ordered index from an attribute value to transaction ids.
+ * <p>
+ * Entries are (key, id) pairs in a skip list, so adding and removing a single id is one
+ * atomic operation and range queries are a seek plus an in-order walk. Keys are compared
+ * with {@link Comparable#compareTo}, i.e. {@code 1.0} and {@code 1.00} are the same amount.
+ * Callers must not index the same id concurrently.
+ */
+public class SortedIndex<K extends Comparable<? super K>> {
+
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final UUID MAX_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final ConcurrentSkipListSet<Entry<K>> entries = new ConcurrentSkipListSet<>(
+            Comparator.<Entry<K>, K>comparing(Entry::key).thenComparing(Entry::id));
+    private final Map<UUID, K> indexedKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes {@code id} under {@code key}, replacing any previous key. A {@code null} key
+     * removes the id from the index.
+     */
+    public void index(UUID id, K key) {
+        if (key == null) {
+            remove(id);
+            return;
+        }
+        K previous = indexedKeys.put(id, key);
+        if (previous != null) {
+            if (previous.compareTo(key) == 0) {
+                return;
+            }
+            entries.remove(new Entry<>(previous, id));
+        }
+        entries.add(new Entry<>(key, id));
+    }
+
+    public void remove(UUID id) {
+        K previous = indexedKeys.remove(id);
+        if (previous != null) {
+            entries.remove(new Entry<>(previous, id));
+        }
+    }
+
+    /**
+     * Ids with {@code from <= key <= to} in ascending key order; a {@code null} bound is open.
+     */
+    public Stream<UUID> ascending(K from, K to) {
+        return range(from, to, true, false);
+    }
+
+    /**
+     * Ids with {@code from <= key < to} in ascending key order; a {@code null} bound is open.
+     */
+    public Stream<UUID> ascendingHalfOpen(K from, K to) {
+        return range(from, to, false, false);
+    }
+
+    /**
+     * Ids with {@code from <= key <= to} in descending key order; a {@code null} bound is open.
+     */
+    public Stream<UUID> descending(K from, K to) {
+        return range(from, to, true, true);
+    }
+
+    /**
+     * Ids with {@code from <= key <= to} (or {@code < to} unless {@code toInclusive}) in the
+     * requested order; a {@code null} bound is open.
+     */
+    public Stream<UUID> range(K from, K to, boolean toInclusive, boolean descending) {
+        NavigableSet<Entry<K>> range = range(from, true, to, toInclusive);
+        return (descending ? range.descendingSet() : range).stream().map(Entry::id);
+    }
+
+    /**
+     * Counts the entries of a range, giving up at {@code cap}. Used to estimate selectivity
+     * without walking arbitrarily large ranges.
+     */
+    public long count(K from, K to, boolean toInclusive, long cap) {
+        if (from == null && to == null) {
+            return Math.min(size(), cap);
+        }
+        long count = 0;
+        for (Iterator<Entry<K>> it = range(from, true, to, toInclusive).iterator(); it.hasNext() && count < cap; it.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Whether {@code id} is indexed with a key inside the given range; a {@code null} bound is open.
+     */
+    public boolean contains(UUID id, K from, K to, boolean toInclusive) {
+        K key = indexedKeys.get(id);
+        if (key == null) {
+            return false;
+        }
+        if (from != null && key.compareTo(from) < 0) {
+            return false;
+        }
+        if (to != null) {
+            int comparison = key.compareTo(to);
+            return toInclusive ? comparison <= 0 : comparison < 0;
+        }
+        return true;
+    }
+
+    public K keyOf(UUID id) {
+        return indexedKeys.get(id);
+    }
+
+    public int size() {
+        return indexedKeys.size();
+    }
+
+    private NavigableSet<Entry<K>> range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        if (from == null && to == null) {
+            return entries;
+        }
+        if (from == null) {
+            return entries.headSet(new Entry<>(to, toInclusive ? MAX_ID : MIN_ID), false);
+        }
+        Entry<K> lower = new Entry<>(from, fromInclusive ? MIN_ID : MAX_ID);
+        if (to == null) {
+            return entries.tailSet(lower, true);
+        }
+        if (from.compareTo(to) > 0) {
+            return new ConcurrentSkipListSet<>();
+        }
+        return entries.subSet(lower, true, new Entry<>(to, toInclusive ? MAX_ID : MIN_ID), false);
+    }
+
+    private record Entry<K>(K key, UUID id) {
+    }
+}
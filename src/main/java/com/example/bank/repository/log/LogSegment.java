@@ -0,0 +1,276 @@
+package com.example.bank.repository.log;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+
+/**
+ * One append-only file of the transaction log.
+ * <p>
+ * Each record is framed as {@code (body length, CRC32C of body, body)}; the body starts with
+ * the record kind, its sequence number and the transaction id, followed by the encoded
+ * transaction for puts. Records are read with positional reads, so any number of readers
+ * can share the channel with the single appender.
+ */
+final class LogSegment implements Closeable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final int FRAME_BYTES = Integer.BYTES + Integer.BYTES;
+    static final int BODY_PREFIX_BYTES = 1 + Long.BYTES + Long.BYTES + Long.BYTES;
+
+    private static final int READ_CHUNK = 64 * 1024;
+
+    private final int number;
+    private final Path path;
+    private final FileChannel channel;
+    private volatile long size;
+    // Records in the file, and the puts among them the index still points at.
+    private final AtomicInteger records = new AtomicInteger();
+    private final AtomicInteger live = new AtomicInteger();
+
+    private LogSegment(int number, Path path, FileChannel channel, long size) {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    static LogSegment create(int number, Path path) throws IOException {
+        return new LogSegment(number, path, FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE), 0);
+    }
+
+    static LogSegment open(int number, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LogSegment(number, path, channel, channel.size());
+    }
+
+    /**
+     * Frames {@code body} as a record.
+     */
+    static ByteBuffer frame(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        ByteBuffer record = ByteBuffer.allocate(FRAME_BYTES + body.length);
+        record.putInt(body.length).putInt((int) crc.getValue()).put(body).flip();
+        return record;
+    }
+
+    /**
+     * Body of a record: kind, sequence, id, then the payload, which is empty for deletes.
+     */
+    static byte[] body(byte kind, long sequence, UUID id, byte[] payload) {
+        ByteBuffer body = ByteBuffer.allocate(BODY_PREFIX_BYTES + payload.length);
+        body.put(kind)
+                .putLong(sequence)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .put(payload);
+        return body.array();
+    }
+
+    /**
+     * Appends a framed record and returns its offset. Callers serialize appends.
+     */
+    int append(ByteBuffer record) throws IOException {
+        long offset = size;
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        records.incrementAndGet();
+        size = position;
+        return (int) offset;
+    }
+
+    /**
+     * Reads the record at {@code offset}, verifying its checksum.
+     */
+    Record read(int offset) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+        readFully(frame, offset);
+        frame.flip();
+        int length = frame.getInt();
+        int checksum = frame.getInt();
+        if (length < BODY_PREFIX_BYTES || offset + FRAME_BYTES + (long) length > size) {
+            throw new IOException("Corrupt record at " + offset + " in " + path);
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(body, offset + FRAME_BYTES);
+        return Record.parse(offset, checksum, body.array(), path);
+    }
+
+    /**
+     * Sequential reader over the records of this segment, up to the size at the time each
+     * chunk is fetched, so records appended meanwhile are read as well.
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Cuts the file after the last valid record, dropping a torn tail.
+     */
+    void truncate(long validSize) throws IOException {
+        channel.truncate(validSize);
+        size = validSize;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    int number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long size() {
+        return size;
+    }
+
+    AtomicInteger records() {
+        return records;
+    }
+
+    AtomicInteger live() {
+        return live;
+    }
+
+    /**
+     * Share of records that are no longer needed to answer reads.
+     */
+    double garbageRatio() {
+        int total = records.get();
+        return total == 0 ? 0 : 1 - (double) live.get() / total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of " + path);
+            }
+        }
+    }
+
+    /**
+     * A record read back from the file; the body of a put ends with the encoded transaction.
+     */
+    record Record(int offset, byte kind, long sequence, UUID id, byte[] body) {
+
+        static Record parse(int offset, int checksum, byte[] body, Path path) throws IOException {
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Checksum mismatch at " + offset + " in " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            byte kind = buffer.get();
+            if (kind != PUT && kind != DELETE) {
+                throw new IOException("Unknown record kind " + kind + " at " + offset + " in " + path);
+            }
+            return new Record(offset, kind, buffer.getLong(), new UUID(buffer.getLong(), buffer.getLong()), body);
+        }
+
+        int payloadOffset() {
+            return BODY_PREFIX_BYTES;
+        }
+
+        int length() {
+            return FRAME_BYTES + body.length;
+        }
+    }
+
+    final class Cursor {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK).flip();
+        private long bufferStart;
+        private long position;
+
+        /**
+         * Offset of the next record, which is also the end of the valid prefix read so far.
+         */
+        long position() {
+            return position;
+        }
+
+        /**
+         * The next record, or {@code null} at the end of the file. A torn or corrupt record
+         * surfaces as an {@link IOException}, leaving {@link #position()} in front of it.
+         */
+        Record next() throws IOException {
+            if (position == size) {
+                return null;
+            }
+            if (!fill(FRAME_BYTES)) {
+                throw new IOException("Torn record header at " + position + " in " + path);
+            }
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            int checksum = buffer.getInt(start + Integer.BYTES);
+            if (length < BODY_PREFIX_BYTES || position + FRAME_BYTES + (long) length > size) {
+                throw new IOException("Corrupt or torn record at " + position + " in " + path);
+            }
+            if (!fill(FRAME_BYTES + length)) {
+                throw new IOException("Torn record at " + position + " in " + path);
+            }
+            start = buffer.position();
+            byte[] body = new byte[length];
+            buffer.get(start + FRAME_BYTES, body);
+            Record record = Record.parse((int) position, checksum, body, path);
+            buffer.position(start + FRAME_BYTES + length);
+            position += FRAME_BYTES + length;
+            return record;
+        }
+
+        /**
+         * Makes sure {@code bytes} bytes from {@link #position} are buffered; false if the
+         * file ends first.
+         */
+        private boolean fill(int bytes) throws IOException {
+            long end = size;
+            if (position + bytes > end) {
+                return false;
+            }
+            buffer.position((int) (position - bufferStart));
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2)).flip();
+            }
+            buffer.compact();
+            bufferStart = position;
+            // Bytes past the published size may belong to a record still being written.
+            buffer.limit((int) Math.min(buffer.capacity(), end - bufferStart));
+            long fileOffset = position + buffer.position();
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, fileOffset);
+                if (read < 0) {
+                    buffer.flip();
+                    return false;
+                }
+                fileOffset += read;
+            }
+            buffer.flip();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package com.example.bank.repository.log;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.index.LocationIndex;
+import com.example.bank.repository.log.LogSegment.Record;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.store.TransactionStore;
+import com.example.bank.repository.tier.TransactionCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Durable, append-only store of transactions in the style of Bitcask.
+ * <p>
+ * Every put or delete appends a checksummed record to the active {@link LogSegment}; once it
+ * exceeds the segment size a new one is started. A {@link LocationIndex} maps each live id to
+ * the file and offset of its latest put, about 40 bytes of heap per row, so the data set can
+ * be several times larger than the heap. Records carry a sequence number: on startup the
+ * segments are replayed and, per id, the record with the highest sequence wins, whatever
+ * order the records ended up in. A torn record at the end of the last segment, left by a
+ * crash mid-write, is cut off.
+ * <p>
+ * A background compactor rewrites sealed segments whose share of overwritten or deleted
+ * records exceeds a threshold: live puts are appended again with their original sequence
+ * and the index is moved over, then the old file is deleted. Writers only contend with it
+ * for the append of one record at a time, and readers never wait for it. A delete record is
+ * kept until the segments that may hold older puts of its id are gone.
+ * <p>
+ * Without {@code syncWrites} a write is in the OS page cache when it returns: it survives a
+ * crash of the process but not of the machine.
+ */
+public class LogStructuredStore implements TransactionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogStructuredStore.class);
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean syncWrites;
+    private final double compactionThreshold;
+    private final LocationIndex index = new LocationIndex();
+    private final ConcurrentSkipListMap<Integer, LogSegment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Guards the active segment and every change of the index, so that a record is indexed
+    // before the compactor can look at its segment.
+    private final Object appendLock = new Object();
+    private final ScheduledExecutorService compactor;
+    private LogSegment active;
+
+    /**
+     * Opens the log in {@code directory}, replaying any existing segments.
+     *
+     * @param segmentBytes        size after which a new segment file is started
+     * @param syncWrites          force every write to disk before it returns
+     * @param compactionThreshold share of dead records from which a sealed segment is rewritten
+     * @param compactionInterval  delay between background compaction runs; zero or negative
+     *                            disables the background compactor
+     */
+    public LogStructuredStore(Path directory, long segmentBytes, boolean syncWrites,
+                              double compactionThreshold, Duration compactionInterval) {
+        if (segmentBytes <= 0 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between 1 and " + Integer.MAX_VALUE + " bytes");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncWrites = syncWrites;
+        this.compactionThreshold = compactionThreshold;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open transaction log in " + directory, e);
+        }
+        if (compactionInterval.isPositive()) {
+            compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "log-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = compactionInterval.toMillis();
+            compactor.scheduleWithFixedDelay(this::compactQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            compactor = null;
+        }
+        logger.info("Transaction log opened in {} with {} transactions in {} segments",
+                directory, index.size(), segments.size());
+    }
+
+    /**
+     * Appends {@code transaction} and makes it the current version of its id.
+     */
+    @Override
+    public void put(Transaction transaction) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        try {
+            TransactionCodec.write(new DataOutputStream(payload), transaction);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode transaction " + transaction.getId(), e);
+        }
+        synchronized (appendLock) {
+            long location = append(LogSegment.PUT, transaction.getId(), payload.toByteArray());
+            segmentAt(location).live().incrementAndGet();
+            released(index.put(transaction.getId(), location));
+        }
+    }
+
+    /**
+     * Appends all of {@code transactions} under one hold of the append lock; with
+     * {@code syncWrites} they are forced to disk together, once, before this returns.
+     */
+    @Override
+    public void putAll(List<Transaction> transactions) {
+        List<byte[]> payloads = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+            try {
+                TransactionCodec.write(new DataOutputStream(payload), transaction);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot encode transaction " + transaction.getId(), e);
+            }
+            payloads.add(payload.toByteArray());
+        }
+        synchronized (appendLock) {
+            for (int i = 0; i < transactions.size(); i++) {
+                UUID id = transactions.get(i).getId();
+                byte[] body = LogSegment.body(LogSegment.PUT, sequence.incrementAndGet(), id, payloads.get(i));
+                long location = appendFramed(LogSegment.frame(body), false);
+                segmentAt(location).live().incrementAndGet();
+                released(index.put(id, location));
+            }
+            if (syncWrites && active != null) {
+                try {
+                    active.force();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot force transaction log", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a delete record for {@code id}; returns false without writing if it is unknown.
+     */
+    @Override
+    public boolean delete(UUID id) {
+        synchronized (appendLock) {
+            long previous = index.get(id);
+            if (previous == LocationIndex.ABSENT) {
+                return false;
+            }
+            append(LogSegment.DELETE, id, new byte[0]);
+            index.remove(id);
+            released(previous);
+            return true;
+        }
+    }
+
+    @Override
+    public Transaction get(UUID id) {
+        long location = index.get(id);
+        while (location != LocationIndex.ABSENT) {
+            LogSegment segment = segments.get(LocationIndex.fileOf(location));
+            try {
+                if (segment != null) {
+                    return decode(segment.read(LocationIndex.positionOf(location)));
+                }
+            } catch (ClosedChannelException e) {
+                // Compacted meanwhile, the index already points at the copy.
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read transaction " + id, e);
+            }
+            long current = index.get(id);
+            if (current == location) {
+                throw new IllegalStateException("Transaction " + id + " points at missing segment "
+                        + LocationIndex.fileOf(location));
+            }
+            location = current;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean contains(UUID id) {
+        return index.get(id) != LocationIndex.ABSENT;
+    }
+
+    /**
+     * Current versions of all transactions, read segment by segment.
+     */
+    @Override
+    public Stream<Transaction> stream() {
+        return scan(record -> true);
+    }
+
+    /**
+     * Current versions of the transactions matching every filter of {@code query}, in no
+     * particular order. Sort and limit of the query are not applied.
+     */
+    @Override
+    public Stream<Transaction> scan(TransactionQuery query) {
+        return scan(query::matches);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long sizeInBytes() {
+        return segments.values().stream().mapToLong(LogSegment::size).sum();
+    }
+
+    /**
+     * Share of records in the log that are overwritten or deleted.
+     */
+    public double garbageRatio() {
+        long records = 0;
+        long live = 0;
+        for (LogSegment segment : segments.values()) {
+            records += segment.records().get();
+            live += segment.live().get();
+        }
+        return records == 0 ? 0 : 1 - (double) live / records;
+    }
+
+    /**
+     * Rewrites every sealed segment with at least the configured share of dead records,
+     * oldest first, and returns how many were compacted. Must not run concurrently with
+     * itself; the background compactor calls it on its own thread.
+     */
+    public synchronized int compact() {
+        int compacted = 0;
+        for (LogSegment segment : new ArrayList<>(segments.values())) {
+            if (segment == activeSegment() || segment.garbageRatio() < compactionThreshold) {
+                continue;
+            }
+            try {
+                compact(segment);
+                compacted++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot compact log segment " + segment.path(), e);
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Stops the compactor and closes all segments, forcing them to disk first.
+     */
+    @Override
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+            try {
+                compactor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (appendLock) {
+            for (LogSegment segment : segments.values()) {
+                try {
+                    segment.force();
+                    segment.close();
+                } catch (IOException e) {
+                    logger.warn("Cannot close log segment {}", segment.path(), e);
+                }
+            }
+            segments.clear();
+        }
+    }
+
+    private long append(byte kind, UUID id, byte[] payload) {
+        synchronized (appendLock) {
+            byte[] body = LogSegment.body(kind, sequence.incrementAndGet(), id, payload);
+            return appendFramed(LogSegment.frame(body));
+        }
+    }
+
+    /**
+     * Appends an already framed record to the active segment, rolling over first if it is full.
+     */
+    private long appendFramed(ByteBuffer record) {
+        return appendFramed(record, syncWrites);
+    }
+
+    private long appendFramed(ByteBuffer record, boolean force) {
+        synchronized (appendLock) {
+            try {
+                if (active == null || (active.size() > 0 && active.size() + record.remaining() > segmentBytes)) {
+                    roll();
+                }
+                int offset = active.append(record);
+                if (force) {
+                    active.force();
+                }
+                return LocationIndex.location(active.number(), offset);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot append to transaction log", e);
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        int number = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        if (active != null) {
+            // Sealed segments are only ever read again; make them durable once.
+            active.force();
+        }
+        LogSegment segment = LogSegment.create(number, segmentPath(number));
+        segments.put(number, segment);
+        active = segment;
+    }
+
+    private LogSegment activeSegment() {
+        synchronized (appendLock) {
+            return active;
+        }
+    }
+
+    private void compact(LogSegment segment) throws IOException {
+        boolean oldest = segments.firstKey() == segment.number();
+        int copied = 0;
+        LogSegment.Cursor cursor = segment.cursor();
+        for (Record record = cursor.next(); record != null; record = cursor.next()) {
+            if (record.kind() == LogSegment.PUT) {
+                long location = LocationIndex.location(segment.number(), record.offset());
+                if (index.get(record.id()) != location) {
+                    continue;
+                }
+                synchronized (appendLock) {
+                    if (index.get(record.id()) == location) {
+                        long copy = appendFramed(LogSegment.frame(record.body()));
+                        index.put(record.id(), copy);
+                        segmentAt(copy).live().incrementAndGet();
+                        copied++;
+                    }
+                }
+            } else if (!oldest && index.get(record.id()) == LocationIndex.ABSENT) {
+                // Older segments may still hold a put this delete overrides.
+                appendFramed(LogSegment.frame(record.body()));
+            }
+        }
+        synchronized (appendLock) {
+            // The copies must be durable before the originals go away.
+            active.force();
+        }
+        segments.remove(segment.number());
+        segment.close();
+        Files.deleteIfExists(segment.path());
+        logger.info("Compacted log segment {}: kept {} of {} records", segment.number(), copied,
+                segment.records().get());
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            logger.error("Log compaction failed", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            files.forEach(paths::add);
+        }
+        paths.sort(null);
+        // Sequence of the latest delete per id, to reject older puts found later in the replay.
+        Map<UUID, Long> deleted = new HashMap<>();
+        long maxSequence = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            String name = path.getFileName().toString();
+            int number = Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+            LogSegment segment = LogSegment.open(number, path);
+            segments.put(number, segment);
+            LogSegment.Cursor cursor = segment.cursor();
+            while (true) {
+                Record record;
+                try {
+                    record = cursor.next();
+                } catch (IOException e) {
+                    if (i == paths.size() - 1) {
+                        logger.warn("Truncating torn tail of {} at offset {}: {}", path, cursor.position(), e.getMessage());
+                        segment.truncate(cursor.position());
+                    } else {
+                        logger.error("Ignoring the rest of log segment {} from offset {}", path, cursor.position(), e);
+                    }
+                    break;
+                }
+                if (record == null) {
+                    break;
+                }
+                segment.records().incrementAndGet();
+                maxSequence = Math.max(maxSequence, record.sequence());
+                replay(segment, record, deleted);
+            }
+        }
+        sequence.set(maxSequence);
+        active = segments.isEmpty() ? null : segments.lastEntry().getValue();
+    }
+
+    private void replay(LogSegment segment, Record record, Map<UUID, Long> deleted) throws IOException {
+        UUID id = record.id();
+        long current = index.get(id);
+        if (current != LocationIndex.ABSENT && sequenceAt(current) > record.sequence()) {
+            return;
+        }
+        if (record.kind() == LogSegment.PUT) {
+            Long deletedAt = deleted.get(id);
+            if (deletedAt != null && deletedAt > record.sequence()) {
+                return;
+            }
+            deleted.remove(id);
+            segment.live().incrementAndGet();
+            released(index.put(id, LocationIndex.location(segment.number(), record.offset())));
+        } else {
+            deleted.merge(id, record.sequence(), Math::max);
+            if (current != LocationIndex.ABSENT && index.remove(id, current)) {
+                released(current);
+            }
+        }
+    }
+
+    private long sequenceAt(long location) throws IOException {
+        return segmentAt(location).read(LocationIndex.positionOf(location)).sequence();
+    }
+
+    /**
+     * Counts a put that the index no longer points at against its segment.
+     */
+    private void released(long location) {
+        if (location != LocationIndex.ABSENT) {
+            LogSegment segment = segments.get(LocationIndex.fileOf(location));
+            if (segment != null) {
+                segment.live().decrementAndGet();
+            }
+        }
+    }
+
+    private LogSegment segmentAt(long location) {
+        return segments.get(LocationIndex.fileOf(location));
+    }
+
+    /**
+     * Live puts matching {@code filter}, segment by segment in ascending order. Segments
+     * created while the stream is consumed are visited too, so rows the compactor moves
+     * forward are not lost; a row moved after it was read may be returned twice.
+     */
+    private Stream<Transaction> scan(Predicate<Transaction> filter) {
+        Iterator<Transaction> rows = new Iterator<>() {
+            private LogSegment segment = next(-1);
+            private LogSegment.Cursor cursor = segment == null ? null : segment.cursor();
+            private Transaction pending;
+
+            @Override
+            public boolean hasNext() {
+                while (pending == null && segment != null) {
+                    Record record;
+                    try {
+                        record = cursor.next();
+                    } catch (ClosedChannelException e) {
+                        // Compacted meanwhile, its live rows were appended to a later segment.
+                        record = null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot read log segment " + segment.path(), e);
+                    }
+                    if (record == null) {
+                        segment = next(segment.number());
+                        cursor = segment == null ? null : segment.cursor();
+                    } else if (record.kind() == LogSegment.PUT
+                            && index.get(record.id()) == LocationIndex.location(segment.number(), record.offset())) {
+                        Transaction transaction = decode(record);
+                        if (filter.test(transaction)) {
+                            pending = transaction;
+                        }
+                    }
+                }
+                return pending != null;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction transaction = pending;
+                pending = null;
+                return transaction;
+            }
+
+            private LogSegment next(int after) {
+                Map.Entry<Integer, LogSegment> entry = segments.higherEntry(after);
+                return entry == null ? null : entry.getValue();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private Transaction decode(Record record) {
+        byte[] body = record.body();
+        int offset = record.payloadOffset();
+        try {
+            return TransactionCodec.read(new DataInputStream(new ByteArrayInputStream(body, offset, body.length - offset)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt transaction record " + record.id(), e);
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%08d%s", number, SUFFIX));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bank.repository.mvcc;
+
+import com.example.bank.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A frozen view of the transactions: it sees every write up to its version and none after,
+ * however long it is read. Opened and released through {@link VersionStore}.
+ */
+public final class ReadSnapshot {
+
+    private final long version;
+    private final LocalDateTime openedAt;
+    private volatile boolean released;
+    // All rows in the view, listed on first use; the view never changes, so neither does the list.
+    private List<Transaction> rows;
+
+    ReadSnapshot(long version) {
+        this.version = version;
+        this.openedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Version of the last write the snapshot sees.
+     */
+    public long version() {
+        return version;
+    }
+
+    public LocalDateTime openedAt() {
+        return openedAt;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * The rows of the view, listed by {@code lister} on the first call only.
+     */
+    public synchronized List<Transaction> rows(Supplier<List<Transaction>> lister) {
+        if (rows == null) {
+            rows = List.copyOf(lister.get());
+        }
+        return rows;
+    }
+
+    void release() {
+        released = true;
+    }
+}
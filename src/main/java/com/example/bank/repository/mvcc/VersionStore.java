@@ -0,0 +1,155 @@
+package com.example.bank.repository.mvcc;
+
+import com.example.bank.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Older versions of the rows written while read snapshots are open, so that each snapshot
+ * keeps seeing the rows as they were when it was opened while writers go on.
+ * <p>
+ * Every write gets the next version number and, while a snapshot is open, retains the row it
+ * replaces under that number. A row's state in a snapshot is the row its first write after the
+ * snapshot's version replaced, or its current state if there is none. Writers never wait for
+ * readers. Opening a snapshot waits for the writes in progress, so that every write, a batch
+ * included, is either wholly in the snapshot or not at all.
+ * <p>
+ * Retained rows are shared with the heap and the store, not copied. A version is dropped once
+ * no open snapshot is older than it; with no snapshot open nothing is retained.
+ */
+public class VersionStore {
+
+    private final AtomicLong version = new AtomicLong();
+    // Held shared by writes, from their version number until they are visible; exclusively by opens.
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    // Oldest first. Lists are replaced, never changed, so readers need no lock.
+    private final Map<UUID, List<Version>> chains = new ConcurrentHashMap<>();
+    private final Set<ReadSnapshot> open = ConcurrentHashMap.newKeySet();
+    private final AtomicLong retained = new AtomicLong();
+
+    private record Version(long version, Transaction previous) {
+    }
+
+    /**
+     * Starts a write and returns its version. Every call must be followed by
+     * {@link #endWrite}, once the written rows are visible to readers.
+     */
+    public long beginWrite() {
+        commitLock.readLock().lock();
+        return version.incrementAndGet();
+    }
+
+    /**
+     * Keeps {@code previous}, the state of row {@code id} that the write {@code version}
+     * replaces, null if it creates the row, for as long as an open snapshot may need it. Must be
+     * called before the write is visible, by the holder of the row's write lock.
+     */
+    public void retain(long version, UUID id, Transaction previous) {
+        if (open.isEmpty()) {
+            return;
+        }
+        chains.compute(id, (key, chain) -> {
+            List<Version> appended = new ArrayList<>(chain == null ? 1 : chain.size() + 1);
+            if (chain != null) {
+                appended.addAll(chain);
+            }
+            appended.add(new Version(version, previous));
+            return List.copyOf(appended);
+        });
+        retained.incrementAndGet();
+    }
+
+    public void endWrite() {
+        commitLock.readLock().unlock();
+    }
+
+    /**
+     * Opens a snapshot of every write ended so far.
+     */
+    public ReadSnapshot open() {
+        commitLock.writeLock().lock();
+        try {
+            ReadSnapshot snapshot = new ReadSnapshot(version.get());
+            open.add(snapshot);
+            return snapshot;
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes {@code snapshot} and drops the versions no other snapshot needs.
+     */
+    public void release(ReadSnapshot snapshot) {
+        if (open.remove(snapshot)) {
+            snapshot.release();
+            collect();
+        }
+    }
+
+    /**
+     * State of row {@code id} in {@code snapshot}, null if it didn't exist, given
+     * {@code current}, its state read before this call.
+     */
+    public Transaction asOf(ReadSnapshot snapshot, UUID id, Transaction current) {
+        List<Version> chain = chains.get(id);
+        if (chain != null) {
+            for (Version version : chain) {
+                if (version.version() > snapshot.version()) {
+                    return version.previous();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Ids of the rows with retained versions, including rows deleted since a snapshot was opened.
+     */
+    public Set<UUID> changedIds() {
+        return Set.copyOf(chains.keySet());
+    }
+
+    /**
+     * Drops every version older than all open snapshots.
+     */
+    public void collect() {
+        long oldest = open.stream().mapToLong(ReadSnapshot::version).min().orElse(Long.MAX_VALUE);
+        for (UUID id : chains.keySet()) {
+            chains.computeIfPresent(id, (key, chain) -> {
+                int dropped = 0;
+                while (dropped < chain.size() && chain.get(dropped).version() <= oldest) {
+                    dropped++;
+                }
+                retained.addAndGet(-dropped);
+                return dropped == chain.size() ? null : dropped == 0 ? chain : List.copyOf(chain.subList(dropped, chain.size()));
+            });
+        }
+    }
+
+    public int openCount() {
+        return open.size();
+    }
+
+    /**
+     * Number of retained versions.
+     */
+    public long retainedCount() {
+        return retained.get();
+    }
+
+    /**
+     * Version of the last write begun.
+     */
+    public long currentVersion() {
+        return version.get();
+    }
+}
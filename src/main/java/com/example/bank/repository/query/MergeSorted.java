@@ -0,0 +1,62 @@
+package com.example.bank.repository.query;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy merge of two streams that are each sorted by the same comparator.
+ */
+public final class MergeSorted {
+
+    private MergeSorted() {
+    }
+
+    public static <T> Stream<T> merge(Stream<T> first, Stream<T> second, Comparator<? super T> order) {
+        // Elements must be non-null; null marks an exhausted side.
+        Iterator<T> left = first.iterator();
+        Iterator<T> right = second.iterator();
+        Iterator<T> merged = new Iterator<>() {
+            private boolean started;
+            private T nextLeft;
+            private T nextRight;
+
+            @Override
+            public boolean hasNext() {
+                if (!started) {
+                    nextLeft = advance(left);
+                    nextRight = advance(right);
+                    started = true;
+                }
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result;
+                if (nextRight == null || (nextLeft != null && order.compare(nextLeft, nextRight) <= 0)) {
+                    result = nextLeft;
+                    nextLeft = advance(left);
+                } else {
+                    result = nextRight;
+                    nextRight = advance(right);
+                }
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(first::close)
+                .onClose(second::close);
+    }
+
+    private static <T> T advance(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+}
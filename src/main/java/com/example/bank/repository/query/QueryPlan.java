@@ -0,0 +1,67 @@
+package com.example.bank.repository.query;
+
+import com.example.bank.repository.query.QueryPlanner.Access;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Access path chosen by {@link QueryPlanner}: the driver that produces candidate ids and
+ * the index membership checks applied to them.
+ */
+public class QueryPlan {
+
+    private final Access driver;
+    private final long estimatedRows;
+    private final boolean ordered;
+    private final double cost;
+    private final Supplier<Stream<UUID>> source;
+    private final Predicate<UUID> residual;
+    private final List<Access> residualAccess;
+
+    QueryPlan(Access driver, long estimatedRows, boolean ordered, double cost, Supplier<Stream<UUID>> source,
+              Predicate<UUID> residual, List<Access> residualAccess) {
+        this.driver = driver;
+        this.estimatedRows = estimatedRows;
+        this.ordered = ordered;
+        this.cost = cost;
+        this.source = source;
+        this.residual = residual;
+        this.residualAccess = residualAccess;
+    }
+
+    /**
+     * Lazily produces the ids matching every filter of the query.
+     */
+    public Stream<UUID> ids() {
+        return residualAccess.isEmpty() ? source.get() : source.get().filter(residual);
+    }
+
+    public Access getDriver() {
+        return driver;
+    }
+
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * Whether {@link #ids()} already comes in the order the query asked for.
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public List<Access> getResidualAccess() {
+        return residualAccess;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryPlan{driver=" + driver + ", estimatedRows=" + estimatedRows + ", ordered=" + ordered
+                + ", cost=" + String.format("%.1f", cost) + ", residual=" + residualAccess + "}";
+    }
+}
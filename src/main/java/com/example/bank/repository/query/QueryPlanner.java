@@ -0,0 +1,183 @@
+package com.example.bank.repository.query;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.index.DescriptionIndex;
+import com.example.bank.repository.index.DescriptionIndex.TextMatch;
+import com.example.bank.repository.index.HashIndex;
+import com.example.bank.repository.index.SortedIndex;
+import com.example.bank.repository.query.TransactionQuery.SortField;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Picks the access path for a {@link TransactionQuery}.
+ * <p>
+ * Every filter with an index is a candidate driver. Equality and text candidates have exact
+ * (or upper bound) sizes; range candidates are counted up to the best size found so far,
+ * so planning never walks a range further than the cheapest alternative. A sorted index
+ * that already yields the requested order is costed as the number of entries expected
+ * before {@code limit} matches are found, assuming independent filters. The remaining
+ * filters become membership checks against their indexes, so rows are only loaded once
+ * they are known to match.
+ */
+public class QueryPlanner {
+
+    public enum Access {
+        TYPE, CATEGORY, AMOUNT_RANGE, TIMESTAMP_RANGE, TEXT, AMOUNT_ORDER, TIMESTAMP_ORDER, FULL_SCAN
+    }
+
+    /**
+     * Small penalty per candidate row for drivers that need a sort afterwards, so that an
+     * ordered driver wins ties.
+     */
+    private static final double SORT_PENALTY = 0.1;
+
+    private final HashIndex typeIndex;
+    private final HashIndex categoryIndex;
+    private final SortedIndex<BigDecimal> amountIndex;
+    private final SortedIndex<LocalDateTime> timestampIndex;
+    private final DescriptionIndex descriptionIndex;
+    private final Supplier<Stream<UUID>> allIds;
+    private final IntSupplier rowCount;
+
+    public QueryPlanner(HashIndex typeIndex, HashIndex categoryIndex, SortedIndex<BigDecimal> amountIndex,
+                        SortedIndex<LocalDateTime> timestampIndex, DescriptionIndex descriptionIndex,
+                        Supplier<Stream<UUID>> allIds, IntSupplier rowCount) {
+        this.typeIndex = typeIndex;
+        this.categoryIndex = categoryIndex;
+        this.amountIndex = amountIndex;
+        this.timestampIndex = timestampIndex;
+        this.descriptionIndex = descriptionIndex;
+        this.allIds = allIds;
+        this.rowCount = rowCount;
+    }
+
+    public QueryPlan plan(TransactionQuery query) {
+        long rows = Math.max(1, rowCount.getAsInt());
+        SortField sortField = query.getSortField();
+        boolean descending = query.getSortDirection() == Sort.Direction.DESC;
+        List<Candidate> candidates = new ArrayList<>();
+        List<Filter> filters = new ArrayList<>();
+
+        if (query.getType() != null) {
+            String type = query.getType();
+            filters.add(new Filter(Access.TYPE, id -> typeIndex.contains(type, id)));
+            candidates.add(new Candidate(Access.TYPE, typeIndex.get(type).size(), false,
+                    () -> typeIndex.get(type).stream()));
+        }
+        if (query.getCategory() != null) {
+            String category = query.getCategory();
+            filters.add(new Filter(Access.CATEGORY, id -> categoryIndex.contains(category, id)));
+            candidates.add(new Candidate(Access.CATEGORY, categoryIndex.get(category).size(), false,
+                    () -> categoryIndex.get(category).stream()));
+        }
+        if (query.getText() != null) {
+            TextMatch textMatch = descriptionIndex.match(query.getText());
+            filters.add(new Filter(Access.TEXT, textMatch::test));
+            candidates.add(new Candidate(Access.TEXT, textMatch.estimatedSize(), false, textMatch::candidates));
+        }
+
+        long cap = candidates.stream().mapToLong(Candidate::estimatedRows).min().orElse(rows) + 1;
+        if (query.hasAmountRange()) {
+            BigDecimal min = query.getMinAmount();
+            BigDecimal max = query.getMaxAmount();
+            boolean ordered = sortField == SortField.AMOUNT;
+            filters.add(new Filter(Access.AMOUNT_RANGE, id -> amountIndex.contains(id, min, max, true)));
+            candidates.add(new Candidate(Access.AMOUNT_RANGE, amountIndex.count(min, max, true, cap),
+                    ordered, () -> amountIndex.range(min, max, true, ordered && descending)));
+        } else if (sortField == SortField.AMOUNT) {
+            candidates.add(new Candidate(Access.AMOUNT_ORDER, amountIndex.size(), true,
+                    () -> amountIndex.range(null, null, true, descending)));
+        }
+        if (query.hasTimeRange()) {
+            LocalDateTime from = query.getFrom();
+            LocalDateTime to = query.getTo();
+            boolean ordered = sortField == SortField.TIMESTAMP;
+            filters.add(new Filter(Access.TIMESTAMP_RANGE, id -> timestampIndex.contains(id, from, to, false)));
+            candidates.add(new Candidate(Access.TIMESTAMP_RANGE, timestampIndex.count(from, to, false, cap),
+                    ordered, () -> timestampIndex.range(from, to, false, ordered && descending)));
+        } else if (sortField == SortField.TIMESTAMP) {
+            candidates.add(new Candidate(Access.TIMESTAMP_ORDER, timestampIndex.size(), true,
+                    () -> timestampIndex.range(null, null, false, descending)));
+        }
+        candidates.add(new Candidate(Access.FULL_SCAN, rows, false, allIds));
+
+        Candidate best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (Candidate candidate : candidates) {
+            double cost = cost(candidate, query, filters, rows);
+            if (cost < bestCost) {
+                best = candidate;
+                bestCost = cost;
+            }
+        }
+
+        Candidate driver = best;
+        List<Access> residualAccess = new ArrayList<>();
+        Predicate<UUID> residual = id -> true;
+        for (Filter filter : filters) {
+            if (filter.access() != driver.access()) {
+                residualAccess.add(filter.access());
+                residual = residual.and(filter.test());
+            }
+        }
+        return new QueryPlan(driver.access(), driver.estimatedRows(), driver.ordered(), bestCost,
+                driver.source(), residual, residualAccess);
+    }
+
+    /**
+     * Row order requested by the query, with the id as tie breaker the same way the sorted
+     * indexes break ties, so every access path returns the same order.
+     */
+    public static Comparator<Transaction> comparator(TransactionQuery query) {
+        Comparator<Transaction> order = query.getSortField() == SortField.AMOUNT
+                ? Comparator.comparing(Transaction::getAmount, Comparator.nullsLast(Comparator.naturalOrder()))
+                : Comparator.comparing(Transaction::getTimestamp, Comparator.nullsLast(Comparator.naturalOrder()));
+        order = order.thenComparing(Transaction::getId);
+        return query.getSortDirection() == Sort.Direction.DESC ? order.reversed() : order;
+    }
+
+    private double cost(Candidate candidate, TransactionQuery query, List<Filter> filters, long rows) {
+        double estimated = candidate.estimatedRows();
+        if (!candidate.ordered()) {
+            return query.getSortField() == null ? estimated : estimated * (1 + SORT_PENALTY);
+        }
+        if (query.getLimit() == null) {
+            return estimated;
+        }
+        // Expected entries to walk before `limit` rows pass the other filters.
+        double selectivity = 1.0;
+        for (Filter filter : filters) {
+            if (filter.access() != candidate.access()) {
+                selectivity *= estimateOf(filter.access(), query, rows) / rows;
+            }
+        }
+        return Math.min(estimated, query.getLimit() / Math.max(selectivity, 1.0 / rows));
+    }
+
+    private double estimateOf(Access access, TransactionQuery query, long rows) {
+        return switch (access) {
+            case TYPE -> typeIndex.get(query.getType()).size();
+            case CATEGORY -> categoryIndex.get(query.getCategory()).size();
+            case TEXT -> descriptionIndex.match(query.getText()).estimatedSize();
+            // Unknown without walking the range; assume it halves the rows.
+            default -> rows / 2.0;
+        };
+    }
+
+    private record Candidate(Access access, long estimatedRows, boolean ordered, Supplier<Stream<UUID>> source) {
+    }
+
+    private record Filter(Access access, Predicate<UUID> test) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bank.repository.query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Bounded-heap selection of the first {@code k} elements of an unordered stream in
+ * O(n log k) time and O(k) memory.
+ */
+public final class TopN {
+
+    private TopN() {
+    }
+
+    public static <T> List<T> select(Stream<T> source, Comparator<? super T> order, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // The heap head is the worst element kept so far.
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());
+        for (Iterator<T> it = source.iterator(); it.hasNext(); ) {
+            T element = it.next();
+            if (heap.size() < k) {
+                heap.offer(element);
+            } else if (order.compare(element, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(element);
+            }
+        }
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
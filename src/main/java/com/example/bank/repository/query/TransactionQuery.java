@@ -0,0 +1,224 @@
+package com.example.bank.repository.query;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.index.DescriptionTokenizer;
+import com.example.bank.repository.index.DescriptionTokenizer.QueryTerm;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Conjunction of optional filters plus an optional sort and limit. Amount bounds are
+ * inclusive, the time range is {@code from <= timestamp < to}. With a point in time, the
+ * query runs over the rows as they were then instead of the current ones.
+ */
+public final class TransactionQuery {
+
+    public enum SortField {
+        AMOUNT, TIMESTAMP
+    }
+
+    private final String type;
+    private final String category;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String text;
+    private final SortField sortField;
+    private final Sort.Direction sortDirection;
+    private final Integer limit;
+    private final LocalDateTime asOf;
+    private final List<QueryTerm> textTerms;
+
+    private TransactionQuery(Builder builder) {
+        this.type = builder.type;
+        this.category = builder.category;
+        this.minAmount = builder.minAmount;
+        this.maxAmount = builder.maxAmount;
+        this.from = builder.from;
+        this.to = builder.to;
+        this.text = builder.text;
+        this.sortField = builder.sortField;
+        this.sortDirection = builder.sortDirection;
+        this.limit = builder.limit;
+        this.asOf = builder.asOf;
+        this.textTerms = text == null ? List.of() : DescriptionTokenizer.parseQuery(text);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A builder holding this query's filters, sort, limit and point in time.
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .type(type)
+                .category(category)
+                .amountBetween(minAmount, maxAmount)
+                .timeBetween(from, to)
+                .text(text)
+                .sort(sortField, sortDirection)
+                .limit(limit)
+                .asOf(asOf);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+
+    public Sort.Direction getSortDirection() {
+        return sortDirection;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * Point in time the query reads as of, null for the current rows.
+     */
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public boolean hasAmountRange() {
+        return minAmount != null || maxAmount != null;
+    }
+
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+
+    /**
+     * Evaluates every filter directly on a row, for rows that are not covered by the indexes.
+     */
+    public boolean matches(Transaction transaction) {
+        if (type != null && !type.equalsIgnoreCase(transaction.getType())) {
+            return false;
+        }
+        if (category != null && !category.equalsIgnoreCase(transaction.getCategory())) {
+            return false;
+        }
+        if (hasAmountRange()) {
+            BigDecimal amount = transaction.getAmount();
+            if (amount == null || (minAmount != null && amount.compareTo(minAmount) < 0)
+                    || (maxAmount != null && amount.compareTo(maxAmount) > 0)) {
+                return false;
+            }
+        }
+        if (hasTimeRange()) {
+            LocalDateTime timestamp = transaction.getTimestamp();
+            if (timestamp == null || (from != null && timestamp.isBefore(from))
+                    || (to != null && !timestamp.isBefore(to))) {
+                return false;
+            }
+        }
+        return text == null || DescriptionTokenizer.matches(textTerms, transaction.getDescription());
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionQuery{type=" + type + ", category=" + category
+                + ", amount=[" + minAmount + ", " + maxAmount + "], time=[" + from + ", " + to + ")"
+                + ", text=" + text + ", sort=" + sortField + " " + sortDirection + ", limit=" + limit
+                + (asOf != null ? ", asOf=" + asOf : "") + "}";
+    }
+
+    public static final class Builder {
+
+        private String type;
+        private String category;
+        private BigDecimal minAmount;
+        private BigDecimal maxAmount;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private String text;
+        private SortField sortField;
+        private Sort.Direction sortDirection = Sort.Direction.ASC;
+        private Integer limit;
+        private LocalDateTime asOf;
+
+        private Builder() {
+        }
+
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder category(String category) {
+            this.category = category;
+            return this;
+        }
+
+        public Builder amountBetween(BigDecimal minAmount, BigDecimal maxAmount) {
+            this.minAmount = minAmount;
+            this.maxAmount = maxAmount;
+            return this;
+        }
+
+        public Builder timeBetween(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        public Builder text(String text) {
+            this.text = text;
+            return this;
+        }
+
+        public Builder sort(SortField sortField, Sort.Direction sortDirection) {
+            this.sortField = sortField;
+            this.sortDirection = sortDirection == null ? Sort.Direction.ASC : sortDirection;
+            return this;
+        }
+
+        public Builder limit(Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public Builder asOf(LocalDateTime asOf) {
+            this.asOf = asOf;
+            return this;
+        }
+
+        public TransactionQuery build() {
+            return new TransactionQuery(this);
+        }
+    }
+}
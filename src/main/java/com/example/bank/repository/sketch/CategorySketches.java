@@ -0,0 +1,121 @@
+package com.example.bank.repository.sketch;
+
+import com.example.bank.model.Transaction;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Amount quantiles of all transactions and of each category, and the number of distinct
+ * categories, kept up to date on every write. Memory grows with the number of categories, not
+ * of transactions, and every answer takes time independent of the number of transactions.
+ * <p>
+ * Categories are compared case-insensitively, like the category index, and reported as first
+ * spelled. The distinct count is a {@link HyperLogLog} estimate and keeps counting categories
+ * whose transactions have all been deleted; {@link #categories} leaves those out.
+ */
+public class CategorySketches {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    // 2048 buckets of 2% span a factor of about 6e17 between the smallest and largest amounts.
+    public static final int DEFAULT_MAX_BINS = 2048;
+
+    private final double relativeAccuracy;
+    private final int maxBins;
+    private final QuantileSketch all;
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+    private final HyperLogLog distinctCategories = new HyperLogLog();
+
+    /**
+     * Amount sketch of one category.
+     */
+    public record Category(String name, QuantileSketch amounts) {
+    }
+
+    public CategorySketches() {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BINS);
+    }
+
+    public CategorySketches(double relativeAccuracy, int maxBins) {
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxBins = maxBins;
+        this.all = new QuantileSketch(relativeAccuracy, maxBins);
+    }
+
+    public void add(Transaction transaction) {
+        if (transaction.getAmount() == null) {
+            return;
+        }
+        double amount = transaction.getAmount().doubleValue();
+        all.add(amount);
+        if (transaction.getCategory() != null) {
+            String key = normalize(transaction.getCategory());
+            distinctCategories.add(key);
+            categories.computeIfAbsent(key, k -> new Category(transaction.getCategory(),
+                    new QuantileSketch(relativeAccuracy, maxBins))).amounts().add(amount);
+        }
+    }
+
+    /**
+     * Takes {@code transaction}, as it was added, out of the amount quantiles again.
+     */
+    public void remove(Transaction transaction) {
+        if (transaction.getAmount() == null) {
+            return;
+        }
+        double amount = transaction.getAmount().doubleValue();
+        all.remove(amount);
+        if (transaction.getCategory() != null) {
+            Category category = categories.get(normalize(transaction.getCategory()));
+            if (category != null) {
+                category.amounts().remove(amount);
+            }
+        }
+    }
+
+    /**
+     * Amounts of every transaction.
+     */
+    public QuantileSketch all() {
+        return all;
+    }
+
+    /**
+     * Amounts of the transactions in {@code category}, null if it never had any.
+     */
+    public Category category(String category) {
+        return categories.get(normalize(category));
+    }
+
+    /**
+     * Up to {@code limit} categories that currently have transactions, the largest first.
+     */
+    public List<Category> categories(int limit) {
+        // Counts are read once, so that concurrent writes can't reorder categories mid-sort.
+        return categories.values().stream()
+                .map(category -> Map.entry(category, category.amounts().count()))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<Category, Long>comparingByValue().reversed()
+                        .thenComparing(entry -> entry.getKey().name()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Estimated number of distinct categories ever written.
+     */
+    public long distinctCategories() {
+        return distinctCategories.estimate();
+    }
+
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    private static String normalize(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.bank.repository.sketch;
+
+/**
+ * DDSketch: quantiles of a stream of values with a relative error bound, in memory that
+ * depends on the range of the values, not on how many there are.
+ * <p>
+ * A value {@code v} is counted in bucket {@code ceil(log(v) / log(gamma))}, with
+ * {@code gamma = (1 + a) / (1 - a)} for relative accuracy {@code a}, and every value of a bucket
+ * is estimated by the same representative, which is within {@code a} of each of them. Buckets
+ * only hold counts, so a value can be removed again and sketches with the same accuracy can be
+ * merged exactly. At most {@code maxBins} buckets are kept per sign; beyond that the lowest
+ * ones are merged, which only affects the accuracy of the smallest values.
+ * <p>
+ * Thread-safe.
+ */
+public class QuantileSketch {
+
+    // Values closer to zero than this are counted as zero.
+    private static final double MIN_INDEXABLE = 1e-9;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final Store positive;
+    private final Store negative;
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        if (maxBins < 2) {
+            throw new IllegalArgumentException("At least two bins are needed: " + maxBins);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.positive = new Store(maxBins);
+        this.negative = new Store(maxBins);
+    }
+
+    public synchronized void add(double value) {
+        if (value > MIN_INDEXABLE) {
+            positive.add(key(value), 1);
+        } else if (value < -MIN_INDEXABLE) {
+            negative.add(key(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+    }
+
+    /**
+     * Takes one occurrence of {@code value} out again. Returns false, changing nothing, if its
+     * bucket is empty, so that removing a value that was never added can't corrupt the counts.
+     */
+    public synchronized boolean remove(double value) {
+        boolean removed;
+        if (value > MIN_INDEXABLE) {
+            removed = positive.remove(key(value));
+        } else if (value < -MIN_INDEXABLE) {
+            removed = negative.remove(key(-value));
+        } else {
+            removed = zeroCount > 0;
+            if (removed) {
+                zeroCount--;
+            }
+        }
+        if (removed) {
+            count--;
+        }
+        return removed;
+    }
+
+    /**
+     * Adds every value counted by {@code other}, which must have the same relative accuracy.
+     */
+    public void merge(QuantileSketch other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge a sketch into itself");
+        }
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches of different accuracy cannot be merged: "
+                    + relativeAccuracy + " and " + other.relativeAccuracy);
+        }
+        Store otherPositive;
+        Store otherNegative;
+        long otherZero;
+        long otherCount;
+        synchronized (other) {
+            otherPositive = other.positive.copy();
+            otherNegative = other.negative.copy();
+            otherZero = other.zeroCount;
+            otherCount = other.count;
+        }
+        synchronized (this) {
+            positive.addAll(otherPositive);
+            negative.addAll(otherNegative);
+            zeroCount += otherZero;
+            count += otherCount;
+        }
+    }
+
+    /**
+     * Estimate of the value at quantile {@code q} (0 is the minimum, 1 the maximum), within the
+     * relative accuracy of the value itself; NaN when the sketch is empty.
+     */
+    public synchronized double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (count - 1));
+        long negatives = negative.total();
+        if (rank < negatives) {
+            // The most negative values have the highest keys.
+            return -value(negative.keyAtRank(negatives - 1 - rank));
+        }
+        rank -= negatives;
+        if (rank < zeroCount) {
+            return 0;
+        }
+        return value(positive.keyAtRank(rank - zeroCount));
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    private int key(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    private double value(int key) {
+        return 2 * Math.pow(gamma, key) / (gamma + 1);
+    }
+
+    /**
+     * Counts per bucket key in a dense array. When the keys span more than {@code maxBins},
+     * the lowest ones are merged into one and stay merged.
+     */
+    private static final class Store {
+
+        private static final int INITIAL_BINS = 64;
+
+        private final int maxBins;
+        private long[] counts = new long[0];
+        // Key of counts[0].
+        private int offset;
+        // Keys below are counted in this one once the store has collapsed.
+        private int collapsedBelow = Integer.MIN_VALUE;
+        private long total;
+
+        private Store(int maxBins) {
+            this.maxBins = maxBins;
+        }
+
+        private void add(int key, long delta) {
+            key = Math.max(key, collapsedBelow);
+            if (counts.length == 0 || key < offset || key >= offset + counts.length) {
+                extend(key);
+                key = Math.max(key, collapsedBelow);
+            }
+            counts[key - offset] += delta;
+            total += delta;
+        }
+
+        private boolean remove(int key) {
+            key = Math.max(key, collapsedBelow);
+            if (counts.length == 0 || key < offset || key >= offset + counts.length || counts[key - offset] == 0) {
+                return false;
+            }
+            counts[key - offset]--;
+            total--;
+            return true;
+        }
+
+        private void addAll(Store other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        private int keyAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            return offset + counts.length - 1;
+        }
+
+        private long total() {
+            return total;
+        }
+
+        private Store copy() {
+            Store copy = new Store(maxBins);
+            copy.counts = counts.clone();
+            copy.offset = offset;
+            copy.collapsedBelow = collapsedBelow;
+            copy.total = total;
+            return copy;
+        }
+
+        private void extend(int key) {
+            boolean empty = counts.length == 0;
+            int low = empty ? key : Math.min(offset, key);
+            int high = empty ? key : Math.max(offset + counts.length - 1, key);
+            if (high - low + 1 > maxBins) {
+                low = high - maxBins + 1;
+                collapsedBelow = low;
+            }
+            int length = Math.min(maxBins, Math.max(high - low + 1, Math.max(2 * counts.length, INITIAL_BINS)));
+            int newOffset;
+            if (empty) {
+                newOffset = key - length / 2;
+            } else if (key < offset) {
+                // Growing downwards, leave the spare room below.
+                newOffset = Math.max(high - length + 1, collapsedBelow);
+            } else {
+                newOffset = low;
+            }
+            long[] extended = new long[length];
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    int moved = Math.max(offset + i, low);
+                    extended[moved - newOffset] += counts[i];
+                }
+            }
+            counts = extended;
+            offset = newOffset;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.bank.repository.store;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.index.BloomFilter;
+import com.example.bank.repository.query.TransactionQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Puts a {@link BloomFilter} of every id ever written in front of a store whose lookups cost
+ * a round trip, so that {@link #get}, {@link #contains} and {@link #delete} of an unknown id,
+ * which is what a scanner or a broken client sends, are answered without asking the store.
+ * <p>
+ * Ids are added to the filter before the row is written, so a concurrent lookup may ask the
+ * store needlessly but never misses a row. Deleted ids stay in the filter and merely cost a
+ * lookup. The filter is sized for twice the rows the store has when opened, or for
+ * {@code expectedRows} if that is more; beyond its capacity it lets through more and more
+ * misses but stays correct.
+ */
+public class BloomFilteredTransactionStore implements TransactionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BloomFilteredTransactionStore.class);
+
+    private final TransactionStore delegate;
+    private final BloomFilter filter;
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicBoolean overCapacityLogged = new AtomicBoolean();
+
+    public BloomFilteredTransactionStore(TransactionStore delegate, long expectedRows, double falsePositiveRate) {
+        this.delegate = delegate;
+        this.filter = new BloomFilter(Math.max(expectedRows, 2L * delegate.size()), falsePositiveRate);
+        try (Stream<Transaction> rows = delegate.stream()) {
+            rows.forEach(transaction -> filter.add(transaction.getId()));
+        }
+        logger.info("Bloom filter of {} bits for {} ids in front of the {} store, {} ids loaded",
+                filter.bitSize(), filter.expectedInsertions(), delegate.name(), filter.insertions());
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        add(transaction.getId());
+        delegate.put(transaction);
+    }
+
+    @Override
+    public void putAll(List<Transaction> transactions) {
+        transactions.forEach(transaction -> add(transaction.getId()));
+        delegate.putAll(transactions);
+    }
+
+    @Override
+    public Transaction get(UUID id) {
+        if (!filter.mightContain(id)) {
+            negatives.incrementAndGet();
+            return null;
+        }
+        Transaction transaction = delegate.get(id);
+        if (transaction == null) {
+            falsePositives.incrementAndGet();
+        }
+        return transaction;
+    }
+
+    @Override
+    public boolean contains(UUID id) {
+        if (!filter.mightContain(id)) {
+            negatives.incrementAndGet();
+            return false;
+        }
+        boolean contains = delegate.contains(id);
+        if (!contains) {
+            falsePositives.incrementAndGet();
+        }
+        return contains;
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        if (!filter.mightContain(id)) {
+            negatives.incrementAndGet();
+            return false;
+        }
+        boolean deleted = delegate.delete(id);
+        if (!deleted) {
+            falsePositives.incrementAndGet();
+        }
+        return deleted;
+    }
+
+    @Override
+    public Stream<Transaction> scan(TransactionQuery query) {
+        return delegate.scan(query);
+    }
+
+    @Override
+    public Stream<Transaction> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public Stream<Transaction> scanEvicted(TransactionQuery query) {
+        return delegate.scanEvicted(query);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public Map<UUID, Transaction> shareHeapRows() {
+        return delegate.shareHeapRows();
+    }
+
+    @Override
+    public void evicted(List<Transaction> transactions) {
+        delegate.evicted(transactions);
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Lookups of unknown ids answered by the filter alone.
+     */
+    public long getNegativeCount() {
+        return negatives.get();
+    }
+
+    /**
+     * Lookups of unknown, or deleted, ids the filter let through to the store.
+     */
+    public long getFalsePositiveCount() {
+        return falsePositives.get();
+    }
+
+    public BloomFilter getFilter() {
+        return filter;
+    }
+
+    private void add(UUID id) {
+        filter.add(id);
+        // Judged by the bits set rather than by the adds, which count every rewrite of a row.
+        if (filter.expectedFalsePositiveRate() > filter.falsePositiveRate()
+                && overCapacityLogged.compareAndSet(false, true)) {
+            logger.warn("Bloom filter in front of the {} store is over its capacity of {} ids; "
+                    + "raise bank.storage.bloom-filter.expected-rows", delegate.name(), filter.expectedInsertions());
+        }
+    }
+}
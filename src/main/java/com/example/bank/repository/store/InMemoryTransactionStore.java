@@ -0,0 +1,124 @@
+package com.example.bank.repository.store;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.tier.ColdTier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps transactions in a {@link ConcurrentHashMap}; nothing survives a restart. Rows the
+ * repository evicts from its working set move to the {@link ColdTier}, if there is one, so
+ * that old transactions don't occupy the heap.
+ * <p>
+ * With a cold tier the map is shared with the repository as its working set, so a hot row is
+ * held once; only the cold tier adds storage. Without one the store keeps a map of its own,
+ * since it is the only place a row the repository drops could stay.
+ */
+public class InMemoryTransactionStore implements TransactionStore {
+
+    private final Map<UUID, Transaction> transactions = new ConcurrentHashMap<>();
+    private final ColdTier coldTier;
+    private volatile boolean shared;
+
+    public InMemoryTransactionStore() {
+        this(null);
+    }
+
+    public InMemoryTransactionStore(ColdTier coldTier) {
+        this.coldTier = coldTier;
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        transactions.put(transaction.getId(), transaction);
+        if (coldTier != null) {
+            // Updated rows are hot again, drop the stale cold copy.
+            coldTier.remove(transaction.getId());
+        }
+    }
+
+    @Override
+    public Map<UUID, Transaction> shareHeapRows() {
+        if (coldTier == null) {
+            return null;
+        }
+        shared = true;
+        return transactions;
+    }
+
+    @Override
+    public Transaction get(UUID id) {
+        Transaction transaction = transactions.get(id);
+        if (transaction == null && coldTier != null) {
+            transaction = coldTier.find(id);
+        }
+        return transaction;
+    }
+
+    @Override
+    public boolean contains(UUID id) {
+        return transactions.containsKey(id) || (coldTier != null && coldTier.contains(id));
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        boolean removed = transactions.remove(id) != null;
+        if (coldTier != null) {
+            removed |= coldTier.remove(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public Stream<Transaction> scan(TransactionQuery query) {
+        Stream<Transaction> hot = transactions.values().stream().filter(query::matches);
+        return coldTier == null ? hot : Stream.concat(hot, coldTier.scan(query));
+    }
+
+    @Override
+    public Stream<Transaction> stream() {
+        Stream<Transaction> hot = transactions.values().stream();
+        return coldTier == null ? hot : Stream.concat(hot, coldTier.stream());
+    }
+
+    /**
+     * Only the cold tier: rows still in the map are the ones the repository holds as well.
+     */
+    @Override
+    public Stream<Transaction> scanEvicted(TransactionQuery query) {
+        return coldTier == null ? scan(query) : coldTier.scan(query);
+    }
+
+    @Override
+    public int size() {
+        return transactions.size() + (coldTier == null ? 0 : coldTier.size());
+    }
+
+    /**
+     * Moves {@code evicted} into a new cold segment. Must not be called concurrently. A shared
+     * map keeps the rows until the repository removes them.
+     */
+    @Override
+    public void evicted(List<Transaction> evicted) {
+        if (coldTier == null) {
+            return;
+        }
+        coldTier.append(evicted);
+        if (shared) {
+            return;
+        }
+        for (Transaction transaction : evicted) {
+            transactions.remove(transaction.getId(), transaction);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+}
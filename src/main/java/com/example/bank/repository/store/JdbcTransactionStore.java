@@ -0,0 +1,422 @@
+package com.example.bank.repository.store;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.query.TransactionQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stores transactions in a table of an embedded database (H2 by default) over plain JDBC.
+ * <p>
+ * A fixed pool of connections each keeps its prepared statements, so every statement is
+ * parsed once per connection. {@link #putAll} sends its rows in JDBC batches inside a single
+ * transaction, so a failure leaves none of them written. Scans push the equality and range filters of a query into the
+ * {@code WHERE} clause and read pages with keyset pagination on the id, so a long scan
+ * neither holds a connection between pages nor slows down with the page number; the text
+ * filter is applied to the rows read.
+ * <p>
+ * Amounts are stored as {@code DECFLOAT} for range filters plus their scale, so they read
+ * back with the scale they were written with. Type and category are stored lower-cased as
+ * well for the case-insensitive filters.
+ */
+public class JdbcTransactionStore implements TransactionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcTransactionStore.class);
+
+    private static final String TABLE = "bank_transactions";
+    private static final String COLUMNS = "id, description, amount, amount_scale, type, type_key, category, category_key, ts, account_id";
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                    + "id UUID PRIMARY KEY, description VARCHAR, amount DECFLOAT, amount_scale INT, "
+                    + "type VARCHAR, type_key VARCHAR, category VARCHAR, category_key VARCHAR, ts TIMESTAMP(9), "
+                    + "account_id VARCHAR)",
+            // Tables created before transactions had accounts.
+            "ALTER TABLE " + TABLE + " ADD COLUMN IF NOT EXISTS account_id VARCHAR",
+            "CREATE INDEX IF NOT EXISTS " + TABLE + "_ts ON " + TABLE + " (ts)",
+            "CREATE INDEX IF NOT EXISTS " + TABLE + "_category_ts ON " + TABLE + " (category_key, ts)",
+            "CREATE INDEX IF NOT EXISTS " + TABLE + "_type ON " + TABLE + " (type_key)",
+            "CREATE INDEX IF NOT EXISTS " + TABLE + "_amount ON " + TABLE + " (amount)"
+    };
+    private static final String UPSERT = "MERGE INTO " + TABLE + " (" + COLUMNS + ") KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM " + TABLE + " WHERE id = ?";
+    private static final String EXISTS = "SELECT 1 FROM " + TABLE + " WHERE id = ?";
+    private static final String DELETE = "DELETE FROM " + TABLE + " WHERE id = ?";
+    private static final String COUNT = "SELECT COUNT(*) FROM " + TABLE;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int batchSize;
+    private final int pageSize;
+    private final BlockingQueue<Session> sessions;
+
+    public JdbcTransactionStore(String url, String username, String password,
+                                int poolSize, int batchSize, int pageSize) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.batchSize = batchSize;
+        this.pageSize = pageSize;
+        this.sessions = new ArrayBlockingQueue<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                sessions.add(new Session(DriverManager.getConnection(url, username, password)));
+            }
+            try (Statement statement = sessions.peek().connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Cannot open transaction database " + url, e);
+        }
+        logger.info("Transaction database {} opened with {} connections", url, poolSize);
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        execute(session -> {
+            PreparedStatement statement = session.prepare(UPSERT);
+            bind(statement, transaction);
+            statement.executeUpdate();
+            return null;
+        });
+    }
+
+    @Override
+    public void putAll(List<Transaction> transactions) {
+        execute(session -> {
+            PreparedStatement statement = session.prepare(UPSERT);
+            session.connection.setAutoCommit(false);
+            try {
+                for (int start = 0; start < transactions.size(); start += batchSize) {
+                    for (Transaction transaction : transactions.subList(start, Math.min(start + batchSize, transactions.size()))) {
+                        bind(statement, transaction);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+                session.connection.commit();
+            } catch (SQLException e) {
+                session.connection.rollback();
+                throw e;
+            } finally {
+                session.connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Transaction get(UUID id) {
+        return execute(session -> {
+            PreparedStatement statement = session.prepare(SELECT_BY_ID);
+            statement.setObject(1, id);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? read(rows) : null;
+            }
+        });
+    }
+
+    @Override
+    public boolean contains(UUID id) {
+        return execute(session -> {
+            PreparedStatement statement = session.prepare(EXISTS);
+            statement.setObject(1, id);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next();
+            }
+        });
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return execute(session -> {
+            PreparedStatement statement = session.prepare(DELETE);
+            statement.setObject(1, id);
+            return statement.executeUpdate() > 0;
+        });
+    }
+
+    @Override
+    public Stream<Transaction> scan(TransactionQuery query) {
+        Filter filter = Filter.of(query);
+        Iterator<Transaction> rows = new Iterator<>() {
+            private List<Transaction> page = Collections.emptyList();
+            private int position;
+            private UUID after;
+            private boolean exhausted;
+            private Transaction pending;
+
+            @Override
+            public boolean hasNext() {
+                while (pending == null) {
+                    if (position == page.size()) {
+                        if (exhausted) {
+                            return false;
+                        }
+                        page = readPage(filter, after);
+                        position = 0;
+                        exhausted = page.size() < pageSize;
+                        if (page.isEmpty()) {
+                            return false;
+                        }
+                        after = page.get(page.size() - 1).getId();
+                    }
+                    Transaction transaction = page.get(position++);
+                    if (query.getText() == null || query.matches(transaction)) {
+                        pending = transaction;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction transaction = pending;
+                pending = null;
+                return transaction;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public int size() {
+        return execute(session -> {
+            try (ResultSet rows = session.prepare(COUNT).executeQuery()) {
+                rows.next();
+                return rows.getInt(1);
+            }
+        });
+    }
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+
+    @Override
+    public void close() {
+        Session session;
+        while ((session = sessions.poll()) != null) {
+            session.close();
+        }
+    }
+
+    /**
+     * The next page of rows matching {@code filter} with an id after {@code after}, in id order.
+     */
+    private List<Transaction> readPage(Filter filter, UUID after) {
+        return execute(session -> {
+            PreparedStatement statement = session.prepare(filter.sql(after != null));
+            int index = filter.bind(statement);
+            if (after != null) {
+                statement.setObject(index++, after);
+            }
+            statement.setInt(index, pageSize);
+            List<Transaction> page = new ArrayList<>(pageSize);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    page.add(read(rows));
+                }
+            }
+            return page;
+        });
+    }
+
+    private <T> T execute(SqlWork<T> work) {
+        Session session;
+        try {
+            session = sessions.poll(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a database connection", e);
+        }
+        if (session == null) {
+            throw new IllegalStateException("No database connection available for " + url);
+        }
+        try {
+            return work.run(session);
+        } catch (SQLException e) {
+            // The connection may be unusable now; replace it rather than hand it out again.
+            session.close();
+            session = reconnect();
+            throw new IllegalStateException("Database operation failed on " + url, e);
+        } finally {
+            if (session != null) {
+                sessions.add(session);
+            }
+        }
+    }
+
+    private Session reconnect() {
+        try {
+            return new Session(DriverManager.getConnection(url, username, password));
+        } catch (SQLException e) {
+            logger.error("Cannot reconnect to {}, the pool shrinks by one connection", url, e);
+            return null;
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Transaction transaction) throws SQLException {
+        statement.setObject(1, transaction.getId());
+        statement.setString(2, transaction.getDescription());
+        BigDecimal amount = transaction.getAmount();
+        statement.setBigDecimal(3, amount);
+        if (amount == null) {
+            statement.setNull(4, Types.INTEGER);
+        } else {
+            statement.setInt(4, amount.scale());
+        }
+        statement.setString(5, transaction.getType());
+        statement.setString(6, key(transaction.getType()));
+        statement.setString(7, transaction.getCategory());
+        statement.setString(8, key(transaction.getCategory()));
+        statement.setObject(9, transaction.getTimestamp());
+        statement.setString(10, transaction.getAccountId());
+    }
+
+    private static Transaction read(ResultSet rows) throws SQLException {
+        Transaction transaction = new Transaction();
+        transaction.setId(rows.getObject(1, UUID.class));
+        transaction.setDescription(rows.getString(2));
+        BigDecimal amount = rows.getBigDecimal(3);
+        transaction.setAmount(amount == null ? null : amount.setScale(rows.getInt(4)));
+        transaction.setType(rows.getString(5));
+        transaction.setCategory(rows.getString(7));
+        transaction.setTimestamp(rows.getObject(9, LocalDateTime.class));
+        transaction.setAccountId(rows.getString(10));
+        return transaction;
+    }
+
+    private static String key(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Session session) throws SQLException;
+    }
+
+    /**
+     * A pooled connection with the statements prepared on it so far.
+     */
+    private static final class Session {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Cannot close database connection", e);
+            }
+        }
+    }
+
+    /**
+     * The SQL filters of a query; the same shape of query always yields the same SQL, so
+     * its statement is reused.
+     */
+    private record Filter(List<String> conditions, List<Object> values) {
+
+        static Filter of(TransactionQuery query) {
+            List<String> conditions = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            if (query.getType() != null) {
+                conditions.add("type_key = ?");
+                values.add(key(query.getType()));
+            }
+            if (query.getCategory() != null) {
+                conditions.add("category_key = ?");
+                values.add(key(query.getCategory()));
+            }
+            if (query.getMinAmount() != null) {
+                conditions.add("amount >= ?");
+                values.add(query.getMinAmount());
+            }
+            if (query.getMaxAmount() != null) {
+                conditions.add("amount <= ?");
+                values.add(query.getMaxAmount());
+            }
+            if (query.hasAmountRange()) {
+                conditions.add("amount IS NOT NULL");
+            }
+            if (query.getFrom() != null) {
+                conditions.add("ts >= ?");
+                values.add(query.getFrom());
+            }
+            if (query.getTo() != null) {
+                conditions.add("ts < ?");
+                values.add(query.getTo());
+            }
+            if (query.hasTimeRange()) {
+                conditions.add("ts IS NOT NULL");
+            }
+            return new Filter(conditions, values);
+        }
+
+        String sql(boolean afterKey) {
+            List<String> where = new ArrayList<>(conditions);
+            if (afterKey) {
+                where.add("id > ?");
+            }
+            return "SELECT " + COLUMNS + " FROM " + TABLE
+                    + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+                    + " ORDER BY id LIMIT ?";
+        }
+
+        int bind(PreparedStatement statement) throws SQLException {
+            int index = 1;
+            for (Object value : values) {
+                statement.setObject(index++, value);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bank.repository.store;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.query.TransactionQuery;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend behind {@link com.example.bank.repository.TransactionRepository}: the
+ * system of record for every transaction. The repository writes through to it and keeps an
+ * indexed working set of recent rows on the heap; anything else is read back from the store.
+ * <p>
+ * Implementations are thread-safe. Writes to the same id are never issued concurrently.
+ */
+public interface TransactionStore extends Closeable {
+
+    /**
+     * Inserts or replaces {@code transaction}.
+     */
+    void put(Transaction transaction);
+
+    /**
+     * Inserts or replaces all of {@code transactions}, batched where the backend benefits.
+     */
+    default void putAll(List<Transaction> transactions) {
+        transactions.forEach(this::put);
+    }
+
+    /**
+     * The transaction with {@code id}, or {@code null}.
+     */
+    Transaction get(UUID id);
+
+    boolean contains(UUID id);
+
+    /**
+     * Removes {@code id}; returns false if it was unknown.
+     */
+    boolean delete(UUID id);
+
+    /**
+     * Transactions matching every filter of {@code query}, in no particular order. Sort and
+     * limit of the query are not applied. The stream is lazy and must be closed.
+     */
+    Stream<Transaction> scan(TransactionQuery query);
+
+    /**
+     * All transactions, in no particular order. The stream is lazy and must be closed.
+     */
+    default Stream<Transaction> stream() {
+        return scan(TransactionQuery.builder().build());
+    }
+
+    /**
+     * Like {@link #scan}, except that rows put since they were last {@link #evicted} may be
+     * left out; the repository has those on the heap anyway.
+     */
+    default Stream<Transaction> scanEvicted(TransactionQuery query) {
+        return scan(query);
+    }
+
+    int size();
+
+    /**
+     * Hands the map this store keeps its rows on the heap in to the repository, to serve as its
+     * working set instead of a second map of the same rows; null if the store has none to share.
+     * The repository then writes rows through the store only and, once the store has been told
+     * of rows it {@link #evicted}, removes them from the map itself.
+     */
+    default Map<UUID, Transaction> shareHeapRows() {
+        return null;
+    }
+
+    /**
+     * Tells the store that the repository dropped {@code transactions} from its working set.
+     * Backends that keep rows on the heap may move them somewhere cheaper; a row that is
+     * written meanwhile is put again afterwards.
+     */
+    default void evicted(List<Transaction> transactions) {
+    }
+
+    /**
+     * Short name of the backend for logs and metrics.
+     */
+    String name();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.bank.repository.tier;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.index.LocationIndex;
+import com.example.bank.repository.query.TransactionQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the transaction store: immutable compressed {@link Segment} files on local
+ * disk plus a {@link LocationIndex} from id to segment and block. Cold rows are not part of the
+ * in-memory secondary indexes; filters are evaluated by scanning the segments whose
+ * summary (time and amount bounds, types and categories) can match.
+ * <p>
+ * A transaction lives in at most one segment at a time as far as the index is concerned;
+ * older copies left behind by updates are skipped when segments are scanned. A segment
+ * file is deleted once none of its rows is live any more; readers still holding it keep
+ * working off the mapping, which outlives the file. The directory only ever holds
+ * data of the running process and is cleared on startup and on close, since the hot tier it
+ * extends is not persistent either.
+ */
+public class ColdTier implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColdTier.class);
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int blockSize;
+    private final LocationIndex index = new LocationIndex();
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> liveRows = new ConcurrentHashMap<>();
+    private final Map<Integer, Summary> summaries = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSegment = new AtomicInteger();
+
+    public ColdTier(Path directory, int blockSize) {
+        this.directory = directory;
+        this.blockSize = blockSize;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path path : stale) {
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare cold tier directory " + directory, e);
+        }
+        logger.info("Cold tier initialized in {} with {} byte blocks", directory, blockSize);
+    }
+
+    /**
+     * Writes {@code transactions} to a new segment and makes them readable through
+     * {@link #find}. Must not be called concurrently.
+     */
+    public synchronized void append(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        int number = nextSegment.getAndIncrement();
+        Path path = directory.resolve(String.format("%08d%s", number, SUFFIX));
+        List<UUID> ids = new ArrayList<>(transactions.size());
+        List<Integer> blocks = new ArrayList<>(transactions.size());
+        Segment segment;
+        try {
+            segment = Segment.write(number, path, transactions, blockSize, (id, block) -> {
+                ids.add(id);
+                blocks.add(block);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write cold segment " + path, e);
+        }
+        summaries.put(number, Summary.of(transactions));
+        segments.put(number, segment);
+        // Counted up front so that concurrent removes can't retire the segment while it is being indexed.
+        liveRows.put(number, new AtomicInteger(ids.size()));
+        for (int i = 0; i < ids.size(); i++) {
+            long previous = index.put(ids.get(i), LocationIndex.location(number, blocks.get(i)));
+            if (previous != LocationIndex.ABSENT) {
+                released(LocationIndex.fileOf(previous));
+            }
+        }
+        logger.info("Wrote cold segment {} with {} transactions in {} blocks ({} bytes)",
+                number, transactions.size(), segment.blockCount(), segment.sizeInBytes());
+    }
+
+    public Transaction find(UUID id) {
+        long location = index.get(id);
+        if (location == LocationIndex.ABSENT) {
+            return null;
+        }
+        Segment segment = segments.get(LocationIndex.fileOf(location));
+        return segment == null ? null : segment.find(LocationIndex.positionOf(location), id);
+    }
+
+    public boolean contains(UUID id) {
+        return index.get(id) != LocationIndex.ABSENT;
+    }
+
+    /**
+     * Drops the cold copy of {@code id}, if any.
+     */
+    public boolean remove(UUID id) {
+        while (true) {
+            long location = index.get(id);
+            if (location == LocationIndex.ABSENT) {
+                return false;
+            }
+            if (index.remove(id, location)) {
+                released(LocationIndex.fileOf(location));
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Live cold rows, decoded block by block while the stream is consumed.
+     */
+    public Stream<Transaction> stream() {
+        return new ArrayList<>(segments.values()).stream()
+                .flatMap(segment -> IntStream.range(0, segment.blockCount()).boxed()
+                        .flatMap(block -> {
+                            long location = LocationIndex.location(segment.number(), block);
+                            return segment.readBlock(block).stream()
+                                    .filter(t -> index.get(t.getId()) == location);
+                        }));
+    }
+
+    /**
+     * Live cold rows matching every filter of {@code query}, in no particular order. Sort
+     * and limit of the query are not applied.
+     */
+    public Stream<Transaction> scan(TransactionQuery query) {
+        return new ArrayList<>(segments.values()).stream()
+                .filter(segment -> {
+                    Summary summary = summaries.get(segment.number());
+                    return summary == null || summary.mayMatch(query);
+                })
+                .flatMap(segment -> IntStream.range(0, segment.blockCount()).boxed()
+                        .flatMap(block -> {
+                            long location = LocationIndex.location(segment.number(), block);
+                            return segment.readBlock(block).stream()
+                                    .filter(t -> query.matches(t) && index.get(t.getId()) == location);
+                        }));
+    }
+
+    /**
+     * Upper bound of the timestamps of all cold rows, or {@code null} without any.
+     */
+    public LocalDateTime maxTimestamp() {
+        return summaries.values().stream()
+                .map(Summary::maxTimestamp)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+    }
+
+    public List<UUID> ids() {
+        return index.ids();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long sizeInBytes() {
+        return segments.values().stream().mapToLong(Segment::sizeInBytes).sum();
+    }
+
+    /**
+     * Closes and deletes all segments.
+     */
+    @Override
+    public void close() {
+        for (Segment segment : segments.values()) {
+            closeQuietly(segment);
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                logger.warn("Cannot delete cold segment {}", segment.path(), e);
+            }
+        }
+        segments.clear();
+        liveRows.clear();
+        summaries.clear();
+    }
+
+    private void released(int number) {
+        AtomicInteger live = liveRows.get(number);
+        if (live != null && live.decrementAndGet() == 0) {
+            liveRows.remove(number);
+            summaries.remove(number);
+            Segment segment = segments.remove(number);
+            if (segment != null) {
+                closeQuietly(segment);
+                try {
+                    Files.deleteIfExists(segment.path());
+                    logger.info("Deleted cold segment {} without live transactions", number);
+                } catch (IOException e) {
+                    logger.warn("Cannot delete cold segment {}", segment.path(), e);
+                }
+            }
+        }
+    }
+
+    private void closeQuietly(Segment segment) {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            logger.warn("Cannot close cold segment {}", segment.path(), e);
+        }
+    }
+
+    /**
+     * Bounds of a segment at write time. Removed rows are not subtracted, so the bounds
+     * stay conservative.
+     */
+    private record Summary(LocalDateTime minTimestamp, LocalDateTime maxTimestamp,
+                           BigDecimal minAmount, BigDecimal maxAmount,
+                           Set<String> types, Set<String> categories) {
+
+        static Summary of(List<Transaction> transactions) {
+            LocalDateTime minTimestamp = null;
+            LocalDateTime maxTimestamp = null;
+            BigDecimal minAmount = null;
+            BigDecimal maxAmount = null;
+            Set<String> types = new HashSet<>();
+            Set<String> categories = new HashSet<>();
+            for (Transaction transaction : transactions) {
+                LocalDateTime timestamp = transaction.getTimestamp();
+                if (timestamp != null) {
+                    minTimestamp = minTimestamp == null || timestamp.isBefore(minTimestamp) ? timestamp : minTimestamp;
+                    maxTimestamp = maxTimestamp == null || timestamp.isAfter(maxTimestamp) ? timestamp : maxTimestamp;
+                }
+                BigDecimal amount = transaction.getAmount();
+                if (amount != null) {
+                    minAmount = minAmount == null || amount.compareTo(minAmount) < 0 ? amount : minAmount;
+                    maxAmount = maxAmount == null || amount.compareTo(maxAmount) > 0 ? amount : maxAmount;
+                }
+                if (transaction.getType() != null) {
+                    types.add(transaction.getType().toLowerCase(Locale.ROOT));
+                }
+                if (transaction.getCategory() != null) {
+                    categories.add(transaction.getCategory().toLowerCase(Locale.ROOT));
+                }
+            }
+            return new Summary(minTimestamp, maxTimestamp, minAmount, maxAmount, types, categories);
+        }
+
+        boolean mayMatch(TransactionQuery query) {
+            if (query.getType() != null && !types.contains(query.getType().toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+            if (query.getCategory() != null && !categories.contains(query.getCategory().toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+            if (query.hasAmountRange() && (minAmount == null
+                    || (query.getMaxAmount() != null && minAmount.compareTo(query.getMaxAmount()) > 0)
+                    || (query.getMinAmount() != null && maxAmount.compareTo(query.getMinAmount()) < 0))) {
+                return false;
+            }
+            return !query.hasTimeRange() || (minTimestamp != null
+                    && (query.getTo() == null || minTimestamp.isBefore(query.getTo()))
+                    && (query.getFrom() == null || !maxTimestamp.isBefore(query.getFrom())));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.bank.repository.tier;
+
+import com.example.bank.model.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable file of deflate-compressed blocks of transactions.
+ * <p>
+ * Layout: {@code MAGIC}, the compressed blocks, then a block table of
+ * {@code (offset, compressed length, uncompressed length)} per block, the block count, the
+ * table offset and {@code MAGIC} again. Each uncompressed block is a sequence of
+ * {@code (length, record)} pairs, so a lookup can skip records by comparing the leading id
+ * without decoding them. The file is mapped read-only once it has been written.
+ */
+final class Segment implements Closeable {
+
+    private static final int MAGIC = 0x42545331; // "BTS1"
+    private static final int TRAILER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int BLOCK_ENTRY_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final int number;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long[] blockOffsets;
+    private final int[] compressedLengths;
+    private final int[] uncompressedLengths;
+
+    private Segment(int number, Path path) throws IOException {
+        this.number = number;
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        int size = buffer.capacity();
+        if (size < Integer.BYTES + TRAILER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(size - Integer.BYTES) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a transaction segment: " + path);
+        }
+        int blockCount = buffer.getInt(size - TRAILER_BYTES);
+        long tableOffset = buffer.getLong(size - TRAILER_BYTES + Integer.BYTES);
+        blockOffsets = new long[blockCount];
+        compressedLengths = new int[blockCount];
+        uncompressedLengths = new int[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            int entry = (int) tableOffset + i * BLOCK_ENTRY_BYTES;
+            blockOffsets[i] = buffer.getLong(entry);
+            compressedLengths[i] = buffer.getInt(entry + Long.BYTES);
+            uncompressedLengths[i] = buffer.getInt(entry + Long.BYTES + Integer.BYTES);
+        }
+    }
+
+    /**
+     * Writes {@code transactions} to a new segment file and maps it. {@code placed} receives
+     * every id with the block it was written to.
+     */
+    static Segment write(int number, Path path, List<Transaction> transactions, int blockSize,
+                         ObjIntConsumer<UUID> placed) throws IOException {
+        List<long[]> table = new ArrayList<>();
+        Deflater deflater = new Deflater();
+        try (OutputStream file = Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(file)) {
+            out.writeInt(MAGIC);
+            long offset = Integer.BYTES;
+            ByteArrayOutputStream block = new ByteArrayOutputStream(blockSize + 512);
+            DataOutputStream blockOut = new DataOutputStream(block);
+            ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+            DataOutputStream recordOut = new DataOutputStream(record);
+            byte[] compressed = new byte[blockSize + 1024];
+            for (int i = 0; i < transactions.size(); i++) {
+                Transaction transaction = transactions.get(i);
+                record.reset();
+                TransactionCodec.write(recordOut, transaction);
+                blockOut.writeInt(record.size());
+                record.writeTo(blockOut);
+                placed.accept(transaction.getId(), table.size());
+                if (block.size() >= blockSize || i == transactions.size() - 1) {
+                    byte[] raw = block.toByteArray();
+                    deflater.reset();
+                    deflater.setInput(raw);
+                    deflater.finish();
+                    if (compressed.length < raw.length + 1024) {
+                        compressed = new byte[raw.length + 1024];
+                    }
+                    int length = 0;
+                    while (!deflater.finished()) {
+                        length += deflater.deflate(compressed, length, compressed.length - length);
+                        if (length == compressed.length) {
+                            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                        }
+                    }
+                    out.write(compressed, 0, length);
+                    table.add(new long[]{offset, length, raw.length});
+                    offset += length;
+                    block.reset();
+                }
+            }
+            for (long[] entry : table) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+                out.writeInt((int) entry[2]);
+            }
+            out.writeInt(table.size());
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        return new Segment(number, path);
+    }
+
+    int number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    int blockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Decodes the record of {@code id} from {@code block}, or returns {@code null}.
+     */
+    Transaction find(int block, UUID id) {
+        byte[] raw = inflate(block);
+        ByteBuffer records = ByteBuffer.wrap(raw);
+        while (records.hasRemaining()) {
+            int length = records.getInt();
+            int start = records.position();
+            // Skip the version byte, then compare the id.
+            if (records.getLong(start + 1) == id.getMostSignificantBits()
+                    && records.getLong(start + 1 + Long.BYTES) == id.getLeastSignificantBits()) {
+                return decode(raw, start, length);
+            }
+            records.position(start + length);
+        }
+        return null;
+    }
+
+    /**
+     * Decodes every record of {@code block}.
+     */
+    List<Transaction> readBlock(int block) {
+        byte[] raw = inflate(block);
+        List<Transaction> result = new ArrayList<>();
+        ByteBuffer records = ByteBuffer.wrap(raw);
+        while (records.hasRemaining()) {
+            int length = records.getInt();
+            int start = records.position();
+            result.add(decode(raw, start, length));
+            records.position(start + length);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte[] inflate(int block) {
+        ByteBuffer compressed = buffer.slice((int) blockOffsets[block], compressedLengths[block]);
+        byte[] raw = new byte[uncompressedLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, raw.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != raw.length) {
+                throw new UncheckedIOException(new IOException("Truncated block " + block + " in " + path));
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt block " + block + " in " + path, e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private Transaction decode(byte[] raw, int offset, int length) {
+        try {
+            return TransactionCodec.read(new DataInputStream(new ByteArrayInputStream(raw, offset, length)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt record in " + path, e);
+        }
+    }
+}
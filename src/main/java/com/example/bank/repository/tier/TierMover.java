@@ -0,0 +1,74 @@
+package com.example.bank.repository.tier;
+
+import com.example.bank.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Periodically moves transactions older than {@code bank.tiering.max-hot-age} from the heap
+ * to the cold tier, one segment of at most {@code bank.tiering.batch-size} rows at a time.
+ * With the transaction log as backend, the rows younger than that are loaded from it onto
+ * the heap once at startup, or all rows if tiering is disabled.
+ */
+@Component
+public class TierMover {
+
+    private static final Logger logger = LoggerFactory.getLogger(TierMover.class);
+
+    private final TransactionRepository transactionRepository;
+    private final boolean enabled;
+    private final Duration maxHotAge;
+    private final int batchSize;
+
+    public TierMover(TransactionRepository transactionRepository,
+                     @Value("${bank.tiering.enabled:true}") boolean enabled,
+                     @Value("${bank.tiering.max-hot-age:7d}") Duration maxHotAge,
+                     @Value("${bank.tiering.batch-size:50000}") int batchSize) {
+        this.transactionRepository = transactionRepository;
+        this.enabled = enabled;
+        this.maxHotAge = maxHotAge;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void promoteRecent() {
+        LocalDateTime cutoff = enabled ? LocalDateTime.now().minus(maxHotAge) : LocalDateTime.MIN;
+        transactionRepository.promoteNewerThan(cutoff);
+    }
+
+    @Scheduled(fixedDelayString = "${bank.tiering.move-interval:PT1M}",
+            initialDelayString = "${bank.tiering.move-interval:PT1M}")
+    public void moveScheduled() {
+        if (enabled) {
+            moveOlderThan(maxHotAge);
+        }
+    }
+
+    /**
+     * Moves every hot transaction older than {@code age} to the cold tier and returns how
+     * many were moved.
+     */
+    public synchronized int moveOlderThan(Duration age) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(age);
+        logger.debug("Moving transactions older than {} to the cold tier", cutoff);
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionRepository.demoteOlderThan(cutoff, batchSize);
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            logger.info("Moved {} transactions older than {} to the cold tier, {} remain on the heap",
+                    total, cutoff, transactionRepository.hotCount());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.bank.repository.tier;
+
+import com.example.bank.model.Transaction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Compact binary form of a {@link Transaction}: the id as two longs followed by nullable
+ * fields. Amounts keep their exact scale, timestamps are stored as UTC epoch seconds and
+ * nanos so they round-trip to the same {@link LocalDateTime}.
+ * <p>
+ * Version 2 appended the account; version 1 records, written before accounts existed, are
+ * still read and have none.
+ */
+public final class TransactionCodec {
+
+    private static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_ACCOUNT = 1;
+
+    private TransactionCodec() {
+    }
+
+    public static void write(DataOutput out, Transaction transaction) throws IOException {
+        out.writeByte(VERSION);
+        out.writeLong(transaction.getId().getMostSignificantBits());
+        out.writeLong(transaction.getId().getLeastSignificantBits());
+        writeString(out, transaction.getDescription());
+        writeAmount(out, transaction.getAmount());
+        writeString(out, transaction.getType());
+        writeString(out, transaction.getCategory());
+        writeTimestamp(out, transaction.getTimestamp());
+        writeString(out, transaction.getAccountId());
+    }
+
+    public static Transaction read(DataInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != VERSION && version != VERSION_WITHOUT_ACCOUNT) {
+            throw new IOException("Unsupported transaction record version: " + version);
+        }
+        Transaction transaction = new Transaction();
+        transaction.setId(new UUID(in.readLong(), in.readLong()));
+        transaction.setDescription(readString(in));
+        transaction.setAmount(readAmount(in));
+        transaction.setType(readString(in));
+        transaction.setCategory(readString(in));
+        transaction.setTimestamp(readTimestamp(in));
+        if (version == VERSION) {
+            transaction.setAccountId(readString(in));
+        }
+        return transaction;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeAmount(DataOutput out, BigDecimal amount) throws IOException {
+        if (amount == null) {
+            out.writeByte(-1);
+            return;
+        }
+        byte[] unscaled = amount.unscaledValue().toByteArray();
+        if (unscaled.length >= 0xFF) {
+            throw new IOException("Amount too large to encode: " + amount);
+        }
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+        out.writeInt(amount.scale());
+    }
+
+    private static BigDecimal readAmount(DataInput in) throws IOException {
+        int length = in.readUnsignedByte();
+        if (length == 0xFF) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.readInt());
+    }
+
+    private static void writeTimestamp(DataOutput out, LocalDateTime timestamp) throws IOException {
+        if (timestamp == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+    }
+
+    private static LocalDateTime readTimestamp(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.AccountBalanceResponse;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransferRequest;
+import com.example.bank.dto.TransferResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AccountService {
+    List<TransactionResponse> getAccountHistory(String accountId, LocalDateTime before, int limit);
+    AccountBalanceResponse getAccountBalance(String accountId);
+    TransferResponse transfer(TransferRequest transferRequest);
+}
@@ -0,0 +1,152 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.AccountBalanceResponse;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransferRequest;
+import com.example.bank.dto.TransferResponse;
+import com.example.bank.exception.InsufficientFundsException;
+import com.example.bank.exception.ValidationException;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.account.AccountLedgers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Per-account reads, served from the repository's account ledgers: each touches only the
+ * transactions of the one account, however many others there are. Transfers lock only the
+ * two accounts involved, so transfers between other accounts go ahead in parallel.
+ */
+@Service
+public class AccountServiceImpl implements AccountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountServiceImpl.class);
+    private static final int MAX_HISTORY_RESULTS = 500;
+    // Account ids appear in URL paths, so they are limited to characters that need no escaping.
+    private static final Pattern ACCOUNT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    static final String INVALID_ACCOUNT_ID =
+            "Account id must be 1 to 64 letters, digits, dots, underscores or hyphens";
+
+    private static final String DEFAULT_TRANSFER_CATEGORY = "Transfer";
+
+    private final TransactionRepository transactionRepository;
+    private final RequestCoalescer requestCoalescer;
+    private final ChangeFeed changeFeed;
+
+    @Autowired
+    public AccountServiceImpl(TransactionRepository transactionRepository, RequestCoalescer requestCoalescer,
+                              ChangeFeed changeFeed) {
+        this.transactionRepository = transactionRepository;
+        this.requestCoalescer = requestCoalescer;
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public List<TransactionResponse> getAccountHistory(String accountId, LocalDateTime before, int limit) {
+        logger.debug("Fetching {} transactions of account {} before {}", limit, accountId, before);
+        validateAccountId(accountId);
+        if (limit < 1 || limit > MAX_HISTORY_RESULTS) {
+            logger.error("Validation failed: Invalid history limit: {}", limit);
+            throw new ValidationException("Limit must be between 1 and " + MAX_HISTORY_RESULTS);
+        }
+        List<TransactionResponse> transactions = transactionRepository.findByAccount(accountId, before, limit).stream()
+                .map(TransactionServiceImpl::convertToResponse)
+                .collect(Collectors.toList());
+        logger.info("Found {} transactions of account {}", transactions.size(), accountId);
+        return transactions;
+    }
+
+    @Override
+    public AccountBalanceResponse getAccountBalance(String accountId) {
+        logger.debug("Fetching balance of account {}", accountId);
+        validateAccountId(accountId);
+        // An account without transactions has a zero balance, like a category without any has no quantiles.
+        AccountLedgers.Balance balance = transactionRepository.findAccountBalance(accountId)
+                .orElseGet(() -> new AccountLedgers.Balance(accountId, 0, BigDecimal.ZERO, BigDecimal.ZERO));
+        AccountBalanceResponse response = new AccountBalanceResponse();
+        response.setAccountId(accountId);
+        response.setCount(balance.count());
+        response.setCredits(balance.credits());
+        response.setDebits(balance.debits());
+        response.setBalance(balance.balance());
+        logger.info("Balance of account {} over {} transactions", accountId, balance.count());
+        return response;
+    }
+
+    /**
+     * Books a DEBIT on the source and a CREDIT on the destination account, both or neither.
+     * Transfers don't go through the write pipeline: they are checked against the balance under
+     * the accounts' locks, which the repository takes itself.
+     */
+    @Override
+    @CacheEvict(value = "transactions", allEntries = true)
+    public TransferResponse transfer(TransferRequest transferRequest) {
+        logger.debug("Attempting transfer: {} from account {} to {}", transferRequest.getAmount(),
+                transferRequest.getFromAccountId(), transferRequest.getToAccountId());
+        validateTransfer(transferRequest);
+        String from = transferRequest.getFromAccountId();
+        String to = transferRequest.getToAccountId();
+        String description = transferRequest.getDescription() == null || transferRequest.getDescription().isBlank()
+                ? "Transfer from " + from + " to " + to
+                : transferRequest.getDescription();
+        String category = transferRequest.getCategory() == null ? DEFAULT_TRANSFER_CATEGORY : transferRequest.getCategory();
+
+        Transaction debit = new Transaction(description, transferRequest.getAmount(), "DEBIT", category);
+        debit.setAccountId(from);
+        Transaction credit = new Transaction(description, transferRequest.getAmount(), "CREDIT", category);
+        credit.setAccountId(to);
+        credit.setTimestamp(debit.getTimestamp());
+
+        // The legs are visible once the repository releases its locks; holding the feed's locks of
+        // their ids until both are recorded keeps a delete of either from being numbered first.
+        List<TransactionResponse> legs = changeFeed.recordCreates(List.of(debit.getId(), credit.getId()), () -> {
+            if (!transactionRepository.transfer(debit, credit)) {
+                return List.of();
+            }
+            requestCoalescer.invalidate();
+            return List.of(TransactionServiceImpl.convertToResponse(debit),
+                    TransactionServiceImpl.convertToResponse(credit));
+        });
+        if (legs.isEmpty()) {
+            logger.warn("Transfer of {} from account {} to {} refused: insufficient funds",
+                    transferRequest.getAmount(), from, to);
+            throw new InsufficientFundsException("Insufficient funds in account " + from);
+        }
+        logger.info("Transfer booked with debit ID: {} and credit ID: {}", debit.getId(), credit.getId());
+        return new TransferResponse(legs.get(0), legs.get(1));
+    }
+
+    static boolean isValidAccountId(String accountId) {
+        return accountId != null && ACCOUNT_ID.matcher(accountId).matches();
+    }
+
+    private void validateTransfer(TransferRequest transferRequest) {
+        logger.trace("Validating transfer request");
+        validateAccountId(transferRequest.getFromAccountId());
+        validateAccountId(transferRequest.getToAccountId());
+        if (transferRequest.getFromAccountId().equals(transferRequest.getToAccountId())) {
+            logger.error("Validation failed: Transfer to the same account: {}", transferRequest.getFromAccountId());
+            throw new ValidationException("Source and destination account must differ");
+        }
+        if (transferRequest.getAmount() == null || transferRequest.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            logger.error("Validation failed: Amount must be greater than zero");
+            throw new ValidationException("Amount must be greater than zero");
+        }
+    }
+
+    private void validateAccountId(String accountId) {
+        if (!isValidAccountId(accountId)) {
+            logger.error("Validation failed: Invalid account id: {}", accountId);
+            throw new ValidationException(INVALID_ACCOUNT_ID);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.ChangeBatchResponse;
+import com.example.bank.dto.TransactionChange;
+import com.example.bank.dto.TransactionResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Numbers every create, update and delete and keeps the most recent ones in a ring buffer, so
+ * that downstream consumers can follow changes instead of re-reading all transactions.
+ * <p>
+ * Writes to one transaction are applied and numbered under the same per-id lock, so the
+ * sequence order of a transaction's changes is the order they were applied in. Sequences of
+ * a process start at its start time in microseconds: a consumer resuming from a sequence of an
+ * earlier process, like one that fell further behind than the ring holds, is told to resync
+ * instead of silently missing changes.
+ */
+@Component
+public class ChangeFeed implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+    private static final int DEFAULT_CAPACITY = 65_536;
+    private static final int LOCK_STRIPES = 64;
+
+    private final TransactionChange[] ring;
+    private final Lock ringLock = new ReentrantLock();
+    private final Lock[] idLocks = new Lock[LOCK_STRIPES];
+    private final long firstSequence;
+    private volatile long latestSequence;
+    private final Set<Runnable> listeners = ConcurrentHashMap.newKeySet();
+    private final LongAdder resyncs = new LongAdder();
+
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    @Autowired
+    public ChangeFeed(@Value("${bank.feed.capacity:65536}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Change feed capacity must be positive: " + capacity);
+        }
+        this.ring = new TransactionChange[capacity];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            idLocks[i] = new ReentrantLock();
+        }
+        this.firstSequence = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.latestSequence = firstSequence - 1;
+        logger.info("Change feed started at sequence {}, retaining {} changes", firstSequence, capacity);
+    }
+
+    /**
+     * Runs {@code create} and appends its result as a {@link TransactionChange.Type#CREATED} change.
+     */
+    public TransactionResponse recordCreate(Supplier<TransactionResponse> create) {
+        TransactionResponse created = create.get();
+        append(TransactionChange.Type.CREATED, created.getId(), created);
+        notifyListeners();
+        return created;
+    }
+
+    /**
+     * Runs {@code create} of the transactions {@code ids} and appends its results, in order, as
+     * {@link TransactionChange.Type#CREATED} changes, exclusive of other recorded writes of the
+     * same ids. For writes that make their rows visible before {@code create} returns: a delete
+     * of one of them is numbered after its create. {@code create} returns no results when it
+     * writes nothing.
+     */
+    public List<TransactionResponse> recordCreates(List<UUID> ids, Supplier<List<TransactionResponse>> create) {
+        // Taken in stripe order, as two writers may lock overlapping stripes.
+        int[] stripes = ids.stream().mapToInt(ChangeFeed::stripe).distinct().sorted().toArray();
+        List<TransactionResponse> created;
+        for (int stripe : stripes) {
+            idLocks[stripe].lock();
+        }
+        try {
+            created = create.get();
+            for (TransactionResponse transaction : created) {
+                append(TransactionChange.Type.CREATED, transaction.getId(), transaction);
+            }
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                idLocks[stripes[i]].unlock();
+            }
+        }
+        if (!created.isEmpty()) {
+            notifyListeners();
+        }
+        return created;
+    }
+
+    /**
+     * Runs {@code update} of transaction {@code id} and appends its result, exclusive of other
+     * recorded writes of the same id.
+     */
+    public TransactionResponse recordUpdate(UUID id, Supplier<TransactionResponse> update) {
+        TransactionResponse updated;
+        Lock lock = idLocks[stripe(id)];
+        lock.lock();
+        try {
+            updated = update.get();
+            append(TransactionChange.Type.UPDATED, id, updated);
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners();
+        return updated;
+    }
+
+    /**
+     * Runs {@code delete} of transaction {@code id} and appends a delete, exclusive of other
+     * recorded writes of the same id.
+     */
+    public void recordDelete(UUID id, Runnable delete) {
+        Lock lock = idLocks[stripe(id)];
+        lock.lock();
+        try {
+            delete.run();
+            append(TransactionChange.Type.DELETED, id, null);
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Up to {@code limit} changes with a sequence above {@code after}, oldest first. When changes
+     * right after {@code after} are no longer retained, or {@code after} is not a sequence of
+     * this feed, the batch is empty and flagged as requiring a resync.
+     */
+    public ChangeBatchResponse read(long after, int limit) {
+        List<TransactionChange> changes = new ArrayList<>();
+        ringLock.lock();
+        try {
+            long latest = latestSequence;
+            if (after < getOldestSequence() - 1 || after > latest) {
+                resyncs.increment();
+                return new ChangeBatchResponse(changes, latest, latest, true);
+            }
+            long last = Math.min(latest, after + limit);
+            for (long sequence = after + 1; sequence <= last; sequence++) {
+                changes.add(ring[index(sequence)]);
+            }
+            return new ChangeBatchResponse(changes, last, latest, false);
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    /**
+     * Calls {@code listener} after every appended change, on the writing thread; it must not
+     * block. Returns the action that removes it again.
+     */
+    public Runnable subscribe(Runnable listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Sequence of the most recent change; one less than the first sequence while there is none.
+     */
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    /**
+     * Sequence of the oldest change still retained.
+     */
+    public long getOldestSequence() {
+        return Math.max(firstSequence, latestSequence - ring.length + 1);
+    }
+
+    public long getResyncCount() {
+        return resyncs.sum();
+    }
+
+    private void append(TransactionChange.Type type, UUID id, TransactionResponse transaction) {
+        ringLock.lock();
+        try {
+            long sequence = latestSequence + 1;
+            ring[index(sequence)] = new TransactionChange(sequence, type, id, transaction);
+            latestSequence = sequence;
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                logger.warn("Change listener failed", e);
+            }
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) Math.floorMod(sequence, (long) ring.length);
+    }
+
+    private static int stripe(UUID id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.feed.sequence", this, ChangeFeed::getLatestSequence)
+                .description("Sequence of the most recent change")
+                .register(registry);
+        Gauge.builder("bank.feed.listeners", listeners, Set::size)
+                .description("Consumers waiting for changes")
+                .register(registry);
+        FunctionCounter.builder("bank.feed.resyncs", this, ChangeFeed::getResyncCount)
+                .description("Reads that asked for changes no longer retained")
+                .register(registry);
+    }
+}
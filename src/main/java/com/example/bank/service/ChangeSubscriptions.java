@@ -0,0 +1,202 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.ChangeBatchResponse;
+import com.example.bank.dto.TransactionChange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the {@link ChangeFeed} to consumers, as long polls and as Server-Sent Events streams.
+ * <p>
+ * Neither buffers changes per consumer: each only keeps the sequence it has reached and reads
+ * from the feed's ring. A stream is written by a dispatch thread, never by the writer of a
+ * change, so a slow client only delays itself; once it falls behind what the ring retains it
+ * gets a {@code resync} event and is disconnected.
+ */
+@Component
+public class ChangeSubscriptions implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeSubscriptions.class);
+
+    private final ChangeFeed changeFeed;
+    private final int maxStreams;
+    private final int batchSize;
+    private final Duration streamTimeout;
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+
+    @Autowired
+    public ChangeSubscriptions(ChangeFeed changeFeed,
+                               @Value("${bank.feed.max-streams:256}") int maxStreams,
+                               @Value("${bank.feed.batch-size:500}") int batchSize,
+                               @Value("${bank.feed.stream-timeout:30m}") Duration streamTimeout) {
+        this.changeFeed = changeFeed;
+        this.maxStreams = maxStreams;
+        this.batchSize = batchSize;
+        this.streamTimeout = streamTimeout;
+        AtomicInteger threads = new AtomicInteger();
+        // At most one task per stream, so the number of streams bounds the threads.
+        this.dispatcher = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "feed-dispatch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Completes with the changes after {@code after} as soon as there are any, or with an empty
+     * batch after {@code timeout}.
+     */
+    public DeferredResult<ChangeBatchResponse> poll(long after, int limit, Duration timeout) {
+        DeferredResult<ChangeBatchResponse> result = new DeferredResult<>(timeout.toMillis());
+        if (changeFeed.getLatestSequence() != after || timeout.isZero()) {
+            result.setResult(changeFeed.read(after, limit));
+            return result;
+        }
+        Runnable unsubscribe = changeFeed.subscribe(() -> {
+            if (changeFeed.getLatestSequence() > after) {
+                result.setResult(changeFeed.read(after, limit));
+            }
+        });
+        result.onTimeout(() -> result.setResult(changeFeed.read(after, limit)));
+        result.onCompletion(unsubscribe);
+        // A change appended before the listener was registered would not have woken us.
+        if (changeFeed.getLatestSequence() != after) {
+            result.setResult(changeFeed.read(after, limit));
+        }
+        return result;
+    }
+
+    /**
+     * Opens a stream of the changes after {@code after}, one {@code change} event per change
+     * with its sequence as event id.
+     */
+    public SseEmitter stream(long after) {
+        if (streams.size() >= maxStreams) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many change streams, retry later or use long polling");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Stream stream = new Stream(emitter, after);
+        streams.add(stream);
+        Runnable unsubscribe = changeFeed.subscribe(stream::signal);
+        Runnable close = () -> {
+            stream.closed = true;
+            streams.remove(stream);
+            unsubscribe.run();
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(error -> close.run());
+        stream.signal();
+        logger.debug("Opened change stream after sequence {}", after);
+        return emitter;
+    }
+
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.feed.streams", this, ChangeSubscriptions::getStreamCount)
+                .description("Open Server-Sent Events change streams")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        streams.forEach(stream -> stream.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    private final class Stream implements Runnable {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long position;
+        private volatile boolean closed;
+
+        private Stream(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        private void signal() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                do {
+                    if (!drain()) {
+                        return;
+                    }
+                    scheduled.set(false);
+                    // Changes appended while draining found the flag still set; pick them up here.
+                } while (!closed && changeFeed.getLatestSequence() > position
+                        && scheduled.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the emitter's error callback cleans up.
+                logger.debug("Change stream closed: {}", e.getMessage());
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+
+        /**
+         * Sends everything up to the latest change; false once the stream has ended.
+         */
+        private boolean drain() throws IOException {
+            while (!closed) {
+                ChangeBatchResponse batch = changeFeed.read(position, batchSize);
+                if (batch.isResyncRequired()) {
+                    logger.info("Change stream fell behind at sequence {}, asking it to resync", position);
+                    closed = true;
+                    emitter.send(SseEmitter.event().name("resync")
+                            .data(Map.of("latestSequence", batch.getLatestSequence()), MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                    return false;
+                }
+                if (batch.getChanges().isEmpty()) {
+                    return true;
+                }
+                for (TransactionChange change : batch.getChanges()) {
+                    emitter.send(SseEmitter.event().id(Long.toString(change.getSequence())).name("change")
+                            .data(change, MediaType.APPLICATION_JSON));
+                    position = change.getSequence();
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.bank.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs filter, map and aggregate work over large lists on a dedicated {@link ForkJoinPool}.
+ * <p>
+ * Lists shorter than the threshold are processed sequentially on the calling thread. Longer
+ * ones are cut into contiguous chunks of at least half the threshold, at most one per unit of
+ * per-request parallelism; the caller processes the first chunk itself and the pool the rest.
+ * Results are combined in list order. The pool is separate from the common pool and sized
+ * below the core count by default, so scans leave headroom for point lookups on the request
+ * threads, and the per-request cap keeps one large scan from occupying every worker.
+ */
+@Component
+public class ParallelScanEngine implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelScanEngine.class);
+    private static final int DEFAULT_THRESHOLD = 20_000;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final int maxRequestParallelism;
+    private final LongAdder sequentialScans = new LongAdder();
+    private final LongAdder parallelScans = new LongAdder();
+
+    public ParallelScanEngine() {
+        this(0, 0, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param parallelism           pool workers, or 0 for one less than the available processors
+     * @param maxRequestParallelism threads one scan may use including the caller, or 0 for half the pool plus the caller
+     * @param threshold             minimum number of rows before a scan is split
+     */
+    @Autowired
+    public ParallelScanEngine(@Value("${bank.scan.parallelism:0}") int parallelism,
+                              @Value("${bank.scan.max-request-parallelism:0}") int maxRequestParallelism,
+                              @Value("${bank.scan.parallel-threshold:20000}") int threshold) {
+        int workers = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.pool = new ForkJoinPool(workers, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("scan-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        this.maxRequestParallelism = maxRequestParallelism > 0 ? maxRequestParallelism : Math.max(1, workers / 2) + 1;
+        this.threshold = Math.max(2, threshold);
+        logger.info("Scan pool started with {} workers, {} threads per request above {} rows",
+                workers, this.maxRequestParallelism, this.threshold);
+    }
+
+    /**
+     * {@code mapper} applied to every element of {@code rows}, in list order.
+     */
+    public <T, R> List<R> map(List<T> rows, Function<? super T, ? extends R> mapper) {
+        return filterMap(rows, row -> true, mapper);
+    }
+
+    /**
+     * {@code mapper} applied to the elements of {@code rows} that pass {@code filter}, in list order.
+     */
+    public <T, R> List<R> filterMap(List<T> rows, Predicate<? super T> filter, Function<? super T, ? extends R> mapper) {
+        return aggregate(rows, ArrayList::new, (result, row) -> {
+            if (filter.test(row)) {
+                result.add(mapper.apply(row));
+            }
+        }, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    /**
+     * Folds {@code rows} like {@link java.util.stream.Stream#collect(Supplier, BiConsumer, BiConsumer)}:
+     * every chunk starts from a fresh container, and chunk results are combined left to right.
+     */
+    public <T, A> A aggregate(List<T> rows, Supplier<A> supplier, BiConsumer<A, ? super T> accumulator,
+                              BinaryOperator<A> combiner) {
+        int chunks = chunks(rows.size());
+        if (chunks < 2) {
+            sequentialScans.increment();
+            return fold(rows, supplier, accumulator);
+        }
+        parallelScans.increment();
+        int size = rows.size();
+        List<CompletableFuture<A>> forked = new ArrayList<>(chunks - 1);
+        try {
+            for (int i = 1; i < chunks; i++) {
+                List<T> chunk = rows.subList((int) ((long) size * i / chunks), (int) ((long) size * (i + 1) / chunks));
+                forked.add(CompletableFuture.supplyAsync(() -> fold(chunk, supplier, accumulator), pool));
+            }
+            A result = fold(rows.subList(0, size / chunks), supplier, accumulator);
+            for (CompletableFuture<A> task : forked) {
+                result = combiner.apply(result, await(task));
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            forked.forEach(task -> task.cancel(false));
+            throw e;
+        }
+    }
+
+    private static <A> A await(CompletableFuture<A> task) {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * How many chunks a scan of {@code size} rows is split into; below 2 it runs sequentially.
+     */
+    int chunks(int size) {
+        if (size < threshold || maxRequestParallelism < 2 || ForkJoinTask.getPool() == pool) {
+            // Scans started from a scan worker stay on it, so nested scans can't exhaust the pool.
+            return 1;
+        }
+        return (int) Math.min(maxRequestParallelism, size / (threshold / 2));
+    }
+
+    private static <T, A> A fold(List<T> rows, Supplier<A> supplier, BiConsumer<A, ? super T> accumulator) {
+        A result = supplier.get();
+        for (T row : rows) {
+            accumulator.accept(result, row);
+        }
+        return result;
+    }
+
+    public long getSequentialScanCount() {
+        return sequentialScans.sum();
+    }
+
+    public long getParallelScanCount() {
+        return parallelScans.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("bank.scan.calls", this, ParallelScanEngine::getSequentialScanCount)
+                .tag("mode", "sequential")
+                .description("Scans by execution mode")
+                .register(registry);
+        FunctionCounter.builder("bank.scan.calls", this, ParallelScanEngine::getParallelScanCount)
+                .tag("mode", "parallel")
+                .description("Scans by execution mode")
+                .register(registry);
+        Gauge.builder("bank.scan.pool.active", pool, ForkJoinPool::getActiveThreadCount)
+                .description("Scan pool workers currently running chunks")
+                .register(registry);
+        Gauge.builder("bank.scan.pool.queued", pool, ForkJoinPool::getQueuedSubmissionCount)
+                .description("Scan chunks waiting for a worker")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.bank.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical read queries.
+ * <p>
+ * The first caller for a key runs the computation, concurrent callers with the same key
+ * wait for and share its result. Computations are tied to the write generation they started
+ * in, so a caller arriving after {@link #invalidate()} never joins a computation that may
+ * have missed that write.
+ */
+@Component
+public class RequestCoalescer implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> computation) {
+        Key flightKey = new Key(key, generation.get());
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, own);
+        if (existing != null) {
+            coalesced.increment();
+            logger.trace("Joining in-flight computation for key: {}", key);
+            return (T) await(existing);
+        }
+
+        executed.increment();
+        try {
+            T result = computation.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, own);
+        }
+    }
+
+    /**
+     * Marks all computations started so far as stale; callers arriving afterwards start
+     * a fresh computation instead of joining them.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("bank.coalescer.calls", this, RequestCoalescer::getExecutedCount)
+                .tag("outcome", "executed")
+                .description("Queries that ran their own computation")
+                .register(registry);
+        FunctionCounter.builder("bank.coalescer.calls", this, RequestCoalescer::getCoalescedCount)
+                .tag("outcome", "coalesced")
+                .description("Queries that shared an in-flight computation")
+                .register(registry);
+        Gauge.builder("bank.coalescer.inflight", inFlight, ConcurrentMap::size)
+                .description("Distinct computations currently in flight")
+                .register(registry);
+    }
+
+    private record Key(String query, long generation) {
+    }
+}
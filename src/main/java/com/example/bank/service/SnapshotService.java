@@ -0,0 +1,15 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.SnapshotResponse;
+import com.example.bank.dto.TransactionResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.stream.Stream;
+
+public interface SnapshotService {
+    SnapshotResponse openSnapshot();
+    void closeSnapshot(String token);
+    Page<TransactionResponse> getTransactions(String token, Pageable pageable);
+    Stream<TransactionResponse> exportTransactions(String token);
+}
@@ -0,0 +1,189 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.SnapshotResponse;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.mvcc.ReadSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Read snapshots handed out to clients by token, so that paging through or exporting the
+ * transactions sees one frozen view however many writes happen meanwhile.
+ * <p>
+ * The first page or export of a snapshot lists its view once; later ones slice that list. A
+ * snapshot is closed when its client deletes it, once it hasn't been used for the idle
+ * timeout, or, as the least recently used one, when opening another would exceed max-open;
+ * until then the repository keeps every row replaced since it was opened.
+ */
+@Service
+public class SnapshotServiceImpl implements SnapshotService, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotServiceImpl.class);
+
+    private final TransactionRepository transactionRepository;
+    private final Duration idleTimeout;
+    private final int maxOpen;
+    private final Map<String, Handle> snapshots = new ConcurrentHashMap<>();
+
+    private static final class Handle {
+
+        private final ReadSnapshot snapshot;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Handle(ReadSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    @Autowired
+    public SnapshotServiceImpl(TransactionRepository transactionRepository,
+                               @Value("${bank.snapshot.idle-timeout:5m}") Duration idleTimeout,
+                               @Value("${bank.snapshot.max-open:32}") int maxOpen) {
+        if (maxOpen < 1) {
+            throw new IllegalArgumentException("At least one snapshot must be allowed: " + maxOpen);
+        }
+        this.transactionRepository = transactionRepository;
+        this.idleTimeout = idleTimeout;
+        this.maxOpen = maxOpen;
+    }
+
+    @Override
+    public SnapshotResponse openSnapshot() {
+        closeIdle();
+        while (snapshots.size() >= maxOpen) {
+            snapshots.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                    .ifPresent(entry -> {
+                        logger.warn("Closing least recently used read snapshot {} to stay within {} open",
+                                entry.getKey(), maxOpen);
+                        close(entry.getKey());
+                    });
+        }
+        String token = UUID.randomUUID().toString();
+        ReadSnapshot snapshot = transactionRepository.openSnapshot();
+        snapshots.put(token, new Handle(snapshot));
+        logger.info("Opened read snapshot {} at version {}", token, snapshot.version());
+
+        SnapshotResponse response = new SnapshotResponse();
+        response.setToken(token);
+        response.setVersion(snapshot.version());
+        response.setOpenedAt(snapshot.openedAt());
+        response.setIdleTimeoutSeconds(idleTimeout.toSeconds());
+        return response;
+    }
+
+    @Override
+    public void closeSnapshot(String token) {
+        if (close(token)) {
+            logger.info("Closed read snapshot {}", token);
+        } else {
+            logger.debug("Read snapshot {} to close was not open", token);
+        }
+    }
+
+    @Override
+    public Page<TransactionResponse> getTransactions(String token, Pageable pageable) {
+        logger.debug("Fetching page {} of read snapshot {}", pageable, token);
+        List<Transaction> rows = rows(token);
+        int start = (int) Math.min(pageable.getOffset(), rows.size());
+        int end = Math.min(start + pageable.getPageSize(), rows.size());
+        List<TransactionResponse> content = rows.subList(start, end).stream()
+                .map(TransactionServiceImpl::convertToResponse)
+                .toList();
+        Page<TransactionResponse> page = new PageImpl<>(content, pageable, rows.size());
+        logger.debug("Returning page {} of {} with {} items of read snapshot {}",
+                pageable.getPageNumber(), page.getTotalPages(), page.getNumberOfElements(), token);
+        return page;
+    }
+
+    @Override
+    public Stream<TransactionResponse> exportTransactions(String token) {
+        logger.debug("Exporting read snapshot {}", token);
+        // The listed view doesn't depend on the snapshot staying open while it is streamed.
+        return rows(token).stream().map(TransactionServiceImpl::convertToResponse);
+    }
+
+    /**
+     * Closes the snapshots not used for the idle timeout; returns how many.
+     */
+    @Scheduled(fixedDelayString = "${bank.snapshot.sweep-interval:PT30S}")
+    public int closeIdle() {
+        long now = System.nanoTime();
+        int closed = 0;
+        for (Map.Entry<String, Handle> entry : snapshots.entrySet()) {
+            if (now - entry.getValue().lastUsed > idleTimeout.toNanos() && close(entry.getKey())) {
+                closed++;
+            }
+        }
+        if (closed > 0) {
+            logger.info("Closed {} read snapshots idle for {}", closed, idleTimeout);
+        }
+        return closed;
+    }
+
+    public int getOpenCount() {
+        return snapshots.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.snapshots.open", this, SnapshotServiceImpl::getOpenCount)
+                .description("Open read snapshots")
+                .register(registry);
+        Gauge.builder("bank.snapshots.retained.versions", transactionRepository,
+                        TransactionRepository::retainedVersionCount)
+                .description("Replaced transactions kept for open read snapshots")
+                .register(registry);
+    }
+
+    private List<Transaction> rows(String token) {
+        Handle handle = snapshots.get(token);
+        if (handle == null) {
+            throw gone(token);
+        }
+        handle.lastUsed = System.nanoTime();
+        try {
+            return transactionRepository.findAll(handle.snapshot);
+        } catch (IllegalStateException e) {
+            // Closed while it was being listed.
+            throw gone(token);
+        }
+    }
+
+    private boolean close(String token) {
+        Handle handle = snapshots.remove(token);
+        if (handle == null) {
+            return false;
+        }
+        transactionRepository.releaseSnapshot(handle.snapshot);
+        return true;
+    }
+
+    private static ResponseStatusException gone(String token) {
+        logger.debug("Read snapshot {} is not open", token);
+        return new ResponseStatusException(HttpStatus.GONE,
+                "Snapshot " + token + " expired or was closed, open a new one");
+    }
+}
@@ -1,20 +1,45 @@
 package com.example.bank.service;
 
+import com.example.bank.dto.AmountSummaryResponse;
+import com.example.bank.dto.CategoryStatsResponse;
 import com.example.bank.dto.TransactionDto;
 import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransactionStatsResponse;
+import com.example.bank.repository.query.TransactionQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface TransactionService {
     TransactionResponse createTransaction(TransactionDto transactionDto);
     TransactionResponse updateTransaction(UUID id, TransactionDto transactionDto);
     void deleteTransaction(UUID id);
     TransactionResponse getTransactionById(UUID id);
+    TransactionResponse getTransactionById(UUID id, LocalDateTime asOf);
     List<TransactionResponse> getAllTransactions();
+    List<TransactionResponse> getAllTransactions(LocalDateTime asOf);
     Page<TransactionResponse> getAllTransactions(Pageable pageable);
     List<TransactionResponse> getTransactionsByType(String type);
+    List<TransactionResponse> getTransactionsByType(String type, LocalDateTime asOf);
     List<TransactionResponse> getTransactionsByCategory(String category);
+    List<TransactionResponse> getTransactionsByCategory(String category, LocalDateTime asOf);
+    List<TransactionResponse> searchTransactions(String query, int limit);
+    List<TransactionResponse> searchTransactions(String query, int limit, LocalDateTime asOf);
+    List<TransactionResponse> getTransactionsByAmountRange(BigDecimal min, BigDecimal max, String type, String category);
+    List<TransactionResponse> getTransactionsByAmountRange(BigDecimal min, BigDecimal max, String type, String category,
+                                                           LocalDateTime asOf);
+    List<TransactionResponse> getTransactionsByTimeRange(LocalDateTime from, LocalDateTime to, String type, String category);
+    List<TransactionResponse> getTransactionsByTimeRange(LocalDateTime from, LocalDateTime to, String type, String category,
+                                                         LocalDateTime asOf);
+    Stream<TransactionResponse> queryTransactions(TransactionQuery query);
+    List<TransactionResponse> getTopTransactionsByAmount(String type, int limit);
+    List<TransactionResponse> getLatestTransactionsByCategory(String category, int limit);
+    AmountSummaryResponse summarizeAmounts(String type, String category);
+    TransactionStatsResponse getTransactionStats(List<Double> quantiles, int categoryLimit);
+    CategoryStatsResponse getCategoryStats(String category, List<Double> quantiles);
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 package com.example.bank.service;
 
+import com.example.bank.dto.AmountSummaryResponse;
+import com.example.bank.dto.CategoryStatsResponse;
 import com.example.bank.dto.TransactionDto;
 import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransactionStatsResponse;
 import com.example.bank.exception.TransactionNotFoundException;
 import com.example.bank.exception.ValidationException;
+import com.example.bank.logging.RateLimitedLogger;
 import com.example.bank.model.Transaction;
 import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.column.AmountSummary;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.sketch.CategorySketches;
+import com.example.bank.repository.sketch.QuantileSketch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,33 +22,63 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class TransactionServiceImpl implements TransactionService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
+    // Unknown ids are a client error that scanners produce by the thousand.
+    private static final RateLimitedLogger notFoundLogger =
+            new RateLimitedLogger(logger, 10, Duration.ofSeconds(1));
+    private static final int MAX_SEARCH_RESULTS = 500;
+    private static final int MAX_TOP_RESULTS = 500;
+    private static final int MAX_QUANTILES = 20;
     private final TransactionRepository transactionRepository;
+    private final RequestCoalescer requestCoalescer;
+    private final ParallelScanEngine scanEngine;
+    private final ChangeFeed changeFeed;
+    private final WritePipeline writePipeline;
 
     @Autowired
-    public TransactionServiceImpl(TransactionRepository transactionRepository) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository, RequestCoalescer requestCoalescer,
+                                  ParallelScanEngine scanEngine, ChangeFeed changeFeed, WritePipeline writePipeline) {
         this.transactionRepository = transactionRepository;
+        this.requestCoalescer = requestCoalescer;
+        this.scanEngine = scanEngine;
+        this.changeFeed = changeFeed;
+        this.writePipeline = writePipeline;
         logger.info("TransactionService initialized with repository: {}",
                 transactionRepository.getClass().getSimpleName());
     }
 
+    // Through the pipeline, cached lists are evicted once per batch instead.
     @Override
-    @CacheEvict(value = "transactions", allEntries = true)
+    @CacheEvict(value = "transactions", allEntries = true, condition = "!@writePipeline.enabled")
     public TransactionResponse createTransaction(TransactionDto transactionDto) {
         logger.debug("Attempting to create transaction: {}", transactionDto);
         validateTransaction(transactionDto);
+        if (writePipeline.isEnabled()) {
+            TransactionResponse response = await(writePipeline.create(transactionDto));
+            logger.info("Transaction created successfully with ID: {}", response.getId());
+            return response;
+        }
 
         Transaction transaction = new Transaction(
                 transactionDto.getDescription(),
@@ -48,43 +86,71 @@ public class TransactionServiceImpl implements TransactionService {
                 transactionDto.getType(),
                 transactionDto.getCategory()
         );
+        transaction.setAccountId(transactionDto.getAccountId());
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        logger.info("Transaction created successfully with ID: {}", savedTransaction.getId());
-        return convertToResponse(savedTransaction);
+        TransactionResponse response = changeFeed.recordCreate(() -> {
+            Transaction savedTransaction = transactionRepository.save(transaction);
+            requestCoalescer.invalidate();
+            return convertToResponse(savedTransaction);
+        });
+        logger.info("Transaction created successfully with ID: {}", response.getId());
+        return response;
     }
 
     @Override
-    @CacheEvict(value = "transactions", allEntries = true)
+    @CacheEvict(value = "transactions", allEntries = true, condition = "!@writePipeline.enabled")
     public TransactionResponse updateTransaction(UUID id, TransactionDto transactionDto) {
         logger.debug("Attempting to update transaction with ID: {}", id);
         validateTransaction(transactionDto);
+        if (writePipeline.isEnabled()) {
+            TransactionResponse response = await(writePipeline.update(id, transactionDto));
+            logger.info("Transaction updated successfully with ID: {}", id);
+            return response;
+        }
 
-        Transaction transaction = transactionRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("Transaction not found for update with ID: {}", id);
-                    return new TransactionNotFoundException("Transaction not found with id: " + id);
-                });
+        TransactionResponse response = changeFeed.recordUpdate(id, () -> {
+            Transaction current = transactionRepository.findById(id)
+                    .orElseThrow(() -> {
+                        notFoundLogger.warn("Transaction not found for update with ID: {}", id);
+                        return new TransactionNotFoundException("Transaction not found with id: " + id);
+                    });
 
-        transaction.setDescription(transactionDto.getDescription());
-        transaction.setAmount(transactionDto.getAmount());
-        transaction.setType(transactionDto.getType());
-        transaction.setCategory(transactionDto.getCategory());
+            // Rows on the heap are shared with readers, and the repository's sketches subtract the
+            // stored row; change a copy.
+            Transaction transaction = new Transaction();
+            transaction.setId(current.getId());
+            transaction.setTimestamp(current.getTimestamp());
+            transaction.setDescription(transactionDto.getDescription());
+            transaction.setAmount(transactionDto.getAmount());
+            transaction.setType(transactionDto.getType());
+            transaction.setCategory(transactionDto.getCategory());
+            transaction.setAccountId(transactionDto.getAccountId());
 
-        Transaction updatedTransaction = transactionRepository.save(transaction);
+            Transaction updatedTransaction = transactionRepository.save(transaction);
+            requestCoalescer.invalidate();
+            return convertToResponse(updatedTransaction);
+        });
         logger.info("Transaction updated successfully with ID: {}", id);
-        return convertToResponse(updatedTransaction);
+        return response;
     }
 
     @Override
-    @CacheEvict(value = "transactions", allEntries = true)
+    @CacheEvict(value = "transactions", allEntries = true, condition = "!@writePipeline.enabled")
     public void deleteTransaction(UUID id) {
         logger.debug("Attempting to delete transaction with ID: {}", id);
-        if (!transactionRepository.existsById(id)) {
-            logger.error("Transaction not found for deletion with ID: {}", id);
-            throw new TransactionNotFoundException("Transaction not found with id: " + id);
+        if (writePipeline.isEnabled()) {
+            await(writePipeline.delete(id));
+            logger.info("Transaction deleted successfully with ID: {}", id);
+            return;
         }
-        transactionRepository.deleteById(id);
+        changeFeed.recordDelete(id, () -> {
+            if (!transactionRepository.existsById(id)) {
+                notFoundLogger.warn("Transaction not found for deletion with ID: {}", id);
+                throw new TransactionNotFoundException("Transaction not found with id: " + id);
+            }
+            transactionRepository.deleteById(id);
+            requestCoalescer.invalidate();
+        });
         logger.info("Transaction deleted successfully with ID: {}", id);
     }
 
@@ -94,24 +160,45 @@ public class TransactionServiceImpl implements TransactionService {
         logger.debug("Fetching transaction with ID: {}", id);
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> {
-                    logger.error("Transaction not found with ID: {}", id);
+                    notFoundLogger.warn("Transaction not found with ID: {}", id);
                     return new TransactionNotFoundException("Transaction not found with id: " + id);
                 });
         logger.debug("Successfully retrieved transaction with ID: {}", id);
         return convertToResponse(transaction);
     }
 
+    @Override
+    public TransactionResponse getTransactionById(UUID id, LocalDateTime asOf) {
+        logger.debug("Fetching transaction with ID: {} as of {}", id, asOf);
+        validateAsOf(asOf);
+        Transaction transaction = transactionRepository.findById(id, asOf)
+                .orElseThrow(() -> {
+                    notFoundLogger.warn("Transaction not found with ID: {}", id);
+                    return new TransactionNotFoundException("Transaction not found with id: " + id + " as of " + asOf);
+                });
+        return convertToResponse(transaction);
+    }
+
     @Override
     @Cacheable(value = "transactions")
     public List<TransactionResponse> getAllTransactions() {
         logger.debug("Fetching all transactions");
-        List<TransactionResponse> transactions = transactionRepository.findAll().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        List<TransactionResponse> transactions = requestCoalescer.execute("all", () ->
+                scanEngine.map(transactionRepository.findAll(), TransactionServiceImpl::convertToResponse));
         logger.info("Retrieved {} transactions", transactions.size());
         return transactions;
     }
 
+    @Override
+    public List<TransactionResponse> getAllTransactions(LocalDateTime asOf) {
+        logger.debug("Fetching all transactions as of {}", asOf);
+        validateAsOf(asOf);
+        List<TransactionResponse> transactions =
+                scanEngine.map(transactionRepository.findAll(asOf), TransactionServiceImpl::convertToResponse);
+        logger.info("Retrieved {} transactions as of {}", transactions.size(), asOf);
+        return transactions;
+    }
+
     @Override
     public Page<TransactionResponse> getAllTransactions(Pageable pageable) {
         logger.debug("Fetching paginated transactions with pageable: {}", pageable);
@@ -133,27 +220,354 @@ public class TransactionServiceImpl implements TransactionService {
     @Cacheable(value = "transactions", key = "#type")
     public List<TransactionResponse> getTransactionsByType(String type) {
         logger.debug("Fetching transactions by type: {}", type);
-        List<TransactionResponse> transactions = transactionRepository.findAll().stream()
-                .filter(t -> t.getType().equalsIgnoreCase(type))
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        List<TransactionResponse> transactions = requestCoalescer.execute("type:" + type.toUpperCase(), () ->
+                scanEngine.filterMap(transactionRepository.findAll(),
+                        t -> t.getType().equalsIgnoreCase(type), TransactionServiceImpl::convertToResponse));
         logger.info("Found {} transactions of type: {}", transactions.size(), type);
         return transactions;
     }
 
+    @Override
+    public List<TransactionResponse> getTransactionsByType(String type, LocalDateTime asOf) {
+        logger.debug("Fetching transactions by type: {} as of {}", type, asOf);
+        validateAsOf(asOf);
+        List<TransactionResponse> transactions = queryAsOf(TransactionQuery.builder().type(type).asOf(asOf).build());
+        logger.info("Found {} transactions of type: {} as of {}", transactions.size(), type, asOf);
+        return transactions;
+    }
+
     @Override
     @Cacheable(value = "transactions", key = "#category")
     public List<TransactionResponse> getTransactionsByCategory(String category) {
         logger.debug("Fetching transactions by category: {}", category);
-        List<TransactionResponse> transactions = transactionRepository.findAll().stream()
-                .filter(t -> t.getCategory().equalsIgnoreCase(category))
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        List<TransactionResponse> transactions = requestCoalescer.execute("category:" + category.toLowerCase(), () ->
+                scanEngine.filterMap(transactionRepository.findAll(),
+                        t -> t.getCategory().equalsIgnoreCase(category), TransactionServiceImpl::convertToResponse));
         logger.info("Found {} transactions in category: {}", transactions.size(), category);
         return transactions;
     }
 
-    private TransactionResponse convertToResponse(Transaction transaction) {
+    @Override
+    public List<TransactionResponse> getTransactionsByCategory(String category, LocalDateTime asOf) {
+        logger.debug("Fetching transactions by category: {} as of {}", category, asOf);
+        validateAsOf(asOf);
+        List<TransactionResponse> transactions =
+                queryAsOf(TransactionQuery.builder().category(category).asOf(asOf).build());
+        logger.info("Found {} transactions in category: {} as of {}", transactions.size(), category, asOf);
+        return transactions;
+    }
+
+    @Override
+    public List<TransactionResponse> searchTransactions(String query, int limit) {
+        logger.debug("Searching transactions for query: {} with limit: {}", query, limit);
+        validateSearch(query, limit);
+        List<TransactionResponse> transactions = transactionRepository.search(query, limit).stream()
+                .map(TransactionServiceImpl::convertToResponse)
+                .collect(Collectors.toList());
+        logger.info("Found {} transactions matching query: {}", transactions.size(), query);
+        return transactions;
+    }
+
+    /**
+     * The ranking needs the index statistics of the time, which are not kept: matches as of
+     * {@code asOf} come newest first, as matches from the cold tier do.
+     */
+    @Override
+    public List<TransactionResponse> searchTransactions(String query, int limit, LocalDateTime asOf) {
+        logger.debug("Searching transactions for query: {} with limit: {} as of {}", query, limit, asOf);
+        validateSearch(query, limit);
+        validateAsOf(asOf);
+        List<TransactionResponse> transactions = queryAsOf(TransactionQuery.builder()
+                .text(query)
+                .sort(TransactionQuery.SortField.TIMESTAMP, Sort.Direction.DESC)
+                .limit(limit)
+                .asOf(asOf)
+                .build());
+        logger.info("Found {} transactions matching query: {} as of {}", transactions.size(), query, asOf);
+        return transactions;
+    }
+
+    @Override
+    public List<TransactionResponse> getTransactionsByAmountRange(BigDecimal min, BigDecimal max,
+                                                                  String type, String category) {
+        logger.debug("Fetching transactions with amount in [{}, {}], type: {}, category: {}", min, max, type, category);
+        validateAmountRange(min, max);
+        List<TransactionResponse> transactions = transactionRepository.findByAmountBetween(min, max).stream()
+                .filter(t -> matchesTypeAndCategory(t, type, category))
+                .map(TransactionServiceImpl::convertToResponse)
+                .collect(Collectors.toList());
+        logger.info("Found {} transactions with amount in [{}, {}]", transactions.size(), min, max);
+        return transactions;
+    }
+
+    @Override
+    public List<TransactionResponse> getTransactionsByAmountRange(BigDecimal min, BigDecimal max,
+                                                                  String type, String category, LocalDateTime asOf) {
+        logger.debug("Fetching transactions with amount in [{}, {}], type: {}, category: {} as of {}",
+                min, max, type, category, asOf);
+        validateAmountRange(min, max);
+        validateAsOf(asOf);
+        List<TransactionResponse> transactions = queryAsOf(TransactionQuery.builder()
+                .type(type)
+                .category(category)
+                .amountBetween(min, max)
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.ASC)
+                .asOf(asOf)
+                .build());
+        logger.info("Found {} transactions with amount in [{}, {}] as of {}", transactions.size(), min, max, asOf);
+        return transactions;
+    }
+
+    @Override
+    public List<TransactionResponse> getTransactionsByTimeRange(LocalDateTime from, LocalDateTime to,
+                                                                String type, String category) {
+        logger.debug("Fetching transactions with timestamp in [{}, {}), type: {}, category: {}", from, to, type, category);
+        validateTimeRange(from, to);
+        List<TransactionResponse> transactions = transactionRepository.findByTimestampBetween(from, to).stream()
+                .filter(t -> matchesTypeAndCategory(t, type, category))
+                .map(TransactionServiceImpl::convertToResponse)
+                .collect(Collectors.toList());
+        logger.info("Found {} transactions with timestamp in [{}, {})", transactions.size(), from, to);
+        return transactions;
+    }
+
+    @Override
+    public List<TransactionResponse> getTransactionsByTimeRange(LocalDateTime from, LocalDateTime to,
+                                                                String type, String category, LocalDateTime asOf) {
+        logger.debug("Fetching transactions with timestamp in [{}, {}), type: {}, category: {} as of {}",
+                from, to, type, category, asOf);
+        validateTimeRange(from, to);
+        validateAsOf(asOf);
+        List<TransactionResponse> transactions = queryAsOf(TransactionQuery.builder()
+                .type(type)
+                .category(category)
+                .timeBetween(from, to)
+                .sort(TransactionQuery.SortField.TIMESTAMP, Sort.Direction.ASC)
+                .asOf(asOf)
+                .build());
+        logger.info("Found {} transactions with timestamp in [{}, {}) as of {}", transactions.size(), from, to, asOf);
+        return transactions;
+    }
+
+    @Override
+    public Stream<TransactionResponse> queryTransactions(TransactionQuery query) {
+        logger.debug("Querying transactions: {}", query);
+        if (query.getMinAmount() != null && query.getMaxAmount() != null
+                && query.getMinAmount().compareTo(query.getMaxAmount()) > 0) {
+            logger.error("Validation failed: Invalid amount range in query: {}", query);
+            throw new ValidationException("Min amount must not be greater than max amount");
+        }
+        if (query.getFrom() != null && query.getTo() != null && query.getFrom().isAfter(query.getTo())) {
+            logger.error("Validation failed: Invalid time range in query: {}", query);
+            throw new ValidationException("From must not be after to");
+        }
+        if (query.getLimit() != null && query.getLimit() < 1) {
+            logger.error("Validation failed: Invalid query limit: {}", query.getLimit());
+            throw new ValidationException("Limit must be at least 1");
+        }
+        if (query.getText() != null && query.getText().trim().isEmpty()) {
+            logger.error("Validation failed: Empty text in query");
+            throw new ValidationException("Search text cannot be empty");
+        }
+        if (query.getAsOf() != null) {
+            validateAsOf(query.getAsOf());
+        }
+        return transactionRepository.query(query).map(TransactionServiceImpl::convertToResponse);
+    }
+
+    @Override
+    public List<TransactionResponse> getTopTransactionsByAmount(String type, int limit) {
+        logger.debug("Fetching top {} transactions by amount for type: {}", limit, type);
+        validateTopLimit(limit);
+        String key = "top-amount:" + (type == null ? "" : type.toUpperCase()) + ":" + limit;
+        List<TransactionResponse> transactions = requestCoalescer.execute(key, () ->
+                transactionRepository.findTopByAmount(type, limit).stream()
+                        .map(TransactionServiceImpl::convertToResponse)
+                        .collect(Collectors.toList()));
+        logger.info("Found {} top transactions by amount for type: {}", transactions.size(), type);
+        return transactions;
+    }
+
+    @Override
+    public List<TransactionResponse> getLatestTransactionsByCategory(String category, int limit) {
+        logger.debug("Fetching latest {} transactions for category: {}", limit, category);
+        validateTopLimit(limit);
+        String key = "latest-category:" + category.toLowerCase() + ":" + limit;
+        List<TransactionResponse> transactions = requestCoalescer.execute(key, () ->
+                transactionRepository.findLatestByCategory(category, limit).stream()
+                        .map(TransactionServiceImpl::convertToResponse)
+                        .collect(Collectors.toList()));
+        logger.info("Found {} latest transactions for category: {}", transactions.size(), category);
+        return transactions;
+    }
+
+    @Override
+    public AmountSummaryResponse summarizeAmounts(String type, String category) {
+        logger.debug("Summarizing amounts for type: {}, category: {}", type, category);
+        String key = "summary:" + (type == null ? "" : type.toUpperCase()) + ":"
+                + (category == null ? "" : category.toLowerCase());
+        AmountSummary summary = requestCoalescer.execute(key, () ->
+                transactionRepository.summarizeAmounts(type, category));
+        AmountSummaryResponse response = new AmountSummaryResponse();
+        response.setCount(summary.count());
+        response.setSum(summary.sum());
+        response.setMin(summary.min());
+        response.setMax(summary.max());
+        if (summary.count() > 0) {
+            response.setAverage(summary.sum().divide(BigDecimal.valueOf(summary.count()),
+                    Math.max(2, summary.sum().scale()), RoundingMode.HALF_EVEN));
+        }
+        logger.info("Summarized {} transactions for type: {}, category: {}", summary.count(), type, category);
+        return response;
+    }
+
+    @Override
+    public TransactionStatsResponse getTransactionStats(List<Double> quantiles, int categoryLimit) {
+        logger.debug("Getting amount quantiles {} overall and of the top {} categories", quantiles, categoryLimit);
+        validateQuantiles(quantiles);
+        if (categoryLimit < 0 || categoryLimit > MAX_TOP_RESULTS) {
+            logger.error("Validation failed: Invalid category limit: {}", categoryLimit);
+            throw new ValidationException("Category limit must be between 0 and " + MAX_TOP_RESULTS);
+        }
+        CategorySketches sketches = transactionRepository.sketches();
+        TransactionStatsResponse response = new TransactionStatsResponse();
+        response.setCount(sketches.all().count());
+        response.setDistinctCategories(sketches.distinctCategories());
+        response.setRelativeAccuracy(sketches.relativeAccuracy());
+        response.setQuantiles(quantiles(sketches.all(), quantiles));
+        response.setCategories(sketches.categories(categoryLimit).stream()
+                .map(category -> categoryStats(category.name(), category.amounts(), quantiles))
+                .collect(Collectors.toList()));
+        logger.info("Returning amount quantiles over {} transactions", response.getCount());
+        return response;
+    }
+
+    @Override
+    public CategoryStatsResponse getCategoryStats(String category, List<Double> quantiles) {
+        logger.debug("Getting amount quantiles {} of category: {}", quantiles, category);
+        validateQuantiles(quantiles);
+        CategorySketches.Category sketch = transactionRepository.sketches().category(category);
+        CategoryStatsResponse response = sketch == null
+                ? categoryStats(category, null, quantiles)
+                : categoryStats(sketch.name(), sketch.amounts(), quantiles);
+        logger.info("Returning amount quantiles over {} transactions in category: {}", response.getCount(), category);
+        return response;
+    }
+
+    private static CategoryStatsResponse categoryStats(String name, QuantileSketch amounts, List<Double> quantiles) {
+        CategoryStatsResponse response = new CategoryStatsResponse();
+        response.setCategory(name);
+        response.setCount(amounts == null ? 0 : amounts.count());
+        response.setQuantiles(amounts == null ? Map.of() : quantiles(amounts, quantiles));
+        return response;
+    }
+
+    private static Map<String, BigDecimal> quantiles(QuantileSketch sketch, List<Double> quantiles) {
+        Map<String, BigDecimal> result = new LinkedHashMap<>();
+        for (double q : quantiles) {
+            double value = sketch.quantile(q);
+            if (!Double.isNaN(value)) {
+                result.put(BigDecimal.valueOf(q).stripTrailingZeros().toPlainString(),
+                        BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_EVEN));
+            }
+        }
+        return result;
+    }
+
+    private void validateQuantiles(List<Double> quantiles) {
+        if (quantiles == null || quantiles.isEmpty() || quantiles.size() > MAX_QUANTILES) {
+            logger.error("Validation failed: Invalid number of quantiles: {}", quantiles);
+            throw new ValidationException("Between 1 and " + MAX_QUANTILES + " quantiles are required");
+        }
+        for (Double q : quantiles) {
+            if (q == null || !(q >= 0 && q <= 1)) {
+                logger.error("Validation failed: Invalid quantile: {}", q);
+                throw new ValidationException("Quantiles must be between 0 and 1");
+            }
+        }
+    }
+
+    /**
+     * Waits for a pipelined write, rethrowing its failure as is.
+     */
+    private static TransactionResponse await(CompletableFuture<TransactionResponse> write) {
+        try {
+            return write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads as of a point in time can't go back further than the history kept.
+     */
+    private void validateAsOf(LocalDateTime asOf) {
+        if (asOf == null) {
+            logger.error("Validation failed: Missing point in time");
+            throw new ValidationException("asOf is required");
+        }
+        LocalDateTime horizon = transactionRepository.historyHorizon();
+        if (asOf.isBefore(horizon)) {
+            logger.error("Validation failed: Point in time {} before the history horizon {}", asOf, horizon);
+            throw new ValidationException("History is only kept from " + horizon + " on");
+        }
+    }
+
+    private List<TransactionResponse> queryAsOf(TransactionQuery query) {
+        try (Stream<Transaction> rows = transactionRepository.query(query)) {
+            return rows.map(TransactionServiceImpl::convertToResponse).collect(Collectors.toList());
+        }
+    }
+
+    private void validateSearch(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            logger.error("Validation failed: Search query cannot be empty");
+            throw new ValidationException("Search query cannot be empty");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            logger.error("Validation failed: Invalid search limit: {}", limit);
+            throw new ValidationException("Search limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+    }
+
+    private void validateAmountRange(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            logger.error("Validation failed: Amount range without bounds");
+            throw new ValidationException("At least one of min or max amount is required");
+        }
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            logger.error("Validation failed: Invalid amount range [{}, {}]", min, max);
+            throw new ValidationException("Min amount must not be greater than max amount");
+        }
+    }
+
+    private void validateTimeRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            logger.error("Validation failed: Time range without bounds");
+            throw new ValidationException("At least one of from or to is required");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            logger.error("Validation failed: Invalid time range [{}, {})", from, to);
+            throw new ValidationException("From must not be after to");
+        }
+    }
+
+    private void validateTopLimit(int limit) {
+        if (limit < 1 || limit > MAX_TOP_RESULTS) {
+            logger.error("Validation failed: Invalid top-N limit: {}", limit);
+            throw new ValidationException("Limit must be between 1 and " + MAX_TOP_RESULTS);
+        }
+    }
+
+    private boolean matchesTypeAndCategory(Transaction transaction, String type, String category) {
+        return (type == null || type.equalsIgnoreCase(transaction.getType()))
+                && (category == null || category.equalsIgnoreCase(transaction.getCategory()));
+    }
+
+    static TransactionResponse convertToResponse(Transaction transaction) {
         logger.trace("Converting transaction to response for ID: {}", transaction.getId());
         TransactionResponse response = new TransactionResponse();
         response.setId(transaction.getId());
@@ -162,6 +576,7 @@ public class TransactionServiceImpl implements TransactionService {
         response.setType(transaction.getType());
         response.setTimestamp(transaction.getTimestamp());
         response.setCategory(transaction.getCategory());
+        response.setAccountId(transaction.getAccountId());
         return response;
     }
 
@@ -183,5 +598,10 @@ public class TransactionServiceImpl implements TransactionService {
             logger.error("Validation failed: Description cannot be empty");
             throw new ValidationException("Description cannot be empty");
         }
+
+        if (transactionDto.getAccountId() != null && !AccountServiceImpl.isValidAccountId(transactionDto.getAccountId())) {
+            logger.error("Validation failed: Invalid account id: {}", transactionDto.getAccountId());
+            throw new ValidationException(AccountServiceImpl.INVALID_ACCOUNT_ID);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,421 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.TransactionDto;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.exception.TransactionNotFoundException;
+import com.example.bank.logging.RateLimitedLogger;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional single-writer path for creates, updates and deletes.
+ * <p>
+ * Request threads publish commands into a pre-allocated ring and wait on a future; one writer
+ * thread takes whatever has been published, up to {@code maxBatch} commands, and applies them
+ * together: one batched write to the store (a single forced append for the log store), one
+ * coalescer invalidation and eviction of the cached lists, then the feed changes in command order. Under concurrent load this
+ * replaces a lock hand-off and a disk force per write with one per batch; a lone write is
+ * applied as a batch of one as soon as the writer wakes up.
+ * <p>
+ * Commands of one batch see each other's effects, so an update published after a delete of the
+ * same id fails as not found just like it would have one at a time.
+ */
+@Component
+public class WritePipeline implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WritePipeline.class);
+    // Unknown ids are a client error that scanners produce by the thousand.
+    private static final RateLimitedLogger notFoundLogger =
+            new RateLimitedLogger(logger, 10, Duration.ofSeconds(1));
+    // Set in claimed once closed, so that no command can be claimed after the writer has drained.
+    private static final long CLOSED = 1L << 62;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private enum Kind { CREATE, UPDATE, DELETE }
+
+    private static final class Slot {
+        private Kind kind;
+        private UUID id;
+        private TransactionDto dto;
+        private CompletableFuture<TransactionResponse> future;
+        // Outcome of the command while its batch is applied.
+        private TransactionResponse response;
+        private RuntimeException failure;
+    }
+
+    /**
+     * Cache of the list results that every write invalidates.
+     */
+    public static final String LIST_CACHE = "transactions";
+
+    private final TransactionRepository transactionRepository;
+    private final RequestCoalescer requestCoalescer;
+    private final ChangeFeed changeFeed;
+    // Cached list results, evicted once per batch rather than by each request; null when not cached.
+    private final Cache listCache;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final Slot[] ring;
+    // Sequence published into each slot, -1 while it has never been published.
+    private final AtomicLongArray published;
+    // Number of commands claimed by publishers, with CLOSED set once closed.
+    private final AtomicLong claimed = new AtomicLong();
+    // Number of commands the writer has finished; slots below it can be reused.
+    private volatile long consumed;
+    private volatile boolean writerParked;
+    private final Thread writer;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    private volatile DistributionSummary batchSizes;
+
+    public WritePipeline(TransactionRepository transactionRepository, RequestCoalescer requestCoalescer,
+                         ChangeFeed changeFeed, boolean enabled, int capacity, int maxBatch) {
+        this(transactionRepository, requestCoalescer, changeFeed, null, enabled, capacity, maxBatch);
+    }
+
+    @Autowired
+    public WritePipeline(TransactionRepository transactionRepository, RequestCoalescer requestCoalescer,
+                         ChangeFeed changeFeed, CacheManager cacheManager,
+                         @Value("${bank.write-pipeline.enabled:false}") boolean enabled,
+                         @Value("${bank.write-pipeline.capacity:4096}") int capacity,
+                         @Value("${bank.write-pipeline.max-batch:256}") int maxBatch) {
+        if (capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("Write pipeline capacity and max batch must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        this.requestCoalescer = requestCoalescer;
+        this.changeFeed = changeFeed;
+        this.listCache = cacheManager == null ? null : cacheManager.getCache(LIST_CACHE);
+        this.enabled = enabled;
+        this.maxBatch = Math.min(maxBatch, capacity);
+        this.ring = new Slot[enabled ? capacity : 0];
+        this.published = new AtomicLongArray(ring.length);
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Slot();
+            published.set(i, -1);
+        }
+        if (enabled) {
+            writer = new Thread(this::runWriter, "write-pipeline");
+            writer.setDaemon(true);
+            writer.start();
+            logger.info("Write pipeline enabled with capacity {} and batches of up to {}", capacity, this.maxBatch);
+        } else {
+            writer = null;
+        }
+    }
+
+    /**
+     * Whether writes should go through {@link #create}, {@link #update} and {@link #delete}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates a transaction from an already validated {@code dto}.
+     */
+    public CompletableFuture<TransactionResponse> create(TransactionDto dto) {
+        return publish(Kind.CREATE, null, dto);
+    }
+
+    /**
+     * Updates transaction {@code id} from an already validated {@code dto}; fails with
+     * {@link TransactionNotFoundException} if it does not exist.
+     */
+    public CompletableFuture<TransactionResponse> update(UUID id, TransactionDto dto) {
+        return publish(Kind.UPDATE, id, dto);
+    }
+
+    /**
+     * Deletes transaction {@code id}; fails with {@link TransactionNotFoundException} if it does
+     * not exist. Completes with null.
+     */
+    public CompletableFuture<TransactionResponse> delete(UUID id) {
+        return publish(Kind.DELETE, id, null);
+    }
+
+    public long getQueueDepth() {
+        return (claimed.get() & ~CLOSED) - consumed;
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getCommandCount() {
+        return commands.sum();
+    }
+
+    private CompletableFuture<TransactionResponse> publish(Kind kind, UUID id, TransactionDto dto) {
+        if (!enabled) {
+            throw new IllegalStateException("Write pipeline is disabled");
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if ((sequence & CLOSED) != 0) {
+                throw new IllegalStateException("Write pipeline is closed");
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        while (sequence - consumed >= ring.length) {
+            // The ring is full; the writer frees a whole batch of slots at a time.
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        int index = index(sequence);
+        Slot slot = ring[index];
+        CompletableFuture<TransactionResponse> future = new CompletableFuture<>();
+        slot.kind = kind;
+        slot.id = id;
+        slot.dto = dto;
+        slot.future = future;
+        published.set(index, sequence);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return future;
+    }
+
+    private void runWriter() {
+        long next = 0;
+        while (true) {
+            int count = 0;
+            while (count < maxBatch && published.get(index(next + count)) == next + count) {
+                count++;
+            }
+            if (count == 0) {
+                if ((claimed.get() & CLOSED) != 0 && (claimed.get() & ~CLOSED) == next) {
+                    return;
+                }
+                writerParked = true;
+                // A command published before the flag was visible did not unpark us; look again.
+                if (published.get(index(next)) != next) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+                continue;
+            }
+            try {
+                applyBatch(next, count);
+            } catch (RuntimeException | Error e) {
+                logger.error("Write pipeline batch of {} commands failed", count, e);
+                for (int i = 0; i < count; i++) {
+                    ring[index(next + i)].future.completeExceptionally(e);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                clear(ring[index(next + i)]);
+            }
+            next += count;
+            consumed = next;
+        }
+    }
+
+    private void applyBatch(long first, int count) {
+        // Latest state of every row written by this batch, null once deleted.
+        Map<UUID, Transaction> pending = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            prepare(ring[index(first + i)], pending);
+        }
+
+        // A failed write fails only the commands on its rows; the others, deletes applied before
+        // a failed save included, are committed and complete normally.
+        Map<UUID, RuntimeException> failed = new HashMap<>();
+        List<Transaction> upserts = new ArrayList<>(pending.size());
+        for (Map.Entry<UUID, Transaction> entry : pending.entrySet()) {
+            if (entry.getValue() != null) {
+                upserts.add(entry.getValue());
+                continue;
+            }
+            try {
+                transactionRepository.deleteById(entry.getKey());
+            } catch (RuntimeException e) {
+                logger.error("Write pipeline failed to delete transaction {}", entry.getKey(), e);
+                failed.put(entry.getKey(), e);
+            }
+        }
+        if (!upserts.isEmpty()) {
+            try {
+                transactionRepository.saveAll(upserts);
+            } catch (RuntimeException e) {
+                logger.error("Write pipeline failed to save {} transactions of a batch of {} commands",
+                        upserts.size(), count, e);
+                for (Transaction transaction : upserts) {
+                    failed.put(transaction.getId(), e);
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            for (int i = 0; i < count; i++) {
+                Slot slot = ring[index(first + i)];
+                if (slot.failure == null) {
+                    slot.failure = failed.get(slot.kind == Kind.CREATE ? slot.response.getId() : slot.id);
+                }
+            }
+        }
+        // From here on the batch is committed: every command completes by its own write's result,
+        // whatever happens to the caches or the feed.
+        if (!pending.isEmpty()) {
+            try {
+                requestCoalescer.invalidate();
+                if (listCache != null) {
+                    listCache.clear();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Write pipeline failed to invalidate cached reads after a batch of {} commands",
+                        count, e);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            Slot slot = ring[index(first + i)];
+            if (slot.failure == null) {
+                try {
+                    record(slot);
+                } catch (RuntimeException e) {
+                    logger.error("Write pipeline failed to record {} of transaction {} in the change feed",
+                            slot.kind, slot.kind == Kind.CREATE ? slot.response.getId() : slot.id, e);
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            Slot slot = ring[index(first + i)];
+            if (slot.failure != null) {
+                slot.future.completeExceptionally(slot.failure);
+            } else {
+                slot.future.complete(slot.response);
+            }
+        }
+        batches.increment();
+        commands.add(count);
+        DistributionSummary summary = batchSizes;
+        if (summary != null) {
+            summary.record(count);
+        }
+        logger.debug("Applied batch of {} commands touching {} transactions", count, pending.size());
+    }
+
+    /**
+     * Applies {@code slot}'s command to {@code pending}, recording its response or failure.
+     */
+    private void prepare(Slot slot, Map<UUID, Transaction> pending) {
+        switch (slot.kind) {
+            case CREATE -> {
+                Transaction transaction = new Transaction(slot.dto.getDescription(), slot.dto.getAmount(),
+                        slot.dto.getType(), slot.dto.getCategory());
+                transaction.setAccountId(slot.dto.getAccountId());
+                pending.put(transaction.getId(), transaction);
+                slot.response = TransactionServiceImpl.convertToResponse(transaction);
+            }
+            case UPDATE -> {
+                Transaction current = pending.containsKey(slot.id)
+                        ? pending.get(slot.id)
+                        : transactionRepository.findById(slot.id).orElse(null);
+                if (current == null) {
+                    notFoundLogger.warn("Transaction not found for update with ID: {}", slot.id);
+                    slot.failure = new TransactionNotFoundException("Transaction not found with id: " + slot.id);
+                    return;
+                }
+                // Rows on the heap are shared with readers; change a copy.
+                Transaction transaction = new Transaction();
+                transaction.setId(current.getId());
+                transaction.setTimestamp(current.getTimestamp());
+                transaction.setDescription(slot.dto.getDescription());
+                transaction.setAmount(slot.dto.getAmount());
+                transaction.setType(slot.dto.getType());
+                transaction.setCategory(slot.dto.getCategory());
+                transaction.setAccountId(slot.dto.getAccountId());
+                pending.put(slot.id, transaction);
+                slot.response = TransactionServiceImpl.convertToResponse(transaction);
+            }
+            case DELETE -> {
+                boolean exists = pending.containsKey(slot.id)
+                        ? pending.get(slot.id) != null
+                        : transactionRepository.existsById(slot.id);
+                if (!exists) {
+                    notFoundLogger.warn("Transaction not found for deletion with ID: {}", slot.id);
+                    slot.failure = new TransactionNotFoundException("Transaction not found with id: " + slot.id);
+                    return;
+                }
+                pending.put(slot.id, null);
+            }
+        }
+    }
+
+    private void record(Slot slot) {
+        TransactionResponse response = slot.response;
+        switch (slot.kind) {
+            case CREATE -> changeFeed.recordCreate(() -> response);
+            case UPDATE -> changeFeed.recordUpdate(slot.id, () -> response);
+            case DELETE -> changeFeed.recordDelete(slot.id, () -> { });
+        }
+    }
+
+    private static void clear(Slot slot) {
+        slot.kind = null;
+        slot.id = null;
+        slot.dto = null;
+        slot.future = null;
+        slot.response = null;
+        slot.failure = null;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.pipeline.queue.depth", this, WritePipeline::getQueueDepth)
+                .description("Write commands published but not yet applied")
+                .register(registry);
+        FunctionCounter.builder("bank.pipeline.commands", this, WritePipeline::getCommandCount)
+                .description("Write commands applied by the pipeline")
+                .register(registry);
+        batchSizes = DistributionSummary.builder("bank.pipeline.batch.size")
+                .description("Write commands applied per batch")
+                .register(registry);
+    }
+
+    /**
+     * Stops accepting commands, applies those already published and stops the writer.
+     */
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        claimed.getAndUpdate(value -> value | CLOSED);
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
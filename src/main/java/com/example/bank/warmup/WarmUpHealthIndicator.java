@@ -0,0 +1,35 @@
+package com.example.bank.warmup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Out of service until the {@link WarmUpRunner} is done, whatever its outcome. Part of the
+ * readiness group, so a new instance gets no traffic while it warms up.
+ */
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final WarmUpRunner warmUpRunner;
+
+    @Autowired
+    public WarmUpHealthIndicator(WarmUpRunner warmUpRunner) {
+        this.warmUpRunner = warmUpRunner;
+    }
+
+    @Override
+    public Health health() {
+        WarmUpRunner.State state = warmUpRunner.getState();
+        Health.Builder builder = state.isComplete() ? Health.up() : Health.outOfService();
+        builder.withDetail("state", state.name().toLowerCase())
+                .withDetail("rounds", warmUpRunner.getRounds());
+        if (warmUpRunner.getLastP99Nanos() >= 0) {
+            builder.withDetail("p99Micros", TimeUnit.NANOSECONDS.toMicros(warmUpRunner.getLastP99Nanos()));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.bank.warmup;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.service.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Warms a freshly started instance up before it reports ready: preloads the cached type and
+ * category lists, then replays read requests against its own HTTP port, through the filters,
+ * controllers and services a client reaches, until the JIT has compiled them.
+ * <p>
+ * Requests are sent in rounds; warm-up ends once the p99 latency of a round is within
+ * {@code settle-tolerance} of the previous round's, after at least {@code min-rounds} rounds.
+ * It never takes longer than {@code max-duration}: an instance that hasn't settled by then, or
+ * whose warm-up failed, reports ready anyway. {@link WarmUpHealthIndicator} keeps the readiness
+ * group out of service until then.
+ */
+@Component
+public class WarmUpRunner implements ApplicationListener<ApplicationStartedEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpRunner.class);
+    private static final List<String> TYPES = List.of("CREDIT", "DEBIT");
+    private static final int SAMPLE_IDS = 16;
+
+    public enum State {
+        PENDING, RUNNING, SETTLED, TIMED_OUT, FAILED, DISABLED;
+
+        public boolean isComplete() {
+            return this != PENDING && this != RUNNING;
+        }
+    }
+
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final Duration maxDuration;
+    private final int roundSize;
+    private final int minRounds;
+    private final double settleTolerance;
+    private final int preloadCategories;
+    private volatile State state;
+    private volatile int rounds;
+    private volatile long lastP99Nanos = -1;
+
+    @Autowired
+    public WarmUpRunner(TransactionService transactionService, TransactionRepository transactionRepository,
+                        @Value("${bank.warm-up.enabled:true}") boolean enabled,
+                        @Value("${bank.warm-up.max-duration:60s}") Duration maxDuration,
+                        @Value("${bank.warm-up.round-size:200}") int roundSize,
+                        @Value("${bank.warm-up.min-rounds:3}") int minRounds,
+                        @Value("${bank.warm-up.settle-tolerance:0.25}") double settleTolerance,
+                        @Value("${bank.warm-up.preload-categories:20}") int preloadCategories) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.maxDuration = maxDuration;
+        this.roundSize = roundSize;
+        this.minRounds = Math.max(2, minRounds);
+        this.settleTolerance = settleTolerance;
+        this.preloadCategories = preloadCategories;
+        this.state = enabled ? State.PENDING : State.DISABLED;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        if (state != State.PENDING) {
+            return;
+        }
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext web)
+                || web.getWebServer() == null) {
+            logger.info("No web server to warm up");
+            state = State.DISABLED;
+            return;
+        }
+        int port = web.getWebServer().getPort();
+        Thread thread = new Thread(() -> run(port), "warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs the warm-up against the server listening on {@code port}, on the calling thread.
+     */
+    void run(int port) {
+        state = State.RUNNING;
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        logger.info("Warming up for at most {}", maxDuration);
+        try {
+            preload();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(2))
+                    .build();
+            List<HttpRequest> requests = requests(port);
+            long previous = -1;
+            State outcome = State.TIMED_OUT;
+            while (System.nanoTime() < deadline) {
+                long p99 = round(client, requests, deadline);
+                if (p99 < 0) {
+                    break;
+                }
+                rounds++;
+                lastP99Nanos = p99;
+                logger.debug("Warm-up round {}: p99 {} us", rounds, TimeUnit.NANOSECONDS.toMicros(p99));
+                if (rounds >= minRounds && Math.abs(p99 - previous) <= settleTolerance * previous) {
+                    outcome = State.SETTLED;
+                    break;
+                }
+                previous = p99;
+            }
+            state = outcome;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.FAILED;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Warm-up failed, reporting ready without it", e);
+            state = State.FAILED;
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (state == State.TIMED_OUT) {
+            logger.warn("Warm-up did not settle within {}, reporting ready after {} rounds", maxDuration, rounds);
+        } else {
+            logger.info("Warm-up {} after {} rounds in {} ms, p99 {} us", state.name().toLowerCase(), rounds,
+                    elapsed, TimeUnit.NANOSECONDS.toMicros(lastP99Nanos));
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * p99 latency of the last complete round, -1 before the first.
+     */
+    public long getLastP99Nanos() {
+        return lastP99Nanos;
+    }
+
+    /**
+     * Fills the caches behind the type and category lists, through the service so that they
+     * land where requests look for them.
+     */
+    private void preload() {
+        for (String type : TYPES) {
+            transactionService.getTransactionsByType(type);
+        }
+        List<String> categories = transactionRepository.findTopCategories(preloadCategories);
+        for (String category : categories) {
+            transactionService.getTransactionsByCategory(category);
+        }
+        logger.info("Preloaded {} type and {} category lists", TYPES.size(), categories.size());
+    }
+
+    /**
+     * One cycle of the read paths clients use most, with parameters taken from the stored rows.
+     * Also posts an invalid create, which takes the write path's parsing and validation without
+     * writing anything.
+     */
+    private List<HttpRequest> requests(int port) {
+        List<UUID> ids = new ArrayList<>();
+        String word = "payment";
+        try (Stream<Transaction> sample = transactionRepository.query(
+                TransactionQuery.builder().limit(SAMPLE_IDS).build())) {
+            for (Transaction transaction : (Iterable<Transaction>) sample::iterator) {
+                ids.add(transaction.getId());
+                if (transaction.getDescription() != null && !transaction.getDescription().isBlank()) {
+                    word = Arrays.stream(transaction.getDescription().trim().split("\\s+")).findFirst().orElse(word);
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            // Nothing stored yet; still take the lookup path to its not-found answer.
+            ids.add(UUID.randomUUID());
+        }
+        String base = "http://localhost:" + port + "/api/transactions";
+        List<String> paths = new ArrayList<>();
+        for (String type : TYPES) {
+            paths.add("/type/" + type);
+            paths.add("/top/amount?limit=10&type=" + type);
+        }
+        for (String category : transactionRepository.findTopCategories(3)) {
+            String encoded = URLEncoder.encode(category, StandardCharsets.UTF_8).replace("+", "%20");
+            paths.add("/category/" + encoded);
+            paths.add("/category/" + encoded + "/latest?limit=10");
+        }
+        for (UUID id : ids) {
+            paths.add("/" + id);
+        }
+        paths.add("/paged?page=0&size=20");
+        paths.add("/search?limit=20&q=" + URLEncoder.encode(word, StandardCharsets.UTF_8));
+        paths.add("/summary");
+        paths.add("/range/amount?min=10&max=500");
+        paths.add("/query?type=DEBIT&sort=amount,desc&limit=20");
+
+        List<HttpRequest> requests = new ArrayList<>();
+        for (String path : paths) {
+            requests.add(HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(10))
+                    .build());
+        }
+        requests.add(HttpRequest.newBuilder(URI.create(base))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"description\":\"warm-up\",\"amount\":-1,\"type\":\"DEBIT\",\"category\":\"warm-up\"}"))
+                .build());
+        return requests;
+    }
+
+    /**
+     * Sends {@code roundSize} requests cycling through {@code requests} and returns their p99
+     * latency, or -1 if the deadline passed first.
+     */
+    private long round(HttpClient client, List<HttpRequest> requests, long deadline)
+            throws IOException, InterruptedException {
+        long[] latencies = new long[roundSize];
+        for (int i = 0; i < roundSize; i++) {
+            if (System.nanoTime() >= deadline) {
+                return -1;
+            }
+            HttpRequest request = requests.get((rounds * roundSize + i) % requests.size());
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies[i] = System.nanoTime() - start;
+            if (response.statusCode() >= 500) {
+                logger.debug("Warm-up request {} answered {}", request.uri(), response.statusCode());
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+    }
+}
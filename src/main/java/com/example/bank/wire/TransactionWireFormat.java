@@ -0,0 +1,70 @@
+package com.example.bank.wire;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Constants of the binary transaction stream, served instead of JSON to clients that send
+ * {@code Accept: application/vnd.bank.transactions+binary}.
+ * <p>
+ * A stream is the magic {@code BNKT} and a version byte, followed by frames of one kind byte,
+ * an unsigned varint payload length and the payload, and ends with an {@link #END} frame so
+ * that a truncated response can't pass for a short one. Readers skip frames of unknown kinds.
+ * <p>
+ * A {@link #RECORD} payload is a flags byte, then the fields that are present, in order:
+ * <ul>
+ *     <li>id: 16 bytes, most significant half first</li>
+ *     <li>description: varint byte length and UTF-8</li>
+ *     <li>amount: zigzag varint scale, then the unscaled value as a zigzag varlong, or as a
+ *     varint length and two's-complement bytes when it needs more than 64 bits</li>
+ *     <li>type: varint dictionary code</li>
+ *     <li>timestamp: milliseconds since 1970-01-01T00:00 as a zigzag varlong and the remaining
+ *     nanoseconds as a varint, or epoch seconds and nano-of-second for dates too far out for
+ *     milliseconds to fit</li>
+ *     <li>category: varint dictionary code</li>
+ * </ul>
+ * Fields added since follow, when the record has any of them, behind a second flags varint;
+ * readers that predate them stop at the category and skip the rest of the frame:
+ * <ul>
+ *     <li>account id: varint byte length and UTF-8</li>
+ * </ul>
+ * Types and categories each have their own dictionary, local to the stream. Code {@code n > 0}
+ * refers to the {@code n}th {@link #TYPE_ENTRY} or {@link #CATEGORY_ENTRY} frame, which always
+ * precedes the first record using it; code 0 is followed by the value inline, for values
+ * beyond the dictionary's capacity.
+ */
+public final class TransactionWireFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.bank.transactions+binary";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    static final byte[] MAGIC = {'B', 'N', 'K', 'T'};
+    static final int VERSION = 1;
+
+    static final int END = 0;
+    static final int RECORD = 1;
+    static final int TYPE_ENTRY = 2;
+    static final int CATEGORY_ENTRY = 3;
+
+    static final int HAS_ID = 1;
+    static final int HAS_DESCRIPTION = 1 << 1;
+    static final int HAS_AMOUNT = 1 << 2;
+    static final int WIDE_AMOUNT = 1 << 3;
+    static final int HAS_TYPE = 1 << 4;
+    static final int HAS_TIMESTAMP = 1 << 5;
+    static final int WIDE_TIMESTAMP = 1 << 6;
+    static final int HAS_CATEGORY = 1 << 7;
+
+    static final int HAS_ACCOUNT_ID = 1;
+
+    /**
+     * Dictionary entries per stream and field; later distinct values are written inline.
+     */
+    static final int MAX_DICTIONARY_SIZE = 1024;
+    /**
+     * Largest frame a reader accepts, well above any real transaction.
+     */
+    static final int MAX_FRAME_LENGTH = 16 << 20;
+
+    private TransactionWireFormat() {
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bank.wire;
+
+import com.example.bank.dto.TransactionResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads and writes {@code List<TransactionResponse>} bodies in the binary transaction format,
+ * so every list endpoint can answer {@code Accept: application/vnd.bank.transactions+binary}.
+ * Other types, such as pages or single transactions, stay with JSON.
+ */
+public class TransactionWireMessageConverter extends AbstractGenericHttpMessageConverter<List<TransactionResponse>> {
+
+    public TransactionWireMessageConverter() {
+        super(TransactionWireFormat.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // Only reached without generic type information, which can't tell the element type.
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve();
+        return raw != null && raw.isAssignableFrom(List.class) && hasTransactionElements(resolved)
+                && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        ResolvableType resolved = ResolvableType.forType(type != null ? type : clazz);
+        Class<?> raw = resolved.resolve();
+        return raw != null && List.class.isAssignableFrom(raw) && hasTransactionElements(resolved)
+                && canWrite(mediaType);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // Asked with the raw class after canWrite(Type...) passed, so it can't check elements either.
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    private static boolean hasTransactionElements(ResolvableType type) {
+        return TransactionResponse.class.equals(type.asCollection().resolveGeneric(0));
+    }
+
+    @Override
+    public List<TransactionResponse> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        return readInternal(null, inputMessage);
+    }
+
+    @Override
+    protected List<TransactionResponse> readInternal(Class<? extends List<TransactionResponse>> clazz,
+                                                     HttpInputMessage inputMessage) throws IOException {
+        try {
+            return TransactionWireReader.readAll(inputMessage.getBody());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid binary transaction stream: " + e.getMessage(),
+                    e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(List<TransactionResponse> transactions, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        TransactionWireWriter writer = new TransactionWireWriter(outputMessage.getBody());
+        for (TransactionResponse transaction : transactions) {
+            writer.write(transaction);
+        }
+        writer.finish();
+    }
+}
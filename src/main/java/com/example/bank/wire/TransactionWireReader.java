@@ -0,0 +1,248 @@
+package com.example.bank.wire;
+
+import com.example.bank.dto.TransactionResponse;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.bank.wire.TransactionWireFormat.*;
+
+/**
+ * Client-side reader of a binary transaction stream, see {@link TransactionWireFormat}.
+ * Depends on nothing but the JDK and {@link TransactionResponse}, so internal jobs can read a
+ * response body directly:
+ * <pre>{@code
+ * try (TransactionWireReader reader = new TransactionWireReader(connection.getInputStream())) {
+ *     for (TransactionResponse transaction; (transaction = reader.read()) != null; ) {
+ *         ...
+ *     }
+ * }
+ * }</pre>
+ * A stream that ends before its end frame fails with an {@link EOFException}. Not thread-safe.
+ */
+public final class TransactionWireReader implements Closeable {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final InputStream in;
+    private byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+    private final List<String> types = new ArrayList<>();
+    private final List<String> categories = new ArrayList<>();
+    private boolean started;
+    private boolean ended;
+
+    public TransactionWireReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads every transaction of {@code in} up to the end frame; does not close {@code in}.
+     */
+    public static List<TransactionResponse> readAll(InputStream in) throws IOException {
+        TransactionWireReader reader = new TransactionWireReader(in);
+        List<TransactionResponse> transactions = new ArrayList<>();
+        for (TransactionResponse transaction; (transaction = reader.read()) != null; ) {
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    /**
+     * The next transaction, or {@code null} once the end frame has been read.
+     */
+    public TransactionResponse read() throws IOException {
+        if (!started) {
+            readHeader();
+            started = true;
+        }
+        while (!ended) {
+            require(1);
+            int kind = buffer[position++] & 0xFF;
+            long length = readFrameLength();
+            if (length > MAX_FRAME_LENGTH) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            require((int) length);
+            int end = position + (int) length;
+            switch (kind) {
+                case END -> ended = true;
+                case RECORD -> {
+                    TransactionResponse transaction = readRecord(end);
+                    position = end;
+                    return transaction;
+                }
+                case TYPE_ENTRY -> types.add(readString(end));
+                case CATEGORY_ENTRY -> categories.add(readString(end));
+                default -> {
+                    // A newer writer's frame; skipped.
+                }
+            }
+            position = end;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        require(MAGIC.length + 1);
+        if (!Arrays.equals(buffer, position, position + MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IOException("Not a binary transaction stream");
+        }
+        int version = buffer[position + MAGIC.length];
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary transaction stream version " + version);
+        }
+        position += MAGIC.length + 1;
+    }
+
+    private TransactionResponse readRecord(int end) throws IOException {
+        int flags = byteAt(end);
+        TransactionResponse transaction = new TransactionResponse();
+        if ((flags & HAS_ID) != 0) {
+            check(16, end);
+            transaction.setId(new UUID((long) LONGS.get(buffer, position), (long) LONGS.get(buffer, position + 8)));
+            position += 16;
+        }
+        if ((flags & HAS_DESCRIPTION) != 0) {
+            transaction.setDescription(readString(end));
+        }
+        if ((flags & HAS_AMOUNT) != 0) {
+            int scale = (int) unzigzag(readVarint(end));
+            if ((flags & WIDE_AMOUNT) != 0) {
+                int length = (int) readVarint(end);
+                check(length, end);
+                transaction.setAmount(new BigDecimal(new BigInteger(buffer, position, length), scale));
+                position += length;
+            } else {
+                transaction.setAmount(BigDecimal.valueOf(unzigzag(readVarint(end)), scale));
+            }
+        }
+        if ((flags & HAS_TYPE) != 0) {
+            transaction.setType(readCode(types, end));
+        }
+        if ((flags & HAS_TIMESTAMP) != 0) {
+            long time = unzigzag(readVarint(end));
+            int nanos = (int) readVarint(end);
+            if ((flags & WIDE_TIMESTAMP) != 0) {
+                transaction.setTimestamp(LocalDateTime.ofEpochSecond(time, nanos, ZoneOffset.UTC));
+            } else {
+                transaction.setTimestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(time, 1000),
+                        Math.floorMod(time, 1000) * 1_000_000 + nanos, ZoneOffset.UTC));
+            }
+        }
+        if ((flags & HAS_CATEGORY) != 0) {
+            transaction.setCategory(readCode(categories, end));
+        }
+        if (position < end) {
+            int more = (int) readVarint(end);
+            if ((more & HAS_ACCOUNT_ID) != 0) {
+                transaction.setAccountId(readString(end));
+            }
+        }
+        return transaction;
+    }
+
+    private String readCode(List<String> dictionary, int end) throws IOException {
+        int code = (int) readVarint(end);
+        if (code == 0) {
+            return readString(end);
+        }
+        if (code > dictionary.size()) {
+            throw new IOException("Unknown dictionary code " + code);
+        }
+        return dictionary.get(code - 1);
+    }
+
+    private String readString(int end) throws IOException {
+        int length = (int) readVarint(end);
+        check(length, end);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Varint within the current frame, which ends at {@code end}.
+     */
+    private long readVarint(int end) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = byteAt(end);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private long readFrameLength() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            require(1);
+            int b = buffer[position++] & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed frame length");
+    }
+
+    private int byteAt(int end) throws IOException {
+        check(1, end);
+        return buffer[position++] & 0xFF;
+    }
+
+    private void check(int length, int end) throws IOException {
+        if (length < 0 || position + length > end) {
+            throw new IOException("Malformed record");
+        }
+    }
+
+    /**
+     * Makes sure {@code length} bytes are buffered from {@link #position}.
+     */
+    private void require(int length) throws IOException {
+        if (limit - position >= length) {
+            return;
+        }
+        if (length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+        }
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        while (limit < length) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                throw new EOFException("Binary transaction stream ended unexpectedly");
+            }
+            limit += read;
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.bank.wire;
+
+import com.example.bank.dto.TransactionResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.bank.wire.TransactionWireFormat.*;
+
+/**
+ * Writes {@link TransactionResponse}s as a binary transaction stream, see
+ * {@link TransactionWireFormat}. Frames are collected in a buffer that is passed on to the
+ * output stream in blocks of about {@value #FLUSH_THRESHOLD} bytes. Not thread-safe.
+ */
+public final class TransactionWireWriter implements Closeable {
+
+    private static final int FLUSH_THRESHOLD = 8192;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final OutputStream out;
+    private final Buffer frames = new Buffer(FLUSH_THRESHOLD + 256);
+    private final Buffer record = new Buffer(256);
+    private final Map<String, Integer> types = new HashMap<>();
+    private final Map<String, Integer> categories = new HashMap<>();
+    private boolean finished;
+
+    public TransactionWireWriter(OutputStream out) {
+        this.out = out;
+        frames.write(MAGIC, 0, MAGIC.length);
+        frames.writeByte(VERSION);
+    }
+
+    public void write(TransactionResponse transaction) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Stream already finished");
+        }
+        record.length = 1;
+        int flags = 0;
+        UUID id = transaction.getId();
+        if (id != null) {
+            flags |= HAS_ID;
+            record.ensure(16);
+            LONGS.set(record.data, record.length, id.getMostSignificantBits());
+            LONGS.set(record.data, record.length + 8, id.getLeastSignificantBits());
+            record.length += 16;
+        }
+        if (transaction.getDescription() != null) {
+            flags |= HAS_DESCRIPTION;
+            record.writeString(transaction.getDescription());
+        }
+        BigDecimal amount = transaction.getAmount();
+        if (amount != null) {
+            flags |= HAS_AMOUNT;
+            if (!writeAmount(amount)) {
+                flags |= WIDE_AMOUNT;
+            }
+        }
+        if (transaction.getType() != null) {
+            flags |= HAS_TYPE;
+            writeCode(types, TYPE_ENTRY, transaction.getType());
+        }
+        LocalDateTime timestamp = transaction.getTimestamp();
+        if (timestamp != null) {
+            flags |= HAS_TIMESTAMP;
+            if (!writeTimestamp(timestamp)) {
+                flags |= WIDE_TIMESTAMP;
+            }
+        }
+        if (transaction.getCategory() != null) {
+            flags |= HAS_CATEGORY;
+            writeCode(categories, CATEGORY_ENTRY, transaction.getCategory());
+        }
+        if (transaction.getAccountId() != null) {
+            record.writeVarint(HAS_ACCOUNT_ID);
+            record.writeString(transaction.getAccountId());
+        }
+        record.data[0] = (byte) flags;
+        frames.writeByte(RECORD);
+        frames.writeVarint(record.length);
+        frames.write(record.data, 0, record.length);
+        if (frames.length >= FLUSH_THRESHOLD) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes the end frame and flushes, leaving the output stream open.
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            frames.writeByte(END);
+            frames.writeVarint(0);
+            drain();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            finish();
+        }
+    }
+
+    /**
+     * Scale and unscaled value; false when the unscaled value needed the wide form.
+     */
+    private boolean writeAmount(BigDecimal amount) {
+        int scale = amount.scale();
+        record.writeVarint(zigzag(scale));
+        if (scale >= 0 && amount.precision() <= 18) {
+            // Keeps BigDecimal's compact long form, unscaledValue() would allocate a BigInteger.
+            record.writeVarint(zigzag(amount.movePointRight(scale).longValue()));
+            return true;
+        }
+        BigInteger unscaled = amount.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            record.writeVarint(zigzag(unscaled.longValue()));
+            return true;
+        }
+        byte[] bytes = unscaled.toByteArray();
+        record.writeVarint(bytes.length);
+        record.write(bytes, 0, bytes.length);
+        return false;
+    }
+
+    /**
+     * Epoch milliseconds and remaining nanos; false when only epoch seconds fit.
+     */
+    private boolean writeTimestamp(LocalDateTime timestamp) {
+        long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+        int nanos = timestamp.getNano();
+        if (Math.abs(seconds) < Long.MAX_VALUE / 1000 - 1) {
+            record.writeVarint(zigzag(seconds * 1000 + nanos / 1_000_000));
+            record.writeVarint(nanos % 1_000_000);
+            return true;
+        }
+        record.writeVarint(zigzag(seconds));
+        record.writeVarint(nanos);
+        return false;
+    }
+
+    private void writeCode(Map<String, Integer> dictionary, int entryKind, String value) {
+        Integer code = dictionary.get(value);
+        if (code == null && dictionary.size() < MAX_DICTIONARY_SIZE) {
+            code = dictionary.size() + 1;
+            dictionary.put(value, code);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            frames.writeByte(entryKind);
+            frames.writeVarint(varintSize(bytes.length) + bytes.length);
+            frames.writeVarint(bytes.length);
+            frames.write(bytes, 0, bytes.length);
+        }
+        if (code == null) {
+            record.writeVarint(0);
+            record.writeString(value);
+        } else {
+            record.writeVarint(code);
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(frames.data, 0, frames.length);
+        frames.length = 0;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int varintSize(long value) {
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 6) / 7);
+    }
+
+    private static final class Buffer {
+
+        private byte[] data;
+        private int length;
+
+        private Buffer(int capacity) {
+            data = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+
+        private void writeByte(int value) {
+            ensure(1);
+            data[length++] = (byte) value;
+        }
+
+        private void write(byte[] bytes, int offset, int count) {
+            ensure(count);
+            System.arraycopy(bytes, offset, data, length, count);
+            length += count;
+        }
+
+        private void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+
+        private void writeString(String value) {
+            int start = length;
+            int count = value.length();
+            writeVarint(count);
+            ensure(count);
+            for (int i = 0; i < count; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // Not ASCII, so the byte length differs from the char count.
+                    length = start;
+                    writeEncoded(value);
+                    return;
+                }
+                data[length++] = (byte) c;
+            }
+        }
+
+        private void writeEncoded(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
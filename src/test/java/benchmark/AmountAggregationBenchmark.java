@@ -0,0 +1,99 @@
+package benchmark;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.column.AmountColumns;
+import com.example.bank.repository.column.AmountKernel;
+import com.example.bank.repository.column.AmountSummary;
+import com.example.bank.repository.column.ScalarAmountKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a filtered amount summary computed three ways: a {@link BigDecimal} stream over the
+ * transactions, as the service did before, and {@link AmountColumns} with the scalar and the
+ * detected kernel, the vector one when {@code jdk.incubator.vector} is enabled, as it is in the
+ * forks. {@link #buildColumns} is the cost of the rebuild after writes.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=AmountAggregation}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class AmountAggregationBenchmark {
+
+    private static final String[] CATEGORIES = {"Food", "Rent", "Transport", "Salary", "Shopping", "Health"};
+
+    @Param("1000000")
+    private int rows;
+
+    // Type and category to filter by, "-" for any.
+    @Param({"-/-", "DEBIT/-", "DEBIT/Food"})
+    private String filter;
+
+    private List<Transaction> transactions;
+    private AmountColumns columns;
+    private String type;
+    private String category;
+    private final AmountKernel scalar = new ScalarAmountKernel();
+    private final AmountKernel detected = AmountKernel.detect();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            transactions.add(new Transaction("Payment", BigDecimal.valueOf(random.nextInt(10_000_000), 2),
+                    random.nextBoolean() ? "DEBIT" : "CREDIT", CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        columns = AmountColumns.of(transactions);
+        String[] parts = filter.split("/");
+        type = parts[0].equals("-") ? null : parts[0];
+        category = parts[1].equals("-") ? null : parts[1];
+    }
+
+    @Benchmark
+    public AmountSummary bigDecimalStream() {
+        List<BigDecimal> amounts = transactions.stream()
+                .filter(t -> type == null || type.equalsIgnoreCase(t.getType()))
+                .filter(t -> category == null || category.equalsIgnoreCase(t.getCategory()))
+                .map(Transaction::getAmount)
+                .toList();
+        return new AmountSummary(amounts.size(),
+                amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add),
+                amounts.stream().min(BigDecimal::compareTo).orElse(null),
+                amounts.stream().max(BigDecimal::compareTo).orElse(null));
+    }
+
+    @Benchmark
+    public AmountSummary scalarKernel() {
+        return columns.summarize(type, category, scalar);
+    }
+
+    @Benchmark
+    public AmountSummary detectedKernel() {
+        return columns.summarize(type, category, detected);
+    }
+
+    @Benchmark
+    public AmountColumns buildColumns() {
+        return AmountColumns.of(transactions);
+    }
+}
@@ -0,0 +1,113 @@
+package benchmark;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.sketch.CategorySketches;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Median and p99 amount of every category and the number of distinct categories, once computed
+ * exactly from all transactions and once read from the {@link CategorySketches} the repository
+ * keeps, over 50 categories. The setup prints the largest relative error of the sketch
+ * quantiles and the estimated distinct count.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CategorySketch}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CategorySketchBenchmark {
+
+    private static final double[] QUANTILES = {0.5, 0.99};
+    private static final int CATEGORIES = 50;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private TransactionRepository repository;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        repository = new TransactionRepository();
+        for (int i = 0; i < rows; i++) {
+            BigDecimal amount = BigDecimal.valueOf(Math.exp(3 + 1.5 * random.nextGaussian()))
+                    .setScale(2, RoundingMode.HALF_EVEN).max(new BigDecimal("0.01"));
+            repository.save(new Transaction("Payment", amount, "DEBIT", "Category " + random.nextInt(CATEGORIES)));
+        }
+
+        Exact exact = exact();
+        double maxError = 0;
+        CategorySketches sketches = repository.sketches();
+        for (CategorySketches.Category category : sketches.categories(CATEGORIES)) {
+            double[] expected = exact.quantiles().get(category.name());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                double estimate = category.amounts().quantile(QUANTILES[i]);
+                maxError = Math.max(maxError, Math.abs(estimate - expected[i]) / expected[i]);
+            }
+        }
+        System.out.printf("%nmax relative error %.4f, distinct %d (estimated %d)%n",
+                maxError, exact.distinct(), sketches.distinctCategories());
+    }
+
+    @Benchmark
+    public Exact exact() {
+        // Group every amount by category and sort.
+        Map<String, List<Double>> byCategory = new HashMap<>();
+        Set<String> distinct = new HashSet<>();
+        for (Transaction transaction : repository.findAll()) {
+            byCategory.computeIfAbsent(transaction.getCategory(), k -> new ArrayList<>())
+                    .add(transaction.getAmount().doubleValue());
+            distinct.add(transaction.getCategory());
+        }
+        Map<String, double[]> quantiles = new HashMap<>();
+        byCategory.forEach((category, amounts) -> {
+            amounts.sort(null);
+            double[] values = new double[QUANTILES.length];
+            for (int i = 0; i < QUANTILES.length; i++) {
+                values[i] = amounts.get((int) (QUANTILES[i] * (amounts.size() - 1)));
+            }
+            quantiles.put(category, values);
+        });
+        return new Exact(quantiles, distinct.size());
+    }
+
+    @Benchmark
+    public void sketch(Blackhole blackhole) {
+        CategorySketches sketches = repository.sketches();
+        blackhole.consume(sketches.distinctCategories());
+        for (CategorySketches.Category category : sketches.categories(CATEGORIES)) {
+            for (double quantile : QUANTILES) {
+                blackhole.consume(category.amounts().quantile(quantile));
+            }
+        }
+    }
+
+    public record Exact(Map<String, double[]> quantiles, int distinct) {
+    }
+}
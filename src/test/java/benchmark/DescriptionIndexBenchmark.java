@@ -0,0 +1,80 @@
+package benchmark;
+
+import com.example.bank.repository.index.DescriptionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches a {@link DescriptionIndex} over synthetic descriptions, each merchant or item term
+ * matching about 1/16 of the rows. The setup prints the build time and the heap retained by
+ * the index, which includes the ids and descriptions only the benchmark holds.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=DescriptionIndex}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DescriptionIndexBenchmark {
+
+    private static final String[] MERCHANTS = {
+            "Hema", "Walmart", "Starbucks", "Costco", "Carrefour", "Uniqlo", "Didi", "Meituan",
+            "盒马鲜生", "星巴克", "美团外卖", "滴滴出行", "京东", "淘宝", "拼多多", "瑞幸咖啡"};
+    private static final String[] ITEMS = {
+            "Fruit", "Coffee", "Groceries", "Taxi", "Lunch", "Clothes", "Rent", "Salary",
+            "水果", "咖啡", "午餐", "打车", "衣服", "房租", "工资", "日用品"};
+
+    @Param("1000000")
+    private int rows;
+
+    @Param({"hema", "coffee", "star*", "盒马", "咖啡", "星", "fruit hema", "tax*"})
+    private String query;
+
+    private DescriptionIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long heapBefore = usedHeapAfterGc();
+        index = new DescriptionIndex();
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            String description = ITEMS[random.nextInt(ITEMS.length)] + " from "
+                    + MERCHANTS[random.nextInt(MERCHANTS.length)] + " #" + random.nextInt(100_000);
+            index.index(UUID.randomUUID(), description);
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long retained = usedHeapAfterGc() - heapBefore;
+        System.out.printf("%nrows=%d terms=%d build=%dms heap=%.1fMB (%.0f bytes/row)%n",
+                rows, index.termCount(), buildMillis, retained / 1048576.0, retained / (double) rows);
+    }
+
+    @Benchmark
+    public void search(Blackhole blackhole) {
+        blackhole.consume(index.search(query, 50));
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
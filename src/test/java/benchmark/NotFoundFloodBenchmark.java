@@ -0,0 +1,98 @@
+package benchmark;
+
+import com.example.bank.BankApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Floods an instance of the application, started in the benchmark JVM on a random port, with
+ * {@code GET} and {@code DELETE} requests for random, nonexistent transaction ids, like a scanner
+ * or a broken client, over 8 client threads. The teardown prints the number of responses other
+ * than 404.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=NotFoundFlood}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class NotFoundFloodBenchmark {
+
+    @Param({"memory", "jdbc"})
+    private String store;
+
+    private final LongAdder other = new LongAdder();
+    private ConfigurableApplicationContext application;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup
+    public void setUp() {
+        application = SpringApplication.run(BankApplication.class,
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--bank.warm-up.enabled=false",
+                "--bank.storage.type=" + store,
+                "--bank.storage.jdbc.url=jdbc:h2:mem:flood;DB_CLOSE_DELAY=-1");
+        baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port")
+                + "/api/transactions/";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%d responses other than 404%n", other.sum());
+        application.close();
+    }
+
+    @Benchmark
+    public int get() throws IOException, InterruptedException {
+        return send(request().GET().build());
+    }
+
+    @Benchmark
+    public int delete() throws IOException, InterruptedException {
+        return send(request().DELETE().build());
+    }
+
+    private HttpRequest.Builder request() {
+        return HttpRequest.newBuilder(URI.create(baseUrl + UUID.randomUUID())).timeout(Duration.ofSeconds(10));
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 404) {
+            other.increment();
+        }
+        return status;
+    }
+}
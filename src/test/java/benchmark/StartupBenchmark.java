@@ -0,0 +1,150 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Starts the packaged application again and again, once as {@code java -jar} of the Spring Boot
+ * jar and once from the {@code fast-startup} layout with AOT and the class-data-sharing archive,
+ * and reports the startup time Spring logs and the time from launching the JVM until the first
+ * successful {@code GET /api/transactions}.
+ * <p>
+ * Build both with {@code mvn -Pfast-startup package -DskipTests} first. Run from the project
+ * directory with the number of launches per mode as first argument (default 5) and the port as
+ * second (default 18090). Launches of the two modes alternate so that both see the same machine
+ * state; the medians are the numbers to compare.
+ */
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 18090;
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Path target = Path.of("target").toAbsolutePath();
+        Path fastStartup = target.resolve("fast-startup");
+        Path bootJar = single(target, "bank-transaction-service-*.jar");
+        Path fastJar = single(fastStartup, "bank-transaction-service-*-fast-startup.jar");
+
+        List<String> jarCommand = List.of(java, "--add-modules", "jdk.incubator.vector",
+                "-jar", bootJar.toString(), "--server.port=" + port);
+        List<String> fastCommand = List.of(java, "-XX:SharedArchiveFile=application.jsa",
+                "-Dspring.aot.enabled=true", "--add-modules", "jdk.incubator.vector",
+                "-jar", fastJar.getFileName().toString(), "--server.port=" + port);
+
+        List<long[]> jar = new ArrayList<>();
+        List<long[]> fast = new ArrayList<>();
+        // One discarded launch each, so that both start from a warm page cache.
+        launch(jarCommand, target, port);
+        launch(fastCommand, fastStartup, port);
+        for (int i = 0; i < runs; i++) {
+            jar.add(launch(jarCommand, target, port));
+            fast.add(launch(fastCommand, fastStartup, port));
+        }
+        report("java -jar", jar);
+        report("fast-startup", fast);
+    }
+
+    /**
+     * Launches the application and returns the startup time it logged and the time to the
+     * first served request, both in milliseconds.
+     */
+    private static long[] launch(List<String> command, Path directory, int port) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/transactions"))
+                .timeout(Duration.ofSeconds(5)).build();
+        AtomicLong logged = new AtomicLong(-1);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).redirectErrorStream(true).start();
+        Thread output = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    Matcher matcher = STARTED.matcher(line);
+                    if (matcher.find()) {
+                        logged.set(Math.round(Double.parseDouble(matcher.group(1)) * 1000));
+                    }
+                }
+            } catch (IOException e) {
+                // The process was stopped.
+            }
+        });
+        output.start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                if (System.nanoTime() - start > TIMEOUT.toNanos()) {
+                    throw new IllegalStateException("Application did not serve a request within " + TIMEOUT);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (ConnectException e) {
+                    // Not listening yet.
+                }
+                Thread.sleep(5);
+            }
+            long firstRequest = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new long[]{logged.get(), firstRequest};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            output.join();
+        }
+    }
+
+    private static void report(String name, List<long[]> launches) {
+        List<Long> started = new ArrayList<>();
+        List<Long> firstRequest = new ArrayList<>();
+        for (long[] launch : launches) {
+            started.add(launch[0]);
+            firstRequest.add(launch[1]);
+        }
+        System.out.printf("%-13s started in %s ms, first request after %s ms (median, min, max of %d)%n", name,
+                stats(started), stats(firstRequest), launches.size());
+    }
+
+    private static String stats(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return String.format("%,d / %,d / %,d", sorted.get(sorted.size() / 2), sorted.get(0),
+                sorted.get(sorted.size() - 1));
+    }
+
+    private static Path single(Path directory, String glob) throws IOException {
+        List<Path> matches = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(directory.getFileSystem().getPathMatcher("glob:" + directory + "/" + glob)::matches)
+                    .forEach(matches::add);
+        }
+        if (matches.size() != 1) {
+            throw new IllegalStateException("Expected one " + glob + " in " + directory + ", found "
+                    + Arrays.toString(matches.toArray()));
+        }
+        return matches.get(0);
+    }
+}
@@ -0,0 +1,122 @@
+package benchmark;
+
+import com.example.bank.dto.TransactionDto;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.json.TransactionDtoJson;
+import com.example.bank.json.TransactionResponseJson;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective Jackson mapping of transactions with the hand-written one: writing
+ * and reading back a list response of 1,000 {@link TransactionResponse}s, and reading a
+ * {@link TransactionDto} request body.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransactionJson "-Dbenchmark.args=-prof gc"},
+ * the profiler adding the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TransactionJsonBenchmark {
+
+    private static final byte[] BODY =
+            "{\"description\":\"Fruit from Hema\",\"amount\":23.18,\"type\":\"DEBIT\",\"category\":\"Food\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"default", "hand-written"})
+    private String mapping;
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private final List<TransactionResponse> responses = sample(1000);
+    private ObjectWriter writer;
+    private ObjectReader listReader;
+    private ObjectReader reader;
+    private byte[] list;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        if (mapping.equals("hand-written")) {
+            mapper.registerModule(new SimpleModule()
+                    .addSerializer(TransactionResponse.class, new TransactionResponseJson.Serializer())
+                    .addDeserializer(TransactionResponse.class, new TransactionResponseJson.Deserializer())
+                    .addDeserializer(TransactionDto.class, new TransactionDtoJson.Deserializer()));
+        }
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, TransactionResponse.class);
+        writer = mapper.writerFor(listType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        listReader = mapper.readerFor(listType);
+        reader = mapper.readerFor(TransactionDto.class);
+        try {
+            list = writer.writeValueAsBytes(responses);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Benchmark
+    public void writeList() throws IOException {
+        writer.writeValue(sink, responses);
+    }
+
+    @Benchmark
+    public List<TransactionResponse> readList() throws IOException {
+        return listReader.readValue(list);
+    }
+
+    @Benchmark
+    public TransactionDto readDto() throws IOException {
+        return reader.readValue(BODY);
+    }
+
+    private static List<TransactionResponse> sample(int count) {
+        Random random = new Random(42);
+        String[] categories = {"Food", "Rent", "Transport", "Salary", "Shopping", "Health"};
+        List<TransactionResponse> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TransactionResponse response = new TransactionResponse();
+            response.setId(UUID.randomUUID());
+            response.setDescription("Payment #" + random.nextInt(100_000));
+            response.setAmount(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            response.setType(random.nextBoolean() ? "DEBIT" : "CREDIT");
+            response.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0).plusNanos(random.nextLong(1L << 50)));
+            response.setCategory(categories[random.nextInt(categories.length)]);
+            responses.add(response);
+        }
+        return responses;
+    }
+}
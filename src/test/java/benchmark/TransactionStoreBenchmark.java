@@ -0,0 +1,160 @@
+package benchmark;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.log.LogStructuredStore;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.store.InMemoryTransactionStore;
+import com.example.bank.repository.store.JdbcTransactionStore;
+import com.example.bank.repository.store.TransactionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs the same workload against every {@link TransactionStore} backend: single and batched
+ * puts into one store, point reads and filtered scans of another that holds all the rows.
+ * Puts cycle through the rows, so after the first pass they replace existing ones.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransactionStore}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionStoreBenchmark {
+
+    private static final String[] CATEGORIES = {"Food", "Rent", "Transport", "Salary", "Shopping", "Health"};
+    private static final int BATCH = 1000;
+
+    @Param({"memory", "log", "jdbc"})
+    private String backend;
+
+    @Param("100000")
+    private int rows;
+
+    private Path directory;
+    private List<Transaction> transactions;
+    private TransactionStore written;
+    private TransactionStore read;
+    private TransactionQuery category;
+    private TransactionQuery onePercentOfTime;
+    private TransactionQuery all;
+    private final Random random = new Random(7);
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bank-store-benchmark");
+        transactions = generate(rows);
+        written = open(directory.resolve("written"));
+        read = open(directory.resolve("read"));
+        for (int i = 0; i < rows; i += BATCH) {
+            read.putAll(transactions.subList(i, Math.min(rows, i + BATCH)));
+        }
+        LocalDateTime from = transactions.get(rows / 2).getTimestamp();
+        category = TransactionQuery.builder().category("rent").build();
+        onePercentOfTime = TransactionQuery.builder().timeBetween(from, from.plusMinutes(rows / 100)).build();
+        all = TransactionQuery.builder().build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        written.close();
+        read.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void put() {
+        written.put(transactions.get(next));
+        next = (next + 1) % rows;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void putAll1000() {
+        int start = next - next % BATCH;
+        written.putAll(transactions.subList(start, Math.min(rows, start + BATCH)));
+        next = (start + BATCH) % rows;
+    }
+
+    @Benchmark
+    public Transaction get() {
+        return read.get(transactions.get(random.nextInt(rows)).getId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long scanCategory() {
+        return count(category);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long scanOnePercentOfTime() {
+        return count(onePercentOfTime);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long scanAll() {
+        return count(all);
+    }
+
+    private long count(TransactionQuery query) {
+        try (Stream<Transaction> matches = read.scan(query)) {
+            return matches.count();
+        }
+    }
+
+    private TransactionStore open(Path path) {
+        return switch (backend) {
+            case "memory" -> new InMemoryTransactionStore();
+            case "log" -> new LogStructuredStore(path, 64L << 20, false, 0.5, Duration.ZERO);
+            case "jdbc" -> new JdbcTransactionStore("jdbc:h2:file:" + path.resolve("db"), "sa", "", 4, 500, 1000);
+            default -> throw new IllegalArgumentException("Unknown backend: " + backend);
+        };
+    }
+
+    private static List<Transaction> generate(int rows) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = new Transaction("Payment #" + random.nextInt(100_000),
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 2), random.nextBoolean() ? "DEBIT" : "CREDIT",
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            transaction.setTimestamp(start.plusMinutes(i));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,125 @@
+package benchmark;
+
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.json.TransactionResponseJson;
+import com.example.bank.wire.TransactionWireReader;
+import com.example.bank.wire.TransactionWireWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON, with the hand-written mapping the application registers, against the binary
+ * transaction format for a list response of 1,000 {@link TransactionResponse}s: writing it on
+ * the server and reading it on a client. The setup prints the payload sizes.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransactionWire "-Dbenchmark.args=-prof gc"},
+ * the profiler adding the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TransactionWireBenchmark {
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private final List<TransactionResponse> responses = sample(1000);
+    private ObjectWriter jsonWriter;
+    private ObjectReader jsonReader;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .registerModule(new SimpleModule()
+                        .addSerializer(TransactionResponse.class, new TransactionResponseJson.Serializer())
+                        .addDeserializer(TransactionResponse.class, new TransactionResponseJson.Deserializer()));
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, TransactionResponse.class);
+        jsonWriter = mapper.writerFor(listType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        jsonReader = mapper.readerFor(listType);
+        json = jsonWriter.writeValueAsBytes(responses);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBinary(out);
+        binary = out.toByteArray();
+        System.out.printf("%njson %d bytes (%.1f bytes/row), binary %d bytes (%.1f bytes/row)%n",
+                json.length, json.length / 1000.0, binary.length, binary.length / 1000.0);
+    }
+
+    @Benchmark
+    public void writeJson() throws IOException {
+        jsonWriter.writeValue(sink, responses);
+    }
+
+    @Benchmark
+    public void writeBinary() throws IOException {
+        writeBinary(sink);
+    }
+
+    @Benchmark
+    public void readJson(Blackhole blackhole) throws IOException {
+        blackhole.consume(jsonReader.<List<TransactionResponse>>readValue(json));
+    }
+
+    @Benchmark
+    public void readBinary(Blackhole blackhole) throws IOException {
+        blackhole.consume(TransactionWireReader.readAll(new ByteArrayInputStream(binary)));
+    }
+
+    private void writeBinary(OutputStream out) throws IOException {
+        TransactionWireWriter writer = new TransactionWireWriter(out);
+        for (TransactionResponse response : responses) {
+            writer.write(response);
+        }
+        writer.finish();
+    }
+
+    private static List<TransactionResponse> sample(int count) {
+        Random random = new Random(42);
+        String[] categories = {"Food", "Rent", "Transport", "Salary", "Shopping", "Health"};
+        List<TransactionResponse> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TransactionResponse response = new TransactionResponse();
+            response.setId(UUID.randomUUID());
+            response.setDescription("Payment #" + random.nextInt(100_000));
+            response.setAmount(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            response.setType(random.nextBoolean() ? "DEBIT" : "CREDIT");
+            response.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0).plusNanos(random.nextLong(1L << 50)));
+            response.setCategory(categories[random.nextInt(categories.length)]);
+            responses.add(response);
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import ch.qos.logback.classic.Logger;
+import com.example.bank.dto.TransferRequest;
+import com.example.bank.dto.TransferResponse;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.service.AccountServiceImpl;
+import com.example.bank.service.ChangeFeed;
+import com.example.bank.service.RequestCoalescer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Books transfers from 8 threads through {@link AccountServiceImpl} on the in-memory store,
+ * either with every thread moving money back and forth between the same two accounts, so that
+ * all transfers wait for the same locks, or with each thread on its own pair.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=Transfer}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TransferBenchmark {
+
+    private static final int THREADS = 8;
+
+    @Param({"contended", "disjoint"})
+    private String accounts;
+
+    private final AtomicInteger nextPair = new AtomicInteger();
+    private AccountServiceImpl service;
+
+    @Setup
+    public void setUp() {
+        // Every transfer logs at INFO; console output would dominate the figures.
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+    }
+
+    /**
+     * Every transfer keeps two rows; starting each iteration on a fresh repository keeps the
+     * growing heap, and the collections it causes, out of the figures.
+     */
+    @Setup(Level.Iteration)
+    public void openAccounts() {
+        TransactionRepository repository = new TransactionRepository();
+        service = new AccountServiceImpl(repository, new RequestCoalescer(), new ChangeFeed(65_536));
+        for (int account = 0; account < 2 * THREADS; account++) {
+            Transaction deposit = new Transaction("Deposit", new BigDecimal("1000000.00"), "CREDIT", "Deposit");
+            deposit.setAccountId("acc-" + account);
+            repository.save(deposit);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Pair {
+
+        private TransferRequest there;
+        private TransferRequest back;
+        private boolean returning;
+
+        @Setup
+        public void setUp(TransferBenchmark benchmark) {
+            int pair = benchmark.accounts.equals("contended") ? 0 : benchmark.nextPair.getAndIncrement();
+            there = new TransferRequest("acc-" + 2 * pair, "acc-" + (2 * pair + 1), new BigDecimal("10.00"));
+            back = new TransferRequest("acc-" + (2 * pair + 1), "acc-" + 2 * pair, new BigDecimal("10.00"));
+        }
+
+        TransferRequest next() {
+            returning = !returning;
+            return returning ? there : back;
+        }
+    }
+
+    @Benchmark
+    public TransferResponse transfer(Pair pair) {
+        return service.transfer(pair.next());
+    }
+}
@@ -0,0 +1,104 @@
+package benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.bank.dto.TransactionDto;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.log.LogStructuredStore;
+import com.example.bank.service.ChangeFeed;
+import com.example.bank.service.ParallelScanEngine;
+import com.example.bank.service.RequestCoalescer;
+import com.example.bank.service.TransactionServiceImpl;
+import com.example.bank.service.WritePipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Creates transactions from 16 request threads through {@link TransactionServiceImpl}, writing
+ * either directly or through the {@link WritePipeline}, on a log store with {@code sync-writes}
+ * on, where every direct write forces the log to disk. The teardown prints the pipeline's mean
+ * batch size.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WritePipeline}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class WritePipelineBenchmark {
+
+    @Param({"direct", "pipeline"})
+    private String mode;
+
+    private final TransactionDto dto = dto();
+    private Path directory;
+    private LogStructuredStore store;
+    private WritePipeline pipeline;
+    private TransactionServiceImpl service;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Every create logs at INFO; console output would dominate the figures.
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        directory = Files.createTempDirectory("bank-pipeline-benchmark");
+        store = new LogStructuredStore(directory, 64 << 20, true, 0.5, Duration.ZERO);
+        TransactionRepository repository = new TransactionRepository(store);
+        RequestCoalescer coalescer = new RequestCoalescer();
+        ChangeFeed feed = new ChangeFeed(65_536);
+        pipeline = new WritePipeline(repository, coalescer, feed, mode.equals("pipeline"), 4096, 256);
+        service = new TransactionServiceImpl(repository, coalescer,
+                new ParallelScanEngine(1, 1, Integer.MAX_VALUE), feed, pipeline);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (pipeline.isEnabled()) {
+            System.out.printf("%n%.1f writes/batch%n",
+                    (double) pipeline.getCommandCount() / pipeline.getBatchCount());
+        }
+        pipeline.close();
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse create() {
+        return service.createTransaction(dto);
+    }
+
+    private static TransactionDto dto() {
+        TransactionDto dto = new TransactionDto();
+        dto.setDescription("Card payment");
+        dto.setAmount(new BigDecimal("12.50"));
+        dto.setType("DEBIT");
+        dto.setCategory("Food");
+        return dto;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.bank.admission;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlFilterTest {
+
+    private AdaptiveConcurrencyLimiter listLimiter;
+    private AdaptiveConcurrencyLimiter pointLimiter;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        listLimiter = new AdaptiveConcurrencyLimiter("list", 1, 1, 1, 0);
+        pointLimiter = new AdaptiveConcurrencyLimiter("point", 1, 1, 1, 0);
+        filter = new AdmissionControlFilter(listLimiter, pointLimiter, 2);
+    }
+
+    @Test
+    void limiterFor_ShouldClassifyListAndPointRequests() {
+        assertSame(listLimiter, filter.limiterFor(new MockHttpServletRequest("GET", "/api/transactions")));
+        assertSame(listLimiter, filter.limiterFor(new MockHttpServletRequest("GET", "/api/transactions/type/CREDIT")));
+        assertSame(listLimiter, filter.limiterFor(new MockHttpServletRequest("GET", "/api/transactions/paged")));
+        assertSame(pointLimiter, filter.limiterFor(
+                new MockHttpServletRequest("GET", "/api/transactions/" + UUID.randomUUID())));
+        assertSame(pointLimiter, filter.limiterFor(new MockHttpServletRequest("POST", "/api/transactions")));
+        assertSame(pointLimiter, filter.limiterFor(
+                new MockHttpServletRequest("DELETE", "/api/transactions/" + UUID.randomUUID())));
+    }
+
+    @Test
+    void doFilter_WithinLimit_ShouldPassThroughAndReleaseSlot() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/transactions"), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, listLimiter.getInFlight());
+    }
+
+    @Test
+    void doFilter_OverLimit_ShouldShedWith503AndRetryAfter() throws Exception {
+        assertTrue(listLimiter.tryAcquire());
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/transactions"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("overloaded"));
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_ListSaturated_ShouldStillAdmitPointLookups() throws Exception {
+        assertTrue(listLimiter.tryAcquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/transactions/" + UUID.randomUUID()),
+                response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_WhenChainThrows_ShouldReleaseSlot() throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new IllegalStateException("boom")).when(chain).doFilter(any(), any());
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/transactions"), new MockHttpServletResponse(), chain));
+
+        assertEquals(0, listLimiter.getInFlight());
+    }
+
+    @Test
+    void doFilter_WhenRequestGoesAsync_ShouldHoldSlotUntilCompletion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transactions/query");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> req.startAsync();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(1, listLimiter.getInFlight());
+        request.getAsyncContext().complete();
+        assertEquals(0, listLimiter.getInFlight());
+    }
+}
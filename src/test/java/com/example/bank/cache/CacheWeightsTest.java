@@ -0,0 +1,77 @@
+package com.example.bank.cache;
+
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheWeightsTest {
+
+    @Test
+    void estimate_Response_ShouldCountItsFields() {
+        TransactionResponse response = response("Salary Deposit");
+
+        long size = CacheWeights.estimate(response);
+
+        // 48 + id 32 + description 40+14 + amount 40 + type 40+6 + timestamp 72 + category 40+6
+        assertEquals(338, size);
+    }
+
+    @Test
+    void estimate_Transaction_ShouldWeighAsMuchAsItsResponse() {
+        TransactionResponse response = response("Salary Deposit");
+        Transaction transaction = new Transaction(response.getDescription(), response.getAmount(),
+                response.getType(), response.getCategory());
+        transaction.setTimestamp(response.getTimestamp());
+
+        assertEquals(CacheWeights.estimate(response), CacheWeights.estimate(transaction));
+    }
+
+    @Test
+    void estimate_List_ShouldWeighAsMuchAsItsElements() {
+        List<TransactionResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            responses.add(response("Payment " + i));
+        }
+
+        long list = CacheWeights.estimate(responses);
+        long one = CacheWeights.estimate(responses.get(0));
+
+        assertTrue(list > 1000 * one);
+        assertTrue(list < 1100 * one);
+    }
+
+    @Test
+    void estimate_ShouldAccountForWideStringsAndLargeDecimals() {
+        assertEquals(CacheWeights.estimate("abcd") + 4, CacheWeights.estimate("工资收入"));
+        assertTrue(CacheWeights.estimate(new BigDecimal("123456789012345678901234567890.00"))
+                > CacheWeights.estimate(new BigDecimal("1500.00")));
+        assertEquals(CacheWeights.UNKNOWN, CacheWeights.estimate(new Object()));
+    }
+
+    @Test
+    void weigh_ShouldIncludeKeyAndEntryOverhead() {
+        UUID key = UUID.randomUUID();
+        TransactionResponse value = response("Rent");
+
+        assertEquals(CacheWeights.ENTRY_OVERHEAD + 32 + CacheWeights.estimate(value), CacheWeights.weigh(key, value));
+    }
+
+    private static TransactionResponse response(String description) {
+        TransactionResponse response = new TransactionResponse();
+        response.setId(UUID.randomUUID());
+        response.setDescription(description);
+        response.setAmount(new BigDecimal("1500.00"));
+        response.setType("CREDIT");
+        response.setTimestamp(LocalDateTime.of(2024, 1, 1, 12, 0));
+        response.setCategory("Salary");
+        return response;
+    }
+}
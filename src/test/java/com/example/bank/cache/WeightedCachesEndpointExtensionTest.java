@@ -0,0 +1,41 @@
+package com.example.bank.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedCachesEndpointExtensionTest {
+
+    @Test
+    void caches_ShouldReportEntriesAndWeightsOfWeightedCaches() {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        caffeine.registerCustomCache("weighted", com.github.benmanes.caffeine.cache.Caffeine.newBuilder()
+                // Maintenance on the calling thread, so that the weight is up to date right after the put.
+                .maximumWeight(10_000).weigher(CacheWeights::weigh).executor(Runnable::run).build());
+        caffeine.registerCustomCache("counted", com.github.benmanes.caffeine.cache.Caffeine.newBuilder()
+                .maximumSize(10).build());
+        caffeine.getCache("weighted").put("key", "value");
+        ConcurrentMapCacheManager simple = new ConcurrentMapCacheManager("plain");
+        WeightedCachesEndpointExtension extension = new WeightedCachesEndpointExtension(
+                Map.<String, CacheManager>of("cacheManager", caffeine, "simpleManager", simple));
+
+        WeightedCachesEndpointExtension.CachesDescriptor descriptor = extension.caches();
+
+        Map<String, WeightedCachesEndpointExtension.CacheDescriptor> caches =
+                descriptor.cacheManagers().get("cacheManager").caches();
+        WeightedCachesEndpointExtension.CacheDescriptor weighted = caches.get("weighted");
+        assertEquals(1L, weighted.entries());
+        assertEquals(CacheWeights.weigh("key", "value"), weighted.weightedSize());
+        assertEquals(10_000L, weighted.maximumWeight());
+        assertNull(caches.get("counted").weightedSize());
+        WeightedCachesEndpointExtension.CacheDescriptor plain =
+                descriptor.cacheManagers().get("simpleManager").caches().get("plain");
+        assertNull(plain.entries());
+        assertEquals("java.util.concurrent.ConcurrentHashMap", plain.target());
+    }
+}
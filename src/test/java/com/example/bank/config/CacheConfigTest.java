@@ -0,0 +1,84 @@
+package com.example.bank.config;
+
+import com.example.bank.dto.TransactionResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private static final long HEAP = 10_000_000;
+
+    @Test
+    void cacheManager_ShouldBudgetEachCacheByHeapFraction() {
+        CaffeineCacheManager cacheManager = CacheConfig.cacheManager(HEAP, 0.05, 0.15, Duration.ofMinutes(10));
+
+        assertEquals(500_000, maximum(cacheManager, CacheConfig.TRANSACTION));
+        assertEquals(1_500_000, maximum(cacheManager, CacheConfig.TRANSACTIONS));
+    }
+
+    @Test
+    void transactionsCache_LargeLists_ShouldBeEvictedByWeightNotCount() {
+        CaffeineCacheManager cacheManager = CacheConfig.cacheManager(HEAP, 0.05, 0.15, Duration.ofMinutes(10));
+        org.springframework.cache.Cache transactions = cacheManager.getCache(CacheConfig.TRANSACTIONS);
+        Cache<?, ?> nativeCache = CacheConfig.nativeCache(cacheManager, CacheConfig.TRANSACTIONS);
+
+        // Each list weighs more than a third of the budget, so no more than two fit.
+        for (int i = 0; i < 5; i++) {
+            transactions.put("category-" + i, responses(2000));
+        }
+        nativeCache.cleanUp();
+
+        long weighted = nativeCache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(weighted <= 1_500_000, "weighted size " + weighted);
+        assertTrue(nativeCache.estimatedSize() < 5);
+    }
+
+    @Test
+    void transactionCache_SmallEntries_ShouldAllFit() {
+        CaffeineCacheManager cacheManager = CacheConfig.cacheManager(HEAP, 0.05, 0.15, Duration.ofMinutes(10));
+        org.springframework.cache.Cache transaction = cacheManager.getCache(CacheConfig.TRANSACTION);
+
+        for (TransactionResponse response : responses(1000)) {
+            transaction.put(response.getId(), response);
+        }
+        Cache<?, ?> nativeCache = CacheConfig.nativeCache(cacheManager, CacheConfig.TRANSACTION);
+        nativeCache.cleanUp();
+
+        assertEquals(1000, nativeCache.estimatedSize());
+    }
+
+    @Test
+    void cacheManager_InvalidFraction_ShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                CacheConfig.cacheManager(HEAP, 0, 0.15, Duration.ofMinutes(10)));
+        assertThrows(IllegalArgumentException.class, () ->
+                CacheConfig.cacheManager(HEAP, 0.05, 1.5, Duration.ofMinutes(10)));
+    }
+
+    private static long maximum(CaffeineCacheManager cacheManager, String name) {
+        return CacheConfig.nativeCache(cacheManager, name).policy().eviction().orElseThrow().getMaximum();
+    }
+
+    private static List<TransactionResponse> responses(int count) {
+        List<TransactionResponse> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TransactionResponse response = new TransactionResponse();
+            response.setId(UUID.randomUUID());
+            response.setDescription("Payment " + i);
+            response.setAmount(new BigDecimal("12.50"));
+            response.setType("DEBIT");
+            response.setCategory("Food");
+            responses.add(response);
+        }
+        return responses;
+    }
+}
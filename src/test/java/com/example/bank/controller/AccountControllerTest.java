@@ -0,0 +1,70 @@
+package com.example.bank.controller;
+
+import com.example.bank.dto.AccountBalanceResponse;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransferRequest;
+import com.example.bank.dto.TransferResponse;
+import com.example.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountControllerTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @InjectMocks
+    private AccountController accountController;
+
+    @Test
+    void getAccountHistory_ShouldReturnOk() {
+        LocalDateTime before = LocalDateTime.of(2024, 6, 1, 0, 0);
+        TransactionResponse rent = new TransactionResponse();
+        rent.setAccountId("acc-1001");
+        when(accountService.getAccountHistory("acc-1001", before, 50)).thenReturn(List.of(rent));
+
+        ResponseEntity<List<TransactionResponse>> response = accountController.getAccountHistory("acc-1001", before, 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(rent), response.getBody());
+    }
+
+    @Test
+    void getAccountBalance_ShouldReturnOk() {
+        AccountBalanceResponse balance = new AccountBalanceResponse();
+        balance.setAccountId("acc-1001");
+        balance.setBalance(new BigDecimal("545.50"));
+        when(accountService.getAccountBalance("acc-1001")).thenReturn(balance);
+
+        ResponseEntity<AccountBalanceResponse> response = accountController.getAccountBalance("acc-1001");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(balance, response.getBody());
+        verify(accountService).getAccountBalance("acc-1001");
+    }
+
+    @Test
+    void transfer_ShouldReturnCreated() {
+        TransferRequest request = new TransferRequest("acc-1001", "acc-2002", new BigDecimal("250.00"));
+        TransferResponse transfer = new TransferResponse(new TransactionResponse(), new TransactionResponse());
+        when(accountService.transfer(request)).thenReturn(transfer);
+
+        ResponseEntity<TransferResponse> response = accountController.transfer(request);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertSame(transfer, response.getBody());
+    }
+}
@@ -1,24 +1,44 @@
 package com.example.bank.controller;
 
+import com.example.bank.dto.AmountSummaryResponse;
+import com.example.bank.dto.SnapshotResponse;
 import com.example.bank.dto.TransactionDto;
 import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransactionStatsResponse;
+import com.example.bank.exception.ValidationException;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.service.SnapshotService;
 import com.example.bank.service.TransactionService;
+import com.example.bank.wire.TransactionWireFormat;
+import com.example.bank.wire.TransactionWireReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,6 +50,12 @@ class TransactionControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private SnapshotService snapshotService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -102,7 +128,7 @@ class TransactionControllerTest {
                 .thenReturn(transactionResponse);
 
         ResponseEntity<TransactionResponse> response =
-                transactionController.getTransactionById(transactionId);
+                transactionController.getTransactionById(transactionId, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -110,13 +136,36 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).getTransactionById(transactionId);
     }
 
+    @Test
+    void getTransactionById_AsOf_ShouldReadTheHistory() {
+        LocalDateTime asOf = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(transactionService.getTransactionById(transactionId, asOf)).thenReturn(transactionResponse);
+
+        ResponseEntity<TransactionResponse> response = transactionController.getTransactionById(transactionId, asOf);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(transactionId, response.getBody().getId());
+        verify(transactionService, never()).getTransactionById(transactionId);
+    }
+
+    @Test
+    void getAllTransactions_AsOf_ShouldReadTheHistory() {
+        LocalDateTime asOf = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(transactionService.getAllTransactions(asOf)).thenReturn(List.of(transactionResponse));
+
+        ResponseEntity<List<TransactionResponse>> response = transactionController.getAllTransactions(asOf);
+
+        assertEquals(1, response.getBody().size());
+        verify(transactionService, never()).getAllTransactions();
+    }
+
     @Test
     void getAllTransactions_ShouldReturnOk() {
         List<TransactionResponse> responses = Collections.singletonList(transactionResponse);
         when(transactionService.getAllTransactions()).thenReturn(responses);
 
         ResponseEntity<List<TransactionResponse>> response =
-                transactionController.getAllTransactions();
+                transactionController.getAllTransactions(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -129,15 +178,15 @@ class TransactionControllerTest {
         Page<TransactionResponse> pagedResponse = new PageImpl<>(
                 Collections.singletonList(transactionResponse)
         );
-        when(transactionService.getAllTransactions(any())).thenReturn(pagedResponse);
+        when(transactionService.getAllTransactions(any(Pageable.class))).thenReturn(pagedResponse);
 
         ResponseEntity<Page<TransactionResponse>> response =
-                transactionController.getAllTransactionsPaged(PageRequest.of(0, 10));
+                transactionController.getAllTransactionsPaged(PageRequest.of(0, 10), null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().getTotalElements());
-        verify(transactionService, times(1)).getAllTransactions(any());
+        verify(transactionService, times(1)).getAllTransactions(any(Pageable.class));
     }
 
     @Test
@@ -146,7 +195,7 @@ class TransactionControllerTest {
         when(transactionService.getTransactionsByType("CREDIT")).thenReturn(responses);
 
         ResponseEntity<List<TransactionResponse>> response =
-                transactionController.getTransactionsByType("CREDIT");
+                transactionController.getTransactionsByType("CREDIT", null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -160,7 +209,7 @@ class TransactionControllerTest {
         when(transactionService.getTransactionsByCategory("Salary")).thenReturn(responses);
 
         ResponseEntity<List<TransactionResponse>> response =
-                transactionController.getTransactionsByCategory("Salary");
+                transactionController.getTransactionsByCategory("Salary", null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -173,7 +222,7 @@ class TransactionControllerTest {
         when(transactionService.getAllTransactions()).thenReturn(Collections.emptyList());
 
         ResponseEntity<List<TransactionResponse>> response =
-                transactionController.getAllTransactions();
+                transactionController.getAllTransactions(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
@@ -184,7 +233,7 @@ class TransactionControllerTest {
         when(transactionService.getTransactionsByType("DEBIT")).thenReturn(Collections.emptyList());
 
         ResponseEntity<List<TransactionResponse>> response =
-                transactionController.getTransactionsByType("DEBIT");
+                transactionController.getTransactionsByType("DEBIT", null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
@@ -193,12 +242,243 @@ class TransactionControllerTest {
     @Test
     void getAllTransactionsPaged_WithEmptyResult_ShouldReturnOk() {
         Page<TransactionResponse> emptyPage = new PageImpl<>(Collections.emptyList());
-        when(transactionService.getAllTransactions(any())).thenReturn(emptyPage);
+        when(transactionService.getAllTransactions(any(Pageable.class))).thenReturn(emptyPage);
 
         ResponseEntity<Page<TransactionResponse>> response =
-                transactionController.getAllTransactionsPaged(PageRequest.of(0, 10));
+                transactionController.getAllTransactionsPaged(PageRequest.of(0, 10), null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchTransactions_ShouldReturnOk() {
+        List<TransactionResponse> responses = Collections.singletonList(transactionResponse);
+        when(transactionService.searchTransactions("salary", 50)).thenReturn(responses);
+
+        ResponseEntity<List<TransactionResponse>> response =
+                transactionController.searchTransactions("salary", 50, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        verify(transactionService, times(1)).searchTransactions("salary", 50);
+    }
+
+    @Test
+    void getTransactionsByAmountRange_ShouldReturnOk() {
+        List<TransactionResponse> responses = Collections.singletonList(transactionResponse);
+        when(transactionService.getTransactionsByAmountRange(new BigDecimal("1000"), null, "CREDIT", null))
+                .thenReturn(responses);
+
+        ResponseEntity<List<TransactionResponse>> response =
+                transactionController.getTransactionsByAmountRange(new BigDecimal("1000"), null, "CREDIT", null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+    }
+
+    @Test
+    void getTransactionsByTimeRange_ShouldReturnOk() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(transactionService.getTransactionsByTimeRange(from, to, null, "Salary"))
+                .thenReturn(Collections.singletonList(transactionResponse));
+
+        ResponseEntity<List<TransactionResponse>> response =
+                transactionController.getTransactionsByTimeRange(from, to, null, "Salary", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        verify(transactionService, times(1)).getTransactionsByTimeRange(from, to, null, "Salary");
+    }
+
+    @Test
+    void rangesAndSearch_AsOf_ShouldReadTheHistory() {
+        LocalDateTime asOf = LocalDateTime.of(2024, 1, 1, 12, 0);
+        LocalDateTime from = asOf.minusDays(1);
+        when(transactionService.getTransactionsByAmountRange(new BigDecimal("1000"), null, null, null, asOf))
+                .thenReturn(List.of(transactionResponse));
+        when(transactionService.getTransactionsByTimeRange(from, asOf, null, null, asOf))
+                .thenReturn(List.of(transactionResponse));
+        when(transactionService.searchTransactions("salary", 50, asOf)).thenReturn(List.of(transactionResponse));
+
+        assertEquals(1, transactionController.getTransactionsByAmountRange(new BigDecimal("1000"), null, null, null, asOf)
+                .getBody().size());
+        assertEquals(1, transactionController.getTransactionsByTimeRange(from, asOf, null, null, asOf)
+                .getBody().size());
+        assertEquals(1, transactionController.searchTransactions("salary", 50, asOf).getBody().size());
+        verify(transactionService, never()).getTransactionsByAmountRange(any(), any(), any(), any());
+        verify(transactionService, never()).getTransactionsByTimeRange(any(), any(), any(), any());
+        verify(transactionService, never()).searchTransactions(anyString(), anyInt());
+    }
+
+    @Test
+    void getTopTransactionsByAmount_ShouldReturnOk() {
+        when(transactionService.getTopTransactionsByAmount("DEBIT", 50))
+                .thenReturn(Collections.singletonList(transactionResponse));
+
+        ResponseEntity<List<TransactionResponse>> response =
+                transactionController.getTopTransactionsByAmount("DEBIT", 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        verify(transactionService, times(1)).getTopTransactionsByAmount("DEBIT", 50);
+    }
+
+    @Test
+    void getLatestTransactionsByCategory_ShouldReturnOk() {
+        when(transactionService.getLatestTransactionsByCategory("Salary", 20))
+                .thenReturn(Collections.singletonList(transactionResponse));
+
+        ResponseEntity<List<TransactionResponse>> response =
+                transactionController.getLatestTransactionsByCategory("Salary", 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        verify(transactionService, times(1)).getLatestTransactionsByCategory("Salary", 20);
+    }
+
+    @Test
+    void summarizeAmounts_ShouldReturnOk() {
+        AmountSummaryResponse summary = new AmountSummaryResponse();
+        summary.setCount(3);
+        summary.setSum(new BigDecimal("30.00"));
+        when(transactionService.summarizeAmounts("DEBIT", null)).thenReturn(summary);
+
+        ResponseEntity<AmountSummaryResponse> response = transactionController.summarizeAmounts("DEBIT", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().getCount());
+        verify(transactionService, times(1)).summarizeAmounts("DEBIT", null);
+    }
+
+    @Test
+    void getTransactionStats_ShouldReturnOk() {
+        TransactionStatsResponse stats = new TransactionStatsResponse();
+        stats.setCount(100);
+        stats.setQuantiles(Map.of("0.5", new BigDecimal("50.00")));
+        when(transactionService.getTransactionStats(List.of(0.5), 20)).thenReturn(stats);
+
+        ResponseEntity<TransactionStatsResponse> response = transactionController.getTransactionStats(List.of(0.5), 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new BigDecimal("50.00"), response.getBody().getQuantiles().get("0.5"));
+        verify(transactionService, times(1)).getTransactionStats(List.of(0.5), 20);
+    }
+
+    @Test
+    void queryTransactions_ShouldStreamJsonArray() throws Exception {
+        when(transactionService.queryTransactions(any(TransactionQuery.class)))
+                .thenReturn(Stream.of(transactionResponse));
+
+        ResponseEntity<StreamingResponseBody> response = transactionController.queryTransactions(
+                "CREDIT", null, new BigDecimal("100"), null, null, null, "salary", "amount,desc", 10, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        TransactionResponse[] body = objectMapper.readValue(out.toByteArray(), TransactionResponse[].class);
+        assertEquals(1, body.length);
+        assertEquals(transactionId, body[0].getId());
+
+        ArgumentCaptor<TransactionQuery> captor = ArgumentCaptor.forClass(TransactionQuery.class);
+        verify(transactionService).queryTransactions(captor.capture());
+        TransactionQuery query = captor.getValue();
+        assertEquals("CREDIT", query.getType());
+        assertEquals("salary", query.getText());
+        assertEquals(TransactionQuery.SortField.AMOUNT, query.getSortField());
+        assertEquals(Sort.Direction.DESC, query.getSortDirection());
+        assertEquals(10, query.getLimit());
+    }
+
+    @Test
+    void queryTransactions_ManyRows_ShouldFlushOnlyAtTheEnd() throws Exception {
+        when(transactionService.queryTransactions(any(TransactionQuery.class)))
+                .thenReturn(Stream.generate(() -> transactionResponse).limit(500));
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        ResponseEntity<StreamingResponseBody> response = transactionController.queryTransactions(
+                null, null, null, null, null, null, null, null, null, null, null);
+        response.getBody().writeTo(out);
+
+        assertEquals(500, objectMapper.readValue(out.toByteArray(), TransactionResponse[].class).length);
+        assertTrue(flushes.get() <= 1, "flushes: " + flushes.get());
+    }
+
+    @Test
+    void queryTransactions_AcceptingBinary_ShouldStreamBinaryRecords() throws Exception {
+        when(transactionService.queryTransactions(any(TransactionQuery.class)))
+                .thenReturn(Stream.of(transactionResponse));
+
+        ResponseEntity<StreamingResponseBody> response = transactionController.queryTransactions(
+                null, null, null, null, null, null, null, null, null, null,
+                "application/json;q=0.5, " + TransactionWireFormat.MEDIA_TYPE_VALUE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(TransactionWireFormat.MEDIA_TYPE, response.getHeaders().getContentType());
+        List<TransactionResponse> body = TransactionWireReader.readAll(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(1, body.size());
+        assertEquals(transactionId, body.get(0).getId());
+        assertEquals(transactionResponse.getAmount(), body.get(0).getAmount());
+    }
+
+    @Test
+    void queryTransactions_WithInvalidSort_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> transactionController.queryTransactions(
+                null, null, null, null, null, null, null, "description", null, null, null));
+        verify(transactionService, never()).queryTransactions(any());
+    }
+
+    @Test
+    void getAllTransactionsPaged_WithSnapshot_ShouldPageThroughTheSnapshot() {
+        Page<TransactionResponse> pagedResponse = new PageImpl<>(Collections.singletonList(transactionResponse));
+        when(snapshotService.getTransactions("token-1", PageRequest.of(2, 10))).thenReturn(pagedResponse);
+
+        ResponseEntity<Page<TransactionResponse>> response =
+                transactionController.getAllTransactionsPaged(PageRequest.of(2, 10), "token-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(pagedResponse, response.getBody());
+        verify(transactionService, never()).getAllTransactions(any(Pageable.class));
+    }
+
+    @Test
+    void openSnapshot_ShouldReturnCreated() {
+        SnapshotResponse snapshot = new SnapshotResponse();
+        snapshot.setToken("token-1");
+        when(snapshotService.openSnapshot()).thenReturn(snapshot);
+
+        ResponseEntity<SnapshotResponse> response = transactionController.openSnapshot();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertSame(snapshot, response.getBody());
+    }
+
+    @Test
+    void closeSnapshot_ShouldReturnNoContent() {
+        ResponseEntity<Void> response = transactionController.closeSnapshot("token-1");
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(snapshotService).closeSnapshot("token-1");
+    }
+
+    @Test
+    void exportSnapshot_ShouldStreamJsonArray() throws Exception {
+        when(snapshotService.exportTransactions("token-1")).thenReturn(Stream.of(transactionResponse));
+
+        ResponseEntity<StreamingResponseBody> response = transactionController.exportSnapshot("token-1", null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        TransactionResponse[] body = objectMapper.readValue(out.toByteArray(), TransactionResponse[].class);
+        assertEquals(1, body.length);
+        assertEquals(transactionId, body[0].getId());
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.bank.exception;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -35,10 +39,26 @@ class GlobalExceptionHandlerTest {
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
 
+        Map<String, String> body = encodedBody(response);
+        assertEquals(errorMessage, body.get("message"));
+        assertNotNull(LocalDateTime.parse(body.get("timestamp")));
+    }
+
+    @Test
+    void handleTransactionNotFoundException_ShouldEscapeMessageNeedingIt() {
+        // Arrange
+        String errorMessage = "Transaction not found with id: \"12\\3\"";
+        TransactionNotFoundException ex = new TransactionNotFoundException(errorMessage);
+
+        // Act
+        ResponseEntity<Object> response =
+                globalExceptionHandler.handleTransactionNotFoundException(ex, mockRequest);
+
+        // Assert
         @SuppressWarnings("unchecked")
         Map<String, Object> body = (Map<String, Object>) response.getBody();
-        assertNotNull(body);
         assertEquals(errorMessage, body.get("message"));
         assertTrue(body.get("timestamp") instanceof LocalDateTime);
     }
@@ -64,6 +84,24 @@ class GlobalExceptionHandlerTest {
         assertTrue(body.get("timestamp") instanceof LocalDateTime);
     }
 
+    @Test
+    void handleInsufficientFundsException_ShouldReturnConflictResponse() {
+        // Arrange
+        InsufficientFundsException ex = new InsufficientFundsException("Insufficient funds in account acc-1001");
+
+        // Act
+        ResponseEntity<Object> response =
+                globalExceptionHandler.handleInsufficientFundsException(ex, mockRequest);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertNotNull(body);
+        assertEquals("Insufficient funds in account acc-1001", body.get("message"));
+    }
+
     @Test
     void handleGlobalException_ShouldReturnInternalServerErrorResponse() {
         // Arrange
@@ -111,8 +149,7 @@ class GlobalExceptionHandlerTest {
                 globalExceptionHandler.handleTransactionNotFoundException(ex, mockRequest);
 
         // Assert
-        @SuppressWarnings("unchecked")
-        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        Map<String, String> body = encodedBody(response);
         assertEquals(2, body.size());
         assertTrue(body.containsKey("timestamp"));
         assertTrue(body.containsKey("message"));
@@ -131,10 +168,19 @@ class GlobalExceptionHandlerTest {
         LocalDateTime afterTest = LocalDateTime.now();
 
         // Assert
-        @SuppressWarnings("unchecked")
-        LocalDateTime responseTime = (LocalDateTime) ((Map<String, Object>) response.getBody()).get("timestamp");
+        LocalDateTime responseTime = LocalDateTime.parse(encodedBody(response).get("timestamp"));
 
         assertFalse(responseTime.isBefore(beforeTest), "Timestamp should not be before test start");
         assertFalse(responseTime.isAfter(afterTest), "Timestamp should not be after test end");
     }
-}
\ No newline at end of file
+
+    private static Map<String, String> encodedBody(ResponseEntity<Object> response) {
+        assertInstanceOf(byte[].class, response.getBody());
+        try {
+            return new ObjectMapper().readValue((byte[]) response.getBody(), new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
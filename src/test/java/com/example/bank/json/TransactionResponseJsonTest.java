@@ -0,0 +1,131 @@
+package com.example.bank.json;
+
+import com.example.bank.dto.TransactionDto;
+import com.example.bank.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionResponseJsonTest {
+
+    // Configured like Spring Boot's mapper: ISO timestamps, unknown properties ignored.
+    private final ObjectMapper defaultMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final ObjectMapper customMapper = defaultMapper.copy().registerModule(new SimpleModule()
+            .addSerializer(TransactionResponse.class, new TransactionResponseJson.Serializer())
+            .addDeserializer(TransactionResponse.class, new TransactionResponseJson.Deserializer())
+            .addDeserializer(TransactionDto.class, new TransactionDtoJson.Deserializer()));
+
+    @Test
+    void serialize_ShouldWriteSameDocumentAsDefault() throws Exception {
+        List<TransactionResponse> responses = sample(500);
+
+        assertEquals(defaultMapper.writeValueAsString(responses), customMapper.writeValueAsString(responses));
+    }
+
+    @Test
+    void serialize_NullFieldsAndUnusualValues_ShouldMatchDefault() throws Exception {
+        TransactionResponse empty = new TransactionResponse();
+        TransactionResponse unusual = response(new UUID(0, -1), "Quote \" backslash \\ tab \t 盒马 😀",
+                new BigDecimal("1E+3"), "debit", LocalDateTime.of(10_000, 1, 1, 0, 0), "Ünïcode");
+        TransactionResponse early = response(UUID.randomUUID(), "", new BigDecimal("-0.000000001"), "CREDIT",
+                LocalDateTime.of(1, 2, 3, 4, 5, 0, 100), "");
+
+        for (TransactionResponse response : List.of(empty, unusual, early)) {
+            assertEquals(defaultMapper.writeValueAsString(response), customMapper.writeValueAsString(response));
+        }
+    }
+
+    @Test
+    void deserialize_ShouldReadDefaultOutputAndAlternativeSpellings() throws Exception {
+        List<TransactionResponse> responses = sample(100);
+        String json = defaultMapper.writeValueAsString(responses);
+
+        TransactionResponse[] read = customMapper.readValue(json, TransactionResponse[].class);
+
+        assertEquals(json, defaultMapper.writeValueAsString(read));
+        TransactionResponse alternative = customMapper.readValue("{\"id\":\"3FA85F64-5717-4562-B3FC-2C963F66AFA6\",\"amount\":\"12.50\","
+                + "\"timestamp\":[2024,1,2,3,4,5],\"unknown\":{\"nested\":[1,2]},\"type\":null}", TransactionResponse.class);
+        assertEquals(UUID.fromString("3fa85f64-5717-4562-b3fc-2c963f66afa6"), alternative.getId());
+        assertEquals(new BigDecimal("12.50"), alternative.getAmount());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), alternative.getTimestamp());
+        assertNull(alternative.getType());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4), customMapper.readValue(
+                "{\"timestamp\":\"2024-01-02T03:04\"}", TransactionResponse.class).getTimestamp());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 120_000_000), customMapper.readValue(
+                "{\"timestamp\":\"2024-01-02T03:04:05.12\"}", TransactionResponse.class).getTimestamp());
+    }
+
+    @Test
+    void deserialize_InvalidValues_ShouldFailLikeDefault() {
+        assertThrows(Exception.class, () ->
+                customMapper.readValue("{\"id\":\"not-a-uuid\"}", TransactionResponse.class));
+        assertThrows(Exception.class, () ->
+                customMapper.readValue("{\"timestamp\":\"2024-02-30T00:00:00\"}", TransactionResponse.class));
+        assertThrows(MismatchedInputException.class, () ->
+                customMapper.readValue("\"text\"", TransactionResponse.class));
+    }
+
+    @Test
+    void deserializeDto_ShouldReadEveryFieldAndHonourUnknownPropertySetting() throws Exception {
+        String json = "{\"description\":\"Fruit from Hema\",\"amount\":23.180,\"type\":\"DEBIT\","
+                + "\"category\":\"Food\",\"accountId\":\"acc-1001\",\"id\":\"ignored\"}";
+
+        TransactionDto dto = customMapper.readValue(json, TransactionDto.class);
+
+        assertEquals("Fruit from Hema", dto.getDescription());
+        assertEquals(new BigDecimal("23.180"), dto.getAmount());
+        assertEquals("DEBIT", dto.getType());
+        assertEquals("Food", dto.getCategory());
+        assertEquals("acc-1001", dto.getAccountId());
+        assertEquals(new BigDecimal("5"), customMapper.readValue("{\"amount\":\"5\"}", TransactionDto.class).getAmount());
+        ObjectMapper strict = customMapper.copy().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        assertThrows(UnrecognizedPropertyException.class, () -> strict.readValue(json, TransactionDto.class));
+    }
+
+    private static List<TransactionResponse> sample(int count) {
+        Random random = new Random(42);
+        String[] categories = {"Food", "Rent", "Salary", null};
+        List<TransactionResponse> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int nano = switch (i % 4) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1000) * 1_000_000;
+                case 2 -> random.nextInt(1_000_000) * 1000;
+                default -> random.nextInt(1_000_000_000);
+            };
+            LocalDateTime timestamp = LocalDateTime.of(1990 + random.nextInt(50), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), i % 7 == 0 ? 0 : random.nextInt(60), nano);
+            responses.add(response(UUID.randomUUID(), "Payment " + i, BigDecimal.valueOf(random.nextInt(1_000_000), i % 4),
+                    i % 2 == 0 ? "DEBIT" : "CREDIT", timestamp, categories[i % categories.length]));
+            responses.get(i).setAccountId(i % 3 == 0 ? null : "acc-" + random.nextInt(100));
+        }
+        return responses;
+    }
+
+    private static TransactionResponse response(UUID id, String description, BigDecimal amount, String type,
+                                                LocalDateTime timestamp, String category) {
+        TransactionResponse response = new TransactionResponse();
+        response.setId(id);
+        response.setDescription(description);
+        response.setAmount(amount);
+        response.setType(type);
+        response.setTimestamp(timestamp);
+        response.setCategory(category);
+        return response;
+    }
+}
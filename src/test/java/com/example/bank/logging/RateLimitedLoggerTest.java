@@ -0,0 +1,57 @@
+package com.example.bank.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RateLimitedLoggerTest {
+
+    @Test
+    void warn_BeyondPermits_ShouldSuppressAndCount() {
+        Logger logger = mock(Logger.class);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, 3, Duration.ofHours(1));
+
+        for (int i = 0; i < 10; i++) {
+            rateLimited.warn("Not found: {}", i);
+        }
+
+        verify(logger, times(3)).warn(anyString(), any(Object.class));
+        assertEquals(7, rateLimited.getSuppressedCount());
+    }
+
+    @Test
+    void warn_NextInterval_ShouldReportSuppressedCount() throws InterruptedException {
+        Logger logger = mock(Logger.class);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, 1, Duration.ofMillis(20));
+        rateLimited.warn("Not found: {}", "a");
+        rateLimited.warn("Not found: {}", "b");
+        rateLimited.warn("Not found: {}", "c");
+
+        Thread.sleep(30);
+        rateLimited.warn("Not found: {}", "d");
+
+        verify(logger).warn("Not found: {}", (Object) "a");
+        verify(logger).warn(eq("Not found: {} ({} similar messages suppressed)"), eq("d"), eq(2L));
+        assertEquals(0, rateLimited.getSuppressedCount());
+    }
+
+    @Test
+    void warn_Disabled_ShouldLogNothing() {
+        Logger logger = mock(Logger.class);
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, 3, Duration.ofSeconds(1));
+
+        rateLimited.warn("Not found: {}", 1);
+
+        verify(logger, never()).warn(anyString(), any(Object.class));
+        assertEquals(0, rateLimited.getSuppressedCount());
+    }
+}
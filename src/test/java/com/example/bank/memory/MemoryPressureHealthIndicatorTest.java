@@ -0,0 +1,49 @@
+package com.example.bank.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MemoryPressureHealthIndicatorTest {
+
+    @Mock
+    private MemoryPressureMonitor memoryPressureMonitor;
+
+    @InjectMocks
+    private MemoryPressureHealthIndicator healthIndicator;
+
+    @Test
+    void health_UnderHighPressure_ShouldBeUpWithDetails() {
+        when(memoryPressureMonitor.getLevel()).thenReturn(MemoryPressureMonitor.Level.HIGH);
+        when(memoryPressureMonitor.getPoolName()).thenReturn("G1 Old Gen");
+        when(memoryPressureMonitor.getUsedRatio()).thenReturn(0.8234);
+        when(memoryPressureMonitor.getDemotedCount()).thenReturn(1200L);
+
+        Health health = healthIndicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("high", health.getDetails().get("level"));
+        assertEquals(0.823, health.getDetails().get("usedAfterGc"));
+        assertEquals(1200L, health.getDetails().get("demoted"));
+    }
+
+    @Test
+    void health_AtCriticalPressure_ShouldBeOutOfService() {
+        when(memoryPressureMonitor.getLevel()).thenReturn(MemoryPressureMonitor.Level.CRITICAL);
+        when(memoryPressureMonitor.getPoolName()).thenReturn(null);
+
+        Health health = healthIndicator.health();
+
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+        assertEquals("critical", health.getDetails().get("level"));
+        assertFalse(health.getDetails().containsKey("pool"));
+    }
+}
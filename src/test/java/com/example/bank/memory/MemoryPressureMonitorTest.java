@@ -0,0 +1,123 @@
+package com.example.bank.memory;
+
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.tier.TierMover;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MemoryPressureMonitorTest {
+
+    private static final long OLD_GEN = 1_000_000;
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final TierMover tierMover = mock(TierMover.class);
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private MemoryPressureMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.registerCustomCache("transaction", Caffeine.newBuilder().maximumSize(1000).build());
+        monitor = new MemoryPressureMonitor(cacheManager, transactionRepository, tierMover, 0.70, 0.80, 0.90, 0.05,
+                Duration.ofDays(1), Duration.ofHours(1), executor, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+    }
+
+    @Test
+    void onCollection_RisingUsage_ShouldShrinkCachesStepByStep() throws Exception {
+        collected(0.50);
+        assertEquals(MemoryPressureMonitor.Level.NORMAL, monitor.getLevel());
+        assertEquals(1000, maximum());
+
+        collected(0.72);
+        assertEquals(MemoryPressureMonitor.Level.ELEVATED, monitor.getLevel());
+        assertEquals(500, maximum());
+        verifyNoInteractions(tierMover);
+
+        collected(0.85);
+        assertEquals(MemoryPressureMonitor.Level.HIGH, monitor.getLevel());
+        assertEquals(250, maximum());
+    }
+
+    @Test
+    void onCollection_HighUsage_ShouldDemoteAndDropDerivedState() throws Exception {
+        when(tierMover.moveOlderThan(Duration.ofDays(1))).thenReturn(40);
+        when(tierMover.moveOlderThan(Duration.ofHours(1))).thenReturn(60);
+
+        collected(0.82);
+        collected(0.95);
+
+        verify(tierMover).moveOlderThan(Duration.ofDays(1));
+        verify(tierMover).moveOlderThan(Duration.ofHours(1));
+        verify(transactionRepository, times(2)).releaseAmountColumns();
+        assertEquals(100, monitor.getDemotedCount());
+    }
+
+    @Test
+    void onCollection_Critical_ShouldEmptyTheCaches() throws Exception {
+        Cache cache = cacheManager.getCache("transaction");
+        cache.put("key", "value");
+
+        collected(0.93);
+
+        assertEquals(MemoryPressureMonitor.Level.CRITICAL, monitor.getLevel());
+        assertNull(cache.get("key"));
+        assertEquals(0, maximum());
+    }
+
+    @Test
+    void onCollection_FallingUsage_ShouldOnlyRecoverBelowTheHysteresis() throws Exception {
+        collected(0.75);
+        collected(0.67);
+        assertEquals(MemoryPressureMonitor.Level.ELEVATED, monitor.getLevel());
+        assertEquals(500, maximum());
+
+        collected(0.60);
+        assertEquals(MemoryPressureMonitor.Level.NORMAL, monitor.getLevel());
+        assertEquals(1000, maximum());
+        assertEquals(0.60, monitor.getUsedRatio(), 1e-9);
+    }
+
+    @Test
+    void tenuredPool_ShouldFindTheOldGeneration() {
+        assertNotNull(MemoryPressureMonitor.tenuredPool());
+    }
+
+    @Test
+    void constructor_ThresholdsOutOfOrder_ShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new MemoryPressureMonitor(cacheManager,
+                transactionRepository, tierMover, 0.80, 0.70, 0.90, 0.05, Duration.ofDays(1), Duration.ofHours(1),
+                executor, null));
+    }
+
+    /**
+     * Reports a collection that left {@code ratio} of the old generation in use and waits until
+     * the monitor has acted on it.
+     */
+    private void collected(double ratio) throws Exception {
+        monitor.onCollection(new MemoryUsage(0, (long) (OLD_GEN * ratio), OLD_GEN, OLD_GEN));
+        executor.submit(() -> { }).get();
+    }
+
+    private long maximum() {
+        com.github.benmanes.caffeine.cache.Cache<?, ?> cache =
+                (com.github.benmanes.caffeine.cache.Cache<?, ?>) cacheManager.getCache("transaction").getNativeCache();
+        return cache.policy().eviction().orElseThrow().getMaximum();
+    }
+}
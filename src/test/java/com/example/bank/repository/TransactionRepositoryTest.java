@@ -1,15 +1,32 @@
 package com.example.bank.repository;
 
 import com.example.bank.model.Transaction;
+import com.example.bank.repository.column.AmountSummary;
+import com.example.bank.repository.history.TransactionHistory;
+import com.example.bank.repository.log.LogStructuredStore;
+import com.example.bank.repository.mvcc.ReadSnapshot;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.store.InMemoryTransactionStore;
+import com.example.bank.repository.tier.ColdTier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -138,6 +155,47 @@ class TransactionRepositoryTest {
         assertFalse(transactionRepository.existsById(nonExistingId));
     }
 
+    @Test
+    void saveAll_ShouldStoreAndIndexEveryRow() {
+        // Arrange
+        transactionRepository.save(sampleTransaction);
+        Transaction updated = new Transaction();
+        updated.setId(sampleTransactionId);
+        updated.setDescription("Bonus Deposit");
+        updated.setAmount(new BigDecimal("900.00"));
+        updated.setType("CREDIT");
+        updated.setCategory("Salary");
+        Transaction rent = new Transaction("Rent", new BigDecimal("700.00"), "DEBIT", "Rent");
+
+        // Act
+        transactionRepository.saveAll(List.of(updated, rent));
+
+        // Assert
+        assertEquals(2, transactionRepository.findAll().size());
+        assertEquals("Bonus Deposit", transactionRepository.findById(sampleTransactionId).get().getDescription());
+        assertEquals(List.of(rent), transactionRepository.search("rent", 10));
+        assertEquals(List.of(updated), transactionRepository.findByAmountBetween(new BigDecimal("800"), null));
+    }
+
+    @Test
+    void findTopCategories_ShouldReturnMostFrequentFirstAsSpelled() {
+        // Arrange
+        transactionRepository.save(new Transaction("Lunch", new BigDecimal("12.00"), "DEBIT", "Food"));
+        transactionRepository.save(new Transaction("Dinner", new BigDecimal("30.00"), "DEBIT", "food"));
+        transactionRepository.save(new Transaction("Rent", new BigDecimal("700.00"), "DEBIT", "Rent"));
+        Transaction taxi = transactionRepository.save(new Transaction("Taxi", new BigDecimal("9.00"), "DEBIT", "Travel"));
+        transactionRepository.deleteById(taxi.getId());
+
+        // Act
+        List<String> categories = transactionRepository.findTopCategories(5);
+
+        // Assert
+        assertEquals(2, categories.size());
+        assertEquals("food", categories.get(0).toLowerCase());
+        assertEquals("Rent", categories.get(1));
+        assertEquals(1, transactionRepository.findTopCategories(1).size());
+    }
+
     @Test
     void save_ShouldHandleConcurrentAccess() throws InterruptedException {
         // Arrange
@@ -163,4 +221,736 @@ class TransactionRepositoryTest {
         // Assert
         assertEquals(threadCount, transactionRepository.findAll().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void search_ShouldFollowSaveUpdateAndDelete() {
+        // Arrange
+        Transaction transaction = new Transaction("Fruit from Hema", new BigDecimal("23.18"), "DEBIT", "Food");
+        transactionRepository.save(transaction);
+        transactionRepository.save(sampleTransaction);
+
+        // Act & Assert
+        assertEquals(List.of(transaction), transactionRepository.search("hema", 10));
+
+        transaction.setDescription("Coffee");
+        transactionRepository.save(transaction);
+        assertTrue(transactionRepository.search("hema", 10).isEmpty());
+        assertEquals(List.of(transaction), transactionRepository.search("coffee", 10));
+
+        transactionRepository.deleteById(transaction.getId());
+        assertTrue(transactionRepository.search("coffee", 10).isEmpty());
+    }
+
+    @Test
+    void findByAmountBetween_ShouldReturnMatchesInAmountOrder() {
+        // Arrange
+        Transaction rent = new Transaction("Rent", new BigDecimal("1000.00"), "DEBIT", "Housing");
+        Transaction coffee = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        transactionRepository.save(sampleTransaction);
+        transactionRepository.save(rent);
+        transactionRepository.save(coffee);
+
+        // Act & Assert
+        assertEquals(List.of(rent, sampleTransaction),
+                transactionRepository.findByAmountBetween(new BigDecimal("1000"), null));
+        assertEquals(List.of(coffee, rent),
+                transactionRepository.findByAmountBetween(null, new BigDecimal("1000")));
+    }
+
+    @Test
+    void findByAmountBetween_ShouldFollowUpdatesAndDeletes() {
+        // Arrange
+        transactionRepository.save(sampleTransaction);
+        sampleTransaction.setAmount(new BigDecimal("10.00"));
+        transactionRepository.save(sampleTransaction);
+
+        // Act & Assert
+        assertTrue(transactionRepository.findByAmountBetween(new BigDecimal("1000"), null).isEmpty());
+        assertEquals(List.of(sampleTransaction), transactionRepository.findByAmountBetween(null, new BigDecimal("10")));
+
+        transactionRepository.deleteById(sampleTransactionId);
+        assertTrue(transactionRepository.findByAmountBetween(null, new BigDecimal("10")).isEmpty());
+    }
+
+    @Test
+    void findByTimestampBetween_ShouldUseHalfOpenRange() {
+        // Arrange
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Transaction early = new Transaction("Early", new BigDecimal("1.00"), "DEBIT", "Food");
+        early.setTimestamp(base.minusDays(1));
+        Transaction late = new Transaction("Late", new BigDecimal("2.00"), "DEBIT", "Food");
+        late.setTimestamp(base);
+        transactionRepository.save(late);
+        transactionRepository.save(early);
+
+        // Act & Assert
+        assertEquals(List.of(early), transactionRepository.findByTimestampBetween(base.minusDays(2), base));
+        assertEquals(List.of(early, late), transactionRepository.findByTimestampBetween(null, base.plusSeconds(1)));
+        assertEquals(List.of(late), transactionRepository.findByTimestampBetween(base, null));
+    }
+
+    @Test
+    void query_ShouldCombineFiltersSortAndLimit() {
+        // Arrange
+        Transaction rent = new Transaction("Rent payment", new BigDecimal("1000.00"), "DEBIT", "Housing");
+        Transaction deposit = new Transaction("Rent deposit", new BigDecimal("2000.00"), "DEBIT", "Housing");
+        Transaction refund = new Transaction("Rent refund", new BigDecimal("500.00"), "CREDIT", "Housing");
+        Transaction coffee = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        List.of(sampleTransaction, rent, deposit, refund, coffee).forEach(transactionRepository::save);
+
+        // Act
+        List<Transaction> result = transactionRepository.query(TransactionQuery.builder()
+                .type("debit")
+                .category("HOUSING")
+                .amountBetween(new BigDecimal("100"), null)
+                .text("rent")
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.DESC)
+                .build()).toList();
+
+        // Assert
+        assertEquals(List.of(deposit, rent), result);
+        assertEquals(List.of(deposit), transactionRepository.query(TransactionQuery.builder()
+                .category("Housing")
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.DESC)
+                .limit(1)
+                .build()).toList());
+    }
+
+    @Test
+    void query_ShouldFollowUpdatesAndDeletes() {
+        // Arrange
+        transactionRepository.save(sampleTransaction);
+        TransactionQuery salaryCredits = TransactionQuery.builder().type("CREDIT").category("Salary").build();
+        assertEquals(List.of(sampleTransaction), transactionRepository.query(salaryCredits).toList());
+
+        // Act & Assert
+        sampleTransaction.setType("DEBIT");
+        transactionRepository.save(sampleTransaction);
+        assertTrue(transactionRepository.query(salaryCredits).toList().isEmpty());
+
+        transactionRepository.deleteById(sampleTransactionId);
+        assertTrue(transactionRepository.query(TransactionQuery.builder().category("Salary").build()).toList().isEmpty());
+    }
+
+    @Test
+    void findTopByAmount_ShouldReturnLargestFirstForType() {
+        // Arrange
+        Transaction rent = new Transaction("Rent", new BigDecimal("1000.00"), "DEBIT", "Housing");
+        Transaction coffee = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        Transaction car = new Transaction("Car", new BigDecimal("9000.00"), "DEBIT", "Transport");
+        List.of(sampleTransaction, rent, coffee, car).forEach(transactionRepository::save);
+
+        // Act & Assert
+        assertEquals(List.of(car, rent), transactionRepository.findTopByAmount("debit", 2));
+        assertEquals(List.of(car, sampleTransaction), transactionRepository.findTopByAmount(null, 2));
+    }
+
+    @Test
+    void findLatestByCategory_ShouldFollowUpdatesAndDeletes() {
+        // Arrange
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Transaction lunch = new Transaction("Lunch", new BigDecimal("12.00"), "DEBIT", "Food");
+        lunch.setTimestamp(base);
+        Transaction dinner = new Transaction("Dinner", new BigDecimal("30.00"), "DEBIT", "food");
+        dinner.setTimestamp(base.plusHours(6));
+        Transaction coffee = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        coffee.setTimestamp(base.plusHours(1));
+        List.of(lunch, dinner, coffee).forEach(transactionRepository::save);
+
+        // Act & Assert
+        assertEquals(List.of(dinner, coffee), transactionRepository.findLatestByCategory("FOOD", 2));
+
+        dinner.setCategory("Dining");
+        transactionRepository.save(dinner);
+        transactionRepository.deleteById(coffee.getId());
+        assertEquals(List.of(lunch), transactionRepository.findLatestByCategory("Food", 2));
+        assertEquals(List.of(dinner), transactionRepository.findLatestByCategory("Dining", 2));
+    }
+
+    @Test
+    void demoteOlderThan_ShouldKeepRowsReadableAcrossTiers(@TempDir Path directory) {
+        // Arrange
+        ColdTier coldTier = new ColdTier(directory, 1024);
+        TransactionRepository tieredRepository = new TransactionRepository(new InMemoryTransactionStore(coldTier));
+        LocalDateTime now = LocalDateTime.now();
+        Transaction old = new Transaction("Old rent", new BigDecimal("900.00"), "DEBIT", "Housing");
+        old.setTimestamp(now.minusDays(30));
+        Transaction recent = new Transaction("New rent", new BigDecimal("950.00"), "DEBIT", "Housing");
+        tieredRepository.save(old);
+        tieredRepository.save(recent);
+
+        // Act
+        int moved = tieredRepository.demoteOlderThan(now.minusDays(7), 100);
+
+        // Assert
+        assertEquals(1, moved);
+        assertEquals(1, tieredRepository.hotCount());
+        assertEquals(1, coldTier.size());
+        assertEquals("Old rent", tieredRepository.findById(old.getId()).orElseThrow().getDescription());
+        assertTrue(tieredRepository.existsById(old.getId()));
+        assertEquals(2, tieredRepository.findAll().size());
+        assertEquals(List.of(old), tieredRepository.search("old", 10));
+        assertEquals(List.of(old, recent), tieredRepository.findByAmountBetween(null, null));
+        assertEquals(List.of(recent, old), tieredRepository.findLatestByCategory("Housing", 5));
+        assertEquals(List.of(old), tieredRepository.query(TransactionQuery.builder()
+                .timeBetween(null, now.minusDays(7)).build()).toList());
+        assertEquals(2, tieredRepository.query(TransactionQuery.builder().build()).count());
+        coldTier.close();
+    }
+
+    @Test
+    void demoteOlderThan_ColdRowUpdatedOrDeleted_ShouldFollowWrites(@TempDir Path directory) {
+        // Arrange
+        ColdTier coldTier = new ColdTier(directory, 1024);
+        TransactionRepository tieredRepository = new TransactionRepository(new InMemoryTransactionStore(coldTier));
+        Transaction first = new Transaction("First", new BigDecimal("1.00"), "DEBIT", "Food");
+        first.setTimestamp(LocalDateTime.now().minusDays(30));
+        Transaction second = new Transaction("Second", new BigDecimal("2.00"), "DEBIT", "Food");
+        second.setTimestamp(LocalDateTime.now().minusDays(30));
+        tieredRepository.save(first);
+        tieredRepository.save(second);
+        tieredRepository.demoteOlderThan(LocalDateTime.now().minusDays(7), 100);
+
+        // Act
+        Transaction loaded = tieredRepository.findById(first.getId()).orElseThrow();
+        loaded.setDescription("First updated");
+        tieredRepository.save(loaded);
+        tieredRepository.deleteById(second.getId());
+
+        // Assert
+        assertEquals(1, tieredRepository.hotCount());
+        assertEquals(0, coldTier.size());
+        assertEquals(0, coldTier.segmentCount());
+        assertEquals("First updated", tieredRepository.findById(first.getId()).orElseThrow().getDescription());
+        assertFalse(tieredRepository.existsById(second.getId()));
+        assertEquals(List.of(loaded), tieredRepository.findAll());
+        assertTrue(tieredRepository.search("second", 10).isEmpty());
+        coldTier.close();
+    }
+
+    @Test
+    void topNQueries_ShouldMergeHotAndColdRows(@TempDir Path directory) {
+        // Arrange
+        ColdTier coldTier = new ColdTier(directory, 1024);
+        TransactionRepository tieredRepository = new TransactionRepository(new InMemoryTransactionStore(coldTier));
+        LocalDateTime now = LocalDateTime.now();
+        Transaction oldLarge = new Transaction("Old car", new BigDecimal("9000.00"), "DEBIT", "Transport");
+        oldLarge.setTimestamp(now.minusDays(40));
+        Transaction oldSmall = new Transaction("Old bus", new BigDecimal("2.00"), "DEBIT", "Transport");
+        oldSmall.setTimestamp(now.minusDays(30));
+        Transaction recent = new Transaction("Taxi", new BigDecimal("30.00"), "DEBIT", "Transport");
+        List.of(oldLarge, oldSmall, recent).forEach(tieredRepository::save);
+        tieredRepository.demoteOlderThan(now.minusDays(7), 100);
+
+        // Act & Assert
+        assertEquals(List.of(oldLarge, recent), tieredRepository.findTopByAmount("DEBIT", 2));
+        assertEquals(List.of(recent), tieredRepository.findLatestByCategory("transport", 1));
+        assertEquals(List.of(recent, oldSmall, oldLarge), tieredRepository.findLatestByCategory("transport", 5));
+        assertEquals(List.of(oldSmall, recent, oldLarge), tieredRepository.query(TransactionQuery.builder()
+                .category("Transport")
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.ASC)
+                .build()).toList());
+        coldTier.close();
+    }
+
+    @Test
+    void logBacked_ShouldRecoverAfterRestartAndPromoteRecentRows(@TempDir Path directory) {
+        // Arrange
+        LogStructuredStore log = openLog(directory);
+        TransactionRepository logRepository = new TransactionRepository(log);
+        LocalDateTime now = LocalDateTime.now();
+        Transaction old = new Transaction("Old rent", new BigDecimal("900.00"), "DEBIT", "Housing");
+        old.setTimestamp(now.minusDays(30));
+        Transaction recent = new Transaction("New rent", new BigDecimal("950.00"), "DEBIT", "Housing");
+        Transaction deleted = new Transaction("Refund", new BigDecimal("50.00"), "CREDIT", "Housing");
+        List.of(old, recent, deleted).forEach(logRepository::save);
+        logRepository.deleteById(deleted.getId());
+        log.close();
+
+        // Act
+        log = openLog(directory);
+        logRepository = new TransactionRepository(log);
+        Transaction beforePromotion = logRepository.findById(recent.getId()).orElseThrow();
+        List<Transaction> latestBeforePromotion = logRepository.findLatestByCategory("housing", 5);
+        int promoted = logRepository.promoteNewerThan(now.minusDays(7));
+
+        // Assert
+        assertEquals("New rent", beforePromotion.getDescription());
+        assertEquals(List.of(recent, old), latestBeforePromotion);
+        assertEquals(1, promoted);
+        assertEquals(1, logRepository.hotCount());
+        assertFalse(logRepository.existsById(deleted.getId()));
+        assertEquals(List.of(recent, old), logRepository.findLatestByCategory("housing", 5));
+        assertEquals(List.of(recent), logRepository.findLatestByCategory("housing", 1));
+        assertEquals(List.of(old), logRepository.search("old", 10));
+        assertEquals(List.of(old, recent), logRepository.findByAmountBetween(null, null));
+        assertEquals(2, logRepository.findAll().size());
+        log.close();
+    }
+
+    @Test
+    void demoteOlderThan_WithLog_ShouldOnlyDropRowsFromHeap(@TempDir Path directory) {
+        // Arrange
+        LogStructuredStore log = openLog(directory);
+        TransactionRepository logRepository = new TransactionRepository(log);
+        Transaction first = new Transaction("First", new BigDecimal("1.00"), "DEBIT", "Food");
+        first.setTimestamp(LocalDateTime.now().minusDays(30));
+        Transaction second = new Transaction("Second", new BigDecimal("2.00"), "DEBIT", "Food");
+        second.setTimestamp(LocalDateTime.now().minusDays(30));
+        logRepository.save(first);
+        logRepository.save(second);
+
+        // Act
+        int moved = logRepository.demoteOlderThan(LocalDateTime.now().minusDays(7), 100);
+        Transaction loaded = logRepository.findById(first.getId()).orElseThrow();
+        loaded.setDescription("First updated");
+        logRepository.save(loaded);
+        logRepository.deleteById(second.getId());
+        log.close();
+        log = openLog(directory);
+        TransactionRepository reopened = new TransactionRepository(log);
+
+        // Assert
+        assertEquals(2, moved);
+        assertEquals(1, log.size());
+        assertEquals("First updated", reopened.findById(first.getId()).orElseThrow().getDescription());
+        assertFalse(reopened.existsById(second.getId()));
+        log.close();
+    }
+
+    @Test
+    void summarizeAmounts_ShouldFollowWritesAndFilters() {
+        // Arrange
+        Transaction coffee = new Transaction("Coffee", new BigDecimal("4.5"), "DEBIT", "Food");
+        Transaction lunch = new Transaction("Lunch", new BigDecimal("12.25"), "DEBIT", "Food");
+        Transaction salary = new Transaction("Salary", new BigDecimal("3000"), "CREDIT", "Salary");
+        List.of(coffee, lunch, salary).forEach(transactionRepository::save);
+        AmountSummary before = transactionRepository.summarizeAmounts("debit", null);
+
+        // Act
+        transactionRepository.deleteById(coffee.getId());
+        AmountSummary after = transactionRepository.summarizeAmounts("DEBIT", "food");
+
+        // Assert
+        assertEquals(new AmountSummary(2, new BigDecimal("16.75"), new BigDecimal("4.50"), new BigDecimal("12.25")), before);
+        assertEquals(1, after.count());
+        assertEquals(new BigDecimal("12.25"), after.sum());
+        assertEquals(0, transactionRepository.summarizeAmounts("CREDIT", "Food").count());
+        assertEquals(new BigDecimal("3012.25"), transactionRepository.summarizeAmounts(null, null).sum());
+    }
+
+    @Test
+    void summarizeAmounts_WithinMaxStaleness_ShouldServeTheLastColumns() {
+        // Arrange
+        TransactionRepository lagging = new TransactionRepository(new InMemoryTransactionStore(),
+                new TransactionHistory(), Duration.ofHours(1));
+        lagging.save(new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food"));
+        AmountSummary before = lagging.summarizeAmounts(null, null);
+
+        // Act
+        lagging.save(new Transaction("Lunch", new BigDecimal("12.25"), "DEBIT", "Food"));
+        AmountSummary stale = lagging.summarizeAmounts(null, null);
+        lagging.releaseAmountColumns();
+        AmountSummary rebuilt = lagging.summarizeAmounts(null, null);
+
+        // Assert
+        assertEquals(before, stale);
+        assertEquals(1, stale.count());
+        assertEquals(2, rebuilt.count());
+        assertEquals(new BigDecimal("16.75"), rebuilt.sum());
+    }
+
+    @Test
+    void summarizeAmounts_UnrepresentableAmounts_ShouldSumExactly() {
+        // Arrange
+        transactionRepository.save(new Transaction("Fee", new BigDecimal("0.0000001"), "DEBIT", "Fees"));
+        transactionRepository.save(new Transaction("Fee", new BigDecimal("0.0000002"), "DEBIT", "Fees"));
+
+        // Act
+        AmountSummary summary = transactionRepository.summarizeAmounts(null, "fees");
+
+        // Assert
+        assertEquals(new AmountSummary(2, new BigDecimal("0.0000003"), new BigDecimal("0.0000001"),
+                new BigDecimal("0.0000002")), summary);
+    }
+
+    @Test
+    void memoryStoreWithColdTier_ShouldHoldEachHotRowOnce(@TempDir Path directory) {
+        // Arrange
+        ColdTier coldTier = new ColdTier(directory, 1024);
+        InMemoryTransactionStore store = new InMemoryTransactionStore(coldTier);
+        TransactionRepository tieredRepository = new TransactionRepository(store);
+        Transaction old = new Transaction("Old rent", new BigDecimal("900.00"), "DEBIT", "Housing");
+        old.setTimestamp(LocalDateTime.now().minusDays(30));
+        Transaction recent = new Transaction("Coffee", new BigDecimal("3.50"), "DEBIT", "Food");
+        tieredRepository.save(old);
+        tieredRepository.save(recent);
+
+        // Act
+        int moved = tieredRepository.demoteOlderThan(LocalDateTime.now().minusDays(7), 100);
+
+        // Assert
+        assertEquals(Set.of(recent.getId()), store.shareHeapRows().keySet());
+        assertEquals(1, moved);
+        assertEquals(1, tieredRepository.hotCount());
+        assertEquals(1, coldTier.size());
+        assertEquals(2, store.size());
+        assertEquals("Old rent", tieredRepository.findById(old.getId()).orElseThrow().getDescription());
+        assertEquals(2, tieredRepository.findAll().size());
+        coldTier.close();
+    }
+
+    @Test
+    void sketches_ShouldFollowWritesToHotAndColdRows(@TempDir Path directory) {
+        // Arrange
+        ColdTier coldTier = new ColdTier(directory, 1024);
+        TransactionRepository tieredRepository = new TransactionRepository(new InMemoryTransactionStore(coldTier));
+        Transaction old = new Transaction("Old rent", new BigDecimal("900.00"), "DEBIT", "Housing");
+        old.setTimestamp(LocalDateTime.now().minusDays(30));
+        Transaction coffee = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        Transaction lunch = new Transaction("Lunch", new BigDecimal("12.25"), "DEBIT", "Food");
+        List.of(old, coffee, lunch).forEach(tieredRepository::save);
+        tieredRepository.demoteOlderThan(LocalDateTime.now().minusDays(7), 100);
+
+        // Act
+        Transaction moved = new Transaction("Groceries", new BigDecimal("80.00"), "DEBIT", "Food");
+        moved.setId(old.getId());
+        moved.setTimestamp(old.getTimestamp());
+        tieredRepository.save(moved);
+        tieredRepository.deleteById(coffee.getId());
+
+        // Assert
+        assertEquals(2, tieredRepository.sketches().all().count());
+        assertEquals(0, tieredRepository.sketches().category("housing").amounts().count());
+        assertEquals(2, tieredRepository.sketches().category("food").amounts().count());
+        assertEquals(80.00, tieredRepository.sketches().category("food").amounts().quantile(1), 0.8);
+        assertEquals(2, tieredRepository.sketches().distinctCategories());
+        coldTier.close();
+    }
+
+    @Test
+    void sketches_ShouldBeRebuiltFromTheStoreOnRestart(@TempDir Path directory) {
+        // Arrange
+        LogStructuredStore log = openLog(directory);
+        TransactionRepository logRepository = new TransactionRepository(log);
+        for (int i = 1; i <= 100; i++) {
+            logRepository.save(new Transaction("Payment " + i, BigDecimal.valueOf(i), "DEBIT", "Bills"));
+        }
+        log.close();
+
+        // Act
+        log = openLog(directory);
+        logRepository = new TransactionRepository(log);
+
+        // Assert
+        assertEquals(100, logRepository.sketches().category("BILLS").amounts().count());
+        assertEquals(50, logRepository.sketches().all().quantile(0.5), 0.5);
+        log.close();
+    }
+
+    @Test
+    void findByAccount_ShouldReturnHotAndColdRowsOfTheAccountNewestFirst(@TempDir Path directory) {
+        // Arrange
+        ColdTier coldTier = new ColdTier(directory, 1024);
+        TransactionRepository tieredRepository = new TransactionRepository(new InMemoryTransactionStore(coldTier));
+        Transaction salary = accountTransaction("acc-1", "CREDIT", "1500.00", LocalDateTime.now().minusDays(30));
+        Transaction rent = accountTransaction("acc-1", "DEBIT", "950.00", LocalDateTime.now().minusDays(2));
+        Transaction other = accountTransaction("acc-2", "CREDIT", "10.00", LocalDateTime.now().minusDays(1));
+        Transaction coffee = accountTransaction("acc-1", "DEBIT", "4.50", LocalDateTime.now());
+        List.of(salary, rent, other, coffee).forEach(tieredRepository::save);
+        tieredRepository.demoteOlderThan(LocalDateTime.now().minusDays(7), 100);
+
+        // Act
+        List<Transaction> latest = tieredRepository.findByAccount("acc-1", null, 10);
+        List<Transaction> beforeRent = tieredRepository.findByAccount("acc-1", rent.getTimestamp(), 10);
+
+        // Assert
+        assertEquals(List.of(coffee.getId(), rent.getId(), salary.getId()),
+                latest.stream().map(Transaction::getId).toList());
+        assertEquals("acc-1", latest.get(2).getAccountId());
+        assertEquals(List.of(salary.getId()), beforeRent.stream().map(Transaction::getId).toList());
+        assertEquals(new BigDecimal("545.50"), tieredRepository.findAccountBalance("acc-1").orElseThrow().balance());
+        assertTrue(tieredRepository.findAccountBalance("acc-3").isEmpty());
+        coldTier.close();
+    }
+
+    @Test
+    void accountBalance_ShouldFollowUpdatesAndDeletesAndSurviveRestart(@TempDir Path directory) {
+        // Arrange
+        LogStructuredStore log = openLog(directory);
+        TransactionRepository logRepository = new TransactionRepository(log);
+        Transaction salary = accountTransaction("acc-1", "CREDIT", "1500.00", LocalDateTime.now().minusHours(2));
+        Transaction rent = accountTransaction("acc-1", "DEBIT", "950.00", LocalDateTime.now().minusHours(1));
+        logRepository.saveAll(List.of(salary, rent));
+        Transaction moved = accountTransaction("acc-2", "DEBIT", "950.00", rent.getTimestamp());
+        moved.setId(rent.getId());
+        logRepository.save(moved);
+        log.close();
+
+        // Act
+        log = openLog(directory);
+        logRepository = new TransactionRepository(log);
+
+        // Assert
+        assertEquals(new BigDecimal("1500.00"), logRepository.findAccountBalance("acc-1").orElseThrow().balance());
+        assertEquals(new BigDecimal("-950.00"), logRepository.findAccountBalance("acc-2").orElseThrow().balance());
+        logRepository.deleteById(salary.getId());
+        assertTrue(logRepository.findAccountBalance("acc-1").isEmpty());
+        log.close();
+    }
+
+    @Test
+    void transfer_CoveredByBalance_ShouldSaveBothLegs() {
+        // Arrange
+        transactionRepository.save(accountTransaction("acc-1", "CREDIT", "100.00", LocalDateTime.now().minusHours(1)));
+        Transaction debit = accountTransaction("acc-1", "DEBIT", "100.00", LocalDateTime.now());
+        Transaction credit = accountTransaction("acc-2", "CREDIT", "100.00", debit.getTimestamp());
+
+        // Act
+        boolean transferred = transactionRepository.transfer(debit, credit);
+
+        // Assert
+        assertTrue(transferred);
+        assertEquals(0, transactionRepository.findAccountBalance("acc-1").orElseThrow().balance().signum());
+        assertEquals(new BigDecimal("100.00"), transactionRepository.findAccountBalance("acc-2").orElseThrow().balance());
+        assertTrue(transactionRepository.existsById(debit.getId()));
+        assertTrue(transactionRepository.existsById(credit.getId()));
+    }
+
+    @Test
+    void transfer_NotCoveredByBalance_ShouldSaveNeitherLeg() {
+        // Arrange
+        transactionRepository.save(accountTransaction("acc-1", "CREDIT", "99.99", LocalDateTime.now().minusHours(1)));
+        Transaction debit = accountTransaction("acc-1", "DEBIT", "100.00", LocalDateTime.now());
+        Transaction credit = accountTransaction("acc-2", "CREDIT", "100.00", debit.getTimestamp());
+        Transaction fromNowhere = accountTransaction("acc-3", "DEBIT", "1.00", LocalDateTime.now());
+
+        // Act
+        boolean transferred = transactionRepository.transfer(debit, credit);
+        boolean fromUnknownAccount = transactionRepository.transfer(fromNowhere,
+                accountTransaction("acc-2", "CREDIT", "1.00", fromNowhere.getTimestamp()));
+
+        // Assert
+        assertFalse(transferred);
+        assertFalse(fromUnknownAccount);
+        assertEquals(1, transactionRepository.findAll().size());
+        assertEquals(new BigDecimal("99.99"), transactionRepository.findAccountBalance("acc-1").orElseThrow().balance());
+        assertTrue(transactionRepository.findAccountBalance("acc-2").isEmpty());
+    }
+
+    @Test
+    void transfer_ConcurrentTransfersBetweenOverlappingAccounts_ShouldConserveMoneyAndNeverOverdraw()
+            throws InterruptedException {
+        // Arrange
+        int accounts = 5;
+        for (int account = 0; account < accounts; account++) {
+            transactionRepository.save(accountTransaction("acc-" + account, "CREDIT", "100.00",
+                    LocalDateTime.now().minusDays(1)));
+        }
+        Thread[] threads = new Thread[8];
+        AtomicInteger transferred = new AtomicInteger();
+
+        // Act
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2000; i++) {
+                    // Random pairs in both directions, so that unordered locking would deadlock.
+                    int from = random.nextInt(accounts);
+                    int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+                    String amount = (1 + random.nextInt(30)) + ".00";
+                    Transaction debit = accountTransaction("acc-" + from, "DEBIT", amount, LocalDateTime.now());
+                    Transaction credit = accountTransaction("acc-" + to, "CREDIT", amount, debit.getTimestamp());
+                    if (transactionRepository.transfer(debit, credit)) {
+                        transferred.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(60_000);
+            assertFalse(thread.isAlive(), "Transfers deadlocked");
+        }
+
+        // Assert
+        BigDecimal total = BigDecimal.ZERO;
+        for (int account = 0; account < accounts; account++) {
+            BigDecimal balance = transactionRepository.findAccountBalance("acc-" + account).orElseThrow().balance();
+            assertTrue(balance.signum() >= 0, "acc-" + account + " overdrawn: " + balance);
+            total = total.add(balance);
+        }
+        assertEquals(new BigDecimal("500.00"), total);
+        assertTrue(transferred.get() > 0);
+        assertEquals(accounts + 2L * transferred.get(), transactionRepository.findAll().size());
+    }
+
+    @Test
+    void findAll_OfSnapshot_ShouldKeepTheViewOfWhenItWasOpened(@TempDir Path directory) {
+        // Arrange
+        ColdTier coldTier = new ColdTier(directory, 1024);
+        TransactionRepository tieredRepository = new TransactionRepository(new InMemoryTransactionStore(coldTier));
+        Transaction old = accountTransaction("acc-1", "CREDIT", "100.00", LocalDateTime.now().minusDays(30));
+        Transaction kept = accountTransaction("acc-1", "DEBIT", "10.00", LocalDateTime.now().minusHours(2));
+        Transaction deleted = accountTransaction("acc-1", "DEBIT", "20.00", LocalDateTime.now().minusHours(1));
+        List.of(old, kept, deleted).forEach(tieredRepository::save);
+        tieredRepository.demoteOlderThan(LocalDateTime.now().minusDays(7), 100);
+        ReadSnapshot snapshot = tieredRepository.openSnapshot();
+
+        // Act
+        Transaction oldUpdated = accountTransaction("acc-1", "CREDIT", "150.00", old.getTimestamp());
+        oldUpdated.setId(old.getId());
+        tieredRepository.save(oldUpdated);
+        tieredRepository.deleteById(deleted.getId());
+        tieredRepository.save(accountTransaction("acc-1", "CREDIT", "5.00", LocalDateTime.now()));
+        List<Transaction> view = tieredRepository.findAll(snapshot);
+        tieredRepository.save(accountTransaction("acc-1", "CREDIT", "7.00", LocalDateTime.now()));
+
+        // Assert
+        assertEquals(Set.of(old, kept, deleted), Set.copyOf(view));
+        assertEquals(new BigDecimal("100.00"), view.stream().filter(old::equals).findFirst().orElseThrow().getAmount());
+        assertSame(view, tieredRepository.findAll(snapshot));
+        assertEquals(new BigDecimal("100.00"), tieredRepository.findById(snapshot, old.getId()).orElseThrow().getAmount());
+        assertTrue(tieredRepository.findById(snapshot, deleted.getId()).isPresent());
+        assertEquals(4, tieredRepository.findAll().size());
+        assertEquals(4, tieredRepository.retainedVersionCount());
+
+        tieredRepository.releaseSnapshot(snapshot);
+        assertEquals(0, tieredRepository.retainedVersionCount());
+        assertThrows(IllegalStateException.class, () -> tieredRepository.findById(snapshot, old.getId()));
+        coldTier.close();
+    }
+
+    @Test
+    void findAll_OfSnapshotOpenedDuringTransfers_ShouldSeeWholeTransfersOnly() throws InterruptedException {
+        // Arrange
+        for (int account = 0; account < 4; account++) {
+            transactionRepository.save(accountTransaction("acc-" + account, "CREDIT", "1000.00",
+                    LocalDateTime.now().minusDays(1)));
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            int from = t;
+            writers[t] = new Thread(() -> {
+                while (!stop.get()) {
+                    Transaction debit = accountTransaction("acc-" + from, "DEBIT", "1.00", LocalDateTime.now());
+                    Transaction credit = accountTransaction("acc-" + (from + 1) % 4, "CREDIT", "1.00",
+                            debit.getTimestamp());
+                    transactionRepository.transfer(debit, credit);
+                }
+            });
+            writers[t].start();
+        }
+
+        // Act
+        List<List<Transaction>> views = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ReadSnapshot snapshot = transactionRepository.openSnapshot();
+            views.add(transactionRepository.findAll(snapshot));
+            transactionRepository.releaseSnapshot(snapshot);
+        }
+        stop.set(true);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // Assert
+        for (List<Transaction> view : views) {
+            BigDecimal balance = BigDecimal.ZERO;
+            for (Transaction transaction : view) {
+                balance = "CREDIT".equals(transaction.getType())
+                        ? balance.add(transaction.getAmount())
+                        : balance.subtract(transaction.getAmount());
+            }
+            assertEquals(new BigDecimal("4000.00"), balance);
+            assertEquals(0, (view.size() - 4) % 2);
+        }
+        assertEquals(0, transactionRepository.retainedVersionCount());
+    }
+
+    @Test
+    void findById_AsOf_ShouldReturnTheRowAsItWasThen() throws InterruptedException {
+        // Arrange
+        LocalDateTime beforeCreate = mark();
+        transactionRepository.save(sampleTransaction);
+        LocalDateTime afterCreate = mark();
+        transactionRepository.save(copy(sampleTransaction, new BigDecimal("2000.00"), "Bonus"));
+        LocalDateTime afterUpdate = mark();
+
+        // Act
+        transactionRepository.deleteById(sampleTransactionId);
+
+        // Assert
+        assertTrue(transactionRepository.findById(sampleTransactionId, beforeCreate).isEmpty());
+        Transaction created = transactionRepository.findById(sampleTransactionId, afterCreate).orElseThrow();
+        assertEquals(sampleTransaction.getAmount(), created.getAmount());
+        assertEquals("Salary", created.getCategory());
+        Transaction updated = transactionRepository.findById(sampleTransactionId, afterUpdate).orElseThrow();
+        assertEquals(new BigDecimal("2000.00"), updated.getAmount());
+        assertEquals("Bonus", updated.getCategory());
+        assertTrue(transactionRepository.findById(sampleTransactionId, LocalDateTime.now()).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionRepository.findById(sampleTransactionId, LocalDateTime.now().minusDays(1)));
+    }
+
+    @Test
+    void query_AsOf_ShouldFilterSortAndLimitTheRowsAsTheyWere() throws InterruptedException {
+        // Arrange
+        Transaction rent = new Transaction("Rent payment", new BigDecimal("1000.00"), "DEBIT", "Housing");
+        Transaction deposit = new Transaction("Rent deposit", new BigDecimal("2000.00"), "DEBIT", "Housing");
+        Transaction coffee = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        List.of(rent, deposit, coffee).forEach(transactionRepository::save);
+        LocalDateTime asOf = mark();
+        Transaction furniture = copy(coffee, new BigDecimal("3000.00"), "Housing");
+        transactionRepository.save(furniture);
+        transactionRepository.save(copy(deposit, new BigDecimal("50.00"), "Housing"));
+        transactionRepository.deleteById(rent.getId());
+        Transaction mortgage = new Transaction("Mortgage", new BigDecimal("5000.00"), "DEBIT", "Housing");
+        transactionRepository.save(mortgage);
+        TransactionQuery.Builder largestHousing = TransactionQuery.builder()
+                .category("Housing")
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.DESC)
+                .limit(2);
+
+        // Act
+        List<Transaction> then = transactionRepository.query(largestHousing.asOf(asOf).build()).toList();
+        List<Transaction> now = transactionRepository.query(largestHousing.asOf(null).build()).toList();
+
+        // Assert
+        assertEquals(List.of(deposit, rent), then);
+        assertEquals(new BigDecimal("2000.00"), then.get(0).getAmount());
+        assertEquals(List.of(mortgage, furniture), now);
+        List<Transaction> all = transactionRepository.findAll(asOf);
+        assertEquals(Set.of(rent, deposit, coffee), Set.copyOf(all));
+        assertEquals("Food", all.stream().filter(coffee::equals).findFirst().orElseThrow().getCategory());
+    }
+
+    /**
+     * A point in time that no write of the test shares, so that it clearly falls between two of them.
+     */
+    private static LocalDateTime mark() throws InterruptedException {
+        Thread.sleep(2);
+        LocalDateTime now = LocalDateTime.now();
+        Thread.sleep(2);
+        return now;
+    }
+
+    private static Transaction copy(Transaction source, BigDecimal amount, String category) {
+        Transaction copy = new Transaction(source.getDescription(), amount, source.getType(), category);
+        copy.setId(source.getId());
+        copy.setTimestamp(source.getTimestamp());
+        return copy;
+    }
+
+    private static Transaction accountTransaction(String accountId, String type, String amount, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction("Payment", new BigDecimal(amount), type, "Other");
+        transaction.setTimestamp(timestamp);
+        transaction.setAccountId(accountId);
+        return transaction;
+    }
+
+    private static LogStructuredStore openLog(Path directory) {
+        return new LogStructuredStore(directory, 4096, false, 0.5, Duration.ZERO);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.bank.repository.account;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLedgersTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final AccountLedgers ledgers = new AccountLedgers(4);
+
+    @Test
+    void history_ShouldBeNewestFirstWhateverTheWriteOrder() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            transactions.add(transaction("acc-1", "CREDIT", "10.00", START.plusHours(i)));
+        }
+        // Written out of time order.
+        for (int i : new int[]{3, 0, 9, 5, 1, 8, 2, 7, 4, 6}) {
+            ledgers.add(transactions.get(i));
+        }
+
+        List<UUID> latest = ledgers.history("acc-1", null, 3);
+        List<UUID> earlier = ledgers.history("acc-1", START.plusHours(2), 5);
+
+        assertEquals(List.of(transactions.get(9).getId(), transactions.get(8).getId(), transactions.get(7).getId()),
+                latest);
+        assertEquals(List.of(transactions.get(1).getId(), transactions.get(0).getId()), earlier);
+        assertEquals(List.of(), ledgers.history("acc-unknown", null, 3));
+    }
+
+    @Test
+    void balance_ShouldFollowCreditsDebitsUpdatesAndDeletes() {
+        Transaction salary = transaction("acc-1", "CREDIT", "1500.00", START);
+        Transaction rent = transaction("acc-1", "debit", "950.00", START.plusDays(1));
+        Transaction coffee = transaction("acc-1", "DEBIT", "4.50", START.plusDays(2));
+        ledgers.add(salary);
+        ledgers.add(rent);
+        ledgers.add(coffee);
+
+        Transaction cheaperRent = copy(rent);
+        cheaperRent.setAmount(new BigDecimal("900.00"));
+        ledgers.replace(rent, cheaperRent);
+        ledgers.replace(coffee, null);
+
+        AccountLedgers.Balance balance = ledgers.balance("acc-1");
+        assertEquals(2, balance.count());
+        assertEquals(new BigDecimal("1500.00"), balance.credits());
+        assertEquals(new BigDecimal("900.00"), balance.debits());
+        assertEquals(new BigDecimal("600.00"), balance.balance());
+    }
+
+    @Test
+    void replace_MovedToAnotherAccount_ShouldLeaveTheFirst() {
+        Transaction transaction = transaction("acc-1", "CREDIT", "20.00", START);
+        ledgers.add(transaction);
+
+        Transaction moved = copy(transaction);
+        moved.setAccountId("acc-2");
+        ledgers.replace(transaction, moved);
+
+        assertNull(ledgers.balance("acc-1"));
+        assertEquals(new BigDecimal("20.00"), ledgers.balance("acc-2").balance());
+        assertEquals(List.of(transaction.getId()), ledgers.history("acc-2", null, 10));
+        assertEquals(1, ledgers.accountCount());
+    }
+
+    @Test
+    void add_WithoutAccount_ShouldBeIgnored() {
+        ledgers.add(transaction(null, "CREDIT", "20.00", START));
+        ledgers.replace(transaction(null, "CREDIT", "20.00", START), null);
+
+        assertEquals(0, ledgers.accountCount());
+    }
+
+    @Test
+    void concurrentWritersOfManyAccounts_ShouldKeepEveryBalance() throws InterruptedException {
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            int writer = w;
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    ledgers.add(transaction("acc-" + (i % 50), i / 50 % 2 == 0 ? "CREDIT" : "DEBIT", "1.00",
+                            START.plusSeconds(writer * 10_000L + i)));
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(50, ledgers.accountCount());
+        for (int account = 0; account < 50; account++) {
+            AccountLedgers.Balance balance = ledgers.balance("acc-" + account);
+            assertEquals(160, balance.count());
+            assertEquals(0, balance.balance().signum());
+        }
+    }
+
+    @Test
+    void locked_ShouldKeepOtherWritersOfTheAccountsOutUntilTheActionReturns() throws InterruptedException {
+        ledgers.add(transaction("acc-1", "CREDIT", "10.00", START));
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> ledgers.locked(List.of("acc-1", "acc-2"), () -> {
+            inside.countDown();
+            awaitQuietly(release);
+            return null;
+        }));
+        holder.start();
+        inside.await();
+        Thread writer = new Thread(() -> ledgers.add(transaction("acc-2", "CREDIT", "5.00", START)));
+        writer.start();
+
+        writer.join(200);
+        assertTrue(writer.isAlive());
+        release.countDown();
+        writer.join();
+        holder.join();
+        assertEquals(new BigDecimal("5.00"), ledgers.balance("acc-2").balance());
+        // Reentrant: the holder of the locks may read and write the accounts itself.
+        AccountLedgers.Balance balance = ledgers.locked(List.of("acc-1"), () -> {
+            ledgers.add(transaction("acc-1", "DEBIT", "10.00", START.plusSeconds(1)));
+            return ledgers.balance("acc-1");
+        });
+        assertEquals(2, balance.count());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Transaction transaction(String accountId, String type, String amount, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction("Payment", new BigDecimal(amount), type, "Other");
+        transaction.setTimestamp(timestamp);
+        transaction.setAccountId(accountId);
+        return transaction;
+    }
+
+    private static Transaction copy(Transaction transaction) {
+        Transaction copy = new Transaction(transaction.getDescription(), transaction.getAmount(),
+                transaction.getType(), transaction.getCategory());
+        copy.setId(transaction.getId());
+        copy.setTimestamp(transaction.getTimestamp());
+        copy.setAccountId(transaction.getAccountId());
+        return copy;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bank.repository.column;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountColumnsTest {
+
+    private static final String[] CATEGORIES = {"Food", "Rent", "Travel", null};
+
+    @Test
+    void summarize_BothKernels_ShouldMatchBigDecimalAggregation() {
+        List<Transaction> transactions = sample(1003);
+        AmountColumns columns = AmountColumns.of(transactions);
+        List<AmountKernel> kernels = List.of(new ScalarAmountKernel(), new VectorAmountKernel());
+
+        for (String type : Arrays.asList(null, "DEBIT", "credit", "Refund")) {
+            for (String category : Arrays.asList(null, "food", "RENT", "Travel", "Unknown")) {
+                AmountSummary expected = expected(transactions, type, category);
+                for (AmountKernel kernel : kernels) {
+                    AmountSummary actual = columns.summarize(type, category, kernel);
+                    String context = kernel.name() + " " + type + "/" + category;
+                    assertEquals(expected.count(), actual.count(), context);
+                    assertEquals(0, expected.sum().compareTo(actual.sum()), context);
+                    if (expected.count() > 0) {
+                        assertEquals(0, expected.min().compareTo(actual.min()), context);
+                        assertEquals(0, expected.max().compareTo(actual.max()), context);
+                    } else {
+                        assertNull(actual.min(), context);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void vectorKernel_ShouldHandleEveryTailLength() {
+        AmountKernel scalar = new ScalarAmountKernel();
+        AmountKernel vector = new VectorAmountKernel();
+        Random random = new Random(3);
+        for (int length = 0; length < 40; length++) {
+            long[] amounts = random.longs(length, -1_000_000, 1_000_000).toArray();
+            long[] tags = random.longs(length, 0, 3).toArray();
+
+            assertEquals(scalar.aggregate(amounts, tags, length, 3, 1), vector.aggregate(amounts, tags, length, 3, 1));
+            assertEquals(scalar.aggregate(amounts, tags, length, 0, 0), vector.aggregate(amounts, tags, length, 0, 0));
+        }
+    }
+
+    @Test
+    void of_ShouldSkipRowsWithoutAmountAndUseCommonScale() {
+        Transaction whole = new Transaction("Whole", new BigDecimal("5"), "DEBIT", "Food");
+        Transaction cents = new Transaction("Cents", new BigDecimal("0.125"), "DEBIT", "Food");
+        Transaction padded = new Transaction("Padded", new BigDecimal("1.5000000000"), "DEBIT", "Food");
+        Transaction none = new Transaction("None", null, "DEBIT", "Food");
+
+        AmountColumns columns = AmountColumns.of(List.of(whole, cents, padded, none));
+
+        assertEquals(3, columns.size());
+        assertEquals(new AmountSummary(3, new BigDecimal("6.625"), new BigDecimal("0.125"), new BigDecimal("5.000")),
+                columns.summarize("debit", "FOOD"));
+    }
+
+    @Test
+    void of_UnrepresentableAmounts_ShouldReturnNull() {
+        Transaction precise = new Transaction("Precise", new BigDecimal("0.0000001"), "DEBIT", "Food");
+        Transaction huge = new Transaction("Huge", new BigDecimal("5000000000000000000"), "DEBIT", "Food");
+        Transaction large = new Transaction("Large", BigDecimal.valueOf(Long.MAX_VALUE / 2), "DEBIT", "Food");
+
+        assertNull(AmountColumns.of(List.of(precise)));
+        assertNull(AmountColumns.of(List.of(huge, new Transaction("Cents", new BigDecimal("0.01"), "DEBIT", "Food"))));
+        assertNull(AmountColumns.of(List.of(large, large, large)));
+        assertNotNull(AmountColumns.of(List.of(large)));
+        assertEquals(0, AmountColumns.of(List.of()).summarize(null, null).count());
+    }
+
+    private static AmountSummary expected(List<Transaction> transactions, String type, String category) {
+        AmountSummary summary = AmountSummary.EMPTY;
+        for (Transaction transaction : transactions) {
+            if (transaction.getAmount() != null
+                    && (type == null || type.equalsIgnoreCase(transaction.getType()))
+                    && (category == null || category.equalsIgnoreCase(transaction.getCategory()))) {
+                summary = summary.plus(transaction.getAmount());
+            }
+        }
+        return summary;
+    }
+
+    private static List<Transaction> sample(int count) {
+        Random random = new Random(42);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BigDecimal amount = i % 50 == 0 ? null : BigDecimal.valueOf(random.nextInt(2_000_000) - 1_000_000, random.nextInt(3));
+            transactions.add(new Transaction("Payment " + i, amount, random.nextBoolean() ? "DEBIT" : "CREDIT",
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.bank.repository.history;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionHistoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final TickingClock clock = new TickingClock(START.toInstant(ZoneOffset.UTC));
+
+    @Test
+    void at_ShouldUndoTheChangesMadeAfterThatTime() {
+        TransactionHistory history = new TransactionHistory(Duration.ofDays(1), Long.MAX_VALUE, clock);
+        Transaction created = transaction("Rent", "100.00", "Housing");
+        Transaction updated = copy(created, "Rent March", "120.00", "Housing");
+        Transaction recategorized = copy(updated, "Rent March", "120.00", "Home");
+
+        clock.advance(Duration.ofMinutes(1));
+        history.record(created.getId(), null, created);
+        clock.advance(Duration.ofMinutes(1));
+        history.record(created.getId(), created, updated);
+        clock.advance(Duration.ofMinutes(1));
+        history.record(created.getId(), updated, recategorized);
+        clock.advance(Duration.ofMinutes(1));
+        history.record(created.getId(), recategorized, null);
+
+        assertNull(history.at(START.plusSeconds(30)).row(created.getId(), null));
+        Transaction first = history.at(START.plusSeconds(90)).row(created.getId(), null);
+        assertEquals("Rent", first.getDescription());
+        assertEquals(new BigDecimal("100.00"), first.getAmount());
+        assertEquals("Housing", first.getCategory());
+        Transaction second = history.at(START.plusSeconds(150)).row(created.getId(), null);
+        assertEquals("Rent March", second.getDescription());
+        assertEquals(new BigDecimal("120.00"), second.getAmount());
+        assertEquals("Housing", second.getCategory());
+        assertEquals(created.getId(), second.getId());
+        assertSame(recategorized, history.at(START.plusSeconds(210)).row(created.getId(), null));
+        assertNull(history.at(START.plusSeconds(300)).row(created.getId(), null));
+        assertEquals(4, history.changeCount());
+    }
+
+    @Test
+    void at_ShouldListOnlyTheRowsChangedAfterThatTime() {
+        TransactionHistory history = new TransactionHistory(Duration.ofDays(1), Long.MAX_VALUE, clock);
+        Transaction early = transaction("Coffee", "3.50", "Food");
+        Transaction late = transaction("Lunch", "12.00", "Food");
+
+        clock.advance(Duration.ofMinutes(1));
+        history.record(early.getId(), null, early);
+        clock.advance(Duration.ofMinutes(1));
+        history.record(late.getId(), null, late);
+
+        TransactionHistory.PointInTime between = history.at(START.plusSeconds(90));
+        assertEquals(Set.of(late.getId()), between.changedIds());
+        assertTrue(between.changed(late.getId()));
+        assertFalse(between.changed(early.getId()));
+        assertSame(early, between.row(early.getId(), early));
+    }
+
+    @Test
+    void record_WithoutChangedFields_ShouldKeepNothing() {
+        TransactionHistory history = new TransactionHistory(Duration.ofDays(1), Long.MAX_VALUE, clock);
+        Transaction transaction = transaction("Rent", "100.00", "Housing");
+
+        history.record(transaction.getId(), transaction, copy(transaction, "Rent", "100.00", "Housing"));
+
+        assertEquals(0, history.changeCount());
+        assertEquals(0, history.sizeInBytes());
+    }
+
+    @Test
+    void record_OverTheBudget_ShouldDropTheOldestChangesAndAdvanceTheHorizon() {
+        Transaction first = transaction("Rent", "100.00", "Housing");
+        TransactionHistory probe = new TransactionHistory(Duration.ofDays(1), Long.MAX_VALUE, clock);
+        probe.record(first.getId(), null, first);
+        long oneCreate = probe.sizeInBytes();
+        TransactionHistory history = new TransactionHistory(Duration.ofDays(1), 2 * oneCreate, clock);
+
+        clock.advance(Duration.ofMinutes(1));
+        history.record(first.getId(), null, first);
+        for (int i = 0; i < 3; i++) {
+            clock.advance(Duration.ofMinutes(1));
+            Transaction next = transaction("Payment " + i, "10.00", "Misc");
+            history.record(next.getId(), null, next);
+        }
+
+        assertEquals(2, history.changeCount());
+        assertTrue(history.sizeInBytes() <= 2 * oneCreate);
+        assertEquals(START.plusMinutes(2), history.horizon());
+        assertThrows(IllegalArgumentException.class, () -> history.at(START.plusMinutes(1)));
+        assertNotNull(history.at(START.plusMinutes(4)));
+    }
+
+    @Test
+    void record_ShouldDropChangesOlderThanTheRetention() {
+        TransactionHistory history = new TransactionHistory(Duration.ofHours(1), Long.MAX_VALUE, clock);
+        Transaction old = transaction("Rent", "100.00", "Housing");
+        Transaction recent = transaction("Coffee", "3.50", "Food");
+        history.record(old.getId(), null, old);
+
+        clock.advance(Duration.ofHours(2));
+        history.record(recent.getId(), null, recent);
+
+        assertEquals(1, history.changeCount());
+        assertEquals(1, history.rowCount());
+        assertFalse(history.horizon().isBefore(START));
+        assertThrows(IllegalArgumentException.class, () -> history.at(START.minusMinutes(1)));
+    }
+
+    private static Transaction transaction(String description, String amount, String category) {
+        Transaction transaction = new Transaction(description, new BigDecimal(amount), "DEBIT", category);
+        transaction.setTimestamp(START);
+        return transaction;
+    }
+
+    private static Transaction copy(Transaction source, String description, String amount, String category) {
+        Transaction copy = new Transaction(description, new BigDecimal(amount), source.getType(), category);
+        copy.setId(source.getId());
+        copy.setTimestamp(source.getTimestamp());
+        return copy;
+    }
+
+    /**
+     * A clock that only moves when told to.
+     */
+    private static final class TickingClock extends Clock {
+
+        private Instant now;
+
+        private TickingClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
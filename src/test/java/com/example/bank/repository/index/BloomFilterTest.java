@@ -0,0 +1,88 @@
+package com.example.bank.repository.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedIds_ShouldAlwaysBeTrue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            filter.add(id);
+        }
+
+        assertTrue(ids.stream().allMatch(filter::mightContain));
+        assertEquals(10_000, filter.insertions());
+    }
+
+    @Test
+    void mightContain_UnknownIds_ShouldBeFalseUpToTheFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(50_000, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add(UUID.randomUUID());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        assertEquals(0.01, falsePositives / 100_000.0, 0.005);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.002);
+        assertEquals(7, filter.hashCount());
+    }
+
+    @Test
+    void expectedFalsePositiveRate_RepeatedIds_ShouldNotRise() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        ids.forEach(filter::add);
+        double rate = filter.expectedFalsePositiveRate();
+
+        for (int i = 0; i < 10; i++) {
+            ids.forEach(filter::add);
+        }
+
+        assertEquals(5500, filter.insertions());
+        assertEquals(rate, filter.expectedFalsePositiveRate());
+        assertTrue(rate < filter.falsePositiveRate(), "rate: " + rate);
+    }
+
+    @Test
+    void mightContain_SequentialIds_ShouldStillSpreadOverTheBits() {
+        BloomFilter filter = new BloomFilter(20_000, 0.01);
+        for (long i = 0; i < 20_000; i++) {
+            filter.add(new UUID(0, i));
+        }
+
+        int falsePositives = 0;
+        for (long i = 20_000; i < 60_000; i++) {
+            if (filter.mightContain(new UUID(0, i))) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 40_000 * 0.02, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void constructor_InvalidArguments_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bank.repository.index;
+
+import com.example.bank.repository.index.DescriptionIndex.ScoredId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DescriptionIndexTest {
+
+    private DescriptionIndex index;
+    private UUID hemaFruit;
+    private UUID hemaFish;
+    private UUID rent;
+    private UUID chinese;
+
+    @BeforeEach
+    void setUp() {
+        index = new DescriptionIndex();
+        hemaFruit = UUID.randomUUID();
+        hemaFish = UUID.randomUUID();
+        rent = UUID.randomUUID();
+        chinese = UUID.randomUUID();
+        index.index(hemaFruit, "Fruit from Hema");
+        index.index(hemaFish, "Fresh fish from Hema supermarket");
+        index.index(rent, "Monthly rent");
+        index.index(chinese, "盒马鲜生 水果");
+    }
+
+    @Test
+    void search_WithSingleTerm_ShouldReturnAllMatches() {
+        assertEquals(List.of(hemaFruit, hemaFish).stream().sorted().toList(),
+                ids(index.search("hema", 10)).stream().sorted().toList());
+    }
+
+    @Test
+    void search_WithMultipleTerms_ShouldRequireAllTerms() {
+        assertEquals(List.of(hemaFish), ids(index.search("hema fish", 10)));
+    }
+
+    @Test
+    void search_ShouldRankShorterDescriptionsHigher() {
+        List<UUID> result = ids(index.search("hema", 10));
+
+        assertEquals(hemaFruit, result.get(0));
+    }
+
+    @Test
+    void search_WithPrefix_ShouldExpandTerms() {
+        assertEquals(List.of(hemaFish), ids(index.search("fre*", 10)));
+        assertEquals(List.of(rent), ids(index.search("mon*", 10)));
+    }
+
+    @Test
+    void search_WithChineseText_ShouldMatchBigramsAndSingleCharacters() {
+        assertEquals(List.of(chinese), ids(index.search("盒马", 10)));
+        assertEquals(List.of(chinese), ids(index.search("鲜生", 10)));
+        assertEquals(List.of(chinese), ids(index.search("果", 10)));
+        assertTrue(index.search("马盒", 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldRespectLimit() {
+        assertEquals(1, index.search("hema", 1).size());
+    }
+
+    @Test
+    void index_WhenDescriptionChanges_ShouldReplaceOldTerms() {
+        index.index(rent, "Fruit stall");
+
+        assertTrue(index.search("monthly", 10).isEmpty());
+        assertTrue(ids(index.search("stall", 10)).contains(rent));
+        assertEquals(4, index.documentCount());
+    }
+
+    @Test
+    void remove_ShouldDropDocumentAndUnusedTerms() {
+        int termsBefore = index.termCount();
+
+        index.remove(rent);
+
+        assertTrue(index.search("rent", 10).isEmpty());
+        assertEquals(3, index.documentCount());
+        assertEquals(termsBefore - 2, index.termCount());
+    }
+
+    @Test
+    void search_WithUnknownTermOrBlankQuery_ShouldReturnEmpty() {
+        assertTrue(index.search("salary", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void broadPrefix_WithMoreTermsThanExpanded_ShouldStillFindEveryMatch() {
+        List<UUID> payments = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            UUID id = UUID.randomUUID();
+            index.index(id, String.format("pay%03d invoice", i));
+            payments.add(id);
+        }
+        UUID lastRent = payments.get(99);
+        index.index(lastRent, "pay099 monthly rent");
+
+        assertEquals(Set.copyOf(payments), Set.copyOf(ids(index.search("pay*", 200))));
+        assertEquals(List.of(lastRent), ids(index.search("pay* rent", 10)));
+        DescriptionIndex.TextMatch match = index.match("pay*");
+        assertEquals(Set.copyOf(payments), match.candidates().filter(match::test).collect(Collectors.toSet()));
+        assertTrue(match.estimatedSize() >= payments.size());
+        DescriptionIndex.TextMatch withRent = index.match("rent pay*");
+        assertEquals(List.of(lastRent), withRent.candidates().filter(withRent::test).toList());
+        assertFalse(withRent.test(rent));
+    }
+
+    private static List<UUID> ids(List<ScoredId> hits) {
+        return hits.stream().map(ScoredId::id).toList();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bank.repository.index;
+
+import com.example.bank.repository.index.DescriptionTokenizer.QueryTerm;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DescriptionTokenizerTest {
+
+    @Test
+    void tokenize_WithLatinText_ShouldSplitAndLowercase() {
+        assertArrayEquals(new String[]{"fruit", "from", "hema"},
+                DescriptionTokenizer.tokenize("Fruit from Hema"));
+    }
+
+    @Test
+    void tokenize_ShouldDropDuplicatesAndPunctuation() {
+        assertArrayEquals(new String[]{"coffee", "2", "x"},
+                DescriptionTokenizer.tokenize("Coffee, coffee! 2 x coffee"));
+    }
+
+    @Test
+    void tokenize_WithChineseText_ShouldProduceBigramsAndTrailingUnigram() {
+        assertArrayEquals(new String[]{"盒马", "马鲜", "鲜生", "生"},
+                DescriptionTokenizer.tokenize("盒马鲜生"));
+    }
+
+    @Test
+    void tokenize_WithMixedText_ShouldSplitScripts() {
+        assertArrayEquals(new String[]{"hema", "盒马", "马", "fresh"},
+                DescriptionTokenizer.tokenize("Hema盒马 fresh"));
+    }
+
+    @Test
+    void tokenize_WithNullOrEmpty_ShouldReturnNoTerms() {
+        assertEquals(0, DescriptionTokenizer.tokenize(null).length);
+        assertEquals(0, DescriptionTokenizer.tokenize("  ,. ").length);
+    }
+
+    @Test
+    void parseQuery_ShouldMarkPrefixTerms() {
+        List<QueryTerm> terms = DescriptionTokenizer.parseQuery("hema frui*");
+
+        assertEquals(List.of(new QueryTerm("hema", false), new QueryTerm("frui", true)), terms);
+    }
+
+    @Test
+    void parseQuery_WithChineseText_ShouldUseBigramsOnly() {
+        assertEquals(List.of(new QueryTerm("盒马", false), new QueryTerm("马鲜", false)),
+                DescriptionTokenizer.parseQuery("盒马鲜"));
+    }
+
+    @Test
+    void parseQuery_WithSingleChineseCharacter_ShouldBePrefix() {
+        assertEquals(List.of(new QueryTerm("盒", true)), DescriptionTokenizer.parseQuery("盒"));
+    }
+
+    @Test
+    void matches_ShouldRequireEveryTerm() {
+        String description = "Fruit from Hema 盒马鲜生";
+
+        assertTrue(DescriptionTokenizer.matches(DescriptionTokenizer.parseQuery("hema"), description));
+        assertTrue(DescriptionTokenizer.matches(DescriptionTokenizer.parseQuery("FRU* 盒马"), description));
+        assertTrue(DescriptionTokenizer.matches(DescriptionTokenizer.parseQuery("鲜"), description));
+        assertFalse(DescriptionTokenizer.matches(DescriptionTokenizer.parseQuery("hema coffee"), description));
+        assertFalse(DescriptionTokenizer.matches(DescriptionTokenizer.parseQuery("fru"), description));
+        assertFalse(DescriptionTokenizer.matches(DescriptionTokenizer.parseQuery(""), description));
+        assertFalse(DescriptionTokenizer.matches(DescriptionTokenizer.parseQuery("hema"), null));
+    }
+}
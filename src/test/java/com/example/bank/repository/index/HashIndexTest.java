@@ -0,0 +1,60 @@
+package com.example.bank.repository.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashIndexTest {
+
+    private HashIndex index;
+    private UUID first;
+    private UUID second;
+
+    @BeforeEach
+    void setUp() {
+        index = new HashIndex();
+        first = UUID.randomUUID();
+        second = UUID.randomUUID();
+        index.index(first, "CREDIT");
+        index.index(second, "Debit");
+    }
+
+    @Test
+    void get_ShouldIgnoreCase() {
+        assertEquals(Set.of(first), index.get("credit"));
+        assertEquals(Set.of(second), index.get("DEBIT"));
+        assertTrue(index.get("unknown").isEmpty());
+    }
+
+    @Test
+    void index_WithNewValue_ShouldMoveId() {
+        index.index(first, "debit");
+
+        assertTrue(index.get("credit").isEmpty());
+        assertEquals(Set.of(first, second), index.get("debit"));
+        assertEquals(Set.of("debit"), index.keys());
+    }
+
+    @Test
+    void index_WithNullValue_ShouldRemoveId() {
+        index.index(first, null);
+
+        assertFalse(index.contains("CREDIT", first));
+        assertTrue(index.get("CREDIT").isEmpty());
+    }
+
+    @Test
+    void contains_ShouldCheckIndexedValue() {
+        assertTrue(index.contains("Credit", first));
+        assertFalse(index.contains("Credit", second));
+
+        index.remove(first);
+
+        assertFalse(index.contains("Credit", first));
+        assertEquals(Set.of("debit"), index.keys());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bank.repository.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationIndexTest {
+
+    @Test
+    void location_ShouldPackSegmentAndBlock() {
+        long location = LocationIndex.location(7, 123456);
+
+        assertEquals(7, LocationIndex.fileOf(location));
+        assertEquals(123456, LocationIndex.positionOf(location));
+        assertEquals(0L, LocationIndex.location(0, 0));
+    }
+
+    @Test
+    void putGetRemove_ShouldTrackLocations() {
+        LocationIndex index = new LocationIndex(16);
+        UUID id = UUID.randomUUID();
+
+        assertEquals(LocationIndex.ABSENT, index.get(id));
+        assertEquals(LocationIndex.ABSENT, index.put(id, LocationIndex.location(0, 0)));
+        assertEquals(0L, index.get(id));
+        assertEquals(0L, index.put(id, LocationIndex.location(1, 2)));
+        assertEquals(LocationIndex.location(1, 2), index.get(id));
+        assertEquals(1, index.size());
+
+        assertFalse(index.remove(id, LocationIndex.location(0, 0)));
+        assertTrue(index.remove(id, LocationIndex.location(1, 2)));
+        assertEquals(LocationIndex.ABSENT, index.get(id));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void put_ManyIds_ShouldGrowAndKeepAllEntries() {
+        LocationIndex index = new LocationIndex(16);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            index.put(id, LocationIndex.location(i / 1000, i));
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            assertTrue(index.remove(ids.get(i)));
+        }
+
+        assertEquals(5_000, index.size());
+        for (int i = 1; i < ids.size(); i += 2) {
+            assertEquals(LocationIndex.location(i / 1000, i), index.get(ids.get(i)));
+        }
+        assertEquals(5_000, new HashSet<>(index.ids()).size());
+    }
+
+    @Test
+    void put_AfterManyRemovals_ShouldReuseSpace() {
+        LocationIndex index = new LocationIndex(16);
+        for (int round = 0; round < 100; round++) {
+            UUID id = UUID.randomUUID();
+            index.put(id, round);
+            assertTrue(index.remove(id));
+        }
+
+        UUID last = UUID.randomUUID();
+        index.put(last, 5L);
+
+        assertEquals(5L, index.get(last));
+        assertEquals(1, index.size());
+    }
+}
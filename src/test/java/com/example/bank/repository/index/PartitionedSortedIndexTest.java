@@ -0,0 +1,64 @@
+package com.example.bank.repository.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedSortedIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private PartitionedSortedIndex<LocalDateTime> index;
+    private UUID older;
+    private UUID newer;
+    private UUID other;
+
+    @BeforeEach
+    void setUp() {
+        index = new PartitionedSortedIndex<>();
+        older = UUID.randomUUID();
+        newer = UUID.randomUUID();
+        other = UUID.randomUUID();
+        index.index(newer, "Food", BASE.plusHours(1));
+        index.index(older, "food", BASE);
+        index.index(other, "Housing", BASE.plusHours(2));
+    }
+
+    @Test
+    void descending_ShouldReturnPartitionNewestFirst() {
+        assertEquals(List.of(newer, older), index.descending("FOOD").toList());
+        assertEquals(List.of(older, newer), index.ascending("Food").toList());
+        assertEquals(List.of(other), index.descending("housing").toList());
+        assertTrue(index.descending("unknown").toList().isEmpty());
+    }
+
+    @Test
+    void index_WithNewPartition_ShouldMoveId() {
+        index.index(older, "Housing", BASE);
+
+        assertEquals(List.of(newer), index.descending("Food").toList());
+        assertEquals(List.of(other, older), index.descending("Housing").toList());
+    }
+
+    @Test
+    void index_WithNewKey_ShouldReorderWithinPartition() {
+        index.index(older, "Food", BASE.plusHours(5));
+
+        assertEquals(List.of(older, newer), index.descending("Food").toList());
+        assertEquals(2, index.size("Food"));
+    }
+
+    @Test
+    void remove_AndNullValues_ShouldDropId() {
+        index.remove(newer);
+        index.index(other, null, BASE);
+
+        assertEquals(List.of(older), index.descending("Food").toList());
+        assertEquals(0, index.size("Housing"));
+    }
+}
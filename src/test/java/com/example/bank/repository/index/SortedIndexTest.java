@@ -0,0 +1,85 @@
+package com.example.bank.repository.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedIndexTest {
+
+    private SortedIndex<BigDecimal> index;
+    private UUID small;
+    private UUID medium;
+    private UUID large;
+
+    @BeforeEach
+    void setUp() {
+        index = new SortedIndex<>();
+        small = UUID.randomUUID();
+        medium = UUID.randomUUID();
+        large = UUID.randomUUID();
+        index.index(large, new BigDecimal("1000.00"));
+        index.index(small, new BigDecimal("10.00"));
+        index.index(medium, new BigDecimal("100.00"));
+    }
+
+    @Test
+    void ascending_WithBothBounds_ShouldBeInclusive() {
+        assertEquals(List.of(small, medium), index.ascending(new BigDecimal("10"), new BigDecimal("100.0")).toList());
+    }
+
+    @Test
+    void ascending_WithOpenBounds_ShouldSeekFromOneSide() {
+        assertEquals(List.of(medium, large), index.ascending(new BigDecimal("50"), null).toList());
+        assertEquals(List.of(small), index.ascending(null, new BigDecimal("50")).toList());
+        assertEquals(List.of(small, medium, large), index.ascending(null, null).toList());
+    }
+
+    @Test
+    void ascendingHalfOpen_ShouldExcludeUpperBound() {
+        assertEquals(List.of(small), index.ascendingHalfOpen(new BigDecimal("10"), new BigDecimal("100")).toList());
+        assertTrue(index.ascendingHalfOpen(new BigDecimal("10"), new BigDecimal("10")).toList().isEmpty());
+    }
+
+    @Test
+    void descending_ShouldReverseOrder() {
+        assertEquals(List.of(large, medium, small), index.descending(null, null).toList());
+    }
+
+    @Test
+    void ascending_WithInvertedBounds_ShouldBeEmpty() {
+        assertTrue(index.ascending(new BigDecimal("500"), new BigDecimal("50")).toList().isEmpty());
+    }
+
+    @Test
+    void ascending_WithEqualKeys_ShouldKeepAllIds() {
+        UUID another = UUID.randomUUID();
+        index.index(another, new BigDecimal("100"));
+
+        List<UUID> result = index.ascending(new BigDecimal("100"), new BigDecimal("100")).toList();
+
+        assertEquals(2, result.size());
+        assertTrue(result.containsAll(List.of(medium, another)));
+    }
+
+    @Test
+    void index_WithNewKey_ShouldMoveEntry() {
+        index.index(small, new BigDecimal("5000"));
+
+        assertEquals(List.of(medium, large, small), index.ascending(null, null).toList());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void index_WithNullKeyOrRemove_ShouldDropEntry() {
+        index.index(small, null);
+        index.remove(large);
+
+        assertEquals(List.of(medium), index.ascending(null, null).toList());
+        assertNull(index.keyOf(small));
+    }
+}
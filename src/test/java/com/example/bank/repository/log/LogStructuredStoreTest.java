@@ -0,0 +1,200 @@
+package com.example.bank.repository.log;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.store.TransactionStoreContractTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredStoreTest extends TransactionStoreContractTest<LogStructuredStore> {
+
+    @Override
+    protected LogStructuredStore open() {
+        // Small segments so that a few hundred rows span many files.
+        return new LogStructuredStore(directory, 4096, false, 0.5, Duration.ZERO);
+    }
+
+    @Override
+    protected boolean isDurable() {
+        return true;
+    }
+
+    @Test
+    void reopen_ShouldRecoverLatestStateOfEveryId() {
+        List<Transaction> transactions = sample(300);
+        transactions.forEach(store::put);
+        for (int i = 0; i < 100; i++) {
+            transactions.get(i).setDescription("updated " + i);
+            store.put(transactions.get(i));
+        }
+        for (int i = 100; i < 150; i++) {
+            store.delete(transactions.get(i).getId());
+        }
+        store.close();
+
+        store = open();
+
+        assertEquals(250, store.size());
+        assertEquals("updated 7", store.get(transactions.get(7).getId()).getDescription());
+        assertNull(store.get(transactions.get(120).getId()));
+        assertEquals(transactions.get(200).getDescription(), store.get(transactions.get(200).getId()).getDescription());
+        assertTrue(store.segmentCount() > 1);
+    }
+
+    @Test
+    void putAll_WithSyncWrites_ShouldSpanSegmentsAndSurviveReopen() {
+        store.close();
+        store = new LogStructuredStore(directory, 4096, true, 0.5, Duration.ZERO);
+        List<Transaction> transactions = sample(300);
+
+        store.putAll(transactions);
+        store.close();
+        store = open();
+
+        assertEquals(300, store.size());
+        assertTrue(store.segmentCount() > 1);
+        for (Transaction transaction : transactions) {
+            assertSameFields(transaction, store.get(transaction.getId()));
+        }
+    }
+
+    @Test
+    void reopen_TornTail_ShouldKeepCompleteRecordsAndAcceptWrites() throws IOException {
+        Transaction kept = new Transaction("Kept", new BigDecimal("1.00"), "DEBIT", "Food");
+        store.put(kept);
+        store.close();
+        Path last;
+        try (Stream<Path> files = Files.list(directory)) {
+            last = files.max(Path::compareTo).orElseThrow();
+        }
+        // Half of a frame, as left behind by a crash in the middle of a write.
+        Files.write(last, new byte[]{0, 0, 1}, StandardOpenOption.APPEND);
+
+        store = open();
+        Transaction next = new Transaction("Next", new BigDecimal("2.00"), "DEBIT", "Food");
+        store.put(next);
+        store.close();
+        store = open();
+
+        assertEquals("Kept", store.get(kept.getId()).getDescription());
+        assertEquals("Next", store.get(next.getId()).getDescription());
+    }
+
+    @Test
+    void compact_ShouldReclaimOverwrittenRecordsAndSurviveReopen() {
+        List<Transaction> transactions = sample(300);
+        transactions.forEach(store::put);
+        for (int round = 0; round < 3; round++) {
+            for (Transaction transaction : transactions) {
+                transaction.setDescription("round " + round + " " + transaction.getId());
+                store.put(transaction);
+            }
+        }
+        long before = store.sizeInBytes();
+
+        assertTrue(store.compact() > 0);
+
+        assertTrue(store.sizeInBytes() < before);
+        assertEquals(300, store.size());
+        for (Transaction transaction : transactions) {
+            assertEquals(transaction.getDescription(), store.get(transaction.getId()).getDescription());
+        }
+        store.close();
+        store = open();
+        assertEquals(300, store.size());
+        for (Transaction transaction : transactions) {
+            assertEquals(transaction.getDescription(), store.get(transaction.getId()).getDescription());
+        }
+    }
+
+    @Test
+    void compact_ShouldKeepDeletesWhileOlderPutsExist() {
+        List<Transaction> transactions = sample(200);
+        transactions.forEach(store::put);
+        Transaction filler = new Transaction("Filler", new BigDecimal("1.00"), "DEBIT", "Food");
+        for (int i = 0; i < 100; i++) {
+            store.put(filler);
+        }
+        // The deletes land in later segments than the puts they override.
+        transactions.forEach(t -> store.delete(t.getId()));
+        for (int i = 0; i < 100; i++) {
+            store.put(filler);
+        }
+
+        store.compact();
+        store.close();
+        store = open();
+
+        assertEquals(1, store.size());
+        assertTrue(transactions.stream().noneMatch(t -> store.contains(t.getId())));
+    }
+
+    @Test
+    void compact_ConcurrentWrites_ShouldKeepLatestVersions() throws InterruptedException {
+        List<Transaction> transactions = sample(200);
+        transactions.forEach(store::put);
+        Map<UUID, String> latest = new ConcurrentHashMap<>();
+        Thread writer = new Thread(() -> {
+            for (int round = 0; round < 20; round++) {
+                for (Transaction transaction : transactions) {
+                    Transaction copy = new Transaction(transaction.getDescription() + " " + round,
+                            transaction.getAmount(), transaction.getType(), transaction.getCategory());
+                    copy.setId(transaction.getId());
+                    store.put(copy);
+                    latest.put(copy.getId(), copy.getDescription());
+                }
+            }
+        });
+
+        writer.start();
+        while (writer.isAlive()) {
+            store.compact();
+        }
+        writer.join();
+        store.compact();
+
+        for (Transaction transaction : transactions) {
+            assertEquals(latest.get(transaction.getId()), store.get(transaction.getId()).getDescription());
+        }
+        store.close();
+        store = open();
+        for (Transaction transaction : transactions) {
+            assertEquals(latest.get(transaction.getId()), store.get(transaction.getId()).getDescription());
+        }
+    }
+
+    @Test
+    void scan_ShouldReturnCurrentVersionsMatchingFilters() {
+        List<Transaction> transactions = sample(300);
+        transactions.forEach(store::put);
+        Transaction updated = transactions.get(0);
+        updated.setCategory("Travel");
+        store.put(updated);
+        store.delete(transactions.get(1).getId());
+
+        TransactionQuery query = TransactionQuery.builder().category("food").build();
+        Set<UUID> expected = transactions.stream()
+                .skip(2)
+                .filter(t -> "Food".equals(t.getCategory()))
+                .map(Transaction::getId)
+                .collect(Collectors.toSet());
+
+        assertEquals(expected, store.scan(query).map(Transaction::getId).collect(Collectors.toSet()));
+        assertEquals(299, store.stream().count());
+    }
+}
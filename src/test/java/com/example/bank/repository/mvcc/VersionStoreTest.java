@@ -0,0 +1,100 @@
+package com.example.bank.repository.mvcc;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionStoreTest {
+
+    private final VersionStore versions = new VersionStore();
+
+    @Test
+    void asOf_ShouldSeeTheRowsAsTheyWereWhenTheSnapshotWasOpened() {
+        Transaction original = transaction("10.00");
+        Transaction updated = copy(original, "20.00");
+        Transaction created = transaction("30.00");
+        write(original.getId(), null);
+        ReadSnapshot snapshot = versions.open();
+
+        write(original.getId(), original);
+        write(created.getId(), null);
+        ReadSnapshot later = versions.open();
+        write(original.getId(), updated);
+
+        assertSame(original, versions.asOf(snapshot, original.getId(), null));
+        assertNull(versions.asOf(snapshot, created.getId(), created));
+        assertSame(updated, versions.asOf(later, original.getId(), null));
+        assertSame(created, versions.asOf(later, created.getId(), created));
+        assertEquals(Set.of(original.getId(), created.getId()), versions.changedIds());
+    }
+
+    @Test
+    void retain_WithoutOpenSnapshots_ShouldKeepNothing() {
+        Transaction transaction = transaction("10.00");
+
+        write(transaction.getId(), transaction);
+
+        assertEquals(0, versions.retainedCount());
+        assertTrue(versions.changedIds().isEmpty());
+    }
+
+    @Test
+    void release_ShouldDropTheVersionsOnlyTheReleasedSnapshotNeeded() {
+        Transaction first = transaction("10.00");
+        Transaction second = transaction("20.00");
+        ReadSnapshot oldest = versions.open();
+        write(first.getId(), first);
+        ReadSnapshot newer = versions.open();
+        write(second.getId(), second);
+        assertEquals(2, versions.retainedCount());
+
+        versions.release(oldest);
+
+        assertTrue(oldest.isReleased());
+        assertEquals(1, versions.retainedCount());
+        assertSame(second, versions.asOf(newer, second.getId(), null));
+        versions.release(newer);
+        assertEquals(0, versions.retainedCount());
+        assertEquals(0, versions.openCount());
+        assertTrue(versions.changedIds().isEmpty());
+    }
+
+    @Test
+    void open_ShouldWaitForTheWriteInProgress() throws InterruptedException {
+        Transaction transaction = transaction("10.00");
+        long version = versions.beginWrite();
+        Thread opener = new Thread(versions::open);
+        opener.start();
+
+        opener.join(200);
+        assertTrue(opener.isAlive());
+        versions.retain(version, transaction.getId(), null);
+        versions.endWrite();
+        opener.join();
+        assertEquals(1, versions.openCount());
+    }
+
+    private void write(UUID id, Transaction previous) {
+        long version = versions.beginWrite();
+        try {
+            versions.retain(version, id, previous);
+        } finally {
+            versions.endWrite();
+        }
+    }
+
+    private static Transaction transaction(String amount) {
+        return new Transaction("Payment", new BigDecimal(amount), "DEBIT", "Other");
+    }
+
+    private static Transaction copy(Transaction transaction, String amount) {
+        Transaction copy = transaction(amount);
+        copy.setId(transaction.getId());
+        return copy;
+    }
+}
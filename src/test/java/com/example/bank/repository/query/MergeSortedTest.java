@@ -0,0 +1,40 @@
+package com.example.bank.repository.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergeSortedTest {
+
+    @Test
+    void merge_ShouldInterleaveSortedStreams() {
+        assertEquals(List.of(1, 2, 3, 4, 5, 6),
+                MergeSorted.merge(Stream.of(1, 4, 5), Stream.of(2, 3, 6), Comparator.naturalOrder()).toList());
+        assertEquals(List.of(9, 7, 3),
+                MergeSorted.merge(Stream.of(9, 3), Stream.of(7), Comparator.<Integer>reverseOrder()).toList());
+    }
+
+    @Test
+    void merge_WithEmptySide_ShouldReturnOtherSide() {
+        assertEquals(List.of(1, 2), MergeSorted.merge(Stream.<Integer>empty(), Stream.of(1, 2),
+                Comparator.naturalOrder()).toList());
+        assertTrue(MergeSorted.merge(Stream.<Integer>empty(), Stream.<Integer>empty(),
+                Comparator.naturalOrder()).toList().isEmpty());
+    }
+
+    @Test
+    void merge_WithLimit_ShouldOnlyPullWhatIsNeeded() {
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<Integer> large = Stream.iterate(0, i -> i + 2).peek(i -> pulled.incrementAndGet());
+
+        List<Integer> first = MergeSorted.merge(large, Stream.of(1, 3), Comparator.naturalOrder()).limit(3).toList();
+
+        assertEquals(List.of(0, 1, 2), first);
+        assertTrue(pulled.get() <= 3);
+    }
+}
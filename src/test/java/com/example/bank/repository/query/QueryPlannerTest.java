@@ -0,0 +1,116 @@
+package com.example.bank.repository.query;
+
+import com.example.bank.repository.index.DescriptionIndex;
+import com.example.bank.repository.index.HashIndex;
+import com.example.bank.repository.index.SortedIndex;
+import com.example.bank.repository.query.QueryPlanner.Access;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlannerTest {
+
+    private static final int ROWS = 1000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final List<UUID> ids = new ArrayList<>();
+    private QueryPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        HashIndex typeIndex = new HashIndex();
+        HashIndex categoryIndex = new HashIndex();
+        SortedIndex<BigDecimal> amountIndex = new SortedIndex<>();
+        SortedIndex<LocalDateTime> timestampIndex = new SortedIndex<>();
+        DescriptionIndex descriptionIndex = new DescriptionIndex();
+        // Row i: amount i, half CREDIT, every 100th row in category "rare" and described as "bonus".
+        for (int i = 0; i < ROWS; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            typeIndex.index(id, i % 2 == 0 ? "CREDIT" : "DEBIT");
+            categoryIndex.index(id, i % 100 == 0 ? "rare" : "common");
+            amountIndex.index(id, BigDecimal.valueOf(i));
+            timestampIndex.index(id, BASE.plusMinutes(i));
+            descriptionIndex.index(id, i % 100 == 0 ? "bonus payment" : "card payment");
+        }
+        planner = new QueryPlanner(typeIndex, categoryIndex, amountIndex, timestampIndex, descriptionIndex,
+                ids::stream, ids::size);
+    }
+
+    @Test
+    void plan_WithoutFilters_ShouldScan() {
+        QueryPlan plan = planner.plan(TransactionQuery.builder().build());
+
+        assertEquals(Access.FULL_SCAN, plan.getDriver());
+        assertEquals(ROWS, plan.ids().count());
+    }
+
+    @Test
+    void plan_ShouldDriveFromMostSelectiveIndex() {
+        QueryPlan plan = planner.plan(TransactionQuery.builder().type("CREDIT").category("rare").build());
+
+        assertEquals(Access.CATEGORY, plan.getDriver());
+        assertEquals(List.of(Access.TYPE), plan.getResidualAccess());
+        assertEquals(IntStream.range(0, 10).mapToObj(i -> ids.get(i * 100)).collect(Collectors.toSet()),
+                plan.ids().collect(Collectors.toSet()));
+    }
+
+    @Test
+    void plan_WithNarrowRange_ShouldDriveFromRange() {
+        QueryPlan plan = planner.plan(TransactionQuery.builder()
+                .type("DEBIT")
+                .amountBetween(new BigDecimal("10"), new BigDecimal("12"))
+                .build());
+
+        assertEquals(Access.AMOUNT_RANGE, plan.getDriver());
+        assertEquals(Set.of(ids.get(11)), plan.ids().collect(Collectors.toSet()));
+    }
+
+    @Test
+    void plan_WithSortAndSmallLimit_ShouldWalkOrderedIndex() {
+        QueryPlan plan = planner.plan(TransactionQuery.builder()
+                .type("CREDIT")
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.DESC)
+                .limit(3)
+                .build());
+
+        assertEquals(Access.AMOUNT_ORDER, plan.getDriver());
+        assertTrue(plan.isOrdered());
+        assertEquals(List.of(ids.get(998), ids.get(996), ids.get(994)), plan.ids().limit(3).toList());
+    }
+
+    @Test
+    void plan_WithSortButSelectiveFilter_ShouldSortAfterwards() {
+        QueryPlan plan = planner.plan(TransactionQuery.builder()
+                .text("bonus")
+                .sort(TransactionQuery.SortField.TIMESTAMP, Sort.Direction.ASC)
+                .build());
+
+        assertEquals(Access.TEXT, plan.getDriver());
+        assertFalse(plan.isOrdered());
+        assertEquals(10, plan.ids().count());
+    }
+
+    @Test
+    void plan_WithTimeRangeAndTimestampSort_ShouldUseRangeInOrder() {
+        QueryPlan plan = planner.plan(TransactionQuery.builder()
+                .timeBetween(BASE.plusMinutes(5), BASE.plusMinutes(8))
+                .sort(TransactionQuery.SortField.TIMESTAMP, Sort.Direction.DESC)
+                .build());
+
+        assertEquals(Access.TIMESTAMP_RANGE, plan.getDriver());
+        assertTrue(plan.isOrdered());
+        assertEquals(List.of(ids.get(7), ids.get(6), ids.get(5)), plan.ids().toList());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bank.repository.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopNTest {
+
+    @Test
+    void select_ShouldReturnFirstKInOrder() {
+        Stream<Integer> source = IntStream.of(7, 3, 9, 1, 5, 8, 2).boxed();
+
+        assertEquals(List.of(1, 2, 3), TopN.select(source, Comparator.naturalOrder(), 3));
+    }
+
+    @Test
+    void select_WithReversedOrder_ShouldReturnLargest() {
+        Stream<Integer> source = IntStream.range(0, 1000).boxed();
+
+        assertEquals(List.of(999, 998), TopN.select(source, Comparator.<Integer>reverseOrder(), 2));
+    }
+
+    @Test
+    void select_WithFewerElementsThanK_ShouldReturnAllSorted() {
+        assertEquals(List.of(1, 2), TopN.select(Stream.of(2, 1), Comparator.naturalOrder(), 10));
+    }
+
+    @Test
+    void select_WithNonPositiveK_ShouldReturnEmpty() {
+        assertTrue(TopN.select(Stream.of(1, 2), Comparator.naturalOrder(), 0).isEmpty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bank.repository.query;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionQueryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void matches_ShouldApplyEveryFilter() {
+        Transaction transaction = new Transaction("Fruit from Hema", new BigDecimal("88.80"), "DEBIT", "Food");
+        transaction.setTimestamp(BASE);
+
+        assertTrue(TransactionQuery.builder().build().matches(transaction));
+        assertTrue(TransactionQuery.builder()
+                .type("debit")
+                .category("FOOD")
+                .amountBetween(new BigDecimal("88.8"), new BigDecimal("88.80"))
+                .timeBetween(BASE, BASE.plusSeconds(1))
+                .text("frui* hema")
+                .build().matches(transaction));
+        assertFalse(TransactionQuery.builder().type("CREDIT").build().matches(transaction));
+        assertFalse(TransactionQuery.builder().category("Salary").build().matches(transaction));
+        assertFalse(TransactionQuery.builder().amountBetween(null, new BigDecimal("50")).build().matches(transaction));
+        assertFalse(TransactionQuery.builder().timeBetween(null, BASE).build().matches(transaction));
+        assertFalse(TransactionQuery.builder().text("hema coffee").build().matches(transaction));
+    }
+
+    @Test
+    void matches_WithMissingFields_ShouldFailRangeFilters() {
+        Transaction transaction = new Transaction();
+        transaction.setTimestamp(null);
+
+        assertFalse(TransactionQuery.builder().amountBetween(BigDecimal.ONE, null).build().matches(transaction));
+        assertFalse(TransactionQuery.builder().timeBetween(BASE, null).build().matches(transaction));
+        assertFalse(TransactionQuery.builder().text("anything").build().matches(transaction));
+    }
+
+    @Test
+    void toBuilder_ShouldCopyEverythingAndLeaveTheOriginalAlone() {
+        TransactionQuery query = TransactionQuery.builder()
+                .type("DEBIT")
+                .category("Food")
+                .amountBetween(BigDecimal.ONE, BigDecimal.TEN)
+                .timeBetween(BASE, BASE.plusDays(1))
+                .text("hema")
+                .sort(TransactionQuery.SortField.AMOUNT, Sort.Direction.DESC)
+                .limit(5)
+                .asOf(BASE.plusHours(1))
+                .build();
+
+        TransactionQuery current = query.toBuilder().asOf(null).limit(10).build();
+
+        assertEquals(query.toString().replace(", limit=5, asOf=" + BASE.plusHours(1), ", limit=10"), current.toString());
+        assertEquals(BASE.plusHours(1), query.getAsOf());
+        assertEquals(5, query.getLimit());
+    }
+}
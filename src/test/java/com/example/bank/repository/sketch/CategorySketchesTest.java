@@ -0,0 +1,62 @@
+package com.example.bank.repository.sketch;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategorySketchesTest {
+
+    @Test
+    void add_ShouldKeepQuantilesPerCategoryCaseInsensitively() {
+        CategorySketches sketches = new CategorySketches();
+        for (int i = 1; i <= 99; i++) {
+            sketches.add(new Transaction("Lunch", BigDecimal.valueOf(i), "DEBIT", i % 2 == 0 ? "Food" : "food"));
+        }
+        sketches.add(new Transaction("Salary", new BigDecimal("3000"), "CREDIT", "Salary"));
+
+        CategorySketches.Category food = sketches.category("FOOD");
+        assertEquals("food", food.name());
+        assertEquals(99, food.amounts().count());
+        assertEquals(50, food.amounts().quantile(0.5), 0.5);
+        assertEquals(100, sketches.all().count());
+        assertEquals(2, sketches.distinctCategories());
+        assertNull(sketches.category("Travel"));
+    }
+
+    @Test
+    void remove_ShouldDropEmptiedCategoriesFromTheListing() {
+        CategorySketches sketches = new CategorySketches();
+        Transaction rent = new Transaction("Rent", new BigDecimal("900"), "DEBIT", "Rent");
+        Transaction coffee = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        Transaction lunch = new Transaction("Lunch", new BigDecimal("12.25"), "DEBIT", "Food");
+        List.of(rent, coffee, lunch).forEach(sketches::add);
+
+        sketches.remove(rent);
+
+        List<CategorySketches.Category> categories = sketches.categories(10);
+        assertEquals(1, categories.size());
+        assertEquals("Food", categories.get(0).name());
+        assertEquals(2, sketches.all().count());
+        // The distinct count can't forget a category.
+        assertEquals(2, sketches.distinctCategories());
+    }
+
+    @Test
+    void categories_ShouldListTheLargestFirst() {
+        CategorySketches sketches = new CategorySketches();
+        for (int i = 0; i < 5; i++) {
+            sketches.add(new Transaction("Bus", new BigDecimal("2.80"), "DEBIT", "Travel"));
+        }
+        for (int i = 0; i < 3; i++) {
+            sketches.add(new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food"));
+        }
+        sketches.add(new Transaction("Rent", new BigDecimal("900"), "DEBIT", "Rent"));
+
+        assertEquals(List.of("Travel", "Food"), sketches.categories(2).stream()
+                .map(CategorySketches.Category::name).toList());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bank.repository.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_ManyDistinctValues_ShouldBeWithinAFewPercent() {
+        HyperLogLog hyperLogLog = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) {
+            hyperLogLog.add("category-" + i);
+            hyperLogLog.add("category-" + i);
+        }
+
+        assertEquals(200_000, hyperLogLog.estimate(), 200_000 * 0.03);
+    }
+
+    @Test
+    void estimate_FewDistinctValues_ShouldBeExactOrClose() {
+        HyperLogLog hyperLogLog = new HyperLogLog();
+        for (String category : new String[]{"food", "salary", "rent", "food", "travel", "rent"}) {
+            hyperLogLog.add(category);
+        }
+
+        assertEquals(4, hyperLogLog.estimate());
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void merge_ShouldEstimateTheUnion() {
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        for (int i = 0; i < 30_000; i++) {
+            left.add("value-" + i);
+            right.add("value-" + (i + 20_000));
+        }
+
+        left.merge(right);
+
+        assertEquals(50_000, left.estimate(), 50_000 * 0.05);
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new HyperLogLog(14)));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.bank.repository.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void quantile_ShouldStayWithinTheRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 2048);
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal, like amounts: mostly small, a long tail of large ones.
+            values[i] = Math.exp(3 + 1.5 * random.nextGaussian());
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0, 0.1, 0.5, 0.9, 0.99, 0.999, 1}) {
+            double exact = values[(int) (q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * 0.01, "quantile " + q);
+        }
+        assertEquals(100_000, sketch.count());
+    }
+
+    @Test
+    void remove_ShouldUndoAdd() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 2048);
+        for (int i = 1; i <= 100; i++) {
+            sketch.add(i);
+        }
+        for (int i = 51; i <= 100; i++) {
+            assertTrue(sketch.remove(i));
+        }
+
+        assertEquals(50, sketch.count());
+        assertEquals(50, sketch.quantile(1), 0.5);
+        assertFalse(sketch.remove(1000), "never added");
+        assertEquals(50, sketch.count());
+    }
+
+    @Test
+    void merge_ShouldEqualOneSketchOfBoth() {
+        QuantileSketch left = new QuantileSketch(0.01, 2048);
+        QuantileSketch right = new QuantileSketch(0.01, 2048);
+        QuantileSketch both = new QuantileSketch(0.01, 2048);
+        for (int i = 1; i <= 1000; i++) {
+            (i % 2 == 0 ? left : right).add(i * 1.5);
+            both.add(i * 1.5);
+        }
+
+        left.merge(right);
+
+        assertEquals(both.count(), left.count());
+        for (double q : new double[]{0, 0.25, 0.5, 0.75, 0.99, 1}) {
+            assertEquals(both.quantile(q), left.quantile(q), "quantile " + q);
+        }
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new QuantileSketch(0.02, 2048)));
+    }
+
+    @Test
+    void quantile_NegativeAndZeroValues_ShouldBeOrdered() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 2048);
+        sketch.add(-100);
+        sketch.add(-1);
+        sketch.add(0);
+        sketch.add(10);
+        sketch.add(1000);
+
+        assertEquals(-100, sketch.quantile(0), 1);
+        assertEquals(-1, sketch.quantile(0.25), 0.01);
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(10, sketch.quantile(0.75), 0.1);
+        assertEquals(1000, sketch.quantile(1), 10);
+    }
+
+    @Test
+    void add_BeyondMaxBins_ShouldOnlyBlurTheSmallestValues() {
+        // 700 buckets of 2% span a factor of about 1.2e6, 1e-6 to 1e6 would need about 1400.
+        QuantileSketch sketch = new QuantileSketch(0.01, 700);
+        for (int exponent = -6; exponent <= 6; exponent++) {
+            sketch.add(Math.pow(10, exponent));
+        }
+
+        assertEquals(1e6, sketch.quantile(1), 1e4);
+        assertEquals(1e5, sketch.quantile(11.5 / 12), 1e3);
+        assertTrue(sketch.quantile(0) > 1e-6, "collapsed into the lowest kept bucket");
+        assertTrue(sketch.remove(1e-6), "removed from the bucket it was collapsed into");
+        assertEquals(12, sketch.count());
+    }
+
+    @Test
+    void quantile_Empty_ShouldBeNaN() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 2048);
+
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+    }
+}
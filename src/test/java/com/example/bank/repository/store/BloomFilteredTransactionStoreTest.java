@@ -0,0 +1,64 @@
+package com.example.bank.repository.store;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilteredTransactionStoreTest extends TransactionStoreContractTest<BloomFilteredTransactionStore> {
+
+    @Override
+    protected BloomFilteredTransactionStore open() {
+        JdbcTransactionStore jdbc = new JdbcTransactionStore("jdbc:h2:file:" + directory.resolve("transactions"),
+                "sa", "", 2, 100, 64);
+        return new BloomFilteredTransactionStore(jdbc, 1000, 0.01);
+    }
+
+    @Override
+    protected boolean isDurable() {
+        return true;
+    }
+
+    @Test
+    void lookupsOfUnknownIds_ShouldMostlyBeAnsweredByTheFilter() {
+        store.putAll(sample(500));
+
+        for (int i = 0; i < 1000; i++) {
+            UUID unknown = UUID.randomUUID();
+            assertNull(store.get(unknown));
+            assertFalse(store.contains(unknown));
+            assertFalse(store.delete(unknown));
+        }
+
+        assertEquals(3000, store.getNegativeCount() + store.getFalsePositiveCount());
+        assertTrue(store.getFalsePositiveCount() < 3000 * 0.03, "false positives: " + store.getFalsePositiveCount());
+    }
+
+    @Test
+    void deletedId_ShouldBeLetThroughAndCountedAsFalsePositive() {
+        Transaction transaction = sample(1).get(0);
+        store.put(transaction);
+        assertTrue(store.delete(transaction.getId()));
+
+        assertNull(store.get(transaction.getId()));
+
+        assertEquals(1, store.getFalsePositiveCount());
+        assertEquals(0, store.getNegativeCount());
+    }
+
+    @Test
+    void reopen_ShouldLoadTheIdsOfExistingRows() {
+        List<Transaction> transactions = sample(300);
+        store.putAll(transactions);
+        store.close();
+
+        store = open();
+
+        assertEquals(300, store.getFilter().insertions());
+        assertTrue(transactions.stream().allMatch(t -> store.contains(t.getId())));
+        assertEquals(0, store.getFalsePositiveCount());
+    }
+}
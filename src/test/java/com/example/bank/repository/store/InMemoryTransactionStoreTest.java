@@ -0,0 +1,67 @@
+package com.example.bank.repository.store;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.tier.ColdTier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTransactionStoreTest extends TransactionStoreContractTest<InMemoryTransactionStore> {
+
+    private ColdTier coldTier;
+
+    @Override
+    protected InMemoryTransactionStore open() {
+        if (coldTier == null) {
+            coldTier = new ColdTier(directory, 1024);
+        }
+        return new InMemoryTransactionStore(coldTier);
+    }
+
+    @Override
+    protected boolean isDurable() {
+        return false;
+    }
+
+    @AfterEach
+    void closeColdTier() {
+        coldTier.close();
+    }
+
+    @Test
+    void evicted_ShouldMoveRowsToColdTierAndKeepThemReadable() {
+        List<Transaction> transactions = sample(10);
+        store.putAll(transactions);
+
+        store.evicted(transactions.subList(0, 4));
+
+        assertEquals(4, coldTier.size());
+        assertEquals(10, store.size());
+        assertSameFields(transactions.get(2), store.get(transactions.get(2).getId()));
+        assertEquals(Set.of(transactions.get(0).getId(), transactions.get(3).getId()),
+                ids(store.scanEvicted(TransactionQuery.builder().category("food").build())));
+        assertEquals(10, ids(store.stream()).size());
+    }
+
+    @Test
+    void put_EvictedRow_ShouldDropColdCopy() {
+        List<Transaction> transactions = sample(3);
+        store.putAll(transactions);
+        store.evicted(transactions);
+        Transaction update = transactions.get(1);
+        update.setDescription("Updated");
+
+        store.put(update);
+
+        assertEquals(2, coldTier.size());
+        assertEquals("Updated", store.get(update.getId()).getDescription());
+        assertEquals(3, store.size());
+        assertTrue(store.delete(transactions.get(0).getId()));
+        assertEquals(1, coldTier.size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.bank.repository.store;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcTransactionStoreTest extends TransactionStoreContractTest<JdbcTransactionStore> {
+
+    @Override
+    protected JdbcTransactionStore open() {
+        // Small batches and pages so that the tests cross their boundaries.
+        return new JdbcTransactionStore("jdbc:h2:file:" + directory.resolve("transactions"), "sa", "",
+                2, 100, 64);
+    }
+
+    @Override
+    protected boolean isDurable() {
+        return true;
+    }
+
+    @Test
+    void putAll_ExistingIds_ShouldReplaceRows() {
+        List<Transaction> transactions = sample(250);
+        store.putAll(transactions);
+        transactions.forEach(t -> t.setAmount(t.getAmount().negate()));
+
+        store.putAll(transactions);
+
+        assertEquals(250, store.size());
+        assertEquals(new BigDecimal("-7.25"), store.get(transactions.get(7).getId()).getAmount());
+    }
+
+    @Test
+    void putAll_FailingRowInALaterBatch_ShouldWriteNoRows() {
+        List<Transaction> transactions = sample(250);
+        transactions.get(220).setId(null);
+
+        assertThrows(IllegalStateException.class, () -> store.putAll(transactions));
+
+        assertEquals(0, store.size());
+        assertNull(store.get(transactions.get(7).getId()));
+    }
+
+    @Test
+    void concurrentWriters_ShouldShareThePool() throws InterruptedException {
+        List<Transaction> transactions = sample(400);
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            List<Transaction> slice = transactions.subList(w * 100, (w + 1) * 100);
+            writers[w] = new Thread(() -> slice.forEach(store::put));
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(400, store.size());
+    }
+}
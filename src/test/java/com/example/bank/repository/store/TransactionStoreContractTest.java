@@ -0,0 +1,207 @@
+package com.example.bank.repository.store;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.query.TransactionQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link TransactionStore} must share. Each backend extends this class and
+ * opens its store under {@link #directory}.
+ */
+public abstract class TransactionStoreContractTest<S extends TransactionStore> {
+
+    @TempDir
+    protected Path directory;
+
+    protected S store;
+
+    /**
+     * Opens the store under {@link #directory}; called again after {@code close()} by durable backends.
+     */
+    protected abstract S open();
+
+    /**
+     * Whether rows survive closing and reopening the store.
+     */
+    protected abstract boolean isDurable();
+
+    @BeforeEach
+    void openStore() {
+        store = open();
+    }
+
+    @AfterEach
+    void closeStore() {
+        store.close();
+    }
+
+    @Test
+    void put_ShouldRoundTripEveryField() {
+        Transaction transaction = new Transaction("盒马 Fruit from Hema", new BigDecimal("1234.5600"), "DEBIT", "Food");
+        transaction.setTimestamp(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123456789));
+        transaction.setAccountId("acc-1001");
+
+        store.put(transaction);
+        Transaction found = store.get(transaction.getId());
+
+        assertSameFields(transaction, found);
+        assertEquals("1234.5600", found.getAmount().toPlainString());
+        assertTrue(store.contains(transaction.getId()));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void put_NullFields_ShouldRoundTrip() {
+        Transaction transaction = new Transaction(null, null, null, null);
+        transaction.setTimestamp(null);
+
+        store.put(transaction);
+
+        assertSameFields(transaction, store.get(transaction.getId()));
+    }
+
+    @Test
+    void put_SameId_ShouldReplaceRow() {
+        Transaction transaction = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        store.put(transaction);
+        Transaction update = new Transaction("Coffee and cake", new BigDecimal("9.00"), "DEBIT", "Dining");
+        update.setId(transaction.getId());
+
+        store.put(update);
+
+        assertSameFields(update, store.get(transaction.getId()));
+        assertEquals(1, store.size());
+        assertEquals(Set.of(), ids(store.scan(TransactionQuery.builder().category("food").build())));
+    }
+
+    @Test
+    void delete_ShouldRemoveRowAndReportUnknownIds() {
+        Transaction transaction = new Transaction("Coffee", new BigDecimal("4.50"), "DEBIT", "Food");
+        store.put(transaction);
+
+        assertTrue(store.delete(transaction.getId()));
+
+        assertNull(store.get(transaction.getId()));
+        assertFalse(store.contains(transaction.getId()));
+        assertFalse(store.delete(transaction.getId()));
+        assertFalse(store.delete(UUID.randomUUID()));
+        assertNull(store.get(UUID.randomUUID()));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void putAll_ShouldStoreEveryRow() {
+        List<Transaction> transactions = sample(1234);
+
+        store.putAll(transactions);
+
+        assertEquals(1234, store.size());
+        for (Transaction transaction : transactions) {
+            assertSameFields(transaction, store.get(transaction.getId()));
+        }
+    }
+
+    @Test
+    void scan_ShouldReturnExactlyTheMatchingRows() {
+        List<Transaction> transactions = sample(500);
+        Transaction undated = new Transaction("Undated payment", null, "debit", "FOOD");
+        undated.setTimestamp(null);
+        transactions.add(undated);
+        store.putAll(transactions);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<TransactionQuery> queries = List.of(
+                TransactionQuery.builder().build(),
+                TransactionQuery.builder().type("debit").build(),
+                TransactionQuery.builder().category("Food").build(),
+                TransactionQuery.builder().amountBetween(new BigDecimal("100"), new BigDecimal("200.25")).build(),
+                TransactionQuery.builder().amountBetween(new BigDecimal("450"), null).build(),
+                TransactionQuery.builder().timeBetween(start.plusHours(10), start.plusHours(20)).build(),
+                TransactionQuery.builder().timeBetween(null, start.plusHours(5)).build(),
+                TransactionQuery.builder().text("payment 12").build(),
+                TransactionQuery.builder().type("CREDIT").category("rent")
+                        .amountBetween(null, new BigDecimal("300")).timeBetween(start.plusHours(50), null).build());
+
+        for (TransactionQuery query : queries) {
+            Set<UUID> expected = transactions.stream()
+                    .filter(query::matches)
+                    .map(Transaction::getId)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, ids(store.scan(query)), query.toString());
+        }
+    }
+
+    @Test
+    void stream_ShouldReturnEveryRowOnce() {
+        List<Transaction> transactions = sample(2500);
+        store.putAll(transactions);
+        store.delete(transactions.get(0).getId());
+
+        List<UUID> streamed;
+        try (Stream<Transaction> rows = store.stream()) {
+            streamed = rows.map(Transaction::getId).toList();
+        }
+
+        assertEquals(2499, streamed.size());
+        assertEquals(2499, Set.copyOf(streamed).size());
+        assertFalse(streamed.contains(transactions.get(0).getId()));
+    }
+
+    @Test
+    void reopen_ShouldKeepRowsOfDurableStores() {
+        List<Transaction> transactions = sample(100);
+        store.putAll(transactions);
+        store.delete(transactions.get(0).getId());
+        store.close();
+
+        store = open();
+
+        assertEquals(isDurable() ? 99 : 0, store.size());
+        if (isDurable()) {
+            assertNull(store.get(transactions.get(0).getId()));
+            assertSameFields(transactions.get(1), store.get(transactions.get(1).getId()));
+        }
+    }
+
+    protected static List<Transaction> sample(int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction("Payment " + i, new BigDecimal(i + ".25"),
+                    i % 2 == 0 ? "DEBIT" : "CREDIT", i % 3 == 0 ? "Food" : "Rent");
+            transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    protected static Set<UUID> ids(Stream<Transaction> rows) {
+        try (rows) {
+            return rows.map(Transaction::getId).collect(Collectors.toSet());
+        }
+    }
+
+    protected static void assertSameFields(Transaction expected, Transaction actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getAccountId(), actual.getAccountId());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.bank.repository.tier;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.query.TransactionQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColdTierTest {
+
+    @TempDir
+    Path directory;
+
+    private ColdTier coldTier;
+
+    @BeforeEach
+    void setUp() {
+        // Small blocks so that a few hundred rows span many blocks.
+        coldTier = new ColdTier(directory, 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coldTier.close();
+    }
+
+    @Test
+    void find_ShouldRoundTripAllFields() {
+        Transaction transaction = new Transaction("盒马 Fruit from Hema", new BigDecimal("1234.5600"), "DEBIT", "Food");
+        transaction.setTimestamp(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123456789));
+        Transaction sparse = new Transaction();
+        sparse.setTimestamp(null);
+
+        coldTier.append(List.of(transaction, sparse));
+
+        Transaction found = coldTier.find(transaction.getId());
+        assertEquals(transaction.getId(), found.getId());
+        assertEquals("盒马 Fruit from Hema", found.getDescription());
+        assertEquals(new BigDecimal("1234.5600"), found.getAmount());
+        assertEquals("DEBIT", found.getType());
+        assertEquals("Food", found.getCategory());
+        assertEquals(transaction.getTimestamp(), found.getTimestamp());
+
+        Transaction foundSparse = coldTier.find(sparse.getId());
+        assertNull(foundSparse.getDescription());
+        assertNull(foundSparse.getAmount());
+        assertNull(foundSparse.getTimestamp());
+    }
+
+    @Test
+    void append_ShouldSpreadRowsOverBlocksAndFindEach() {
+        List<Transaction> transactions = sample(500);
+
+        coldTier.append(transactions);
+
+        assertEquals(500, coldTier.size());
+        assertEquals(1, coldTier.segmentCount());
+        for (Transaction transaction : transactions) {
+            assertEquals(transaction.getDescription(), coldTier.find(transaction.getId()).getDescription());
+        }
+        assertEquals(transactions.stream().map(Transaction::getId).collect(Collectors.toSet()),
+                coldTier.stream().map(Transaction::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void remove_ShouldHideRowAndDeleteEmptySegment() throws IOException {
+        List<Transaction> transactions = sample(3);
+        coldTier.append(transactions);
+
+        assertTrue(coldTier.remove(transactions.get(0).getId()));
+        assertFalse(coldTier.remove(transactions.get(0).getId()));
+        assertNull(coldTier.find(transactions.get(0).getId()));
+        assertEquals(2, coldTier.stream().count());
+
+        coldTier.remove(transactions.get(1).getId());
+        coldTier.remove(transactions.get(2).getId());
+        assertEquals(0, coldTier.segmentCount());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void append_SameIdAgain_ShouldOnlyExposeLatestCopy() {
+        Transaction transaction = sample(1).get(0);
+        coldTier.append(List.of(transaction));
+        transaction.setDescription("Updated");
+
+        coldTier.append(List.of(transaction));
+
+        assertEquals("Updated", coldTier.find(transaction.getId()).getDescription());
+        assertEquals(List.of("Updated"), coldTier.stream().map(Transaction::getDescription).toList());
+        assertEquals(1, coldTier.segmentCount());
+    }
+
+    @Test
+    void scan_ShouldFilterRowsAndTrackNewestTimestamp() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> january = sample(20);
+        january.forEach(t -> t.setTimestamp(base));
+        List<Transaction> february = sample(20);
+        february.forEach(t -> t.setTimestamp(base.plusMonths(1)));
+        coldTier.append(january);
+        coldTier.append(february);
+
+        List<Transaction> matches = coldTier.scan(TransactionQuery.builder()
+                .type("credit")
+                .category("category 0")
+                .timeBetween(base.plusDays(1), null)
+                .build()).toList();
+
+        // Rows 0 and 10 of the February batch are CREDIT in category 0.
+        assertEquals(Set.of(february.get(0).getId(), february.get(10).getId()),
+                matches.stream().map(Transaction::getId).collect(Collectors.toSet()));
+        assertEquals(base.plusMonths(1), coldTier.maxTimestamp());
+        assertTrue(coldTier.scan(TransactionQuery.builder().category("unknown").build()).toList().isEmpty());
+    }
+
+    @Test
+    void constructor_ShouldClearStaleSegments() throws IOException {
+        coldTier.append(sample(10));
+        coldTier.close();
+
+        Files.writeString(directory.resolve("00000042.seg"), "stale");
+        coldTier = new ColdTier(directory, 1024);
+
+        try (var files = Files.list(directory)) {
+            assertEquals(Set.of(), files.collect(Collectors.toSet()));
+        }
+        assertEquals(0, coldTier.size());
+    }
+
+    private List<Transaction> sample(int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            transactions.add(new Transaction("Transaction " + i, BigDecimal.valueOf(i, 2),
+                    i % 2 == 0 ? "CREDIT" : "DEBIT", "Category " + (i % 5)));
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bank.repository.tier;
+
+import com.example.bank.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TierMoverTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void moveOlderThan_ShouldRepeatWhileBatchesAreFull() {
+        when(transactionRepository.demoteOlderThan(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 30);
+        TierMover mover = new TierMover(transactionRepository, true, Duration.ofDays(7), 100);
+
+        assertEquals(230, mover.moveOlderThan(Duration.ofDays(7)));
+        verify(transactionRepository, times(3)).demoteOlderThan(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    void moveScheduled_WhenDisabled_ShouldDoNothing() {
+        TierMover mover = new TierMover(transactionRepository, false, Duration.ofDays(7), 100);
+
+        mover.moveScheduled();
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void promoteRecent_ShouldLoadRowsYoungerThanMaxHotAge() {
+        TierMover mover = new TierMover(transactionRepository, true, Duration.ofDays(7), 100);
+        LocalDateTime before = LocalDateTime.now().minusDays(7);
+
+        mover.promoteRecent();
+
+        verify(transactionRepository).promoteNewerThan(argThat(cutoff -> !cutoff.isBefore(before)
+                && cutoff.isBefore(LocalDateTime.now().minusDays(6))));
+    }
+
+    @Test
+    void promoteRecent_WhenDisabled_ShouldLoadEverything() {
+        TierMover mover = new TierMover(transactionRepository, false, Duration.ofDays(7), 100);
+
+        mover.promoteRecent();
+
+        verify(transactionRepository).promoteNewerThan(LocalDateTime.MIN);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bank.repository.tier;
+
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCodecTest {
+
+    @Test
+    void read_ShouldRoundTripTheAccount() throws IOException {
+        Transaction transaction = new Transaction("Rent", new BigDecimal("950.00"), "DEBIT", "Housing");
+        transaction.setAccountId("acc-1001");
+
+        Transaction read = decode(encode(transaction));
+
+        assertEquals("acc-1001", read.getAccountId());
+        assertEquals(transaction.getId(), read.getId());
+        assertNull(decode(encode(new Transaction("Rent", BigDecimal.ONE, "DEBIT", null))).getAccountId());
+    }
+
+    @Test
+    void read_RecordWrittenBeforeAccounts_ShouldHaveNone() throws IOException {
+        UUID id = UUID.randomUUID();
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 5);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(1);
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+        writeString(out, "Coffee");
+        out.writeByte(1);
+        out.writeByte(45);
+        out.writeInt(1);
+        writeString(out, "DEBIT");
+        writeString(out, "Food");
+        out.writeBoolean(true);
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+
+        Transaction read = decode(bytes.toByteArray());
+
+        assertEquals(id, read.getId());
+        assertEquals("Coffee", read.getDescription());
+        assertEquals(new BigDecimal("4.5"), read.getAmount());
+        assertEquals("Food", read.getCategory());
+        assertEquals(timestamp, read.getTimestamp());
+        assertNull(read.getAccountId());
+    }
+
+    @Test
+    void read_UnknownVersion_ShouldFail() {
+        assertThrows(IOException.class, () -> decode(new byte[]{9}));
+    }
+
+    private static byte[] encode(Transaction transaction) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TransactionCodec.write(new DataOutputStream(bytes), transaction);
+        return bytes.toByteArray();
+    }
+
+    private static Transaction decode(byte[] bytes) throws IOException {
+        return TransactionCodec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
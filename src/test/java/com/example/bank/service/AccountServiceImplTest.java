@@ -0,0 +1,138 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.AccountBalanceResponse;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransferRequest;
+import com.example.bank.dto.TransferResponse;
+import com.example.bank.exception.InsufficientFundsException;
+import com.example.bank.exception.ValidationException;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.account.AccountLedgers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountServiceImplTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    @Spy
+    private ChangeFeed changeFeed = new ChangeFeed(16);
+
+    @InjectMocks
+    private AccountServiceImpl accountService;
+
+    @Test
+    void getAccountHistory_ShouldConvertTheAccountsTransactions() {
+        LocalDateTime before = LocalDateTime.of(2024, 6, 1, 0, 0);
+        Transaction rent = new Transaction("Rent", new BigDecimal("950.00"), "DEBIT", "Housing");
+        rent.setAccountId("acc-1001");
+        when(transactionRepository.findByAccount("acc-1001", before, 20)).thenReturn(List.of(rent));
+
+        List<TransactionResponse> history = accountService.getAccountHistory("acc-1001", before, 20);
+
+        assertEquals(1, history.size());
+        assertEquals(rent.getId(), history.get(0).getId());
+        assertEquals("acc-1001", history.get(0).getAccountId());
+    }
+
+    @Test
+    void getAccountHistory_WithInvalidArguments_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> accountService.getAccountHistory("acc 1001", null, 20));
+        assertThrows(ValidationException.class, () -> accountService.getAccountHistory("x".repeat(65), null, 20));
+        assertThrows(ValidationException.class, () -> accountService.getAccountHistory("acc-1001", null, 0));
+        assertThrows(ValidationException.class, () -> accountService.getAccountHistory("acc-1001", null, 501));
+        verify(transactionRepository, never()).findByAccount(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void getAccountBalance_ShouldReturnCreditsDebitsAndBalance() {
+        when(transactionRepository.findAccountBalance("acc-1001")).thenReturn(Optional.of(
+                new AccountLedgers.Balance("acc-1001", 3, new BigDecimal("1500.00"), new BigDecimal("954.50"))));
+
+        AccountBalanceResponse response = accountService.getAccountBalance("acc-1001");
+
+        assertEquals("acc-1001", response.getAccountId());
+        assertEquals(3, response.getCount());
+        assertEquals(new BigDecimal("1500.00"), response.getCredits());
+        assertEquals(new BigDecimal("954.50"), response.getDebits());
+        assertEquals(new BigDecimal("545.50"), response.getBalance());
+    }
+
+    @Test
+    void getAccountBalance_UnknownAccount_ShouldBeZero() {
+        when(transactionRepository.findAccountBalance("acc-unknown")).thenReturn(Optional.empty());
+
+        AccountBalanceResponse response = accountService.getAccountBalance("acc-unknown");
+
+        assertEquals(0, response.getCount());
+        assertEquals(0, response.getBalance().signum());
+    }
+
+    @Test
+    void transfer_ShouldBookADebitAndACreditAndRecordBoth() {
+        TransferRequest request = new TransferRequest("acc-1001", "acc-2002", new BigDecimal("250.00"));
+        when(transactionRepository.transfer(any(Transaction.class), any(Transaction.class))).thenReturn(true);
+        long sequence = changeFeed.getLatestSequence();
+
+        TransferResponse response = accountService.transfer(request);
+
+        ArgumentCaptor<Transaction> debit = ArgumentCaptor.forClass(Transaction.class);
+        ArgumentCaptor<Transaction> credit = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).transfer(debit.capture(), credit.capture());
+        assertEquals("DEBIT", debit.getValue().getType());
+        assertEquals("acc-1001", debit.getValue().getAccountId());
+        assertEquals("CREDIT", credit.getValue().getType());
+        assertEquals("acc-2002", credit.getValue().getAccountId());
+        assertEquals(debit.getValue().getTimestamp(), credit.getValue().getTimestamp());
+        assertEquals("Transfer from acc-1001 to acc-2002", credit.getValue().getDescription());
+        assertEquals(debit.getValue().getId(), response.getDebit().getId());
+        assertEquals(credit.getValue().getId(), response.getCredit().getId());
+        assertEquals(sequence + 2, changeFeed.getLatestSequence());
+        verify(requestCoalescer).invalidate();
+    }
+
+    @Test
+    void transfer_NotCoveredByBalance_ShouldThrowInsufficientFundsAndRecordNothing() {
+        TransferRequest request = new TransferRequest("acc-1001", "acc-2002", new BigDecimal("250.00"));
+        when(transactionRepository.transfer(any(Transaction.class), any(Transaction.class))).thenReturn(false);
+        long sequence = changeFeed.getLatestSequence();
+
+        assertThrows(InsufficientFundsException.class, () -> accountService.transfer(request));
+        assertEquals(sequence, changeFeed.getLatestSequence());
+    }
+
+    @Test
+    void transfer_WithInvalidRequest_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> accountService.transfer(
+                new TransferRequest("acc-1001", "acc-1001", new BigDecimal("1.00"))));
+        assertThrows(ValidationException.class, () -> accountService.transfer(
+                new TransferRequest("acc-1001", "acc 2002", new BigDecimal("1.00"))));
+        assertThrows(ValidationException.class, () -> accountService.transfer(
+                new TransferRequest("acc-1001", "acc-2002", BigDecimal.ZERO)));
+        assertThrows(ValidationException.class, () -> accountService.transfer(
+                new TransferRequest(null, "acc-2002", new BigDecimal("1.00"))));
+        verify(transactionRepository, never()).transfer(any(), any());
+    }
+}
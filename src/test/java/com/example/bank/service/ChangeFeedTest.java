@@ -0,0 +1,178 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.ChangeBatchResponse;
+import com.example.bank.dto.TransactionChange;
+import com.example.bank.dto.TransactionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    @Test
+    void read_ShouldReturnChangesAfterSequenceUpToLimit() {
+        ChangeFeed feed = new ChangeFeed(8);
+        long start = feed.getLatestSequence();
+        for (int i = 0; i < 5; i++) {
+            feed.recordCreate(() -> response(UUID.randomUUID()));
+        }
+
+        ChangeBatchResponse first = feed.read(start, 3);
+        ChangeBatchResponse rest = feed.read(first.getNextAfter(), 3);
+        ChangeBatchResponse none = feed.read(rest.getNextAfter(), 3);
+
+        assertEquals(List.of(start + 1, start + 2, start + 3), sequences(first));
+        assertEquals(List.of(start + 4, start + 5), sequences(rest));
+        assertTrue(none.getChanges().isEmpty());
+        assertEquals(start + 5, none.getNextAfter());
+        assertEquals(start + 5, none.getLatestSequence());
+        assertFalse(none.isResyncRequired());
+    }
+
+    @Test
+    void read_BehindRingOrFromAnotherProcess_ShouldRequireResync() {
+        ChangeFeed feed = new ChangeFeed(4);
+        long start = feed.getLatestSequence();
+        for (int i = 0; i < 10; i++) {
+            feed.recordCreate(() -> response(UUID.randomUUID()));
+        }
+
+        ChangeBatchResponse lapped = feed.read(start + 5, 10);
+        ChangeBatchResponse oldest = feed.read(start + 6, 10);
+
+        assertTrue(lapped.isResyncRequired());
+        assertTrue(lapped.getChanges().isEmpty());
+        assertEquals(start + 10, lapped.getNextAfter());
+        assertFalse(oldest.isResyncRequired());
+        assertEquals(List.of(start + 7, start + 8, start + 9, start + 10), sequences(oldest));
+        assertTrue(feed.read(0, 10).isResyncRequired());
+        assertTrue(feed.read(start + 11, 10).isResyncRequired());
+        assertEquals(3, feed.getResyncCount());
+    }
+
+    @Test
+    void recordWrites_FailingWrite_ShouldNotAppendOrNotify() {
+        ChangeFeed feed = new ChangeFeed(8);
+        AtomicInteger notified = new AtomicInteger();
+        Runnable unsubscribe = feed.subscribe(notified::incrementAndGet);
+        long start = feed.getLatestSequence();
+        UUID id = UUID.randomUUID();
+
+        assertThrows(IllegalStateException.class, () -> feed.recordDelete(id, () -> {
+            throw new IllegalStateException("not found");
+        }));
+        feed.recordUpdate(id, () -> response(id));
+        feed.recordDelete(id, () -> { });
+        unsubscribe.run();
+        feed.recordCreate(() -> response(UUID.randomUUID()));
+
+        List<TransactionChange> changes = feed.read(start, 10).getChanges();
+        assertEquals(3, changes.size());
+        assertEquals(TransactionChange.Type.UPDATED, changes.get(0).getType());
+        assertEquals(id, changes.get(1).getId());
+        assertEquals(TransactionChange.Type.DELETED, changes.get(1).getType());
+        assertEquals(2, notified.get());
+    }
+
+    @Test
+    void recordUpdate_ConcurrentWritesOfOneId_ShouldBeNumberedInApplyOrder() throws Exception {
+        ChangeFeed feed = new ChangeFeed(10_000);
+        UUID id = UUID.randomUUID();
+        List<Integer> applied = new ArrayList<>();
+        AtomicInteger counter = new AtomicInteger();
+        long start = feed.getLatestSequence();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        feed.recordUpdate(id, () -> {
+                            int value = counter.incrementAndGet();
+                            applied.add(value);
+                            TransactionResponse response = response(id);
+                            response.setDescription(Integer.toString(value));
+                            return response;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<TransactionChange> changes = feed.read(start, 2000).getChanges();
+        assertEquals(2000, changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            assertEquals(applied.get(i).toString(), changes.get(i).getTransaction().getDescription());
+        }
+    }
+
+    @Test
+    void recordCreates_DeleteOnceVisible_ShouldBeNumberedAfterTheCreates() throws Exception {
+        ChangeFeed feed = new ChangeFeed(16);
+        UUID debit = UUID.randomUUID();
+        UUID credit = UUID.randomUUID();
+        long start = feed.getLatestSequence();
+        CountDownLatch visible = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Deletes the credit as soon as the write has made it visible, before it is recorded.
+            Future<?> delete = executor.submit(() -> {
+                visible.await(10, TimeUnit.SECONDS);
+                feed.recordDelete(credit, () -> { });
+                return null;
+            });
+
+            feed.recordCreates(List.of(debit, credit), () -> {
+                visible.countDown();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(response(debit), response(credit));
+            });
+            delete.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        List<TransactionChange> changes = feed.read(start, 10).getChanges();
+        assertEquals(List.of(TransactionChange.Type.CREATED, TransactionChange.Type.CREATED,
+                TransactionChange.Type.DELETED), changes.stream().map(TransactionChange::getType).toList());
+        assertEquals(List.of(debit, credit, credit), changes.stream().map(TransactionChange::getId).toList());
+    }
+
+    @Test
+    void recordCreates_NothingWritten_ShouldNotAppend() {
+        ChangeFeed feed = new ChangeFeed(16);
+        long start = feed.getLatestSequence();
+
+        assertTrue(feed.recordCreates(List.of(UUID.randomUUID()), List::of).isEmpty());
+        assertEquals(start, feed.getLatestSequence());
+    }
+
+    private static List<Long> sequences(ChangeBatchResponse batch) {
+        return batch.getChanges().stream().map(TransactionChange::getSequence).toList();
+    }
+
+    private static TransactionResponse response(UUID id) {
+        TransactionResponse response = new TransactionResponse();
+        response.setId(id);
+        return response;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.ChangeBatchResponse;
+import com.example.bank.dto.TransactionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeSubscriptionsTest {
+
+    private final ChangeFeed changeFeed = new ChangeFeed(4);
+    private final ChangeSubscriptions subscriptions = new ChangeSubscriptions(changeFeed, 2, 100, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        subscriptions.close();
+    }
+
+    @Test
+    void poll_WithPendingChanges_ShouldCompleteImmediately() {
+        long start = changeFeed.getLatestSequence();
+        record();
+
+        DeferredResult<ChangeBatchResponse> result = subscriptions.poll(start, 10, Duration.ofSeconds(30));
+
+        assertTrue(result.hasResult());
+        assertEquals(1, ((ChangeBatchResponse) result.getResult()).getChanges().size());
+    }
+
+    @Test
+    void poll_CaughtUp_ShouldCompleteOnNextChange() {
+        long start = changeFeed.getLatestSequence();
+
+        DeferredResult<ChangeBatchResponse> result = subscriptions.poll(start, 10, Duration.ofSeconds(30));
+        assertFalse(result.hasResult());
+        record();
+
+        assertTrue(result.hasResult());
+        ChangeBatchResponse batch = (ChangeBatchResponse) result.getResult();
+        assertEquals(start + 1, batch.getChanges().get(0).getSequence());
+        assertEquals(start + 1, batch.getNextAfter());
+    }
+
+    @Test
+    void poll_WithoutWait_ShouldReturnEmptyBatch() {
+        DeferredResult<ChangeBatchResponse> result = subscriptions.poll(changeFeed.getLatestSequence(), 10,
+                Duration.ZERO);
+
+        assertTrue(result.hasResult());
+        assertTrue(((ChangeBatchResponse) result.getResult()).getChanges().isEmpty());
+    }
+
+    @Test
+    void poll_LappedConsumer_ShouldBeToldToResync() {
+        long start = changeFeed.getLatestSequence();
+        for (int i = 0; i < 6; i++) {
+            record();
+        }
+
+        DeferredResult<ChangeBatchResponse> result = subscriptions.poll(start, 10, Duration.ofSeconds(30));
+
+        assertTrue(((ChangeBatchResponse) result.getResult()).isResyncRequired());
+    }
+
+    @Test
+    void stream_BeyondMaxStreams_ShouldBeRejected() {
+        subscriptions.stream(changeFeed.getLatestSequence());
+        subscriptions.stream(changeFeed.getLatestSequence());
+
+        assertEquals(2, subscriptions.getStreamCount());
+        assertThrows(ResponseStatusException.class, () -> subscriptions.stream(changeFeed.getLatestSequence()));
+    }
+
+    private void record() {
+        changeFeed.recordCreate(() -> {
+            TransactionResponse response = new TransactionResponse();
+            response.setId(UUID.randomUUID());
+            return response;
+        });
+    }
+}
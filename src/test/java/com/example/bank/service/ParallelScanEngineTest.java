@@ -0,0 +1,94 @@
+package com.example.bank.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelScanEngineTest {
+
+    private final ParallelScanEngine scanEngine = new ParallelScanEngine(3, 3, 100);
+
+    @AfterEach
+    void tearDown() {
+        scanEngine.close();
+    }
+
+    @Test
+    void filterMap_BelowThreshold_ShouldRunSequentiallyOnCaller() {
+        List<Integer> rows = IntStream.range(0, 99).boxed().toList();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<Integer> result = scanEngine.filterMap(rows, i -> {
+            threads.add(Thread.currentThread().getName());
+            return i % 3 == 0;
+        }, i -> i * 2);
+
+        assertEquals(IntStream.range(0, 33).map(i -> i * 6).boxed().toList(), result);
+        assertEquals(Set.of(Thread.currentThread().getName()), threads);
+        assertEquals(1, scanEngine.getSequentialScanCount());
+        assertEquals(0, scanEngine.getParallelScanCount());
+    }
+
+    @Test
+    void filterMap_AboveThreshold_ShouldKeepListOrder() {
+        List<Integer> rows = IntStream.range(0, 10_007).boxed().toList();
+
+        List<String> result = scanEngine.filterMap(rows, i -> i % 2 == 1, String::valueOf);
+
+        assertEquals(IntStream.range(0, 10_007).filter(i -> i % 2 == 1).mapToObj(String::valueOf).toList(), result);
+        assertEquals(1, scanEngine.getParallelScanCount());
+    }
+
+    @Test
+    void chunks_ShouldRespectThresholdAndPerRequestCap() {
+        assertEquals(1, scanEngine.chunks(99));
+        assertEquals(2, scanEngine.chunks(100));
+        assertEquals(3, scanEngine.chunks(150));
+        assertEquals(3, scanEngine.chunks(1_000_000));
+        assertEquals(1, new ParallelScanEngine(4, 1, 100).chunks(1_000_000));
+    }
+
+    @Test
+    void aggregate_ShouldCombineChunksLeftToRight() {
+        List<Integer> rows = IntStream.rangeClosed(1, 1000).boxed().toList();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        long sum = scanEngine.aggregate(rows, () -> new long[1], (total, i) -> {
+            threads.add(Thread.currentThread().getName());
+            total[0] += i;
+        }, (left, right) -> {
+            left[0] += right[0];
+            return left;
+        })[0];
+        List<Integer> concatenated = scanEngine.aggregate(rows, ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+
+        assertEquals(500_500, sum);
+        assertEquals(rows, concatenated);
+        assertTrue(threads.stream().anyMatch(name -> name.startsWith("scan-")));
+    }
+
+    @Test
+    void aggregate_FailingChunk_ShouldPropagateException() {
+        List<Integer> rows = IntStream.range(0, 1000).boxed().toList();
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                scanEngine.map(rows, i -> {
+                    if (i == 900) {
+                        throw new IllegalStateException("bad row");
+                    }
+                    return i;
+                }));
+
+        assertEquals("bad row", exception.getMessage());
+    }
+}
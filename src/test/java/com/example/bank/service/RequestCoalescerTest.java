@@ -0,0 +1,120 @@
+package com.example.bank.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    @Test
+    void execute_WithConcurrentIdenticalKeys_ShouldRunComputationOnce() throws Exception {
+        int callers = 8;
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            Future<String> leader = executor.submit(() -> requestCoalescer.execute("all", () -> {
+                computations.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "result";
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 1; i < callers; i++) {
+                followers.add(executor.submit(() -> requestCoalescer.execute("all", () -> {
+                    computations.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            while (requestCoalescer.getCoalescedCount() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computations.get());
+            assertEquals(1, requestCoalescer.getExecutedCount());
+            assertEquals(callers - 1, requestCoalescer.getCoalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_SequentialCalls_ShouldNotShareResults() {
+        assertEquals(1, (int) requestCoalescer.execute("key", () -> 1));
+        assertEquals(2, (int) requestCoalescer.execute("key", () -> 2));
+        assertEquals(2, requestCoalescer.getExecutedCount());
+        assertEquals(0, requestCoalescer.getCoalescedCount());
+    }
+
+    @Test
+    void execute_AfterInvalidate_ShouldNotJoinStaleComputation() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> requestCoalescer.execute("all", () -> {
+                leaderStarted.countDown();
+                await(release);
+                return "stale";
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            requestCoalescer.invalidate();
+
+            assertEquals("fresh", requestCoalescer.execute("all", () -> "fresh"));
+            release.countDown();
+            assertEquals("stale", stale.get(5, TimeUnit.SECONDS));
+            assertEquals(0, requestCoalescer.getCoalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WhenComputationFails_ShouldPropagateAndAllowRetry() {
+        assertThrows(IllegalStateException.class, () -> requestCoalescer.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("ok", requestCoalescer.execute("key", () -> "ok"));
+    }
+
+    @Test
+    void bindTo_ShouldRegisterCallCounters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        requestCoalescer.bindTo(registry);
+
+        requestCoalescer.execute("key", () -> "value");
+
+        assertEquals(1.0, registry.get("bank.coalescer.calls").tag("outcome", "executed").functionCounter().count());
+        assertEquals(0.0, registry.get("bank.coalescer.calls").tag("outcome", "coalesced").functionCounter().count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.SnapshotResponse;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotServiceImplTest {
+
+    private TransactionRepository transactionRepository;
+    private SnapshotServiceImpl snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = new TransactionRepository();
+        snapshotService = new SnapshotServiceImpl(transactionRepository, Duration.ofMinutes(5), 2);
+        for (int i = 0; i < 25; i++) {
+            transactionRepository.save(new Transaction("Payment " + i, new BigDecimal("10.00"), "DEBIT", "Other"));
+        }
+    }
+
+    @Test
+    void getTransactions_ShouldPageThroughTheFrozenViewWhileOthersWrite() {
+        SnapshotResponse snapshot = snapshotService.openSnapshot();
+        List<UUID> paged = new ArrayList<>();
+
+        for (int page = 0; page < 3; page++) {
+            Page<TransactionResponse> result = snapshotService.getTransactions(snapshot.getToken(), PageRequest.of(page, 10));
+            result.forEach(transaction -> paged.add(transaction.getId()));
+            assertEquals(25, result.getTotalElements());
+            // Writes between pages: one new row, one deleted row.
+            transactionRepository.save(new Transaction("Late", new BigDecimal("1.00"), "CREDIT", "Other"));
+            transactionRepository.deleteById(result.getContent().get(0).getId());
+        }
+
+        assertEquals(25, paged.size());
+        assertEquals(25, new HashSet<>(paged).size());
+        assertTrue(snapshotService.getTransactions(snapshot.getToken(), PageRequest.of(5, 10)).isEmpty());
+        assertEquals(25, snapshotService.exportTransactions(snapshot.getToken()).count());
+        assertTrue(transactionRepository.retainedVersionCount() > 0);
+        snapshotService.closeSnapshot(snapshot.getToken());
+        assertEquals(0, transactionRepository.retainedVersionCount());
+    }
+
+    @Test
+    void getTransactions_OfClosedSnapshot_ShouldBeGone() {
+        SnapshotResponse snapshot = snapshotService.openSnapshot();
+        snapshotService.closeSnapshot(snapshot.getToken());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> snapshotService.getTransactions(snapshot.getToken(), PageRequest.of(0, 10)));
+        assertEquals(HttpStatus.GONE, e.getStatusCode());
+        assertThrows(ResponseStatusException.class, () -> snapshotService.exportTransactions("unknown"));
+    }
+
+    @Test
+    void openSnapshot_BeyondMaxOpen_ShouldCloseTheLeastRecentlyUsed() {
+        SnapshotResponse first = snapshotService.openSnapshot();
+        SnapshotResponse second = snapshotService.openSnapshot();
+        snapshotService.getTransactions(first.getToken(), PageRequest.of(0, 10));
+
+        SnapshotResponse third = snapshotService.openSnapshot();
+
+        assertEquals(2, snapshotService.getOpenCount());
+        assertEquals(2, transactionRepository.openSnapshotCount());
+        assertThrows(ResponseStatusException.class,
+                () -> snapshotService.getTransactions(second.getToken(), PageRequest.of(0, 10)));
+        assertEquals(25, snapshotService.exportTransactions(first.getToken()).count());
+        assertEquals(25, snapshotService.exportTransactions(third.getToken()).count());
+    }
+
+    @Test
+    void closeIdle_ShouldCloseSnapshotsUnusedForTheIdleTimeout() {
+        SnapshotServiceImpl impatient = new SnapshotServiceImpl(transactionRepository, Duration.ZERO, 4);
+        impatient.openSnapshot();
+
+        int closed = impatient.closeIdle();
+
+        assertEquals(1, closed);
+        assertEquals(0, impatient.getOpenCount());
+        assertEquals(0, transactionRepository.openSnapshotCount());
+    }
+}
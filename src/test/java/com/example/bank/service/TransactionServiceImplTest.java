@@ -1,27 +1,39 @@
 package com.example.bank.service;
 
+import com.example.bank.dto.AmountSummaryResponse;
+import com.example.bank.dto.CategoryStatsResponse;
+import com.example.bank.dto.TransactionChange;
 import com.example.bank.dto.TransactionDto;
 import com.example.bank.dto.TransactionResponse;
+import com.example.bank.dto.TransactionStatsResponse;
 import com.example.bank.exception.TransactionNotFoundException;
 import com.example.bank.exception.ValidationException;
 import com.example.bank.model.Transaction;
 import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.column.AmountSummary;
+import com.example.bank.repository.query.TransactionQuery;
+import com.example.bank.repository.sketch.CategorySketches;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +42,18 @@ class TransactionServiceImplTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    @Spy
+    private ParallelScanEngine scanEngine = new ParallelScanEngine(2, 2, 4);
+
+    @Spy
+    private ChangeFeed changeFeed = new ChangeFeed(16);
+
+    @Spy
+    private WritePipeline writePipeline = new WritePipeline(null, null, null, false, 1, 1);
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -110,6 +134,26 @@ class TransactionServiceImplTest {
         verify(transactionRepository, never()).save(any());
     }
 
+    @Test
+    void createTransaction_WithAccount_ShouldBookItOnTheAccount() {
+        validTransactionDto.setAccountId("acc-1001");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionResponse response = transactionService.createTransaction(validTransactionDto);
+
+        assertEquals("acc-1001", response.getAccountId());
+    }
+
+    @Test
+    void createTransaction_WithInvalidAccountId_ShouldThrowValidationException() {
+        validTransactionDto.setAccountId("acc/1001");
+
+        assertThrows(ValidationException.class, () ->
+                transactionService.createTransaction(validTransactionDto)
+        );
+        verify(transactionRepository, never()).save(any());
+    }
+
     // ========== 更新交易测试 ==========
     @Test
     void updateTransaction_WithValidData_ShouldReturnUpdatedTransaction() {
@@ -135,6 +179,19 @@ class TransactionServiceImplTest {
         verify(transactionRepository, never()).save(any());
     }
 
+    @Test
+    void updateTransaction_ThroughWritePipeline_ShouldRethrowItsFailure() {
+        UUID nonExistingId = UUID.randomUUID();
+        doReturn(true).when(writePipeline).isEnabled();
+        doReturn(CompletableFuture.failedFuture(new TransactionNotFoundException("Transaction not found")))
+                .when(writePipeline).update(nonExistingId, validTransactionDto);
+
+        assertThrows(TransactionNotFoundException.class, () ->
+                transactionService.updateTransaction(nonExistingId, validTransactionDto)
+        );
+        verifyNoInteractions(transactionRepository);
+    }
+
     @Test
     void updateTransaction_WithInvalidAmount_ShouldThrowValidationException() {
         validTransactionDto.setAmount(new BigDecimal("-50.00"));
@@ -167,6 +224,30 @@ class TransactionServiceImplTest {
         verify(transactionRepository, never()).deleteById(any());
     }
 
+    @Test
+    void writes_ShouldAppendChangesInOrderAndSkipFailedWrites() {
+        long before = changeFeed.getLatestSequence();
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+        when(transactionRepository.findById(sampleTransactionId)).thenReturn(Optional.of(sampleTransaction));
+        when(transactionRepository.existsById(sampleTransactionId)).thenReturn(true);
+        UUID nonExistingId = UUID.randomUUID();
+        when(transactionRepository.existsById(nonExistingId)).thenReturn(false);
+
+        transactionService.createTransaction(validTransactionDto);
+        transactionService.updateTransaction(sampleTransactionId, validTransactionDto);
+        assertThrows(TransactionNotFoundException.class, () -> transactionService.deleteTransaction(nonExistingId));
+        transactionService.deleteTransaction(sampleTransactionId);
+
+        List<TransactionChange> changes = changeFeed.read(before, 10).getChanges();
+        assertEquals(List.of(TransactionChange.Type.CREATED, TransactionChange.Type.UPDATED,
+                TransactionChange.Type.DELETED), changes.stream().map(TransactionChange::getType).toList());
+        assertEquals(List.of(before + 1, before + 2, before + 3),
+                changes.stream().map(TransactionChange::getSequence).toList());
+        assertEquals(sampleTransactionId, changes.get(0).getId());
+        assertEquals("Salary Deposit", changes.get(1).getTransaction().getDescription());
+        assertNull(changes.get(2).getTransaction());
+    }
+
     // ========== 查询交易测试 ==========
     @Test
     void getTransactionById_WithExistingId_ShouldReturnTransaction() {
@@ -256,6 +337,257 @@ class TransactionServiceImplTest {
         assertEquals("Shopping", shoppingTransactions.get(0).getCategory());
     }
 
+    @Test
+    void getTransactionById_AsOf_ShouldReadTheRowAsItWasThen() {
+        LocalDateTime asOf = LocalDateTime.now().minusMinutes(5);
+        when(transactionRepository.historyHorizon()).thenReturn(asOf.minusHours(1));
+        when(transactionRepository.findById(sampleTransactionId, asOf)).thenReturn(Optional.of(sampleTransaction));
+
+        TransactionResponse response = transactionService.getTransactionById(sampleTransactionId, asOf);
+
+        assertEquals(sampleTransactionId, response.getId());
+        verify(transactionRepository, never()).findById(sampleTransactionId);
+    }
+
+    @Test
+    void getTransactionById_AsOfBeforeTheHistory_ShouldThrowValidationException() {
+        LocalDateTime horizon = LocalDateTime.now().minusHours(1);
+        when(transactionRepository.historyHorizon()).thenReturn(horizon);
+
+        assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionById(sampleTransactionId, horizon.minusSeconds(1)));
+        assertThrows(ValidationException.class, () -> transactionService.getAllTransactions(horizon.minusDays(1)));
+        verify(transactionRepository, never()).findById(any(UUID.class), any(LocalDateTime.class));
+        verify(transactionRepository, never()).findAll(any(LocalDateTime.class));
+    }
+
+    @Test
+    void getTransactionsByCategory_AsOf_ShouldQueryTheRowsAsTheyWereThen() {
+        LocalDateTime asOf = LocalDateTime.now().minusMinutes(5);
+        when(transactionRepository.historyHorizon()).thenReturn(asOf.minusHours(1));
+        when(transactionRepository.query(any(TransactionQuery.class))).thenReturn(Stream.of(sampleTransaction));
+
+        List<TransactionResponse> responses = transactionService.getTransactionsByCategory("Salary", asOf);
+
+        assertEquals(1, responses.size());
+        verify(transactionRepository).query(argThat(query ->
+                "Salary".equals(query.getCategory()) && asOf.equals(query.getAsOf())));
+        verify(transactionRepository, never()).findAll();
+    }
+
+    @Test
+    void getTransactionsByAmountRange_AsOf_ShouldQueryTheRowsAsTheyWereThenInAmountOrder() {
+        LocalDateTime asOf = LocalDateTime.now().minusMinutes(5);
+        when(transactionRepository.historyHorizon()).thenReturn(asOf.minusHours(1));
+        when(transactionRepository.query(any(TransactionQuery.class))).thenReturn(Stream.of(sampleTransaction));
+
+        List<TransactionResponse> responses = transactionService.getTransactionsByAmountRange(
+                new BigDecimal("100"), new BigDecimal("200"), "CREDIT", null, asOf);
+
+        assertEquals(1, responses.size());
+        verify(transactionRepository).query(argThat(query -> asOf.equals(query.getAsOf())
+                && new BigDecimal("100").equals(query.getMinAmount()) && new BigDecimal("200").equals(query.getMaxAmount())
+                && "CREDIT".equals(query.getType()) && query.getSortField() == TransactionQuery.SortField.AMOUNT
+                && query.getSortDirection() == Sort.Direction.ASC));
+        verify(transactionRepository, never()).findByAmountBetween(any(), any());
+    }
+
+    @Test
+    void getTransactionsByTimeRange_AsOfBeforeTheHistory_ShouldThrowValidationException() {
+        LocalDateTime asOf = LocalDateTime.now().minusDays(2);
+        when(transactionRepository.historyHorizon()).thenReturn(asOf.plusHours(1));
+
+        assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionsByTimeRange(asOf.minusDays(1), asOf, null, null, asOf));
+        verify(transactionRepository, never()).query(any(TransactionQuery.class));
+    }
+
+    @Test
+    void searchTransactions_AsOf_ShouldQueryMatchesNewestFirst() {
+        LocalDateTime asOf = LocalDateTime.now().minusMinutes(5);
+        when(transactionRepository.historyHorizon()).thenReturn(asOf.minusHours(1));
+        when(transactionRepository.query(any(TransactionQuery.class))).thenReturn(Stream.of(sampleTransaction));
+
+        List<TransactionResponse> responses = transactionService.searchTransactions("salary", 20, asOf);
+
+        assertEquals(1, responses.size());
+        verify(transactionRepository).query(argThat(query -> asOf.equals(query.getAsOf())
+                && "salary".equals(query.getText()) && Integer.valueOf(20).equals(query.getLimit())
+                && query.getSortField() == TransactionQuery.SortField.TIMESTAMP
+                && query.getSortDirection() == Sort.Direction.DESC));
+        verify(transactionRepository, never()).search(anyString(), anyInt());
+    }
+
+    @Test
+    void getTransactionsByType_LargeRepository_ShouldScanInParallelAndKeepOrder() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            transactions.add(new Transaction("Payment " + i, new BigDecimal("10.00"), i % 2 == 0 ? "DEBIT" : "CREDIT", "Misc"));
+        }
+        when(transactionRepository.findAll()).thenReturn(transactions);
+
+        List<TransactionResponse> debitTransactions = transactionService.getTransactionsByType("debit");
+
+        assertEquals(50, debitTransactions.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("Payment " + (2 * i), debitTransactions.get(i).getDescription());
+        }
+        assertEquals(1, scanEngine.getParallelScanCount());
+    }
+
+    @Test
+    void summarizeAmounts_ShouldMapSummaryAndComputeAverage() {
+        when(transactionRepository.summarizeAmounts("DEBIT", "Food"))
+                .thenReturn(new AmountSummary(3, new BigDecimal("10.00"), new BigDecimal("1.00"), new BigDecimal("5.00")));
+
+        AmountSummaryResponse response = transactionService.summarizeAmounts("DEBIT", "Food");
+
+        assertEquals(3, response.getCount());
+        assertEquals(new BigDecimal("10.00"), response.getSum());
+        assertEquals(new BigDecimal("1.00"), response.getMin());
+        assertEquals(new BigDecimal("5.00"), response.getMax());
+        assertEquals(new BigDecimal("3.33"), response.getAverage());
+    }
+
+    @Test
+    void summarizeAmounts_WithoutMatches_ShouldLeaveAverageEmpty() {
+        when(transactionRepository.summarizeAmounts(null, "Travel")).thenReturn(AmountSummary.EMPTY);
+
+        AmountSummaryResponse response = transactionService.summarizeAmounts(null, "Travel");
+
+        assertEquals(0, response.getCount());
+        assertEquals(BigDecimal.ZERO, response.getSum());
+        assertNull(response.getMin());
+        assertNull(response.getAverage());
+    }
+
+    @Test
+    void searchTransactions_ShouldReturnRepositoryMatches() {
+        when(transactionRepository.search("salary", 20)).thenReturn(Collections.singletonList(sampleTransaction));
+
+        List<TransactionResponse> responses = transactionService.searchTransactions("salary", 20);
+
+        assertEquals(1, responses.size());
+        assertEquals(sampleTransactionId, responses.get(0).getId());
+    }
+
+    @Test
+    void searchTransactions_WithBlankQuery_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> transactionService.searchTransactions(" ", 20));
+        verify(transactionRepository, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void searchTransactions_WithInvalidLimit_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> transactionService.searchTransactions("salary", 0));
+        assertThrows(ValidationException.class, () -> transactionService.searchTransactions("salary", 501));
+    }
+
+    @Test
+    void queryTransactions_ShouldConvertRepositoryRows() {
+        TransactionQuery query = TransactionQuery.builder().type("CREDIT").limit(5).build();
+        when(transactionRepository.query(query)).thenReturn(Stream.of(sampleTransaction));
+
+        List<TransactionResponse> responses = transactionService.queryTransactions(query).toList();
+
+        assertEquals(1, responses.size());
+        assertEquals(sampleTransactionId, responses.get(0).getId());
+    }
+
+    @Test
+    void queryTransactions_WithInvalidQuery_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> transactionService.queryTransactions(TransactionQuery.builder()
+                .amountBetween(new BigDecimal("10"), new BigDecimal("1")).build()));
+        assertThrows(ValidationException.class, () -> transactionService.queryTransactions(TransactionQuery.builder()
+                .timeBetween(LocalDateTime.now(), LocalDateTime.now().minusDays(1)).build()));
+        assertThrows(ValidationException.class, () -> transactionService.queryTransactions(TransactionQuery.builder()
+                .limit(0).build()));
+        assertThrows(ValidationException.class, () -> transactionService.queryTransactions(TransactionQuery.builder()
+                .text(" ").build()));
+        verify(transactionRepository, never()).query(any());
+    }
+
+    @Test
+    void getTopTransactionsByAmount_ShouldReturnRepositoryOrder() {
+        Transaction largest = new Transaction("Car", new BigDecimal("9000.00"), "CREDIT", "Transport");
+        when(transactionRepository.findTopByAmount("CREDIT", 2)).thenReturn(Arrays.asList(largest, sampleTransaction));
+
+        List<TransactionResponse> responses = transactionService.getTopTransactionsByAmount("CREDIT", 2);
+
+        assertEquals(2, responses.size());
+        assertEquals(largest.getId(), responses.get(0).getId());
+        assertEquals(sampleTransactionId, responses.get(1).getId());
+    }
+
+    @Test
+    void getLatestTransactionsByCategory_ShouldReturnRepositoryOrder() {
+        when(transactionRepository.findLatestByCategory("Salary", 20)).thenReturn(List.of(sampleTransaction));
+
+        List<TransactionResponse> responses = transactionService.getLatestTransactionsByCategory("Salary", 20);
+
+        assertEquals(1, responses.size());
+        assertEquals(sampleTransactionId, responses.get(0).getId());
+    }
+
+    @Test
+    void topN_WithInvalidLimit_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> transactionService.getTopTransactionsByAmount(null, 0));
+        assertThrows(ValidationException.class, () -> transactionService.getLatestTransactionsByCategory("Salary", 501));
+        verify(transactionRepository, never()).findTopByAmount(any(), anyInt());
+        verify(transactionRepository, never()).findLatestByCategory(any(), anyInt());
+    }
+
+    @Test
+    void getTransactionsByAmountRange_ShouldFilterByTypeAndCategory() {
+        Transaction debitTransaction = new Transaction("Grocery", new BigDecimal("1800.00"), "DEBIT", "Shopping");
+        when(transactionRepository.findByAmountBetween(new BigDecimal("1000"), null))
+                .thenReturn(Arrays.asList(sampleTransaction, debitTransaction));
+
+        List<TransactionResponse> all = transactionService.getTransactionsByAmountRange(
+                new BigDecimal("1000"), null, null, null);
+        List<TransactionResponse> debits = transactionService.getTransactionsByAmountRange(
+                new BigDecimal("1000"), null, "debit", null);
+        List<TransactionResponse> salary = transactionService.getTransactionsByAmountRange(
+                new BigDecimal("1000"), null, null, "Salary");
+
+        assertEquals(2, all.size());
+        assertEquals(1, debits.size());
+        assertEquals("DEBIT", debits.get(0).getType());
+        assertEquals(1, salary.size());
+        assertEquals(sampleTransactionId, salary.get(0).getId());
+    }
+
+    @Test
+    void getTransactionsByAmountRange_WithInvalidBounds_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionsByAmountRange(null, null, null, null));
+        assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionsByAmountRange(new BigDecimal("10"), BigDecimal.ONE, null, null));
+        verify(transactionRepository, never()).findByAmountBetween(any(), any());
+    }
+
+    @Test
+    void getTransactionsByTimeRange_ShouldReturnRepositoryMatches() {
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+        when(transactionRepository.findByTimestampBetween(from, null))
+                .thenReturn(Collections.singletonList(sampleTransaction));
+
+        List<TransactionResponse> responses = transactionService.getTransactionsByTimeRange(from, null, "CREDIT", null);
+
+        assertEquals(1, responses.size());
+        assertEquals(sampleTransactionId, responses.get(0).getId());
+    }
+
+    @Test
+    void getTransactionsByTimeRange_WithInvalidBounds_ShouldThrowValidationException() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionsByTimeRange(null, null, null, null));
+        assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionsByTimeRange(now, now.minusDays(1), null, null));
+        verify(transactionRepository, never()).findByTimestampBetween(any(), any());
+    }
+
     // ========== 验证方法测试 ==========
     @Test
     void validateTransaction_WithValidData_ShouldNotThrowException() {
@@ -266,6 +598,44 @@ class TransactionServiceImplTest {
         );
     }
 
+    @Test
+    void getTransactionStats_ShouldReportSketchQuantiles() {
+        CategorySketches sketches = new CategorySketches();
+        for (int i = 1; i <= 100; i++) {
+            sketches.add(new Transaction("Payment", BigDecimal.valueOf(i), "DEBIT", i <= 80 ? "Food" : "Rent"));
+        }
+        when(transactionRepository.sketches()).thenReturn(sketches);
+
+        TransactionStatsResponse response = transactionService.getTransactionStats(List.of(0.5, 0.99), 1);
+
+        assertEquals(100, response.getCount());
+        assertEquals(2, response.getDistinctCategories());
+        assertEquals(List.of("0.5", "0.99"), new ArrayList<>(response.getQuantiles().keySet()));
+        assertEquals(50, response.getQuantiles().get("0.5").doubleValue(), 0.5);
+        assertEquals(1, response.getCategories().size());
+        assertEquals("Food", response.getCategories().get(0).getCategory());
+        assertEquals(80, response.getCategories().get(0).getCount());
+    }
+
+    @Test
+    void getCategoryStats_UnknownCategory_ShouldBeEmpty() {
+        when(transactionRepository.sketches()).thenReturn(new CategorySketches());
+
+        CategoryStatsResponse response = transactionService.getCategoryStats("Travel", List.of(0.5));
+
+        assertEquals("Travel", response.getCategory());
+        assertEquals(0, response.getCount());
+        assertTrue(response.getQuantiles().isEmpty());
+    }
+
+    @Test
+    void getTransactionStats_InvalidQuantiles_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> transactionService.getTransactionStats(List.of(1.5), 10));
+        assertThrows(ValidationException.class, () -> transactionService.getTransactionStats(List.of(), 10));
+        assertThrows(ValidationException.class, () -> transactionService.getTransactionStats(List.of(0.5), -1));
+        verify(transactionRepository, never()).sketches();
+    }
+
     @Test
     void validateTransaction_WithNullAmount_ShouldThrowValidationException() {
         validTransactionDto.setAmount(null);
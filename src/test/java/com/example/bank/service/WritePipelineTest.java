@@ -0,0 +1,249 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.TransactionChange;
+import com.example.bank.dto.TransactionDto;
+import com.example.bank.dto.TransactionResponse;
+import com.example.bank.exception.TransactionNotFoundException;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.store.InMemoryTransactionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WritePipelineTest {
+
+    private final TransactionRepository repository = new TransactionRepository();
+    private final ChangeFeed changeFeed = new ChangeFeed(4096);
+    private final WritePipeline pipeline = new WritePipeline(repository, new RequestCoalescer(), changeFeed,
+            true, 64, 32);
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+    }
+
+    @Test
+    void create_ConcurrentPublishers_ShouldApplyEveryCommandOnce() throws Exception {
+        long start = changeFeed.getLatestSequence();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<TransactionResponse>> writes = new ArrayList<>();
+        try {
+            List<Future<List<CompletableFuture<TransactionResponse>>>> publishers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                publishers.add(executor.submit(() -> {
+                    List<CompletableFuture<TransactionResponse>> published = new ArrayList<>();
+                    for (int j = 0; j < 250; j++) {
+                        published.add(pipeline.create(dto("Payment " + j)));
+                    }
+                    return published;
+                }));
+            }
+            for (Future<List<CompletableFuture<TransactionResponse>>> publisher : publishers) {
+                writes.addAll(publisher.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (CompletableFuture<TransactionResponse> write : writes) {
+            assertTrue(repository.existsById(write.get(10, TimeUnit.SECONDS).getId()));
+        }
+        assertEquals(1000, repository.findAll().size());
+        assertEquals(1000, changeFeed.read(start, 2000).getChanges().size());
+        assertEquals(1000, pipeline.getCommandCount());
+        assertTrue(pipeline.getBatchCount() <= 1000);
+        assertEquals(0, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void commandsOfOneBatch_ShouldSeeEachOthersEffects() throws Exception {
+        Transaction existing = repository.save(new Transaction("Rent", new BigDecimal("700.00"), "DEBIT", "Rent"));
+        long start = changeFeed.getLatestSequence();
+        // Holds the writer in its first batch so that the next commands queue up behind it.
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        changeFeed.subscribe(() -> {
+            if (first.compareAndSet(true, false)) {
+                entered.countDown();
+                awaitQuietly(release);
+            }
+        });
+
+        CompletableFuture<TransactionResponse> created = pipeline.create(dto("Coffee"));
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        CompletableFuture<TransactionResponse> updated = pipeline.update(existing.getId(), dto("Rent March"));
+        CompletableFuture<TransactionResponse> deleted = pipeline.delete(existing.getId());
+        CompletableFuture<TransactionResponse> updatedAfterDelete = pipeline.update(existing.getId(), dto("Late"));
+        release.countDown();
+
+        assertNotNull(created.get(10, TimeUnit.SECONDS).getId());
+        assertEquals("Rent March", updated.get(10, TimeUnit.SECONDS).getDescription());
+        assertNull(deleted.get(10, TimeUnit.SECONDS));
+        CompletionException failure = assertThrows(CompletionException.class, updatedAfterDelete::join);
+        assertInstanceOf(TransactionNotFoundException.class, failure.getCause());
+        assertFalse(repository.existsById(existing.getId()));
+        assertEquals(2, pipeline.getBatchCount());
+        List<TransactionChange.Type> types = changeFeed.read(start, 10).getChanges().stream()
+                .map(TransactionChange::getType).toList();
+        assertEquals(List.of(TransactionChange.Type.CREATED, TransactionChange.Type.UPDATED,
+                TransactionChange.Type.DELETED), types);
+    }
+
+    @Test
+    void failedSave_ShouldFailOnlyTheCommandsOnItsRows() throws Exception {
+        AtomicBoolean failWrites = new AtomicBoolean();
+        TransactionRepository failing = new TransactionRepository(new InMemoryTransactionStore() {
+            @Override
+            public void put(Transaction transaction) {
+                check();
+                super.put(transaction);
+            }
+
+            @Override
+            public void putAll(List<Transaction> transactions) {
+                check();
+                super.putAll(transactions);
+            }
+
+            private void check() {
+                if (failWrites.get()) {
+                    throw new IllegalStateException("Store unavailable");
+                }
+            }
+        });
+        Transaction existing = failing.save(new Transaction("Rent", new BigDecimal("700.00"), "DEBIT", "Rent"));
+        WritePipeline writes = new WritePipeline(failing, new RequestCoalescer(), changeFeed, true, 64, 32);
+        try {
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicBoolean first = new AtomicBoolean(true);
+            changeFeed.subscribe(() -> {
+                if (first.compareAndSet(true, false)) {
+                    entered.countDown();
+                    awaitQuietly(release);
+                }
+            });
+            writes.create(dto("Warm up"));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            long start = changeFeed.getLatestSequence();
+
+            failWrites.set(true);
+            CompletableFuture<TransactionResponse> deleted = writes.delete(existing.getId());
+            CompletableFuture<TransactionResponse> created = writes.create(dto("Coffee"));
+            release.countDown();
+
+            assertNull(deleted.get(10, TimeUnit.SECONDS));
+            CompletionException failure = assertThrows(CompletionException.class, created::join);
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+            assertFalse(failing.existsById(existing.getId()));
+            List<TransactionChange> changes = changeFeed.read(start, 10).getChanges();
+            assertEquals(1, changes.size());
+            assertEquals(TransactionChange.Type.DELETED, changes.get(0).getType());
+            assertEquals(existing.getId(), changes.get(0).getId());
+        } finally {
+            writes.close();
+        }
+    }
+
+    @Test
+    void close_ShouldApplyPublishedCommandsAndRejectNewOnes() throws Exception {
+        List<CompletableFuture<TransactionResponse>> writes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            writes.add(pipeline.create(dto("Payment " + i)));
+        }
+
+        pipeline.close();
+
+        for (CompletableFuture<TransactionResponse> write : writes) {
+            assertTrue(write.isDone());
+            assertTrue(repository.existsById(write.get().getId()));
+        }
+        assertThrows(IllegalStateException.class, () -> pipeline.create(dto("Too late")));
+    }
+
+    @Test
+    void failedFeedRecord_ShouldNotFailCommittedCommands() throws Exception {
+        ChangeFeed brokenFeed = new ChangeFeed(4096) {
+            @Override
+            public TransactionResponse recordCreate(Supplier<TransactionResponse> create) {
+                TransactionResponse response = create.get();
+                if ("Broken".equals(response.getDescription())) {
+                    throw new IllegalStateException("Feed unavailable");
+                }
+                return super.recordCreate(() -> response);
+            }
+        };
+        long start = brokenFeed.getLatestSequence();
+        WritePipeline writes = new WritePipeline(repository, new RequestCoalescer(), brokenFeed, true, 64, 32);
+        try {
+            CompletableFuture<TransactionResponse> broken = writes.create(dto("Broken"));
+            CompletableFuture<TransactionResponse> fine = writes.create(dto("Fine"));
+
+            assertTrue(repository.existsById(broken.get(10, TimeUnit.SECONDS).getId()));
+            assertTrue(repository.existsById(fine.get(10, TimeUnit.SECONDS).getId()));
+            assertEquals(1, brokenFeed.read(start, 10).getChanges().size());
+        } finally {
+            writes.close();
+        }
+    }
+
+    @Test
+    void appliedBatch_ShouldEvictCachedLists() throws Exception {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(WritePipeline.LIST_CACHE);
+        Cache lists = cacheManager.getCache(WritePipeline.LIST_CACHE);
+        lists.put("all", List.of());
+        WritePipeline writes = new WritePipeline(repository, new RequestCoalescer(), changeFeed, cacheManager,
+                true, 64, 32);
+        try {
+            writes.create(dto("Coffee")).get(10, TimeUnit.SECONDS);
+
+            assertNull(lists.get("all"));
+        } finally {
+            writes.close();
+        }
+    }
+
+    @Test
+    void disabled_ShouldRejectCommands() {
+        WritePipeline disabled = new WritePipeline(repository, new RequestCoalescer(), changeFeed, false, 64, 32);
+
+        assertFalse(disabled.isEnabled());
+        assertThrows(IllegalStateException.class, () -> disabled.create(dto("Coffee")));
+        disabled.close();
+    }
+
+    private static TransactionDto dto(String description) {
+        TransactionDto dto = new TransactionDto();
+        dto.setDescription(description);
+        dto.setAmount(new BigDecimal("12.50"));
+        dto.setType("DEBIT");
+        dto.setCategory("Food");
+        return dto;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
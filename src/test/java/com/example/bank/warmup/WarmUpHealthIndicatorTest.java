@@ -0,0 +1,47 @@
+package com.example.bank.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpHealthIndicatorTest {
+
+    @Mock
+    private WarmUpRunner warmUpRunner;
+
+    @InjectMocks
+    private WarmUpHealthIndicator healthIndicator;
+
+    @Test
+    void health_WhileRunning_ShouldBeOutOfService() {
+        when(warmUpRunner.getState()).thenReturn(WarmUpRunner.State.RUNNING);
+        when(warmUpRunner.getRounds()).thenReturn(2);
+        when(warmUpRunner.getLastP99Nanos()).thenReturn(1_500_000L);
+
+        Health health = healthIndicator.health();
+
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+        assertEquals("running", health.getDetails().get("state"));
+        assertEquals(1500L, health.getDetails().get("p99Micros"));
+    }
+
+    @Test
+    void health_AfterTimingOut_ShouldBeUp() {
+        when(warmUpRunner.getState()).thenReturn(WarmUpRunner.State.TIMED_OUT);
+        when(warmUpRunner.getRounds()).thenReturn(0);
+        when(warmUpRunner.getLastP99Nanos()).thenReturn(-1L);
+
+        Health health = healthIndicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertFalse(health.getDetails().containsKey("p99Micros"));
+    }
+}
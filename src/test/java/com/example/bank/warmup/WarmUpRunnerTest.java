@@ -0,0 +1,123 @@
+package com.example.bank.warmup;
+
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.service.TransactionService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpRunnerTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private final TransactionRepository transactionRepository = new TransactionRepository();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<String> paths = ConcurrentHashMap.newKeySet();
+    private volatile long delayMillis;
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            paths.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        for (int i = 0; i < 30; i++) {
+            String category = i < 20 ? "Food" : i < 28 ? "Rent" : "Travel";
+            transactionRepository.save(new Transaction("Payment " + i, new BigDecimal("12.50"), "DEBIT", category));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void run_ShouldPreloadCachesDriveEndpointsAndSettle() {
+        WarmUpRunner runner = runner(true, Duration.ofSeconds(30), 3);
+
+        runner.run(server.getAddress().getPort());
+
+        assertEquals(WarmUpRunner.State.SETTLED, runner.getState());
+        assertTrue(runner.getRounds() >= 3);
+        assertTrue(runner.getLastP99Nanos() > 0);
+        verify(transactionService).getTransactionsByType("CREDIT");
+        verify(transactionService).getTransactionsByType("DEBIT");
+        verify(transactionService).getTransactionsByCategory("Food");
+        verify(transactionService).getTransactionsByCategory("Rent");
+        verify(transactionService).getTransactionsByCategory("Travel");
+        assertEquals(runner.getRounds() * 50, requests.get());
+        assertTrue(paths.containsAll(Set.of("GET /api/transactions/type/CREDIT", "GET /api/transactions/category/Food",
+                "GET /api/transactions/summary", "POST /api/transactions")));
+    }
+
+    @Test
+    void run_NotSettlingInTime_ShouldStopAtMaxDuration() {
+        delayMillis = 20;
+        WarmUpRunner runner = runner(true, Duration.ofMillis(300), 100);
+
+        long start = System.nanoTime();
+        runner.run(server.getAddress().getPort());
+
+        assertEquals(WarmUpRunner.State.TIMED_OUT, runner.getState());
+        assertTrue(runner.getState().isComplete());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+    }
+
+    @Test
+    void run_ServerUnreachable_ShouldFailButComplete() {
+        WarmUpRunner runner = runner(true, Duration.ofSeconds(30), 3);
+        int port = server.getAddress().getPort();
+        server.stop(0);
+
+        runner.run(port);
+
+        assertEquals(WarmUpRunner.State.FAILED, runner.getState());
+        assertTrue(runner.getState().isComplete());
+    }
+
+    @Test
+    void disabled_ShouldBeCompleteWithoutRequests() {
+        WarmUpRunner runner = runner(false, Duration.ofSeconds(30), 3);
+
+        assertEquals(WarmUpRunner.State.DISABLED, runner.getState());
+        assertTrue(runner.getState().isComplete());
+        assertEquals(0, requests.get());
+        verifyNoInteractions(transactionService);
+    }
+
+    private WarmUpRunner runner(boolean enabled, Duration maxDuration, int minRounds) {
+        // Settles on the second comparable round: any p99 is within a factor of 1000 of the last.
+        return new WarmUpRunner(transactionService, transactionRepository, enabled, maxDuration, 50, minRounds,
+                1000, 20);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.bank.wire;
+
+import com.example.bank.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionWireFormatTest {
+
+    @Test
+    void readAll_ShouldRoundTripEveryField() throws Exception {
+        List<TransactionResponse> transactions = new ArrayList<>(sample(200));
+        transactions.add(response("盒马 Fruit from Hema", new BigDecimal("1234.5600"), "DEBIT",
+                LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123456789), "Food"));
+        transactions.get(transactions.size() - 1).setAccountId("acc-盒马");
+        transactions.add(response(null, null, null, null, null));
+        transactions.add(response("Negative scale", new BigDecimal("1E+3"), "CREDIT",
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999999999), "Salary"));
+        transactions.add(response("Wide amount", new BigDecimal("-123456789012345678901234567890.12"), "DEBIT",
+                LocalDateTime.MIN, "Rent"));
+        transactions.add(response("Far future", new BigDecimal("-0.001"), "debit", LocalDateTime.MAX, "rent"));
+
+        List<TransactionResponse> read = TransactionWireReader.readAll(new ByteArrayInputStream(write(transactions)));
+
+        assertEquals(transactions.size(), read.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            assertSameFields(transactions.get(i), read.get(i));
+        }
+    }
+
+    @Test
+    void write_ShouldCodeRepeatedValuesAndInlineBeyondDictionary() throws Exception {
+        List<TransactionResponse> transactions = new ArrayList<>();
+        for (int i = 0; i < TransactionWireFormat.MAX_DICTIONARY_SIZE + 10; i++) {
+            transactions.add(response("Payment", BigDecimal.ONE, "DEBIT", null, "Category " + i));
+        }
+        transactions.add(response("Payment", BigDecimal.ONE, "DEBIT", null, "Category 3"));
+
+        List<TransactionResponse> read = TransactionWireReader.readAll(new ByteArrayInputStream(write(transactions)));
+
+        assertEquals(transactions.size(), read.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            assertSameFields(transactions.get(i), read.get(i));
+        }
+    }
+
+    @Test
+    void read_ShouldRejectTruncatedAndForeignStreams() throws Exception {
+        byte[] bytes = write(sample(50));
+
+        assertThrows(EOFException.class, () -> TransactionWireReader.readAll(
+                new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2))));
+        assertThrows(EOFException.class, () -> TransactionWireReader.readAll(
+                new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length / 2))));
+        assertThrows(IOException.class, () -> TransactionWireReader.readAll(
+                new ByteArrayInputStream("[{\"id\":null}]".getBytes())));
+    }
+
+    @Test
+    void read_ShouldHandleOneByteAtATime() throws Exception {
+        List<TransactionResponse> transactions = sample(100);
+        byte[] bytes = write(transactions);
+        InputStream trickle = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+
+        try (TransactionWireReader reader = new TransactionWireReader(trickle)) {
+            for (TransactionResponse transaction : transactions) {
+                assertSameFields(transaction, reader.read());
+            }
+            assertNull(reader.read());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void write_ShouldBeSeveralTimesSmallerThanJson() throws Exception {
+        List<TransactionResponse> transactions = sample(1000);
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        int json = mapper.writeValueAsBytes(transactions).length;
+        int binary = write(transactions).length;
+
+        assertTrue(binary * 3 < json, "binary " + binary + " bytes, JSON " + json + " bytes");
+    }
+
+    private static byte[] write(List<TransactionResponse> transactions) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TransactionWireWriter writer = new TransactionWireWriter(out)) {
+            for (TransactionResponse transaction : transactions) {
+                writer.write(transaction);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<TransactionResponse> sample(int count) {
+        Random random = new Random(42);
+        String[] categories = {"Food", "Rent", "Transport", "Salary"};
+        List<TransactionResponse> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            transactions.add(response("Payment #" + random.nextInt(100_000),
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 2), random.nextBoolean() ? "DEBIT" : "CREDIT",
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(random.nextInt(1_000_000))
+                            .plusNanos(random.nextInt(1_000_000_000)),
+                    categories[random.nextInt(categories.length)]));
+            if (i % 2 == 0) {
+                transactions.get(i).setAccountId("acc-" + random.nextInt(1000));
+            }
+        }
+        return transactions;
+    }
+
+    private static TransactionResponse response(String description, BigDecimal amount, String type,
+                                                LocalDateTime timestamp, String category) {
+        TransactionResponse response = new TransactionResponse();
+        response.setId(description == null ? null : UUID.randomUUID());
+        response.setDescription(description);
+        response.setAmount(amount);
+        response.setType(type);
+        response.setTimestamp(timestamp);
+        response.setCategory(category);
+        return response;
+    }
+
+    private static void assertSameFields(TransactionResponse expected, TransactionResponse actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getAccountId(), actual.getAccountId());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bank.wire;
+
+import com.example.bank.dto.TransactionResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionWireMessageConverterTest {
+
+    private static final Type TRANSACTION_LIST = new ParameterizedTypeReference<List<TransactionResponse>>() { }.getType();
+
+    private final TransactionWireMessageConverter converter = new TransactionWireMessageConverter();
+
+    @Test
+    void canWrite_ShouldOnlyAcceptTransactionListsInBinary() {
+        assertTrue(converter.canWrite(TRANSACTION_LIST, List.class, TransactionWireFormat.MEDIA_TYPE));
+        assertTrue(converter.canWrite(TRANSACTION_LIST, List.class, null));
+        assertFalse(converter.canWrite(TRANSACTION_LIST, List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(new ParameterizedTypeReference<List<String>>() { }.getType(), List.class,
+                TransactionWireFormat.MEDIA_TYPE));
+        assertFalse(converter.canWrite(new ParameterizedTypeReference<Collection<TransactionResponse>>() { }.getType(),
+                Collection.class, TransactionWireFormat.MEDIA_TYPE));
+        assertFalse(converter.canWrite(new ParameterizedTypeReference<Page<TransactionResponse>>() { }.getType(),
+                Page.class, TransactionWireFormat.MEDIA_TYPE));
+        assertFalse(converter.canWrite(TransactionResponse.class, TransactionWireFormat.MEDIA_TYPE));
+        assertTrue(converter.canRead(TRANSACTION_LIST, null, TransactionWireFormat.MEDIA_TYPE));
+        assertEquals(List.of(TransactionWireFormat.MEDIA_TYPE), converter.getSupportedMediaTypes(ArrayList.class));
+    }
+
+    @Test
+    void write_ShouldProduceBodyTheConverterReadsBack() throws Exception {
+        TransactionResponse transaction = new TransactionResponse();
+        transaction.setId(UUID.randomUUID());
+        transaction.setDescription("Salary deposit");
+        transaction.setAmount(new BigDecimal("1500.00"));
+        transaction.setType("CREDIT");
+        transaction.setTimestamp(LocalDateTime.of(2023, 10, 15, 12, 34, 56, 789000000));
+        transaction.setCategory("Salary");
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(List.of(transaction, transaction), TRANSACTION_LIST, null, output);
+        List<TransactionResponse> read = converter.read(TRANSACTION_LIST, null,
+                new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        assertEquals(TransactionWireFormat.MEDIA_TYPE, output.getHeaders().getContentType());
+        assertEquals(2, read.size());
+        assertEquals(transaction.getId(), read.get(1).getId());
+        assertEquals(transaction.getAmount(), read.get(1).getAmount());
+        assertEquals(transaction.getTimestamp(), read.get(1).getTimestamp());
+        assertEquals("Salary", read.get(1).getCategory());
+    }
+
+    @Test
+    void read_InvalidBody_ShouldThrowNotReadable() {
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(TRANSACTION_LIST, null,
+                new MockHttpInputMessage("[]".getBytes())));
+    }
+}
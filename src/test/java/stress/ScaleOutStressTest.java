@@ -0,0 +1,66 @@
+package stress;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Simulates a scale-out: start this against an instance that is still starting up. Like a
+ * load balancer, it sends the instance traffic only once its readiness probe answers 200, at
+ * the full peak rate straight away, and checks the latency of the requests after that point.
+ * <p>
+ * The target defaults to http://localhost:8080, override it with -Dbank.baseUrl; the load with
+ * -Dbank.usersPerSecond (default 50) and -Dbank.durationSeconds (default 120). Compare runs with
+ * bank.warm-up.enabled=true and false on the new instance.
+ */
+public class ScaleOutStressTest extends ApiStressTestBase {
+
+    private static final AtomicBoolean ready = new AtomicBoolean();
+
+    private static final HttpProtocolBuilder scaleOutProtocol = httpProtocol
+            .baseUrl(System.getProperty("bank.baseUrl", "http://localhost:8080"));
+
+    // Polls the probe like the kubelet does; refused connections while the JVM starts count here only.
+    private static final ScenarioBuilder readinessProbe =
+            scenario("Readiness Probe")
+                    .asLongAs(session -> !ready.get()).on(
+                            exec(http("Readiness")
+                                    .get("/actuator/health/readiness")
+                                    .check(status().saveAs("readinessStatus")))
+                                    .exec(session -> {
+                                        if (session.contains("readinessStatus")
+                                                && session.getInt("readinessStatus") == 200) {
+                                            ready.set(true);
+                                        }
+                                        return session;
+                                    })
+                                    .pause(Duration.ofMillis(200)));
+
+    private static final ScenarioBuilder newInstanceTraffic =
+            scenario("New Instance Traffic")
+                    .doIf(session -> ready.get()).then(
+                            group("After Readiness").on(
+                                    exec(createTransaction)
+                                            .exec(getTransaction)
+                                            .exec(getAllTransactions)
+                                            .exec(getTransactionsByType)));
+
+    {
+        setUp(
+                readinessProbe.injectOpen(atOnceUsers(1)),
+                // Until the probe passes these users send nothing
+                newInstanceTraffic.injectOpen(constantUsersPerSec(Integer.getInteger("bank.usersPerSecond", 50))
+                        .during(Duration.ofSeconds(Integer.getInteger("bank.durationSeconds", 120))))
+        ).protocols(scaleOutProtocol)
+                .assertions(
+                        details("After Readiness").successfulRequests().percent().gt(99.9),
+                        details("After Readiness").responseTime().percentile(99.0).lt(500),
+                        details("After Readiness").responseTime().max().lt(2000)
+                );
+    }
+}
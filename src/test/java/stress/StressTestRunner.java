@@ -4,11 +4,15 @@ import io.gatling.app.Gatling;
 import io.gatling.core.config.GatlingPropertiesBuilder;
 
 public class StressTestRunner {
+    /**
+     * Runs the simulation named by the first argument, {@link TransactionApiStressTest} by default.
+     */
     public static void main(String[] args) {
+        String simulation = args.length > 0 ? args[0] : TransactionApiStressTest.class.getName();
         GatlingPropertiesBuilder props = new GatlingPropertiesBuilder()
-                .simulationClass(TransactionApiStressTest.class.getName())
+                .simulationClass(simulation)
                 .resultsDirectory("target/gatling-results");
 
         Gatling.fromMap(props.build());
     }
-}
\ No newline at end of file
+}